@@ -96,6 +96,9 @@ dependencies {
     // Metrics
     implementation(libs.micrometer.registry.prometheus)
 
+    // In-process caching
+    implementation(libs.caffeine)
+
     // Resilience4j Circuit Breaker
     implementation(libs.resilience4j.circuitbreaker)
 
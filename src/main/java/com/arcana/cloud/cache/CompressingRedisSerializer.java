@@ -0,0 +1,135 @@
+package com.arcana.cloud.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses the delegate's output when it is larger than a threshold.
+ *
+ * <p>Payloads start with a marker byte: {@value #PLAIN} for values stored as is, or
+ * {@value #DEFLATED} followed by the uncompressed length and a raw deflate stream at the
+ * fastest level. Small values are not worth the CPU and would often grow; with a threshold
+ * of 0 nothing is compressed, but the marker is still written, so the threshold can be
+ * changed without invalidating entries. Entries without a known marker (written before
+ * compression was enabled) read as a miss.</p>
+ *
+ * <p>The stored length is not trusted: it must be positive, at most
+ * {@value #MAX_INFLATED_BYTES} bytes and within what deflate can expand the stream to, and
+ * the stream must inflate to exactly that many bytes.</p>
+ */
+@Slf4j
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte PLAIN = 0;
+    static final byte DEFLATED = 1;
+
+    static final int MAX_INFLATED_BYTES = 64 * 1024 * 1024;
+
+    // Deflate cannot expand its input by more than about 1032:1
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    private final RedisSerializer<Object> delegate;
+    private final int thresholdBytes;
+
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, int thresholdBytes) {
+        this.delegate = delegate;
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        byte[] raw = delegate.serialize(value);
+        if (raw == null) {
+            return null;
+        }
+        if (thresholdBytes > 0 && raw.length > thresholdBytes) {
+            byte[] compressed = deflate(raw);
+            if (compressed.length + Integer.BYTES < raw.length) {
+                return ByteBuffer.allocate(1 + Integer.BYTES + compressed.length)
+                    .put(DEFLATED)
+                    .putInt(raw.length)
+                    .put(compressed)
+                    .array();
+            }
+        }
+        byte[] bytes = new byte[raw.length + 1];
+        bytes[0] = PLAIN;
+        System.arraycopy(raw, 0, bytes, 1, raw.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        return switch (bytes[0]) {
+            case PLAIN -> delegate.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+            case DEFLATED -> delegate.deserialize(inflate(bytes));
+            default -> {
+                log.debug("Ignoring cache entry without compression marker");
+                yield null;
+            }
+        };
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] buffer = new byte[raw.length];
+            int length = 0;
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            // Not finished means it did not shrink; the caller then stores it as is
+            return deflater.finished() ? Arrays.copyOf(buffer, length) : raw;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        if (bytes.length < 1 + Integer.BYTES) {
+            throw new SerializationException("Truncated compressed cache entry");
+        }
+        ByteBuffer input = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        int length = input.getInt();
+        if (length <= 0 || length > MAX_INFLATED_BYTES
+                || length > (long) input.remaining() * MAX_DEFLATE_RATIO) {
+            throw new SerializationException("Corrupt compressed cache entry: invalid length " + length);
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes, input.position(), input.remaining());
+            byte[] raw = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new SerializationException("Truncated compressed cache entry");
+            }
+            if (!inflater.finished() && inflater.inflate(new byte[1]) > 0) {
+                throw new SerializationException("Corrupt compressed cache entry: longer than its length");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt compressed cache entry", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
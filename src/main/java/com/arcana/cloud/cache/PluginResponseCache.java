@@ -0,0 +1,336 @@
+package com.arcana.cloud.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Shared HTTP cache for GET responses of proxied plugin endpoints, on the controller layer.
+ *
+ * <p>Opt-in per plugin via {@code arcana.plugin.proxy.cache.plugins}. Follows the plugin's
+ * response headers as a shared cache would: {@code no-store}, {@code private},
+ * {@code Set-Cookie} and {@code Vary: *} responses are not stored; {@code s-maxage} or
+ * {@code max-age} give the freshness lifetime, {@code no-cache} or no lifetime at all means
+ * every use is revalidated (which needs an {@code ETag}). Responses to requests carrying
+ * credentials are only stored when marked {@code public}, {@code s-maxage} or
+ * {@code must-revalidate}. Stale entries are kept for {@code retain-seconds} so they can be
+ * revalidated with {@code If-None-Match}.</p>
+ *
+ * <p>Entries are keyed by URL plus the values of the request headers named in the URL's
+ * last seen {@code Vary}, so each variant (one per {@code Accept-Language}, say) has an
+ * entry of its own instead of replacing the others.</p>
+ *
+ * <p>Memory is bounded by body bytes ({@code max-bytes}, each body at most
+ * {@code max-entry-bytes}). Concurrent misses on a key are coalesced: one request fetches,
+ * the others wait for its result.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnExpression(
+    "'${communication.protocol:grpc}' == 'http' and '${deployment.layer:}' == 'controller'"
+)
+public class PluginResponseCache {
+
+    // Rough per-entry cost of the key, headers and bookkeeping, on top of the body
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private static final Set<String> CREDENTIAL_HEADERS = Set.of("authorization", "cookie");
+
+    private static final int MAX_VARYING_URLS = 10_000;
+
+    @Value("${arcana.plugin.proxy.cache.plugins:}")
+    private String[] plugins;
+
+    @Value("${arcana.plugin.proxy.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${arcana.plugin.proxy.cache.max-entry-bytes:1048576}")
+    private int maxEntryBytes;
+
+    @Value("${arcana.plugin.proxy.cache.retain-seconds:600}")
+    private long retainSeconds;
+
+    @Value("${arcana.plugin.proxy.cache.coalesce-timeout-ms:5000}")
+    private long coalesceTimeoutMs;
+
+    private Set<String> cachedPlugins = Set.of();
+    private Cache<String, CachedResponse> responses;
+    // URL -> request header names its responses vary by
+    private Cache<String, List<String>> varyByUrl;
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        this.cachedPlugins = Set.copyOf(Arrays.asList(plugins));
+        if (cachedPlugins.isEmpty()) {
+            return;
+        }
+        this.responses = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, CachedResponse response) -> key.length() + response.body().length + ENTRY_OVERHEAD_BYTES)
+            .expireAfterWrite(Duration.ofSeconds(retainSeconds))
+            .build();
+        this.varyByUrl = Caffeine.newBuilder()
+            .maximumSize(MAX_VARYING_URLS)
+            .expireAfterWrite(Duration.ofSeconds(retainSeconds))
+            .build();
+        log.info("Plugin response cache enabled for {}: maxBytes={}, maxEntryBytes={}",
+            cachedPlugins, maxBytes, maxEntryBytes);
+    }
+
+    public boolean isEnabled(String pluginKey) {
+        return responses != null && cachedPlugins.contains(pluginKey);
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Returns the stored response for the URL that applies to a request with these headers
+     * (fresh or not), or null.
+     */
+    public CachedResponse get(String url, HttpHeaders requestHeaders) {
+        CachedResponse cached = responses.getIfPresent(key(url, requestHeaders));
+        return cached != null && cached.matches(requestHeaders) ? cached : null;
+    }
+
+    /**
+     * Joins the fetch of the URL's variant for a request with these headers. The leader must
+     * fetch and then call {@link #complete(Flight, CachedResponse)}; followers
+     * {@link Flight#await() await} its result.
+     */
+    public Flight begin(String url, HttpHeaders requestHeaders) {
+        String key = key(url, requestHeaders);
+        CompletableFuture<CachedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> existing = inFlight.putIfAbsent(key, mine);
+        return existing != null ? new Flight(url, key, existing, false) : new Flight(url, key, mine, true);
+    }
+
+    /**
+     * Ends a fetch: stores a cacheable response under the variant it was selected for, or
+     * null when there is nothing to share, which leaves any stored entry as it was.
+     */
+    public void complete(Flight flight, CachedResponse response) {
+        if (response != null) {
+            List<String> varyNames = List.copyOf(response.vary().keySet());
+            varyByUrl.put(flight.url, varyNames);
+            responses.put(key(flight.url, varyNames, response.vary()::get), response);
+        }
+        inFlight.remove(flight.key, flight.future);
+        flight.future.complete(response);
+    }
+
+    /**
+     * The URL plus the request's values of the headers the URL's responses vary by.
+     */
+    private String key(String url, HttpHeaders requestHeaders) {
+        List<String> varyNames = varyByUrl.getIfPresent(url);
+        if (varyNames == null || varyNames.isEmpty()) {
+            return url;
+        }
+        return key(url, varyNames, name -> String.join(",", requestHeaders.getOrEmpty(name)));
+    }
+
+    private static String key(String url, List<String> varyNames, Function<String, String> values) {
+        if (varyNames.isEmpty()) {
+            return url;
+        }
+        StringBuilder key = new StringBuilder(url);
+        for (String name : varyNames) {
+            key.append('\n').append(name.toLowerCase(Locale.ROOT)).append('=').append(values.apply(name));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Builds the entry for a response the plugin answered, or returns null when it must not
+     * be stored.
+     */
+    public CachedResponse toEntry(HttpHeaders requestHeaders, int status, HttpHeaders responseHeaders, byte[] body) {
+        if (status != HttpStatus.OK.value() || body.length > maxEntryBytes
+                || !isStorable(requestHeaders, responseHeaders)) {
+            return null;
+        }
+        CachedResponse response = new CachedResponse(responseHeaders, body,
+            varyValues(responseHeaders, requestHeaders), System.nanoTime(), freshnessLifetimeNanos(responseHeaders));
+        // Nothing to gain from an entry that is never fresh and cannot be revalidated
+        return response.freshForNanos() > 0 || response.etag() != null ? response : null;
+    }
+
+    /**
+     * Returns the entry refreshed by a {@code 304 Not Modified} answer to its revalidation.
+     */
+    public CachedResponse revalidated(CachedResponse cached, HttpHeaders notModifiedHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(cached.headers());
+        // A 304 carries the current validators and caching directives
+        notModifiedHeaders.forEach((name, values) -> {
+            if (isUpdatable(name)) {
+                headers.put(name, values);
+            }
+        });
+        return new CachedResponse(headers, cached.body(), cached.vary(), System.nanoTime(),
+            freshnessLifetimeNanos(headers));
+    }
+
+    public static boolean isStorable(HttpHeaders requestHeaders, HttpHeaders responseHeaders) {
+        Map<String, String> directives = cacheControl(responseHeaders);
+        if (directives.containsKey("no-store") || directives.containsKey("private")
+                || responseHeaders.containsHeader(HttpHeaders.SET_COOKIE)
+                || responseHeaders.getValuesAsList(HttpHeaders.VARY).contains("*")) {
+            return false;
+        }
+        boolean credentials = requestHeaders.headerNames().stream()
+            .anyMatch(name -> CREDENTIAL_HEADERS.contains(name.toLowerCase(Locale.ROOT)));
+        return !credentials || directives.containsKey("public") || directives.containsKey("s-maxage")
+            || directives.containsKey("must-revalidate");
+    }
+
+    static long freshnessLifetimeNanos(HttpHeaders responseHeaders) {
+        Map<String, String> directives = cacheControl(responseHeaders);
+        if (directives.containsKey("no-cache")) {
+            return 0;
+        }
+        String seconds = directives.getOrDefault("s-maxage", directives.get("max-age"));
+        try {
+            return seconds != null ? TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(seconds))) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Map<String, String> cacheControl(HttpHeaders headers) {
+        Map<String, String> directives = new LinkedHashMap<>();
+        for (String value : headers.getValuesAsList(HttpHeaders.CACHE_CONTROL)) {
+            int equals = value.indexOf('=');
+            String name = (equals < 0 ? value : value.substring(0, equals)).trim().toLowerCase(Locale.ROOT);
+            String argument = equals < 0 ? "" : value.substring(equals + 1).trim().replace("\"", "");
+            directives.put(name, argument);
+        }
+        return directives;
+    }
+
+    private static Map<String, String> varyValues(HttpHeaders responseHeaders, HttpHeaders requestHeaders) {
+        Map<String, String> vary = new LinkedHashMap<>();
+        for (String name : responseHeaders.getValuesAsList(HttpHeaders.VARY)) {
+            vary.put(name, String.join(",", requestHeaders.getOrEmpty(name)));
+        }
+        return vary;
+    }
+
+    private static boolean isUpdatable(String name) {
+        return !name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+            && !name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE)
+            && !name.equalsIgnoreCase(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    /**
+     * A stored plugin response.
+     *
+     * @param headers response headers, hop-by-hop headers already removed
+     * @param body    response body
+     * @param vary    request header values the response was selected by
+     * @param storedAt {@link System#nanoTime()} when received or last revalidated
+     * @param freshForNanos freshness lifetime
+     */
+    public record CachedResponse(HttpHeaders headers, byte[] body, Map<String, String> vary,
+                                 long storedAt, long freshForNanos) {
+
+        public String etag() {
+            return headers.getETag();
+        }
+
+        public boolean isFresh() {
+            return System.nanoTime() - storedAt < freshForNanos;
+        }
+
+        public long ageSeconds() {
+            return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - storedAt);
+        }
+
+        /**
+         * Whether the client already has this response, per its {@code If-None-Match}.
+         */
+        public boolean notModifiedFor(HttpHeaders requestHeaders) {
+            String etag = etag();
+            if (etag == null) {
+                return false;
+            }
+            for (String candidate : requestHeaders.getIfNoneMatch()) {
+                if (candidate.equals("*") || weakTag(candidate).equals(weakTag(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Whether the response applies to a request with these headers, per its {@code Vary}.
+         */
+        public boolean matches(HttpHeaders requestHeaders) {
+            return vary.entrySet().stream().allMatch(entry ->
+                entry.getValue().equals(String.join(",", requestHeaders.getOrEmpty(entry.getKey()))));
+        }
+
+        private static String weakTag(String etag) {
+            return etag.startsWith("W/") ? etag.substring(2) : etag;
+        }
+    }
+
+    /**
+     * A fetch of one key, shared by the requests that missed on it at the same time.
+     */
+    public final class Flight {
+
+        private final String url;
+        private final String key;
+        private final CompletableFuture<CachedResponse> future;
+        private final boolean leader;
+
+        private Flight(String url, String key, CompletableFuture<CachedResponse> future, boolean leader) {
+            this.url = url;
+            this.key = key;
+            this.future = future;
+            this.leader = leader;
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Waits for the leader's response; null when it could not be shared or took too long.
+         */
+        public CachedResponse await() {
+            try {
+                return future.get(coalesceTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | TimeoutException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.arcana.cloud.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A cache with a per-node, in-process L1 in front of a shared L2 (Redis).
+ *
+ * <p>Reads are served from L1 when possible and fall back to L2, populating L1 on the way.
+ * Writes go to L2 first, then replace the local L1 entry and tell the other nodes to drop
+ * theirs, since their L1 may now hold a stale value. L1 entries are keyed by
+ * {@code String.valueOf(key)} so invalidations received over pub/sub match them.</p>
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    /**
+     * Receives the local changes other nodes must apply to their own L1.
+     */
+    public interface InvalidationPublisher {
+
+        void evict(String cacheName, String key);
+
+        void clear(String cacheName);
+    }
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final InvalidationPublisher publisher;
+
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         Cache remote, InvalidationPublisher publisher) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = String.valueOf(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return value;
+        }
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            return null;
+        }
+        local.put(localKey, wrapper.get());
+        return wrapper.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) local.get(String.valueOf(key), localKey -> remote.get(key, valueLoader));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        remote.put(key, value);
+        String localKey = String.valueOf(key);
+        local.put(localKey, value);
+        publisher.evict(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = String.valueOf(key);
+        local.invalidate(localKey);
+        publisher.evict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        publisher.clear(name);
+    }
+
+    /**
+     * Drops an L1 entry because another node changed it.
+     */
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * Drops all L1 entries because another node cleared the cache.
+     */
+    void clearLocal() {
+        local.invalidateAll();
+    }
+}
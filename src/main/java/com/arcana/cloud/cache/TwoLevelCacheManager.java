@@ -0,0 +1,115 @@
+package com.arcana.cloud.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache manager putting a size-bounded Caffeine L1 on every node in front of another
+ * cache manager (normally the {@code RedisCacheManager}) as L2.
+ *
+ * <p>Repeat reads of hot entries are answered from local memory, without a network round
+ * trip or deserialization. Evictions, puts and clears are broadcast on the
+ * {@value #CHANNEL} Redis channel so every node drops its L1 copy; the L1 TTL, which
+ * should be well below the Redis TTL, bounds staleness if a message is lost.</p>
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener, TwoLevelCache.InvalidationPublisher {
+
+    public static final String CHANNEL = "cache:invalidations";
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+    private static final String SEPARATOR = "|";
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration localTtl;
+    private final long localMaxSize;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                Duration localTtl, long localMaxSize) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.localTtl = localTtl;
+        this.localMaxSize = localMaxSize;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> new TwoLevelCache(cacheName,
+            Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build(),
+            remote, this));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        publish(String.join(SEPARATOR, EVICT, nodeId, cacheName, key));
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        publish(String.join(SEPARATOR, CLEAR, nodeId, cacheName));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 3 || nodeId.equals(parts[1])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if (EVICT.equals(parts[0]) && parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        } else if (CLEAR.equals(parts[0])) {
+            cache.clearLocal();
+        } else {
+            log.warn("Ignoring malformed cache invalidation message");
+        }
+    }
+
+    private void publish(String body) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, body);
+        } catch (Exception e) {
+            // L2 is already updated; other nodes catch up when their L1 entry expires
+            log.warn("Failed to publish cache invalidation: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.arcana.cloud.cache;
+
+import com.arcana.cloud.entity.User;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Id-keyed user cache with secondary username and email indexes.
+ *
+ * <p>Entries live in the {@value #USERS} cache; {@value #USERS_BY_USERNAME} and {@value #USERS_BY_EMAIL} only
+ * map a username or email to the user ID. A secondary lookup is a hit only if the entry
+ * it points to still carries that username or email, so evicting the ID entry invalidates
+ * every key of the user at once, even when the username or email itself changed and the
+ * old index entries are still around.</p>
+ *
+ * <p>Loads are coalesced per node: while one load for a key is in flight, other callers
+ * for the same key wait for its result instead of hitting the repository themselves. To
+ * avoid every node missing at once when a hot entry's TTL runs out, a hit may also refresh
+ * the entry early, with a probability that rises as expiry approaches and with the cost of
+ * the last load (XFetch; {@code spring.cache.users.early-refresh-beta}, 0 disables). The
+ * load timings behind that are kept per node, so replicas decide independently; they are
+ * de-synchronized only by the randomness of the decision, not by shared state.</p>
+ *
+ * <p>Every eviction stamps the user with a new generation. A load records the generation
+ * it started under and is not cached if the user was evicted since, so a reader that
+ * fetched the row before a concurrent update committed cannot put it back afterwards.</p>
+ *
+ * <p>Callers get their own copy of a cached user and the cache keeps its own copy of what
+ * is put, since an in-process L1 would otherwise share one mutable instance between every
+ * caller on the node.</p>
+ *
+ * <p>Without a cache manager (or with caching disabled) every call goes to the loader,
+ * still coalesced.</p>
+ */
+@Component
+public class UserCache {
+
+    public static final String USERS = "users";
+    public static final String USERS_BY_USERNAME = "users-by-username";
+    public static final String USERS_BY_EMAIL = "users-by-email";
+
+    @Autowired(required = false)
+    private CacheManager cacheManager;
+
+    @Value("${spring.cache.redis.users-ttl-minutes:5}")
+    private long usersTtlMinutes = 5;
+
+    @Value("${spring.cache.users.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta = 1.0;
+
+    private final ConcurrentMap<String, CompletableFuture<Optional<User>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * When this node last loaded each user, and how long that took; drives early refresh.
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<Long, LoadStats> loadStats = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterWrite(Duration.ofHours(1))
+        .build();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * The generation at which each user was last evicted; kept well past any load's duration.
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<Long, Long> evictedAt = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterWrite(Duration.ofMinutes(10))
+        .build();
+
+    private record LoadStats(long loadedAtMillis, long durationMillis) {
+    }
+
+    public Optional<User> findById(Long id, Function<Long, Optional<User>> loader) {
+        User cached = cachedUser(id);
+        if (cached != null && !shouldRefreshEarly(id)) {
+            return Optional.of(cached);
+        }
+        return load("id:" + id, () -> loader.apply(id));
+    }
+
+    public Optional<User> findByUsername(String username, Supplier<Optional<User>> loader) {
+        return findByIndex(USERS_BY_USERNAME, username, user -> username.equals(user.getUsername()))
+            .or(() -> load("username:" + username, loader));
+    }
+
+    public Optional<User> findByEmail(String email, Supplier<Optional<User>> loader) {
+        return findByIndex(USERS_BY_EMAIL, email, user -> email.equals(user.getEmail()))
+            .or(() -> load("email:" + email, loader));
+    }
+
+    public Optional<User> findByUsernameOrEmail(String usernameOrEmail, Supplier<Optional<User>> loader) {
+        return findByIndex(USERS_BY_USERNAME, usernameOrEmail, user -> usernameOrEmail.equals(user.getUsername()))
+            .or(() -> findByIndex(USERS_BY_EMAIL, usernameOrEmail, user -> usernameOrEmail.equals(user.getEmail())))
+            .or(() -> load("usernameOrEmail:" + usernameOrEmail, loader));
+    }
+
+    /**
+     * Looks up several users at once: IDs found in the cache are served from it and only
+     * the rest go to the loader, in a single call. Batch loads are not coalesced with
+     * concurrent single-user loads.
+     *
+     * @param ids the user IDs; nulls are ignored
+     * @param loader loads the users for the IDs that missed; unknown IDs may be left out
+     * @return the users found, by ID
+     */
+    public Map<Long, User> findAllById(Collection<Long> ids, Function<Collection<Long>, List<User>> loader) {
+        Map<Long, User> found = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == null || found.containsKey(id)) {
+                continue;
+            }
+            User cached = cachedUser(id);
+            if (cached != null && !shouldRefreshEarly(id)) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long loadGeneration = generation.get();
+        long startedAt = System.currentTimeMillis();
+        List<User> loaded = loader.apply(missing);
+        long loadedAt = System.currentTimeMillis();
+        for (User user : loaded) {
+            if (putIfNotEvictedSince(user, loadGeneration)) {
+                loadStats.put(user.getId(), new LoadStats(loadedAt, loadedAt - startedAt));
+            }
+            found.put(user.getId(), user);
+        }
+        return found;
+    }
+
+    /**
+     * Caches a user under its ID and indexes its username and email.
+     */
+    public void put(User user) {
+        if (cacheManager == null || user.getId() == null) {
+            return;
+        }
+        putIfCache(USERS, user.getId(), user.toBuilder().build());
+        putIfCache(USERS_BY_USERNAME, user.getUsername(), user.getId().toString());
+        putIfCache(USERS_BY_EMAIL, user.getEmail(), user.getId().toString());
+    }
+
+    /**
+     * Invalidates every key of a user. Pass the username and email from before and after
+     * the change; the ID entry alone already invalidates them all, the index entries are
+     * dropped so they do not linger. Inside a transaction the eviction is repeated after
+     * commit, so a concurrent reader cannot re-cache the pre-commit row.
+     *
+     * @param id the user ID
+     * @param secondaryKeys usernames and emails the user had or has; nulls are ignored
+     */
+    public void evict(Long id, String... secondaryKeys) {
+        if (cacheManager == null) {
+            return;
+        }
+        evictNow(id, secondaryKeys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(id, secondaryKeys);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Long id, String... secondaryKeys) {
+        if (id != null) {
+            // Stamp first, so a load that finishes from here on sees it before caching
+            evictedAt.put(id, generation.incrementAndGet());
+            inFlight.remove("id:" + id);
+        }
+        loadStats.invalidate(id);
+        evictIfCache(USERS, id);
+        for (String key : secondaryKeys) {
+            if (key != null) {
+                evictIfCache(USERS_BY_USERNAME, key);
+                evictIfCache(USERS_BY_EMAIL, key);
+                // New callers must not join a load that may have read the old row
+                inFlight.remove("username:" + key);
+                inFlight.remove("email:" + key);
+                inFlight.remove("usernameOrEmail:" + key);
+            }
+        }
+    }
+
+    /**
+     * Caches a user loaded at the given generation, unless it was evicted since.
+     *
+     * @return whether the user was cached
+     */
+    private boolean putIfNotEvictedSince(User user, long loadGeneration) {
+        if (isEvictedSince(user.getId(), loadGeneration)) {
+            return false;
+        }
+        put(user);
+        if (isEvictedSince(user.getId(), loadGeneration)) {
+            // Evicted between the check and the put; undo it
+            evictIfCache(USERS, user.getId());
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isEvictedSince(Long id, long loadGeneration) {
+        Long evicted = id != null ? evictedAt.getIfPresent(id) : null;
+        return evicted != null && evicted > loadGeneration;
+    }
+
+    private Optional<User> findByIndex(String indexName, String key, Predicate<User> matches) {
+        Cache index = cache(indexName);
+        if (index == null || key == null) {
+            return Optional.empty();
+        }
+        Cache.ValueWrapper idWrapper = index.get(key);
+        if (idWrapper == null || idWrapper.get() == null) {
+            return Optional.empty();
+        }
+        User user = cachedUser(Long.valueOf(String.valueOf(idWrapper.get())));
+        if (user == null || !matches.test(user) || shouldRefreshEarly(user.getId())) {
+            // Stale index entry (the user was evicted or renamed), or due for early refresh
+            return Optional.empty();
+        }
+        return Optional.of(user);
+    }
+
+    /**
+     * Runs the loader unless a load for the same key is already in flight on this node,
+     * in which case the caller waits for that load's result.
+     */
+    private Optional<User> load(String flightKey, Supplier<Optional<User>> loader) {
+        CompletableFuture<Optional<User>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            long loadGeneration = generation.get();
+            long startedAt = System.currentTimeMillis();
+            Optional<User> loaded = loader.get();
+            loaded.ifPresent(user -> {
+                if (putIfNotEvictedSince(user, loadGeneration)) {
+                    loadStats.put(user.getId(), new LoadStats(System.currentTimeMillis(),
+                        System.currentTimeMillis() - startedAt));
+                }
+            });
+            flight.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    /**
+     * XFetch: refresh before expiry with probability growing as the entry ages, so one
+     * caller reloads a hot entry while the others keep being served from the cache.
+     */
+    private boolean shouldRefreshEarly(Long id) {
+        if (earlyRefreshBeta <= 0) {
+            return false;
+        }
+        LoadStats stats = loadStats.getIfPresent(id);
+        if (stats == null) {
+            return false;
+        }
+        long expiresAtMillis = stats.loadedAtMillis() + Duration.ofMinutes(usersTtlMinutes).toMillis();
+        double gap = Math.max(stats.durationMillis(), 1) * earlyRefreshBeta
+            * -Math.log(ThreadLocalRandom.current().nextDouble(Double.MIN_VALUE, 1.0));
+        return System.currentTimeMillis() + gap >= expiresAtMillis;
+    }
+
+    private User cachedUser(Long id) {
+        Cache users = cache(USERS);
+        if (users == null || id == null) {
+            return null;
+        }
+        Cache.ValueWrapper wrapper = users.get(id);
+        return wrapper != null && wrapper.get() instanceof User user && Objects.equals(user.getId(), id)
+            ? user.toBuilder().build()
+            : null;
+    }
+
+    private Cache cache(String name) {
+        return cacheManager != null ? cacheManager.getCache(name) : null;
+    }
+
+    private void putIfCache(String cacheName, Object key, Object value) {
+        Cache cache = cache(cacheName);
+        if (cache != null && key != null) {
+            cache.put(key, value);
+        }
+    }
+
+    private void evictIfCache(String cacheName, Object key) {
+        Cache cache = cache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.arcana.cloud.cache;
+
+import com.arcana.cloud.dao.UserCursor;
+import com.arcana.cloud.entity.User;
+import com.arcana.cloud.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * Per-node Bloom filter over the usernames and emails in use.
+ *
+ * <p>Sign-up checks ask it first: a "no" is definite and skips the {@code existsBy*}
+ * query (or gRPC call), a "maybe" falls through to the store. The unique constraints stay
+ * the final arbiter, so a key the filter missed (e.g. inserted on another node while its
+ * message was in flight) still cannot be registered twice.</p>
+ *
+ * <p>The filter is seeded by a keyset scan over all users after startup and answers
+ * "maybe" until that scan completes. Keys of created or renamed users are added as they
+ * are saved and, when Redis is configured, published as hashes on {@value #CHANNEL} for
+ * the other nodes. Keys of deleted or renamed users cannot be removed from a Bloom filter;
+ * they are counted and the filter is rebuilt by a fresh scan once they, or growth beyond
+ * the configured capacity, would noticeably raise the false-positive rate.</p>
+ *
+ * <p>Keys are added before the transaction that saves them commits, so a rebuild's scan
+ * may not see them yet. Every key added within {@code users.key-filter.replay-window}
+ * (locally or from another node) is therefore kept and replayed into a rebuilt filter once
+ * it is swapped in; the window must be longer than any user write transaction. Rebuilds
+ * run on the application task executor.</p>
+ *
+ * <p>Keys are case-folded and stripped of accents and trailing spaces before hashing, so
+ * keys the database collation treats as equal also collide here.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "users.key-filter.enabled", havingValue = "true", matchIfMissing = true)
+public class UserKeyFilter implements MessageListener {
+
+    static final String CHANNEL = "users:keys";
+
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String EMAIL_PREFIX = "e:";
+    private static final long MIN_STALE_KEYS_FOR_REBUILD = 1000;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}");
+
+    @Autowired(required = false)
+    private UserRepository userRepository;
+
+    @Autowired(required = false)
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired(required = false)
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Value("${users.key-filter.expected-insertions:1000000}")
+    private long expectedInsertions = 1_000_000;
+
+    @Value("${users.key-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${users.key-filter.scan-batch-size:1000}")
+    private int scanBatchSize = 1000;
+
+    @Value("${users.key-filter.stale-rebuild-ratio:0.2}")
+    private double staleRebuildRatio = 0.2;
+
+    @Value("${users.key-filter.replay-window:PT5M}")
+    private Duration replayWindow = Duration.ofMinutes(5);
+
+    @Autowired(required = false)
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    private volatile Bits bits;
+    private volatile Bits rebuilding;
+    private volatile boolean ready;
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+    private final AtomicLong staleKeys = new AtomicLong();
+    private final ConcurrentLinkedDeque<RecentKey> recentKeys = new ConcurrentLinkedDeque<>();
+
+    private record RecentKey(long h1, long h2, long addedAtNanos) {
+    }
+
+    @PostConstruct
+    public void init() {
+        this.bits = new Bits(expectedInsertions, falsePositiveRate);
+        if (taskExecutor == null) {
+            this.taskExecutor = new SimpleAsyncTaskExecutor("user-key-filter-");
+        }
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        }
+    }
+
+    /**
+     * Starts the initial scan in the background; until it completes every key is a "maybe".
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (userRepository != null) {
+            rebuildAsync();
+        }
+    }
+
+    /**
+     * @return false only if no user has this username
+     */
+    public boolean mightContainUsername(String username) {
+        return mightContain(USERNAME_PREFIX, username);
+    }
+
+    /**
+     * @return false only if no user has this email
+     */
+    public boolean mightContainEmail(String email) {
+        return mightContain(EMAIL_PREFIX, email);
+    }
+
+    /**
+     * Records the username and email of a created or updated user on every node.
+     */
+    public void add(User user) {
+        long[] username = hash(USERNAME_PREFIX, user.getUsername());
+        long[] email = hash(EMAIL_PREFIX, user.getEmail());
+        for (long[] key : new long[][] {username, email}) {
+            if (key != null) {
+                addLocally(key[0], key[1]);
+                publish(key[0], key[1]);
+            }
+        }
+        rebuildIfDegraded();
+    }
+
+    /**
+     * Notes that keys are no longer in use (deleted user, old username or email). They stay
+     * in the filter as false positives until the next rebuild.
+     *
+     * @param keys how many usernames and emails were given up
+     */
+    public void retire(int keys) {
+        staleKeys.addAndGet(keys);
+        rebuildIfDegraded();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+        if (parts.length != 2) {
+            log.warn("Ignoring malformed user key filter message");
+            return;
+        }
+        try {
+            addLocally(Long.parseUnsignedLong(parts[0], 16), Long.parseUnsignedLong(parts[1], 16));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed user key filter message");
+        }
+    }
+
+    /**
+     * Scans all users into a fresh filter and swaps it in. Keys added while the scan runs go
+     * to both the old and the new filter, and recently added keys are replayed into the new
+     * one after the swap, in case the scan ran before they were committed.
+     */
+    void rebuild() {
+        long capacity = Math.max(expectedInsertions, bits.insertions() * 2);
+        Bits next = new Bits(capacity, falsePositiveRate);
+        rebuilding = next;
+        long staleAtStart = staleKeys.get();
+        try {
+            long users = 0;
+            UserCursor cursor = null;
+            List<User> batch;
+            do {
+                batch = userRepository.findAllAfter(cursor, scanBatchSize);
+                for (User user : batch) {
+                    addTo(next, hash(USERNAME_PREFIX, user.getUsername()));
+                    addTo(next, hash(EMAIL_PREFIX, user.getEmail()));
+                    users++;
+                }
+                if (batch.size() == scanBatchSize) {
+                    cursor = UserCursor.after(batch.get(batch.size() - 1));
+                    if (cursor == null) {
+                        // Stopping here would leave the rest out and answer "no" for keys in use
+                        throw new IllegalStateException("user " + batch.get(batch.size() - 1).getId()
+                            + " has no creation time, cannot page past it");
+                    }
+                }
+            } while (batch.size() == scanBatchSize);
+            bits = next;
+            replayRecentKeys(next);
+            staleKeys.addAndGet(-staleAtStart);
+            ready = true;
+            log.info("User key filter built from {} users ({} bits, {} hash functions)",
+                users, next.size(), next.hashFunctions());
+        } catch (Exception e) {
+            log.warn("Failed to build user key filter, falling back to store lookups: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private void rebuildIfDegraded() {
+        Bits current = bits;
+        if (ready && userRepository != null
+            && (staleKeys.get() > Math.max(MIN_STALE_KEYS_FOR_REBUILD, current.insertions() * staleRebuildRatio)
+                || current.insertions() > current.capacity())) {
+            rebuildAsync();
+        }
+    }
+
+    private void rebuildAsync() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    rebuildRunning.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            rebuildRunning.set(false);
+            log.warn("Could not start user key filter rebuild: {}", e.getMessage());
+        }
+    }
+
+    private boolean mightContain(String prefix, String key) {
+        long[] hash = hash(prefix, key);
+        return !ready || hash == null || bits.mightContain(hash[0], hash[1]);
+    }
+
+    private void addLocally(long h1, long h2) {
+        // Recorded first: whichever filter is current after this, a rebuild replays it
+        long now = System.nanoTime();
+        recentKeys.addLast(new RecentKey(h1, h2, now));
+        forgetKeysAddedBefore(now - replayWindow.toNanos());
+        bits.put(h1, h2);
+        Bits next = rebuilding;
+        if (next != null) {
+            next.put(h1, h2);
+        }
+    }
+
+    private void replayRecentKeys(Bits target) {
+        forgetKeysAddedBefore(System.nanoTime() - replayWindow.toNanos());
+        for (RecentKey key : recentKeys) {
+            target.put(key.h1(), key.h2());
+        }
+    }
+
+    private void forgetKeysAddedBefore(long cutoffNanos) {
+        RecentKey oldest;
+        while ((oldest = recentKeys.peekFirst()) != null && oldest.addedAtNanos() - cutoffNanos < 0) {
+            recentKeys.remove(oldest);
+        }
+    }
+
+    private static void addTo(Bits target, long[] hash) {
+        if (hash != null) {
+            target.put(hash[0], hash[1]);
+        }
+    }
+
+    private void publish(long h1, long h2) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, Long.toHexString(h1) + ":" + Long.toHexString(h2));
+        } catch (Exception e) {
+            // Other nodes may report this key as unused until their next rebuild; the unique constraint still holds
+            log.warn("Failed to publish user key: {}", e.getMessage());
+        }
+    }
+
+    static long[] hash(String prefix, String key) {
+        if (key == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(key.strip().toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        normalized = COMBINING_MARKS.matcher(normalized).replaceAll("");
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (prefix + normalized).getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        long h1 = mix(hash);
+        long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        return new long[] {h1, h2};
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Fixed-size, thread-safe bit set with double hashing.
+     */
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashFunctions;
+        private final long capacity;
+        private final AtomicLong insertions = new AtomicLong();
+
+        Bits(long capacity, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            long optimal = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+            long wordCount = Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimal + 63) / 64));
+            this.words = new AtomicLongArray((int) wordCount);
+            this.size = wordCount * 64;
+            this.hashFunctions = Math.max(1, (int) Math.round((double) size / capacity * ln2));
+            this.capacity = capacity;
+        }
+
+        void put(long h1, long h2) {
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+            insertions.incrementAndGet();
+        }
+
+        boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long insertions() {
+            return insertions.get();
+        }
+
+        long capacity() {
+            return capacity;
+        }
+
+        long size() {
+            return size;
+        }
+
+        int hashFunctions() {
+            return hashFunctions;
+        }
+    }
+}
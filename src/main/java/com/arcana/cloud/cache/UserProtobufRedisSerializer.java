@@ -0,0 +1,129 @@
+package com.arcana.cloud.cache;
+
+import com.arcana.cloud.entity.User;
+import com.arcana.cloud.entity.UserRole;
+import com.arcana.cloud.grpc.CachedUser;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Stores {@link User} cache entries as a {@code CachedUser} protobuf message instead of
+ * JSON with embedded type metadata; any other value goes to the fallback serializer.
+ *
+ * <p>Every payload starts with a format byte so the encoding can evolve without flushing
+ * the cache. Entries in a format this version does not know, including ones written by
+ * the previous JSON configuration, read as a miss and are reloaded.</p>
+ */
+@Slf4j
+public class UserProtobufRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte FORMAT_FALLBACK = 0;
+    static final byte FORMAT_USER_V1 = 1;
+
+    private final RedisSerializer<Object> fallback;
+
+    public UserProtobufRedisSerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value instanceof User user) {
+            return withFormat(FORMAT_USER_V1, toProto(user).toByteArray());
+        }
+        return withFormat(FORMAT_FALLBACK, fallback.serialize(value));
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        byte[] payload = Arrays.copyOfRange(bytes, 1, bytes.length);
+        return switch (bytes[0]) {
+            case FORMAT_USER_V1 -> {
+                try {
+                    yield fromProto(CachedUser.parseFrom(payload));
+                } catch (InvalidProtocolBufferException e) {
+                    throw new SerializationException("Cannot read cached user", e);
+                }
+            }
+            case FORMAT_FALLBACK -> fallback.deserialize(payload);
+            default -> {
+                log.debug("Ignoring cache entry in unknown format {}", bytes[0]);
+                yield null;
+            }
+        };
+    }
+
+    static CachedUser toProto(User user) {
+        CachedUser.Builder builder = CachedUser.newBuilder()
+            .setId(user.getId() != null ? user.getId() : 0)
+            .setUsername(user.getUsername() != null ? user.getUsername() : "")
+            .setEmail(user.getEmail() != null ? user.getEmail() : "")
+            .setRole(user.getRole() != null ? user.getRole().name() : UserRole.USER.name());
+        if (user.getPassword() != null) {
+            builder.setPassword(user.getPassword());
+        }
+        if (user.getFirstName() != null) {
+            builder.setFirstName(user.getFirstName());
+        }
+        if (user.getLastName() != null) {
+            builder.setLastName(user.getLastName());
+        }
+        if (user.getIsActive() != null) {
+            builder.setIsActive(user.getIsActive());
+        }
+        if (user.getIsVerified() != null) {
+            builder.setIsVerified(user.getIsVerified());
+        }
+        if (user.getCreatedAt() != null) {
+            builder.setCreatedAt(toTimestamp(user.getCreatedAt()));
+        }
+        if (user.getUpdatedAt() != null) {
+            builder.setUpdatedAt(toTimestamp(user.getUpdatedAt()));
+        }
+        return builder.build();
+    }
+
+    static User fromProto(CachedUser cached) {
+        return User.builder()
+            .id(cached.getId())
+            .username(cached.getUsername())
+            .email(cached.getEmail())
+            .password(cached.hasPassword() ? cached.getPassword() : null)
+            .firstName(cached.hasFirstName() ? cached.getFirstName() : null)
+            .lastName(cached.hasLastName() ? cached.getLastName() : null)
+            .role(UserRole.valueOf(cached.getRole()))
+            .isActive(cached.hasIsActive() ? cached.getIsActive() : null)
+            .isVerified(cached.hasIsVerified() ? cached.getIsVerified() : null)
+            .createdAt(cached.hasCreatedAt() ? fromTimestamp(cached.getCreatedAt()) : null)
+            .updatedAt(cached.hasUpdatedAt() ? fromTimestamp(cached.getUpdatedAt()) : null)
+            .build();
+    }
+
+    private static byte[] withFormat(byte format, byte[] payload) {
+        byte[] bytes = new byte[payload.length + 1];
+        bytes[0] = format;
+        System.arraycopy(payload, 0, bytes, 1, payload.length);
+        return bytes;
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return Timestamp.newBuilder()
+            .setSeconds(dateTime.toEpochSecond(ZoneOffset.UTC))
+            .setNanos(dateTime.getNano())
+            .build();
+    }
+
+    private static LocalDateTime fromTimestamp(Timestamp timestamp) {
+        return LocalDateTime.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,91 @@
+package com.arcana.cloud.config;
+
+import com.arcana.cloud.limit.AdaptiveConcurrencyLimiter;
+import com.arcana.cloud.limit.ConcurrencyLimitFilter;
+import com.arcana.cloud.limit.ConcurrencyLimitServerInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+
+import java.util.List;
+
+/**
+ * Adaptive concurrency limiting for the tiers that serve other tiers.
+ *
+ * <p>Unlike the circuit breaker on the calling side, which opens after failures have piled
+ * up, the limiter sheds load as soon as latency shows requests queueing: gRPC calls get
+ * {@code RESOURCE_EXHAUSTED} and internal HTTP requests get 429. Each server has its own
+ * limiter, published as the {@code concurrency.limit} gauge tagged {@code grpc} or
+ * {@code http}.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitConfig.class);
+
+    @Value("${concurrency-limit.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${concurrency-limit.min-limit:5}")
+    private int minLimit;
+
+    @Value("${concurrency-limit.max-limit:500}")
+    private int maxLimit;
+
+    @Value("${concurrency-limit.tolerance:1.5}")
+    private double tolerance;
+
+    @Value("${concurrency-limit.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${concurrency-limit.http.paths:/internal/api/**}")
+    private String[] httpPaths;
+
+    @Value("${concurrency-limit.http.excluded-paths:/internal/api/v1/users/export}")
+    private String[] httpExcludedPaths;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Limits the gRPC services of the service layer, and of the repository layer.
+     */
+    @Bean
+    @GlobalServerInterceptor
+    @ConditionalOnExpression(
+        "'${deployment.layer:}' == 'repository' or ('${communication.protocol:grpc}' == 'grpc' "
+            + "and ('${deployment.layer:}' == '' or '${deployment.layer:}' == 'service'))"
+    )
+    public ConcurrencyLimitServerInterceptor concurrencyLimitServerInterceptor() {
+        return new ConcurrencyLimitServerInterceptor(limiter("grpc"));
+    }
+
+    /**
+     * Limits the internal HTTP controllers the controller layer calls in HTTP mode.
+     */
+    @Bean
+    @ConditionalOnExpression(
+        "'${deployment.layer:}' == 'service' and '${communication.protocol:grpc}' == 'http'"
+    )
+    public ConcurrencyLimitFilter concurrencyLimitFilter() {
+        return new ConcurrencyLimitFilter(limiter("http"), List.of(httpPaths), List.of(httpExcludedPaths));
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(String name) {
+        log.info("Adaptive concurrency limit for {}: initial {}, bounds {}..{}", name, initialLimit, minLimit, maxLimit);
+        AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance, smoothing);
+        if (meterRegistry != null) {
+            limiter.bindTo(meterRegistry, name);
+        }
+        return limiter;
+    }
+}
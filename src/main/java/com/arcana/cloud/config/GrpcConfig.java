@@ -1,15 +1,26 @@
 package com.arcana.cloud.config;
 
+import com.arcana.cloud.grpc.AuthServiceGrpc;
+import com.arcana.cloud.grpc.UserServiceGrpc;
+import com.arcana.cloud.service.client.GrpcBackendMetricsInterceptor;
+import com.arcana.cloud.service.client.GrpcChannelPool;
+import com.arcana.cloud.service.client.GrpcFutures;
+import com.arcana.cloud.service.client.GrpcHedgingInterceptor;
+import io.grpc.ConnectivityState;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.netty.shaded.io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
 import io.grpc.netty.shaded.io.netty.handler.ssl.SslContext;
 import io.grpc.netty.shaded.io.netty.handler.ssl.SslContextBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.grpc.server.autoconfigure.GrpcServerExecutorProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -17,6 +28,12 @@ import org.springframework.context.annotation.Configuration;
 
 import javax.net.ssl.SSLException;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -78,13 +95,62 @@ public class GrpcConfig {
     @Value("${grpc.client.shutdown-timeout-seconds:5}")
     private long shutdownTimeoutSeconds;
 
+    @Value("${grpc.virtual-threads.enabled:true}")
+    private boolean virtualThreadsEnabled;
+
+    // Load balancing and connection pooling
+    @Value("${grpc.client.load-balancing-policy:round_robin}")
+    private String loadBalancingPolicy;
+
+    @Value("${grpc.client.pool-size:1}")
+    private int poolSize;
+
+    // Hedging of idempotent reads
+    @Value("${grpc.client.hedging.methods:GetUser,GetUserByUsername,ListUsers,ValidateToken}")
+    private String[] hedgedMethods;
+
+    @Value("${grpc.client.hedging.max-attempts:2}")
+    private int hedgingMaxAttempts;
+
+    @Value("${grpc.client.hedging.percentile:0.95}")
+    private double hedgingPercentile;
+
+    @Value("${grpc.client.hedging.min-delay-ms:10}")
+    private long hedgingMinDelayMs;
+
+    @Value("${grpc.client.hedging.default-delay-ms:100}")
+    private long hedgingDefaultDelayMs;
+
+    @Value("${grpc.client.hedging.budget-ratio:0.1}")
+    private double hedgingBudgetRatio;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private GrpcHedgingInterceptor hedgingInterceptor;
+    // One per target, shared by its pooled channels so their timers are cached once
+    private final Map<String, GrpcBackendMetricsInterceptor> metricsInterceptors = new HashMap<>();
     private ManagedChannel serviceChannel;
     private ManagedChannel repositoryChannel;
+    private ExecutorService channelExecutor;
+    private ExecutorService serverExecutor;
+
+    /**
+     * Runs gRPC server handlers on virtual threads, so a handler blocked on the database or
+     * on a lower layer does not hold one of a bounded pool of platform threads.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "grpc.virtual-threads.enabled", havingValue = "true", matchIfMissing = true)
+    public GrpcServerExecutorProvider grpcServerExecutorProvider() {
+        this.serverExecutor = GrpcFutures.newVirtualThreadExecutor("grpc-server");
+        return () -> serverExecutor;
+    }
 
     @Bean
     @ConditionalOnExpression("'${communication.protocol:grpc}' == 'grpc' and '${deployment.layer:}' == 'controller'")
     public ManagedChannel serviceChannel() {
-        log.info("Creating gRPC service channel to {} (TLS: {})", serviceGrpcUrl, tlsEnabled);
+        log.info("Creating gRPC service channel to {} (TLS: {}, policy: {}, pool: {})",
+            serviceGrpcUrl, tlsEnabled, loadBalancingPolicy, poolSize);
         this.serviceChannel = createChannel(serviceGrpcUrl);
         return this.serviceChannel;
     }
@@ -92,27 +158,76 @@ public class GrpcConfig {
     @Bean
     @ConditionalOnExpression("'${repository.mode:direct}' == 'grpc'")
     public ManagedChannel repositoryChannel() {
-        log.info("Creating gRPC repository channel to {} (TLS: {})", repositoryGrpcUrl, tlsEnabled);
+        log.info("Creating gRPC repository channel to {} (TLS: {}, policy: {}, pool: {})",
+            repositoryGrpcUrl, tlsEnabled, loadBalancingPolicy, poolSize);
         this.repositoryChannel = createChannel(repositoryGrpcUrl);
         return this.repositoryChannel;
     }
 
     /**
      * Creates a managed gRPC channel with configured resilience and security settings.
+     *
+     * <p>With a pool size above one, calls are spread over that many channels, each with
+     * connections of its own; against a headless service each of them balances over every
+     * resolved backend.</p>
      */
     private ManagedChannel createChannel(String target) {
-        if (tlsEnabled) {
-            return createSecureChannel(target);
-        } else {
-            return createPlaintextChannel(target);
+        List<ManagedChannel> channels = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, poolSize); i++) {
+            channels.add(tlsEnabled ? createSecureChannel(target) : createPlaintextChannel(target));
+        }
+        ManagedChannel channel = GrpcChannelPool.of(channels);
+
+        if (meterRegistry != null) {
+            Gauge.builder("grpc.client.channels.ready", channels,
+                    pooled -> pooled.stream().filter(c -> c.getState(false) == ConnectivityState.READY).count())
+                .description("Pooled gRPC channels with a ready connection")
+                .tag("target", target)
+                .register(meterRegistry);
+        }
+        return channel;
+    }
+
+    /**
+     * Builds the channel. Calls are recorded per backend when metrics are available, and
+     * idempotent reads are hedged; every hedged attempt is recorded against the backend it
+     * ran on. When enabled, call callbacks and future completions run on virtual threads
+     * instead of gRPC's default cached pool of platform threads.
+     */
+    private synchronized ManagedChannel build(ManagedChannelBuilder<?> builder, String target) {
+        if (meterRegistry != null) {
+            builder.intercept(metricsInterceptors.computeIfAbsent(target,
+                t -> new GrpcBackendMetricsInterceptor(meterRegistry, t)));
+        }
+        // Added last, so it runs first and fans out above the metrics interceptor
+        builder.intercept(hedgingInterceptor());
+        if (virtualThreadsEnabled) {
+            if (channelExecutor == null) {
+                channelExecutor = GrpcFutures.newVirtualThreadExecutor("grpc-client");
+            }
+            builder.executor(channelExecutor);
         }
+        return builder.build();
+    }
+
+    /**
+     * One hedging interceptor for every channel, so latency samples for a method are shared
+     * across pooled channels.
+     */
+    private synchronized GrpcHedgingInterceptor hedgingInterceptor() {
+        if (hedgingInterceptor == null) {
+            hedgingInterceptor = new GrpcHedgingInterceptor(Set.copyOf(List.of(hedgedMethods)),
+                hedgingMaxAttempts, hedgingPercentile, hedgingMinDelayMs, hedgingDefaultDelayMs,
+                hedgingBudgetRatio);
+        }
+        return hedgingInterceptor;
     }
 
     /**
      * Creates a plaintext channel (for development/testing).
      */
     private ManagedChannel createPlaintextChannel(String target) {
-        return ManagedChannelBuilder.forTarget(target)
+        return build(ManagedChannelBuilder.forTarget(target)
             .usePlaintext()
             .keepAliveTime(keepAliveTimeSeconds, TimeUnit.SECONDS)
             .keepAliveTimeout(keepAliveTimeoutSeconds, TimeUnit.SECONDS)
@@ -122,8 +237,7 @@ public class GrpcConfig {
             .enableRetry()
             .maxRetryAttempts(maxRetryAttempts)
             // Default service config with retry policy
-            .defaultServiceConfig(getDefaultServiceConfig())
-            .build();
+            .defaultServiceConfig(getDefaultServiceConfig()), target);
     }
 
     /**
@@ -133,7 +247,7 @@ public class GrpcConfig {
         try {
             SslContext sslContext = buildSslContext();
 
-            return NettyChannelBuilder.forTarget(target)
+            return build(NettyChannelBuilder.forTarget(target)
                 .sslContext(sslContext)
                 .keepAliveTime(keepAliveTimeSeconds, TimeUnit.SECONDS)
                 .keepAliveTimeout(keepAliveTimeoutSeconds, TimeUnit.SECONDS)
@@ -141,8 +255,7 @@ public class GrpcConfig {
                 .maxInboundMessageSize(maxInboundMessageSize)
                 .enableRetry()
                 .maxRetryAttempts(maxRetryAttempts)
-                .defaultServiceConfig(getDefaultServiceConfig())
-                .build();
+                .defaultServiceConfig(getDefaultServiceConfig()), target);
 
         } catch (SSLException e) {
             log.error("Failed to create secure gRPC channel, falling back to plaintext", e);
@@ -196,20 +309,59 @@ public class GrpcConfig {
         methodConfig.put("retryPolicy", retryPolicy);
         methodConfig.put("timeout", (deadlineMs / 1000.0) + "s");
 
+        // The user export streams for as long as its consumer keeps reading: a more specific
+        // entry without timeout or retryPolicy, so it gets no deadline and is never replayed
+        java.util.Map<String, Object> streamingConfig = new java.util.HashMap<>();
+        streamingConfig.put("name", java.util.List.of(java.util.Map.of(
+            "service", UserServiceGrpc.SERVICE_NAME,
+            "method", UserServiceGrpc.getStreamUsersMethod().getBareMethodName())));
+
+        java.util.List<java.util.Map<String, Object>> methodConfigs =
+            new java.util.ArrayList<>(java.util.List.of(methodConfig, streamingConfig));
+
+        // Hedged methods keep the deadline but are not retried: each hedge would retry too
+        java.util.List<java.util.Map<String, String>> hedged = hedgedMethodNames();
+        if (!hedged.isEmpty()) {
+            java.util.Map<String, Object> hedgedConfig = new java.util.HashMap<>();
+            hedgedConfig.put("name", hedged);
+            hedgedConfig.put("timeout", (deadlineMs / 1000.0) + "s");
+            methodConfigs.add(hedgedConfig);
+        }
+
         java.util.Map<String, Object> serviceConfig = new java.util.HashMap<>();
-        serviceConfig.put("methodConfig", java.util.List.of(methodConfig));
+        serviceConfig.put("methodConfig", methodConfigs);
 
-        // Load balancing policy for Kubernetes DNS
-        serviceConfig.put("loadBalancingPolicy", "round_robin");
+        // Load balancing over every address DNS returns; a headless Kubernetes service
+        // resolves to one address per ready pod
+        serviceConfig.put("loadBalancingConfig",
+            java.util.List.of(java.util.Map.of(loadBalancingPolicy, java.util.Map.of())));
 
         return serviceConfig;
     }
 
+    /**
+     * Service config names of the hedged methods, looked up in the services this client calls.
+     */
+    private java.util.List<java.util.Map<String, String>> hedgedMethodNames() {
+        GrpcHedgingInterceptor hedging = hedgingInterceptor();
+        return java.util.stream.Stream.of(UserServiceGrpc.getServiceDescriptor(), AuthServiceGrpc.getServiceDescriptor())
+            .flatMap(service -> service.getMethods().stream())
+            .filter(method -> hedging.isHedged(method.getBareMethodName()))
+            .map(method -> java.util.Map.of("service", method.getServiceName(), "method", method.getBareMethodName()))
+            .toList();
+    }
+
     @PreDestroy
     public void shutdown() {
         log.info("Shutting down gRPC channels");
         shutdownChannel(serviceChannel, "service");
         shutdownChannel(repositoryChannel, "repository");
+        if (channelExecutor != null) {
+            channelExecutor.shutdown();
+        }
+        if (serverExecutor != null) {
+            serverExecutor.shutdown();
+        }
     }
 
     private void shutdownChannel(ManagedChannel channel, String name) {
@@ -1,5 +1,8 @@
 package com.arcana.cloud.config;
 
+import com.arcana.cloud.cache.CompressingRedisSerializer;
+import com.arcana.cloud.cache.TwoLevelCacheManager;
+import com.arcana.cloud.cache.UserProtobufRedisSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
@@ -11,8 +14,12 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import tools.jackson.databind.json.JsonMapper;
 
@@ -40,6 +47,24 @@ public class RedisConfig {
     @Value("${spring.cache.redis.tokens-ttl-minutes:60}")
     private long tokensTtlMinutes;
 
+    @Value("${spring.cache.redis.default-codec:json}")
+    private String defaultCodec;
+
+    @Value("${spring.cache.redis.users-codec:protobuf}")
+    private String usersCodec;
+
+    @Value("${spring.cache.redis.tokens-codec:json}")
+    private String tokensCodec;
+
+    @Value("${spring.cache.redis.compression-threshold-bytes:1024}")
+    private int compressionThresholdBytes;
+
+    @Value("${spring.cache.local.ttl-seconds:30}")
+    private long localTtlSeconds;
+
+    @Value("${spring.cache.local.max-size:10000}")
+    private long localMaxSize;
+
     @Bean
     public LettuceConnectionFactory redisConnectionFactory() {
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
@@ -64,26 +89,78 @@ public class RedisConfig {
         return template;
     }
 
+    @Bean
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+        return new StringRedisTemplate(connectionFactory);
+    }
+
+    /**
+     * Shared pub/sub container; components register their own channel listeners on it.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * Redis-backed cache manager, fronted by a per-node Caffeine L1 unless
+     * {@code spring.cache.local.ttl-seconds} is 0. L1 invalidations travel over the
+     * shared listener container. The value encoding is chosen per cache.
+     */
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
-                                     JsonMapper jsonMapper) {
+                                     JsonMapper jsonMapper,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer) {
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(defaultTtlMinutes))
             .serializeKeysWith(
                 RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
             )
-            .serializeValuesWith(
-                RedisSerializationContext.SerializationPair.fromSerializer(
-                    new GenericJacksonJsonRedisSerializer(jsonMapper))
-            )
             .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
-            .cacheDefaults(cacheConfig)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+            .cacheDefaults(cacheConfig(cacheConfig, defaultTtlMinutes, defaultCodec, jsonMapper))
             .withCacheConfiguration("users",
-                RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(usersTtlMinutes)))
+                cacheConfig(cacheConfig, usersTtlMinutes, usersCodec, jsonMapper))
             .withCacheConfiguration("tokens",
-                RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(tokensTtlMinutes)))
+                cacheConfig(cacheConfig, tokensTtlMinutes, tokensCodec, jsonMapper))
             .build();
+        if (localTtlSeconds <= 0) {
+            return redisCacheManager;
+        }
+
+        redisCacheManager.afterPropertiesSet();
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate,
+            Duration.ofSeconds(localTtlSeconds), localMaxSize);
+        redisMessageListenerContainer.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+        return cacheManager;
+    }
+
+    private RedisCacheConfiguration cacheConfig(RedisCacheConfiguration base, long ttlMinutes,
+                                                String codec, JsonMapper jsonMapper) {
+        return base
+            .entryTtl(Duration.ofMinutes(ttlMinutes))
+            .serializeValuesWith(
+                RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer(codec, jsonMapper))
+            );
+    }
+
+    /**
+     * Value encoding of a cache: {@code json} (type-tagged Jackson) or {@code protobuf}
+     * (compact binary for {@code User} entries, JSON for anything else), compressed above
+     * {@code spring.cache.redis.compression-threshold-bytes} unless that is 0. The
+     * compression marker is written either way, so the threshold can be changed on a
+     * running cluster.
+     */
+    private RedisSerializer<Object> valueSerializer(String codec, JsonMapper jsonMapper) {
+        RedisSerializer<Object> json = new GenericJacksonJsonRedisSerializer(jsonMapper);
+        RedisSerializer<Object> serializer = switch (codec) {
+            case "json" -> json;
+            case "protobuf" -> new UserProtobufRedisSerializer(json);
+            default -> throw new IllegalArgumentException("Unknown cache codec: " + codec);
+        };
+        return new CompressingRedisSerializer(serializer, compressionThresholdBytes);
     }
 }
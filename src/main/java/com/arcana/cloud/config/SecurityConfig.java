@@ -48,6 +48,9 @@ public class SecurityConfig {
     @Value("${cors.exposed-headers:Authorization}")
     private String exposedHeaders;
 
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength = 10;
+
     @Value("${cors.max-age-seconds:3600}")
     private long maxAgeSeconds;
 
@@ -128,8 +131,12 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * Raw BCrypt encoder at the target cost. Application code gets the pooled
+     * {@link com.arcana.cloud.security.PasswordHashingService} instead, which is primary.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 }
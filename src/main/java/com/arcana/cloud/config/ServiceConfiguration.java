@@ -1,9 +1,23 @@
 package com.arcana.cloud.config;
 
+import com.arcana.cloud.controller.internal.InternalProtobufMessageConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverters;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
 
 /**
  * Service configuration for layered deployment.
@@ -17,16 +31,114 @@ import org.springframework.web.client.RestTemplate;
 @Configuration
 public class ServiceConfiguration {
 
+    private static final Logger log = LoggerFactory.getLogger(ServiceConfiguration.class);
+
+    @Value("${service.http.connect-timeout-ms:10000}")
+    private int connectTimeoutMs;
+
+    @Value("${service.http.read-timeout-ms:30000}")
+    private int readTimeoutMs;
+
+    @Value("${service.http.encoding:protobuf}")
+    private String encoding;
+
     /**
-     * RestTemplate used by HTTP-mode service clients and PluginProxyController.
+     * RestTemplate used by the buffering PluginProxyController and the JWKS fetch.
      * Spring Boot 3.x no longer auto-configures RestTemplate; define it explicitly.
      * Using SimpleClientHttpRequestFactory with explicit timeouts (10s connect, 30s read).
      */
     @Bean
+    @Primary
     public RestTemplate restTemplate() {
         SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
         factory.setConnectTimeout(10_000);
         factory.setReadTimeout(30_000);
         return new RestTemplate(factory);
     }
+
+    /**
+     * HTTP client for calls from the controller layer to the service layer in HTTP mode.
+     *
+     * <p>One JDK HttpClient keeps connections to the service layer alive and negotiates
+     * HTTP/2 over cleartext (h2c upgrade), so concurrent calls share multiplexed
+     * connections.</p>
+     */
+    @Bean
+    @ConditionalOnExpression(
+        "'${communication.protocol:grpc}' == 'http' and '${deployment.layer:}' == 'controller'"
+    )
+    public HttpClient serviceHttpClient() {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .build();
+    }
+
+    /**
+     * Request factory for the service clients. Its read timeout bounds the whole exchange,
+     * body included, which suits the small internal API responses.
+     */
+    @Bean
+    @ConditionalOnExpression(
+        "'${communication.protocol:grpc}' == 'http' and '${deployment.layer:}' == 'controller'"
+    )
+    public JdkClientHttpRequestFactory serviceRequestFactory(HttpClient serviceHttpClient) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(serviceHttpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return factory;
+    }
+
+    /**
+     * Request factory for the streaming plugin proxy, on the same connections as the service
+     * clients but without a read timeout: that would also cut off downloads and uploads
+     * that take longer than it while still moving. A client that goes away ends the
+     * exchange instead.
+     */
+    @Bean
+    @ConditionalOnExpression(
+        "'${communication.protocol:grpc}' == 'http' and '${deployment.layer:}' == 'controller'"
+    )
+    public JdkClientHttpRequestFactory pluginProxyRequestFactory(HttpClient serviceHttpClient) {
+        return new JdkClientHttpRequestFactory(serviceHttpClient);
+    }
+
+    /**
+     * RestTemplate used by the HTTP-mode service clients. With
+     * {@code service.http.encoding=protobuf} requests and responses use the protobuf encoding
+     * of the internal API; responses in JSON (from a service layer without it) are still
+     * understood.
+     */
+    @Bean
+    @ConditionalOnExpression(
+        "'${communication.protocol:grpc}' == 'http' and '${deployment.layer:}' == 'controller'"
+    )
+    public RestTemplate serviceRestTemplate(
+            @Qualifier("serviceRequestFactory") JdkClientHttpRequestFactory serviceRequestFactory,
+            JsonMapper jsonMapper) {
+        RestTemplate restTemplate = new RestTemplate(serviceRequestFactory);
+        if ("protobuf".equalsIgnoreCase(encoding)) {
+            // First, so it is used for request bodies and preferred in Accept
+            restTemplate.getMessageConverters().addFirst(new InternalProtobufMessageConverter(jsonMapper));
+        }
+        log.info("Inter-tier HTTP client: HTTP/2, {} encoding", encoding);
+        return restTemplate;
+    }
+
+    /**
+     * Lets the internal controllers answer in protobuf when the caller asks for it.
+     * Added after the JSON converter, so JSON stays the default.
+     */
+    @Bean
+    @ConditionalOnExpression(
+        "'${communication.protocol:grpc}' == 'http' and '${deployment.layer:}' == 'service'"
+    )
+    public WebMvcConfigurer internalProtobufConfigurer(JsonMapper jsonMapper) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+                builder.configureMessageConvertersList(converters ->
+                    converters.add(new InternalProtobufMessageConverter(jsonMapper)));
+            }
+        };
+    }
 }
@@ -0,0 +1,49 @@
+package com.arcana.cloud.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes values to a servlet response as newline-delimited JSON while they are produced,
+ * so an export never holds more than one buffer of output.
+ *
+ * <p>A write failure (typically the client going away) is rethrown unchecked to stop the
+ * producer. An error after the first bytes were sent can no longer change the status; the
+ * connection is cut instead, which clients must treat as an incomplete export.</p>
+ */
+public final class NdjsonResponseWriter implements Consumer<Object> {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final JsonMapper jsonMapper;
+    private final OutputStream out;
+
+    public NdjsonResponseWriter(HttpServletResponse response, JsonMapper jsonMapper) throws IOException {
+        response.setContentType(CONTENT_TYPE);
+        response.setCharacterEncoding("UTF-8");
+        this.jsonMapper = jsonMapper;
+        this.out = new BufferedOutputStream(response.getOutputStream(), BUFFER_BYTES);
+    }
+
+    @Override
+    public void accept(Object value) {
+        try {
+            out.write(jsonMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write export line", e);
+        }
+    }
+
+    public void finish() throws IOException {
+        out.flush();
+    }
+}
@@ -23,12 +23,17 @@ import java.util.Enumeration;
  * Controller Layer to the Service Layer.</p>
  *
  * <p>URL pattern: /api/v1/plugins/{pluginKey}/** → Service Layer</p>
+ *
+ * <p>Buffers request and response bodies as strings; used only with
+ * {@code arcana.plugin.proxy.streaming=false}, see {@link StreamingPluginProxyController}.</p>
  */
 @RestController
 @RequestMapping("/api/v1/proxy/plugins")
 @Tag(name = "Plugin Proxy", description = "Proxy for plugin endpoints in layered mode")
 @ConditionalOnProperty(name = "communication.protocol", havingValue = "http")
-@ConditionalOnExpression("'${deployment.layer:}' == 'controller'")
+@ConditionalOnExpression(
+    "'${deployment.layer:}' == 'controller' and !${arcana.plugin.proxy.streaming:true}"
+)
 public class PluginProxyController {
 
     private static final Logger log = LoggerFactory.getLogger(PluginProxyController.class);
@@ -114,7 +119,7 @@ public class PluginProxyController {
         String pluginPath = extractPluginPath(requestUri, pluginKey);
         String queryString = request.getQueryString();
 
-        String targetUrl = buildTargetUrl(pluginKey, pluginPath, queryString);
+        String targetUrl = buildTargetUrl(serviceLayerUrl, pluginKey, pluginPath, queryString);
 
         log.debug("Proxying {} {} to {}", method, requestUri, targetUrl);
 
@@ -152,7 +157,7 @@ public class PluginProxyController {
     /**
      * Extracts the plugin-specific path from the request URI.
      */
-    private String extractPluginPath(String requestUri, String pluginKey) {
+    static String extractPluginPath(String requestUri, String pluginKey) {
         // Remove /api/v1/proxy/plugins/{pluginKey} prefix
         String prefix = "/api/v1/proxy/plugins/" + pluginKey;
         if (requestUri.startsWith(prefix)) {
@@ -165,7 +170,7 @@ public class PluginProxyController {
     /**
      * Builds the target URL for the service layer.
      */
-    private String buildTargetUrl(String pluginKey, String pluginPath, String queryString) {
+    static String buildTargetUrl(String serviceLayerUrl, String pluginKey, String pluginPath, String queryString) {
         StringBuilder url = new StringBuilder(serviceLayerUrl);
 
         // Remove trailing slash from base URL
@@ -195,7 +200,7 @@ public class PluginProxyController {
     /**
      * Copies relevant headers from the incoming request.
      */
-    private HttpHeaders copyHeaders(HttpServletRequest request) {
+    static HttpHeaders copyHeaders(HttpServletRequest request) {
         HttpHeaders headers = new HttpHeaders();
 
         Enumeration<String> headerNames = request.getHeaderNames();
@@ -224,7 +229,7 @@ public class PluginProxyController {
     /**
      * Filters response headers to remove hop-by-hop headers.
      */
-    private HttpHeaders filterResponseHeaders(HttpHeaders headers) {
+    static HttpHeaders filterResponseHeaders(HttpHeaders headers) {
         HttpHeaders filtered = new HttpHeaders();
         headers.forEach((name, values) -> {
             if (!isHopByHopHeader(name)) {
@@ -237,7 +242,7 @@ public class PluginProxyController {
     /**
      * Checks if a header is a hop-by-hop header that should not be forwarded.
      */
-    private boolean isHopByHopHeader(String headerName) {
+    static boolean isHopByHopHeader(String headerName) {
         String lower = headerName.toLowerCase();
         return lower.equals("connection") ||
                lower.equals("keep-alive") ||
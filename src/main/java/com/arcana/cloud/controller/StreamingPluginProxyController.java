@@ -0,0 +1,318 @@
+package com.arcana.cloud.controller;
+
+import com.arcana.cloud.cache.PluginResponseCache;
+import com.arcana.cloud.cache.PluginResponseCache.CachedResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Proxy controller for plugin REST endpoints in layered/K8s HTTP mode, streaming bodies.
+ *
+ * <p>Same routes as {@link PluginProxyController}, but request and response bodies are piped
+ * through as bytes, a buffer at a time, over the pooled inter-tier HTTP client: memory use
+ * does not grow with the payload, and the first bytes of a download reach the client while
+ * the rest is still being produced. {@code Content-Length} is passed on when known, otherwise
+ * the body is chunked. Reads and writes block, so a slow client slows the upstream read
+ * (and HTTP flow control slows the plugin); a client that disconnects ends the upstream
+ * exchange.</p>
+ *
+ * <p>GETs to plugins listed in {@code arcana.plugin.proxy.cache.plugins} go through a
+ * {@link PluginResponseCache}; the {@code X-Cache} header says whether the answer came from it.</p>
+ *
+ * <p>Default proxy; {@code arcana.plugin.proxy.streaming=false} switches back to the buffering
+ * one.</p>
+ */
+@RestController
+@RequestMapping("/api/v1/proxy/plugins")
+@Tag(name = "Plugin Proxy", description = "Proxy for plugin endpoints in layered mode")
+@ConditionalOnProperty(name = "communication.protocol", havingValue = "http")
+@ConditionalOnExpression(
+    "'${deployment.layer:}' == 'controller' and ${arcana.plugin.proxy.streaming:true}"
+)
+public class StreamingPluginProxyController {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingPluginProxyController.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final List<String> NOT_MODIFIED_HEADERS =
+        List.of(HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL, HttpHeaders.VARY, HttpHeaders.EXPIRES);
+
+    private final ClientHttpRequestFactory requestFactory;
+
+    private final PluginResponseCache responseCache;
+
+    @Value("${service.http.url:http://localhost:8081}")
+    private String serviceLayerUrl;
+
+    public StreamingPluginProxyController(
+            @Qualifier("pluginProxyRequestFactory") ClientHttpRequestFactory requestFactory,
+            PluginResponseCache responseCache) {
+        this.requestFactory = requestFactory;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Proxies a request to a plugin endpoint.
+     */
+    @RequestMapping(
+        value = "/{pluginKey}/**",
+        method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.PATCH, RequestMethod.DELETE}
+    )
+    @Operation(summary = "Proxy request to plugin")
+    public void proxy(
+            @PathVariable String pluginKey,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        String requestUri = request.getRequestURI();
+        String targetUrl = PluginProxyController.buildTargetUrl(serviceLayerUrl, pluginKey,
+            PluginProxyController.extractPluginPath(requestUri, pluginKey), request.getQueryString());
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+
+        log.debug("Proxying {} {} to {}", method, requestUri, targetUrl);
+
+        if (method == HttpMethod.GET && responseCache.isEnabled(pluginKey)) {
+            proxyCached(pluginKey, targetUrl, request, response);
+            return;
+        }
+        forward(pluginKey, targetUrl, method, request, response);
+    }
+
+    private void forward(String pluginKey, String targetUrl, HttpMethod method,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ClientHttpResponse upstream;
+        try {
+            upstream = execute(targetUrl, method, request, PluginProxyController.copyHeaders(request));
+        } catch (IOException e) {
+            log.error("Failed to proxy request to plugin {}: {}", pluginKey, e.getMessage());
+            writeBadGateway(response, e);
+            return;
+        }
+        relay(pluginKey, upstream, null, response);
+    }
+
+    /**
+     * GET through the plugin's response cache: fresh entries are answered without asking the
+     * plugin, stale ones are revalidated with their ETag, and concurrent misses share one fetch.
+     */
+    private void proxyCached(String pluginKey, String targetUrl, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        HttpHeaders headers = PluginProxyController.copyHeaders(request);
+        CachedResponse cached = responseCache.get(targetUrl, headers);
+        if (cached != null && cached.isFresh()) {
+            writeCached(pluginKey, cached, headers, response, "HIT");
+            return;
+        }
+
+        PluginResponseCache.Flight flight = responseCache.begin(targetUrl, headers);
+        if (!flight.isLeader()) {
+            CachedResponse shared = flight.await();
+            if (shared != null && shared.matches(headers)) {
+                writeCached(pluginKey, shared, headers, response, "HIT");
+            } else {
+                forward(pluginKey, targetUrl, HttpMethod.GET, request, response);
+            }
+            return;
+        }
+
+        Fetched fetched = null;
+        IOException failure = null;
+        try {
+            fetched = fetch(targetUrl, request, headers, cached);
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            responseCache.complete(flight, fetched != null ? fetched.entry() : null);
+        }
+
+        if (failure != null) {
+            log.error("Failed to proxy request to plugin {}: {}", pluginKey, failure.getMessage());
+            writeBadGateway(response, failure);
+        } else if (fetched.entry() != null) {
+            writeCached(pluginKey, fetched.entry(), headers, response, cached != null && cached.etag() != null ? "REVALIDATED" : "MISS");
+        } else {
+            relay(pluginKey, fetched.upstream(), fetched.prefix(), response);
+        }
+    }
+
+    /**
+     * Asks the plugin on behalf of the cache, revalidating the stale entry if there is one.
+     * A response that cannot be stored is handed back to be relayed, with whatever part of
+     * its body was already read.
+     */
+    private Fetched fetch(String targetUrl, HttpServletRequest request, HttpHeaders headers,
+                          CachedResponse cached) throws IOException {
+        // The cache revalidates with its own validator; the client's is answered from the entry
+        HttpHeaders upstreamHeaders = new HttpHeaders();
+        upstreamHeaders.addAll(headers);
+        upstreamHeaders.remove(HttpHeaders.IF_NONE_MATCH);
+        upstreamHeaders.remove(HttpHeaders.IF_MODIFIED_SINCE);
+        if (cached != null && cached.etag() != null) {
+            upstreamHeaders.setIfNoneMatch(cached.etag());
+        }
+
+        ClientHttpResponse upstream = execute(targetUrl, HttpMethod.GET, request, upstreamHeaders);
+        int status = upstream.getStatusCode().value();
+        HttpHeaders responseHeaders = PluginProxyController.filterResponseHeaders(upstream.getHeaders());
+        if (status == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+            upstream.close();
+            return new Fetched(responseCache.revalidated(cached, responseHeaders), null, null);
+        }
+        if (status != HttpStatus.OK.value() || !PluginResponseCache.isStorable(headers, responseHeaders)
+                || responseHeaders.getContentLength() > responseCache.getMaxEntryBytes()) {
+            return new Fetched(null, upstream, null);
+        }
+
+        byte[] body;
+        try {
+            body = upstream.getBody().readNBytes(responseCache.getMaxEntryBytes() + 1);
+        } catch (IOException e) {
+            upstream.close();
+            throw e;
+        }
+        CachedResponse entry = responseCache.toEntry(headers, status, responseHeaders, body);
+        if (entry == null) {
+            // Larger than an entry may be after all, or not worth keeping
+            return new Fetched(null, upstream, body);
+        }
+        upstream.close();
+        return new Fetched(entry, null, null);
+    }
+
+    private ClientHttpResponse execute(String targetUrl, HttpMethod method, HttpServletRequest request,
+                                       HttpHeaders headers) throws IOException {
+        ClientHttpRequest proxied = requestFactory.createRequest(URI.create(targetUrl), method);
+        proxied.getHeaders().addAll(headers);
+        if (hasBody(request)) {
+            if (request.getContentLengthLong() > 0) {
+                proxied.getHeaders().setContentLength(request.getContentLengthLong());
+            }
+            if (proxied instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(out -> request.getInputStream().transferTo(out));
+            } else {
+                request.getInputStream().transferTo(proxied.getBody());
+            }
+        }
+        return proxied.execute();
+    }
+
+    /**
+     * Passes the plugin's response on, body first from {@code prefix} (already read) if given.
+     */
+    private static void relay(String pluginKey, ClientHttpResponse upstream, byte[] prefix,
+                              HttpServletResponse response) throws IOException {
+        try (upstream) {
+            response.setStatus(upstream.getStatusCode().value());
+            PluginProxyController.filterResponseHeaders(upstream.getHeaders())
+                .forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            OutputStream out = response.getOutputStream();
+            if (prefix != null) {
+                out.write(prefix);
+            }
+            copy(upstream.getBody(), out);
+        } catch (IOException e) {
+            // Either side went away mid-stream; closing the upstream response abandons the
+            // exchange, and what the client already has cannot be taken back
+            log.debug("Proxied stream for plugin {} ended early: {}", pluginKey, e.getMessage());
+            if (!response.isCommitted()) {
+                response.reset();
+                writeBadGateway(response, e);
+            }
+        }
+    }
+
+    /**
+     * Answers from a cache entry: 304 when the client's {@code If-None-Match} matches it,
+     * the stored response otherwise.
+     */
+    private static void writeCached(String pluginKey, CachedResponse cached, HttpHeaders requestHeaders,
+                                    HttpServletResponse response, String cacheStatus) throws IOException {
+        response.setHeader(CACHE_STATUS_HEADER, cacheStatus);
+        if (cached.notModifiedFor(requestHeaders)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            for (String name : NOT_MODIFIED_HEADERS) {
+                cached.headers().getOrEmpty(name).forEach(value -> response.addHeader(name, value));
+            }
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        cached.headers().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        response.setHeader(HttpHeaders.AGE, String.valueOf(cached.ageSeconds()));
+        response.setContentLength(cached.body().length);
+        try {
+            response.getOutputStream().write(cached.body());
+        } catch (IOException e) {
+            log.debug("Client of plugin {} went away: {}", pluginKey, e.getMessage());
+        }
+    }
+
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+
+    /**
+     * Copies the body a buffer at a time, flushing whenever the upstream has nothing more
+     * ready, so streamed responses reach the client as they are produced.
+     */
+    static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            if (in.available() == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
+
+    private static void writeBadGateway(HttpServletResponse response, IOException e) throws IOException {
+        String message = e.getMessage() != null ? e.getMessage().replace("\"", "'") : e.getClass().getSimpleName();
+        response.setStatus(HttpStatus.BAD_GATEWAY.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(("{\"success\":false,\"error\":\"Failed to reach plugin service: "
+            + message + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Outcome of a fetch for the cache: the entry to answer from, or the plugin's response
+     * to relay.
+     */
+    private record Fetched(CachedResponse entry, ClientHttpResponse upstream, byte[] prefix) {
+    }
+}
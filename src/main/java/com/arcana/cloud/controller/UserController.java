@@ -3,6 +3,7 @@ package com.arcana.cloud.controller;
 import com.arcana.cloud.dto.request.UserCreateRequest;
 import com.arcana.cloud.dto.request.UserUpdateRequest;
 import com.arcana.cloud.dto.response.ApiResponse;
+import com.arcana.cloud.dto.response.CursorPage;
 import com.arcana.cloud.dto.response.UserResponse;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.mapper.UserMapper;
@@ -10,6 +11,7 @@ import com.arcana.cloud.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -26,6 +28,10 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -37,6 +43,7 @@ public class UserController {
 
     private final UserService userService;
     private final UserMapper userMapper;
+    private final JsonMapper jsonMapper;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -49,6 +56,42 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "List users newest first by cursor",
+        description = "Pass nextCursor back as 'after' for the next page; it is absent on the last page. "
+            + "Cost does not grow with depth. The total is only counted when includeTotal is true.")
+    public ResponseEntity<ApiResponse<CursorPage<UserResponse>>> getUsersAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<User> users = userService.getUsersAfter(after, size, includeTotal);
+        return ResponseEntity.ok(ApiResponse.success(users.map(userMapper::toResponse)));
+    }
+
+    @GetMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get several users by ID",
+        description = "Returns the users in the order of 'ids' (repeat the parameter or separate with commas); "
+            + "unknown IDs are left out. At most 500 IDs per request.")
+    public ResponseEntity<ApiResponse<List<UserResponse>>> getUsersByIds(@RequestParam List<Long> ids) {
+        List<UserResponse> response = userService.getUsersByIds(ids).stream()
+            .map(userMapper::toResponse)
+            .toList();
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonResponseWriter.CONTENT_TYPE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export all users as NDJSON",
+        description = "Streams one JSON user per line, ordered by ID, as rows are read. "
+            + "A response that ends without its final newline, or with the connection reset, is incomplete.")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        NdjsonResponseWriter writer = new NdjsonResponseWriter(response, jsonMapper);
+        userService.exportUsers(user -> writer.accept(userMapper.toResponse(user)));
+        writer.finish();
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(#id)")
     @Operation(summary = "Get user by ID")
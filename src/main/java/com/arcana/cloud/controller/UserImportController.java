@@ -0,0 +1,120 @@
+package com.arcana.cloud.controller;
+
+import com.arcana.cloud.dto.request.UserImportFormat;
+import com.arcana.cloud.dto.response.ApiResponse;
+import com.arcana.cloud.dto.response.UserImportJob;
+import com.arcana.cloud.exception.ResourceNotFoundException;
+import com.arcana.cloud.exception.ValidationException;
+import com.arcana.cloud.service.UserImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Bulk user import. The upload, of at most {@code users.import.max-upload-size}, is spooled
+ * to a temporary file and imported in the background; the returned job is polled for
+ * progress.
+ * Active in monolithic mode, where the importing service runs in the same process.
+ */
+@RestController
+@RequestMapping("/api/v1/users/import")
+@RequiredArgsConstructor
+@Tag(name = "User Management", description = "User management APIs")
+@SecurityRequirement(name = "bearerAuth")
+@ConditionalOnExpression("'${deployment.layer:}' == ''")
+public class UserImportController {
+
+    private final UserImportService userImportService;
+
+    @Value("${users.import.max-upload-size:100MB}")
+    private DataSize maxUploadSize = DataSize.ofMegabytes(100);
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Start a bulk user import",
+        description = "Send the users as text/csv (with a header line) or application/x-ndjson. Fields: "
+            + "username, email, password, and optionally firstName, lastName and role. Rows with a taken "
+            + "username or email are skipped, invalid rows are reported; neither stops the import. "
+            + "Poll the returned job for progress.")
+    public ResponseEntity<ApiResponse<UserImportJob>> startImport(HttpServletRequest request) throws IOException {
+        UserImportFormat format = UserImportFormat.fromContentType(request.getContentType());
+        if (format == null) {
+            throw new ValidationException("Content type must be text/csv or application/x-ndjson");
+        }
+        if (request.getContentLengthLong() > maxUploadSize.toBytes()) {
+            throw new ValidationException(uploadTooLarge());
+        }
+        Path upload = Files.createTempFile("user-import-", "." + format.name().toLowerCase(Locale.ROOT));
+        boolean spooled;
+        try (InputStream body = request.getInputStream()) {
+            // A chunked upload has no Content-Length, so the copy is bounded too
+            spooled = spool(body, upload, maxUploadSize.toBytes());
+        } catch (IOException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        if (!spooled) {
+            Files.deleteIfExists(upload);
+            throw new ValidationException(uploadTooLarge());
+        }
+        UserImportJob job = userImportService.startImport(format, upload);
+        return ResponseEntity
+            .accepted()
+            .location(URI.create("/api/v1/users/import/" + job.getId()))
+            .body(ApiResponse.success(job, "User import started"));
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get the progress of a bulk user import")
+    public ResponseEntity<ApiResponse<UserImportJob>> getImport(@PathVariable String jobId) {
+        UserImportJob job = userImportService.getImport(jobId)
+            .orElseThrow(() -> new ResourceNotFoundException("User import", "id", jobId));
+        return ResponseEntity.ok(ApiResponse.success(job));
+    }
+
+    /**
+     * Copies the body to the file, stopping once it has more than {@code limit} bytes.
+     *
+     * @return false if the body was longer than the limit
+     */
+    static boolean spool(InputStream body, Path target, long limit) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > limit) {
+                    return false;
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return true;
+    }
+
+    private String uploadTooLarge() {
+        return "Upload must not be larger than " + maxUploadSize.toMegabytes() + " MB";
+    }
+}
@@ -6,6 +6,7 @@ import com.arcana.cloud.dto.request.RegisterRequest;
 import com.arcana.cloud.dto.response.ApiResponse;
 import com.arcana.cloud.dto.response.AuthResponse;
 import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.ParsedToken;
 import com.arcana.cloud.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Optional;
+
 /**
  * Internal REST controller for AuthService.
  * Active in: service layer of layered mode when using HTTP communication.
@@ -80,16 +83,16 @@ public class InternalAuthController {
     public ResponseEntity<ApiResponse<TokenValidationResponse>> validateToken(
             @RequestParam String token) {
         log.debug("Internal HTTP: Validating token");
-        boolean valid = tokenProvider.validateToken(token);
+        Optional<ParsedToken> parsed = tokenProvider.parseToken(token);
 
         TokenValidationResponse response = new TokenValidationResponse();
-        response.setValid(valid);
+        response.setValid(parsed.isPresent());
 
-        if (valid) {
-            response.setUserId(tokenProvider.getUserIdFromToken(token));
-            response.setUsername(tokenProvider.getUsernameFromToken(token));
-            response.setRole(tokenProvider.getRoleFromToken(token));
-        }
+        parsed.ifPresent(claims -> {
+            response.setUserId(claims.userId());
+            response.setUsername(claims.username());
+            response.setRole(claims.role());
+        });
 
         return ResponseEntity.ok(ApiResponse.success(response, "Token validation complete"));
     }
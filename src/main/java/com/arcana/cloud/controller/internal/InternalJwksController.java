@@ -0,0 +1,40 @@
+package com.arcana.cloud.controller.internal;
+
+import com.arcana.cloud.security.LocalJwtKeySet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Internal JWKS endpoint publishing the public keys tokens are signed with.
+ * Active in: service layer of layered mode with asymmetric JWT signing, for both
+ * communication protocols. The controller layer fetches and caches this key set
+ * to verify tokens locally.
+ */
+@RestController
+@RequestMapping("/internal/api/v1/auth")
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnExpression(
+    "'${deployment.layer:}' == 'service' and '${jwt.signing.algorithm:HS256}' != 'HS256'"
+)
+public class InternalJwksController {
+
+    private final LocalJwtKeySet keySet;
+
+    @GetMapping(value = "/jwks", produces = {"application/jwk-set+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<String> getJwks() {
+        log.debug("Internal HTTP: Serving JWKS");
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+            .body(keySet.toPublicJwksJson());
+    }
+}
@@ -0,0 +1,413 @@
+package com.arcana.cloud.controller.internal;
+
+import com.arcana.cloud.controller.internal.InternalAuthController.TokenValidationResponse;
+import com.arcana.cloud.controller.internal.InternalUserController.ExistsResponse;
+import com.arcana.cloud.controller.internal.InternalUserController.UserCreateDto;
+import com.arcana.cloud.controller.internal.InternalUserController.UserUpdateDto;
+import com.arcana.cloud.dto.request.LoginRequest;
+import com.arcana.cloud.dto.request.RefreshTokenRequest;
+import com.arcana.cloud.dto.request.RegisterRequest;
+import com.arcana.cloud.dto.response.ApiResponse;
+import com.arcana.cloud.dto.response.AuthResponse;
+import com.arcana.cloud.dto.response.CursorPage;
+import com.arcana.cloud.dto.response.PagedResponse;
+import com.arcana.cloud.dto.response.UserResponse;
+import com.arcana.cloud.entity.UserRole;
+import com.arcana.cloud.grpc.BatchGetUsersResponse;
+import com.arcana.cloud.grpc.CreateUserRequest;
+import com.arcana.cloud.grpc.ListUsersResponse;
+import com.arcana.cloud.grpc.PageInfo;
+import com.arcana.cloud.grpc.UpdateUserRequest;
+import com.arcana.cloud.grpc.UserInfo;
+import com.arcana.cloud.grpc.ValidateTokenResponse;
+import com.google.protobuf.Message;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Binary encoding of the internal HTTP API, reusing the gRPC protobuf messages.
+ *
+ * <p>Bodies that are JSON by default are sent as the protobuf message of the matching gRPC
+ * call when a request asks for {@code application/x-protobuf}: an {@code ApiResponse} is
+ * encoded as its payload alone (success is the HTTP status), request DTOs as the gRPC
+ * request. Error responses have no payload to encode, so they are written as JSON with a
+ * JSON content type, which the client reads with its JSON converter and which keeps the
+ * message in the body of the error the client reports. Controllers are unchanged; JSON stays the default
+ * for any caller that does not ask for protobuf. The same converter decodes on the client
+ * side, so the HTTP clients keep working with the DTOs.</p>
+ */
+public class InternalProtobufMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = ProtobufHttpMessageConverter.PROTOBUF;
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private static final Set<Class<?>> REQUEST_TYPES = Set.of(
+        UserCreateDto.class, UserUpdateDto.class,
+        RegisterRequest.class, LoginRequest.class, RefreshTokenRequest.class);
+
+    private static final Set<Class<?>> PAYLOAD_TYPES = Set.of(
+        Void.class, UserResponse.class, List.class, PagedResponse.class, CursorPage.class,
+        ExistsResponse.class, AuthResponse.class, TokenValidationResponse.class);
+
+    private final JsonMapper jsonMapper;
+
+    /**
+     * @param jsonMapper the application's mapper, which writes error responses
+     */
+    public InternalProtobufMessageConverter(JsonMapper jsonMapper) {
+        super(PROTOBUF);
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == ApiResponse.class || REQUEST_TYPES.contains(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return supportsType(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return supportsType(type != null ? type : clazz) && canWrite(mediaType);
+    }
+
+    /**
+     * Only the payloads the internal API actually carries; anything else (validation error
+     * maps, for one) falls through to JSON.
+     */
+    private boolean supportsType(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve();
+        if (raw == null || !supports(raw)) {
+            return false;
+        }
+        if (raw != ApiResponse.class) {
+            return true;
+        }
+        ResolvableType payload = resolved.getGeneric(0);
+        Class<?> payloadClass = payload.resolve(Void.class);
+        if (payloadClass == List.class || payloadClass == PagedResponse.class || payloadClass == CursorPage.class) {
+            return payload.getGeneric(0).resolve(UserResponse.class) == UserResponse.class;
+        }
+        return PAYLOAD_TYPES.contains(payloadClass);
+    }
+
+    // ==================== Writing ====================
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (body instanceof ApiResponse<?> response && !response.isSuccess()) {
+            byte[] json = jsonMapper.writeValueAsBytes(response);
+            outputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            outputMessage.getHeaders().setContentLength(json.length);
+            outputMessage.getBody().write(json);
+            return;
+        }
+        Message message = toMessage(body instanceof ApiResponse<?> response ? response.getData() : body);
+        if (message == null) {
+            outputMessage.getHeaders().setContentLength(0);
+            return;
+        }
+        outputMessage.getHeaders().setContentLength(message.getSerializedSize());
+        message.writeTo(outputMessage.getBody());
+    }
+
+    private static Message toMessage(Object value) {
+        return switch (value) {
+            case null -> null;
+            case UserResponse user -> toProto(user);
+            case List<?> users -> BatchGetUsersResponse.newBuilder()
+                .addAllUsers(users.stream().map(user -> toProto((UserResponse) user)).toList())
+                .build();
+            case PagedResponse<?> page -> ListUsersResponse.newBuilder()
+                .addAllUsers(page.getContent().stream().map(user -> toProto((UserResponse) user)).toList())
+                .setPageInfo(PageInfo.newBuilder()
+                    .setPage(page.getPage())
+                    .setSize(page.getSize())
+                    .setTotalElements(page.getTotalElements())
+                    .setTotalPages(page.getTotalPages()))
+                .build();
+            case CursorPage<?> page -> {
+                ListUsersResponse.Builder builder = ListUsersResponse.newBuilder()
+                    .addAllUsers(page.getContent().stream().map(user -> toProto((UserResponse) user)).toList())
+                    .setNextCursor(nullToEmpty(page.getNextCursor()));
+                if (page.getTotalElements() != null) {
+                    builder.setPageInfo(PageInfo.newBuilder()
+                        .setSize(page.getSize())
+                        .setTotalElements(page.getTotalElements()));
+                }
+                yield builder.build();
+            }
+            case ExistsResponse exists -> com.arcana.cloud.grpc.ExistsResponse.newBuilder()
+                .setExists(exists.isExists())
+                .build();
+            case AuthResponse auth -> toProto(auth);
+            case TokenValidationResponse validation -> ValidateTokenResponse.newBuilder()
+                .setValid(validation.isValid())
+                .setUserId(validation.getUserId() != null ? validation.getUserId() : 0)
+                .setUsername(nullToEmpty(validation.getUsername()))
+                .setRole(nullToEmpty(validation.getRole()))
+                .build();
+            case UserCreateDto create -> CreateUserRequest.newBuilder()
+                .setUsername(nullToEmpty(create.getUsername()))
+                .setEmail(nullToEmpty(create.getEmail()))
+                .setPassword(nullToEmpty(create.getPassword()))
+                .setFirstName(nullToEmpty(create.getFirstName()))
+                .setLastName(nullToEmpty(create.getLastName()))
+                .build();
+            case UserUpdateDto update -> toProto(update);
+            case RegisterRequest register -> com.arcana.cloud.grpc.RegisterRequest.newBuilder()
+                .setUsername(nullToEmpty(register.getUsername()))
+                .setEmail(nullToEmpty(register.getEmail()))
+                .setPassword(nullToEmpty(register.getPassword()))
+                .setConfirmPassword(nullToEmpty(register.getConfirmPassword()))
+                .setFirstName(nullToEmpty(register.getFirstName()))
+                .setLastName(nullToEmpty(register.getLastName()))
+                .build();
+            case LoginRequest login -> com.arcana.cloud.grpc.LoginRequest.newBuilder()
+                .setUsernameOrEmail(nullToEmpty(login.getUsernameOrEmail()))
+                .setPassword(nullToEmpty(login.getPassword()))
+                .build();
+            case RefreshTokenRequest refresh -> com.arcana.cloud.grpc.RefreshTokenRequest.newBuilder()
+                .setRefreshToken(nullToEmpty(refresh.getRefreshToken()))
+                .build();
+            default -> throw new HttpMessageNotWritableException(
+                "No protobuf encoding for " + value.getClass().getName());
+        };
+    }
+
+    private static com.arcana.cloud.grpc.UserResponse toProto(UserResponse user) {
+        return com.arcana.cloud.grpc.UserResponse.newBuilder()
+            .setId(user.getId() != null ? user.getId() : 0)
+            .setUsername(nullToEmpty(user.getUsername()))
+            .setEmail(nullToEmpty(user.getEmail()))
+            .setFirstName(nullToEmpty(user.getFirstName()))
+            .setLastName(nullToEmpty(user.getLastName()))
+            .setRole(user.getRole() != null ? user.getRole().name() : "")
+            .setIsActive(Boolean.TRUE.equals(user.getIsActive()))
+            .setIsVerified(Boolean.TRUE.equals(user.getIsVerified()))
+            .setCreatedAt(user.getCreatedAt() != null ? user.getCreatedAt().format(FORMATTER) : "")
+            .setUpdatedAt(user.getUpdatedAt() != null ? user.getUpdatedAt().format(FORMATTER) : "")
+            .build();
+    }
+
+    private static com.arcana.cloud.grpc.AuthResponse toProto(AuthResponse auth) {
+        com.arcana.cloud.grpc.AuthResponse.Builder builder = com.arcana.cloud.grpc.AuthResponse.newBuilder()
+            .setAccessToken(nullToEmpty(auth.getAccessToken()))
+            .setRefreshToken(nullToEmpty(auth.getRefreshToken()))
+            .setTokenType(nullToEmpty(auth.getTokenType()))
+            .setExpiresIn(auth.getExpiresIn() != null ? auth.getExpiresIn() : 0);
+        UserResponse user = auth.getUser();
+        if (user != null) {
+            builder.setUser(UserInfo.newBuilder()
+                .setId(user.getId() != null ? user.getId() : 0)
+                .setUsername(nullToEmpty(user.getUsername()))
+                .setEmail(nullToEmpty(user.getEmail()))
+                .setFirstName(nullToEmpty(user.getFirstName()))
+                .setLastName(nullToEmpty(user.getLastName()))
+                .setRole(user.getRole() != null ? user.getRole().name() : "")
+                .setIsActive(Boolean.TRUE.equals(user.getIsActive()))
+                .setIsVerified(Boolean.TRUE.equals(user.getIsVerified())));
+        }
+        return builder.build();
+    }
+
+    private static UpdateUserRequest toProto(UserUpdateDto update) {
+        // The user ID travels in the path
+        UpdateUserRequest.Builder builder = UpdateUserRequest.newBuilder();
+        if (update.getUsername() != null) builder.setUsername(update.getUsername());
+        if (update.getEmail() != null) builder.setEmail(update.getEmail());
+        if (update.getPassword() != null) builder.setPassword(update.getPassword());
+        if (update.getFirstName() != null) builder.setFirstName(update.getFirstName());
+        if (update.getLastName() != null) builder.setLastName(update.getLastName());
+        if (update.getIsActive() != null) builder.setIsActive(update.getIsActive());
+        if (update.getIsVerified() != null) builder.setIsVerified(update.getIsVerified());
+        return builder.build();
+    }
+
+    // ==================== Reading ====================
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve(Object.class);
+        try (InputStream body = inputMessage.getBody()) {
+            if (raw == ApiResponse.class) {
+                return ApiResponse.success(readPayload(resolved.getGeneric(0).resolve(Void.class), body));
+            }
+            return readRequest(raw, body, inputMessage);
+        }
+    }
+
+    private static Object readPayload(Class<?> payloadClass, InputStream body) throws IOException {
+        if (payloadClass == Void.class) {
+            return null;
+        }
+        if (payloadClass == UserResponse.class) {
+            return fromProto(com.arcana.cloud.grpc.UserResponse.parseFrom(body));
+        }
+        if (payloadClass == List.class) {
+            return BatchGetUsersResponse.parseFrom(body).getUsersList().stream()
+                .map(InternalProtobufMessageConverter::fromProto)
+                .toList();
+        }
+        if (payloadClass == PagedResponse.class) {
+            ListUsersResponse page = ListUsersResponse.parseFrom(body);
+            return PagedResponse.<UserResponse>builder()
+                .content(page.getUsersList().stream().map(InternalProtobufMessageConverter::fromProto).toList())
+                .page(page.getPageInfo().getPage())
+                .size(page.getPageInfo().getSize())
+                .totalElements(page.getPageInfo().getTotalElements())
+                .totalPages(page.getPageInfo().getTotalPages())
+                .build();
+        }
+        if (payloadClass == CursorPage.class) {
+            ListUsersResponse page = ListUsersResponse.parseFrom(body);
+            return CursorPage.<UserResponse>builder()
+                .content(page.getUsersList().stream().map(InternalProtobufMessageConverter::fromProto).toList())
+                .size(page.getPageInfo().getSize())
+                .nextCursor(page.getNextCursor().isEmpty() ? null : page.getNextCursor())
+                .totalElements(page.hasPageInfo() ? page.getPageInfo().getTotalElements() : null)
+                .build();
+        }
+        if (payloadClass == ExistsResponse.class) {
+            return new ExistsResponse(com.arcana.cloud.grpc.ExistsResponse.parseFrom(body).getExists());
+        }
+        if (payloadClass == AuthResponse.class) {
+            return fromProto(com.arcana.cloud.grpc.AuthResponse.parseFrom(body));
+        }
+        if (payloadClass == TokenValidationResponse.class) {
+            ValidateTokenResponse validation = ValidateTokenResponse.parseFrom(body);
+            TokenValidationResponse response = new TokenValidationResponse();
+            response.setValid(validation.getValid());
+            if (validation.getValid()) {
+                response.setUserId(validation.getUserId());
+                response.setUsername(validation.getUsername());
+                response.setRole(validation.getRole());
+            }
+            return response;
+        }
+        throw new IllegalArgumentException("No protobuf decoding for " + payloadClass.getName());
+    }
+
+    private static Object readRequest(Class<?> clazz, InputStream body, HttpInputMessage inputMessage)
+            throws IOException {
+        if (clazz == UserCreateDto.class) {
+            CreateUserRequest request = CreateUserRequest.parseFrom(body);
+            return new UserCreateDto(request.getUsername(), request.getEmail(), request.getPassword(),
+                emptyToNull(request.getFirstName()), emptyToNull(request.getLastName()));
+        }
+        if (clazz == UserUpdateDto.class) {
+            UpdateUserRequest request = UpdateUserRequest.parseFrom(body);
+            UserUpdateDto update = new UserUpdateDto();
+            if (request.hasUsername()) update.setUsername(request.getUsername());
+            if (request.hasEmail()) update.setEmail(request.getEmail());
+            if (request.hasPassword()) update.setPassword(request.getPassword());
+            if (request.hasFirstName()) update.setFirstName(request.getFirstName());
+            if (request.hasLastName()) update.setLastName(request.getLastName());
+            if (request.hasIsActive()) update.setIsActive(request.getIsActive());
+            if (request.hasIsVerified()) update.setIsVerified(request.getIsVerified());
+            return update;
+        }
+        if (clazz == RegisterRequest.class) {
+            com.arcana.cloud.grpc.RegisterRequest request = com.arcana.cloud.grpc.RegisterRequest.parseFrom(body);
+            return RegisterRequest.builder()
+                .username(request.getUsername())
+                .email(request.getEmail())
+                .password(request.getPassword())
+                .confirmPassword(request.getConfirmPassword())
+                .firstName(emptyToNull(request.getFirstName()))
+                .lastName(emptyToNull(request.getLastName()))
+                .build();
+        }
+        if (clazz == LoginRequest.class) {
+            com.arcana.cloud.grpc.LoginRequest request = com.arcana.cloud.grpc.LoginRequest.parseFrom(body);
+            return LoginRequest.builder()
+                .usernameOrEmail(request.getUsernameOrEmail())
+                .password(request.getPassword())
+                .build();
+        }
+        if (clazz == RefreshTokenRequest.class) {
+            return RefreshTokenRequest.builder()
+                .refreshToken(com.arcana.cloud.grpc.RefreshTokenRequest.parseFrom(body).getRefreshToken())
+                .build();
+        }
+        throw new HttpMessageNotReadableException("No protobuf decoding for " + clazz.getName(), inputMessage);
+    }
+
+    private static UserResponse fromProto(com.arcana.cloud.grpc.UserResponse user) {
+        return UserResponse.builder()
+            .id(user.getId())
+            .username(user.getUsername())
+            .email(user.getEmail())
+            .firstName(emptyToNull(user.getFirstName()))
+            .lastName(emptyToNull(user.getLastName()))
+            .role(user.getRole().isEmpty() ? null : UserRole.valueOf(user.getRole()))
+            .isActive(user.getIsActive())
+            .isVerified(user.getIsVerified())
+            .createdAt(user.getCreatedAt().isEmpty() ? null : LocalDateTime.parse(user.getCreatedAt(), FORMATTER))
+            .updatedAt(user.getUpdatedAt().isEmpty() ? null : LocalDateTime.parse(user.getUpdatedAt(), FORMATTER))
+            .build();
+    }
+
+    private static AuthResponse fromProto(com.arcana.cloud.grpc.AuthResponse auth) {
+        AuthResponse.AuthResponseBuilder builder = AuthResponse.builder()
+            .accessToken(auth.getAccessToken())
+            .refreshToken(auth.getRefreshToken())
+            .tokenType(auth.getTokenType())
+            .expiresIn(auth.getExpiresIn());
+        if (auth.hasUser()) {
+            UserInfo user = auth.getUser();
+            builder.user(UserResponse.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(emptyToNull(user.getFirstName()))
+                .lastName(emptyToNull(user.getLastName()))
+                .role(user.getRole().isEmpty() ? null : UserRole.valueOf(user.getRole()))
+                .isActive(user.getIsActive())
+                .isVerified(user.getIsVerified())
+                .build());
+        }
+        return builder.build();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Proto strings cannot be null; optional names come back empty and are read as absent,
+     * as in the JSON encoding and the gRPC client.
+     */
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
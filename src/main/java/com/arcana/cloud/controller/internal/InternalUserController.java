@@ -1,11 +1,14 @@
 package com.arcana.cloud.controller.internal;
 
+import com.arcana.cloud.controller.NdjsonResponseWriter;
 import com.arcana.cloud.dto.response.ApiResponse;
+import com.arcana.cloud.dto.response.CursorPage;
 import com.arcana.cloud.dto.response.PagedResponse;
 import com.arcana.cloud.dto.response.UserResponse;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.mapper.UserMapper;
 import com.arcana.cloud.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
@@ -21,7 +24,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -40,6 +45,7 @@ public class InternalUserController {
 
     private final UserService userService;
     private final UserMapper userMapper;
+    private final JsonMapper jsonMapper;
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<UserResponse>> getUser(@PathVariable Long id) {
@@ -48,6 +54,23 @@ public class InternalUserController {
         return ResponseEntity.ok(ApiResponse.success(userMapper.toResponse(user), "User retrieved"));
     }
 
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<List<UserResponse>>> getUsers(@RequestParam List<Long> ids) {
+        log.debug("Internal HTTP: Getting {} users by id", ids.size());
+        List<UserResponse> users = userService.getUsersByIds(ids).stream()
+            .map(userMapper::toResponse)
+            .toList();
+        return ResponseEntity.ok(ApiResponse.success(users, "Users retrieved"));
+    }
+
+    @GetMapping(value = "/export", produces = NdjsonResponseWriter.CONTENT_TYPE)
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        log.info("Internal HTTP: Exporting all users");
+        NdjsonResponseWriter writer = new NdjsonResponseWriter(response, jsonMapper);
+        userService.exportUsers(user -> writer.accept(userMapper.toResponse(user)));
+        writer.finish();
+    }
+
     @GetMapping("/username/{username}")
     public ResponseEntity<ApiResponse<UserResponse>> getUserByUsername(
             @PathVariable String username) {
@@ -69,6 +92,17 @@ public class InternalUserController {
                 .body(ApiResponse.error("User not found")));
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<UserResponse>>> listUsersAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.debug("Internal HTTP: Listing users after cursor, size: {}", size);
+        CursorPage<UserResponse> response = userService.getUsersAfter(after, size, includeTotal)
+            .map(userMapper::toResponse);
+        return ResponseEntity.ok(ApiResponse.success(response, "Users retrieved"));
+    }
+
     @GetMapping
     public ResponseEntity<ApiResponse<PagedResponse<UserResponse>>> listUsers(
             @RequestParam(defaultValue = "0") int page,
@@ -171,6 +205,7 @@ public class InternalUserController {
     }
 
     @lombok.Data
+    @lombok.NoArgsConstructor
     @lombok.AllArgsConstructor
     public static class ExistsResponse {
         private boolean exists;
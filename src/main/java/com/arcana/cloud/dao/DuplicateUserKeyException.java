@@ -0,0 +1,22 @@
+package com.arcana.cloud.dao;
+
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * A user write rejected because the username or email is taken, with the key already
+ * classified; thrown where the original driver error is not at hand, such as on the far
+ * side of a gRPC call.
+ */
+public class DuplicateUserKeyException extends DuplicateKeyException {
+
+    private final UserKeyConflict conflict;
+
+    public DuplicateUserKeyException(UserKeyConflict conflict, Throwable cause) {
+        super(conflict.message(), cause);
+        this.conflict = conflict;
+    }
+
+    public UserKeyConflict getConflict() {
+        return conflict;
+    }
+}
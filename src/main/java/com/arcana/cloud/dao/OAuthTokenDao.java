@@ -52,6 +52,17 @@ public interface OAuthTokenDao extends BaseDao<OAuthToken, Long> {
      */
     void revokeByAccessToken(String accessToken);
 
+    /**
+     * Revoke a token by refresh token string, but only if it is still active
+     * (not revoked and the refresh token not expired). Performed as a single
+     * conditional update, so of several concurrent callers exactly one succeeds.
+     *
+     * @param refreshToken the refresh token
+     * @param now the current timestamp
+     * @return true if this call revoked the token, false if it was unknown, already revoked or expired
+     */
+    boolean revokeIfActive(String refreshToken, LocalDateTime now);
+
     /**
      * Delete expired or revoked tokens.
      *
@@ -67,4 +78,13 @@ public interface OAuthTokenDao extends BaseDao<OAuthToken, Long> {
      * @return list of valid tokens
      */
     List<OAuthToken> findValidTokensByUser(User user, LocalDateTime now);
+
+    /**
+     * Find revoked tokens whose access token has not expired yet.
+     * Only the user ID is populated on the returned tokens.
+     *
+     * @param now the current timestamp
+     * @return list of revoked, unexpired tokens
+     */
+    List<OAuthToken> findRevokedUnexpiredTokens(LocalDateTime now);
 }
@@ -0,0 +1,56 @@
+package com.arcana.cloud.dao;
+
+import com.arcana.cloud.entity.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the user listing, which is ordered by {@code created_at} then
+ * {@code id}, both descending: the next page starts after this user.
+ *
+ * <p>Clients only ever see the {@linkplain #encode() encoded} form, an opaque URL-safe
+ * token, so the ordering can change without breaking the API contract.</p>
+ *
+ * @param createdAt creation time of the last user on the previous page
+ * @param id ID of the last user on the previous page
+ */
+public record UserCursor(LocalDateTime createdAt, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = createdAt + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor an encoded cursor, or null/blank for the first page
+     * @return the position, or null for the first page
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}
+     */
+    public static UserCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new UserCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * @return the position after the given user, or null if it has no creation time
+     */
+    public static UserCursor after(User user) {
+        return user.getCreatedAt() != null && user.getId() != null
+            ? new UserCursor(user.getCreatedAt(), user.getId())
+            : null;
+    }
+}
@@ -2,9 +2,13 @@ package com.arcana.cloud.dao;
 
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object interface for User entity.
@@ -13,6 +17,11 @@ import java.util.Optional;
  */
 public interface UserDao extends BaseDao<User, Long> {
 
+    /**
+     * Rows fetched per round trip by {@link #streamAll(Consumer)}.
+     */
+    int STREAM_FETCH_SIZE = 1000;
+
     /**
      * Find user by username.
      *
@@ -54,6 +63,91 @@ public interface UserDao extends BaseDao<User, Long> {
      */
     boolean existsByEmail(String email);
 
+    /**
+     * Find the users with the given IDs in a single query.
+     *
+     * @param ids the user IDs
+     * @return the users found, in no particular order; unknown IDs are left out
+     */
+    List<User> findAllById(Collection<Long> ids);
+
+    /**
+     * Find the users holding any of the given usernames or emails in a single query, e.g.
+     * to check a batch of new users against the unique keys at once.
+     *
+     * @param usernames usernames to look for; may be empty
+     * @param emails emails to look for; may be empty
+     * @return the users found, in no particular order
+     */
+    List<User> findAllByUsernameOrEmail(Collection<String> usernames, Collection<String> emails);
+
+    /**
+     * Insert new users with one batched write rather than a statement per user. Either all
+     * of them are inserted or, if a username or email is already taken, none are. Generated
+     * IDs are not reported back.
+     *
+     * @param users users without an ID; passwords must already be encoded
+     * @throws org.springframework.dao.DataIntegrityViolationException if a username or email
+     *         is taken
+     */
+    void insertAll(List<User> users);
+
+    /**
+     * Update only the given fields of a user with a single {@code UPDATE} statement, without
+     * reading the row first. Fields left {@code null} in {@code changes} keep their stored
+     * value; the update time is always refreshed.
+     *
+     * @param id the user ID
+     * @param changes the new values; passwords must already be encoded
+     * @return false if there is no user with that ID
+     * @throws org.springframework.dao.DataIntegrityViolationException if the new username or
+     *         email is taken
+     */
+    boolean updateFields(Long id, User changes);
+
+    /**
+     * Pass every user, ordered by ID, to an action through an open database cursor that
+     * fetches {@value #STREAM_FETCH_SIZE} rows at a time, so memory use does not grow with
+     * the table. The cursor (and its read transaction) stays open until the action has seen
+     * the last user; an exception from the action closes it and propagates.
+     *
+     * @param action called once per user, on the calling thread
+     * @return the number of users passed to the action
+     */
+    long streamAll(Consumer<? super User> action);
+
+    /**
+     * Find the next users in {@code created_at DESC, id DESC} order by keyset, without
+     * an offset or a count.
+     *
+     * @param after position to continue after, or null for the first page
+     * @param limit maximum number of users to return
+     * @return up to {@code limit} users following the cursor
+     */
+    List<User> findAllAfter(UserCursor after, int limit);
+
+    /**
+     * Find one page of the users matching a filter, newest first. Only the page is read
+     * from the store, so callers can walk large result sets page by page.
+     *
+     * @param filter the predicates to match
+     * @param pageable page number and size; its sort is ignored
+     * @return the page, with the total number of matching users
+     */
+    Page<User> findAll(UserFilter filter, Pageable pageable);
+
+    /**
+     * Find the users matching a filter after a keyset position, newest first, in the
+     * order of {@link #findAllAfter(UserCursor, int)}. Nothing is counted, so walking a
+     * large result set costs one index range read per page.
+     *
+     * @param filter the predicates to match
+     * @param after the last user of the previous page, or null for the first page
+     * @param limit the maximum number of users to return
+     * @return up to {@code limit} matching users following the cursor
+     */
+    List<User> findAllAfter(UserFilter filter, UserCursor after, int limit);
+
     /**
      * Find active users by role.
      *
@@ -0,0 +1,35 @@
+package com.arcana.cloud.dao;
+
+import com.arcana.cloud.entity.UserRole;
+
+/**
+ * Predicates on the user flags for a filtered listing. A user matches when it has every
+ * value that is set; a null component matches any value.
+ *
+ * @param role the role to match, or null
+ * @param isActive the active flag to match, or null
+ * @param isVerified the verified flag to match, or null
+ */
+public record UserFilter(UserRole role, Boolean isActive, Boolean isVerified) {
+
+    /**
+     * Active users with the given role.
+     */
+    public static UserFilter activeWithRole(UserRole role) {
+        return new UserFilter(role, true, null);
+    }
+
+    /**
+     * All active users.
+     */
+    public static UserFilter active() {
+        return new UserFilter(null, true, null);
+    }
+
+    /**
+     * Active users that have not verified their email yet.
+     */
+    public static UserFilter unverified() {
+        return new UserFilter(null, true, false);
+    }
+}
@@ -0,0 +1,104 @@
+package com.arcana.cloud.dao;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Which unique user key a write collided with, told from the name of the violated
+ * constraint or index.
+ *
+ * <p>Only the constraint name is looked at, never the rest of the driver message: that
+ * also quotes the rejected value, which is user input. Integrity violations that are not
+ * unique-key violations (a missing or too long value) are not conflicts at all.</p>
+ */
+public enum UserKeyConflict {
+
+    USERNAME("Username already exists"),
+    EMAIL("Email already exists"),
+    /**
+     * A unique violation whose constraint could not be told apart.
+     */
+    UNKNOWN("Username or email already exists");
+
+    /**
+     * Unique violations as each store reports them; group 1 is the constraint, index or
+     * column name. The rejected value comes before it (MySQL) or after it (H2, MongoDB).
+     */
+    private static final List<Pattern> UNIQUE_VIOLATIONS = List.of(
+        // MySQL: Duplicate entry 'alice' for key 'users.username'
+        Pattern.compile("^Duplicate entry '.*' for key '([^']+)'$"),
+        // PostgreSQL: duplicate key value violates unique constraint "users_username_key"
+        Pattern.compile("duplicate key value violates unique constraint \"([^\"]+)\""),
+        // H2: Unique index or primary key violation: "PUBLIC.CONSTRAINT_INDEX_4 ON PUBLIC.USERS(USERNAME ...) ..."
+        Pattern.compile("^Unique index or primary key violation: \"[\\w.]+ ON [\\w.]+\\((\\w+)"),
+        // MongoDB: E11000 duplicate key error collection: arcana.users index: username_1 dup key: ...
+        Pattern.compile("E11000 duplicate key error collection: \\S+ index: (\\S+)")
+    );
+
+    private final String message;
+
+    UserKeyConflict(String message) {
+        this.message = message;
+    }
+
+    /**
+     * The validation message clients get for this conflict.
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * Classifies an integrity violation from a user write.
+     *
+     * @return the key that was taken, or empty if the violation is not a unique-key violation
+     */
+    public static Optional<UserKeyConflict> of(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateUserKeyException duplicate) {
+            return Optional.of(duplicate.getConflict());
+        }
+        String constraint = constraintName(e);
+        if (constraint != null) {
+            return Optional.of(fromConstraintName(constraint));
+        }
+        return e instanceof DuplicateKeyException ? Optional.of(UNKNOWN) : Optional.empty();
+    }
+
+    static UserKeyConflict fromConstraintName(String constraint) {
+        String name = constraint.toLowerCase(Locale.ROOT);
+        boolean username = name.contains("username");
+        boolean email = name.contains("email");
+        if (username && !email) {
+            return USERNAME;
+        }
+        if (email && !username) {
+            return EMAIL;
+        }
+        return UNKNOWN;
+    }
+
+    private static String constraintName(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.hibernate.exception.ConstraintViolationException violation
+                    && violation.getKind() == org.hibernate.exception.ConstraintViolationException.ConstraintKind.UNIQUE
+                    && violation.getConstraintName() != null) {
+                return violation.getConstraintName();
+            }
+        }
+        // The first line is the driver's; H2 appends the failed statement
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).lines().findFirst().orElse("");
+        for (Pattern pattern : UNIQUE_VIOLATIONS) {
+            Matcher matcher = pattern.matcher(message);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+}
@@ -100,14 +100,14 @@ public class OAuthTokenDaoJpaImpl implements OAuthTokenDao {
     @Transactional(readOnly = true)
     public Optional<OAuthToken> findByAccessToken(String accessToken) {
         log.debug("JPA DAO: Finding token by access token");
-        return tokenJpaRepository.findByAccessToken(accessToken);
+        return tokenJpaRepository.findByAccessTokenHash(OAuthToken.digest(accessToken));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<OAuthToken> findByRefreshToken(String refreshToken) {
         log.debug("JPA DAO: Finding token by refresh token");
-        return tokenJpaRepository.findByRefreshToken(refreshToken);
+        return tokenJpaRepository.findByRefreshTokenHash(OAuthToken.digest(refreshToken));
     }
 
     @Override
@@ -126,7 +126,13 @@ public class OAuthTokenDaoJpaImpl implements OAuthTokenDao {
     @Override
     public void revokeByAccessToken(String accessToken) {
         log.info("JPA DAO: Revoking token by access token");
-        tokenJpaRepository.revokeByAccessToken(accessToken);
+        tokenJpaRepository.revokeByAccessTokenHash(OAuthToken.digest(accessToken));
+    }
+
+    @Override
+    public boolean revokeIfActive(String refreshToken, LocalDateTime now) {
+        log.debug("JPA DAO: Revoking token by refresh token if active");
+        return tokenJpaRepository.revokeIfActive(OAuthToken.digest(refreshToken), now) > 0;
     }
 
     @Override
@@ -141,4 +147,10 @@ public class OAuthTokenDaoJpaImpl implements OAuthTokenDao {
         log.debug("JPA DAO: Finding valid tokens for user: {}", user.getId());
         return tokenJpaRepository.findValidTokensByUser(user, now);
     }
+
+    @Override
+    public List<OAuthToken> findRevokedUnexpiredTokens(LocalDateTime now) {
+        log.debug("JPA DAO: Finding revoked unexpired tokens");
+        return tokenJpaRepository.findRevokedUnexpiredTokens(now);
+    }
 }
@@ -1,19 +1,41 @@
 package com.arcana.cloud.dao.impl.jpa;
 
 import com.arcana.cloud.dao.impl.jpa.repository.UserJpaRepository;
+import com.arcana.cloud.dao.UserCursor;
 import com.arcana.cloud.dao.UserDao;
+import com.arcana.cloud.dao.UserFilter;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * JPA implementation of UserDao.
@@ -27,7 +49,14 @@ import java.util.Optional;
 @ConditionalOnProperty(name = "database.orm", havingValue = "jpa")
 public class UserDaoJpaImpl implements UserDao {
 
+    private static final String INSERT_SQL = "INSERT INTO users (username, email, password, first_name, "
+        + "last_name, role, is_active, is_verified, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     private final UserJpaRepository userJpaRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public User save(User user) {
@@ -67,6 +96,155 @@ public class UserDaoJpaImpl implements UserDao {
         return userJpaRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<? super User> action) {
+        log.debug("JPA DAO: Streaming all users");
+        long count = 0;
+        try (Stream<User> users = userJpaRepository.streamAllByOrderByIdAsc()) {
+            for (User user : (Iterable<User>) users::iterator) {
+                action.accept(user);
+                // Keep the persistence context from holding every row read so far
+                if (entityManager != null) {
+                    entityManager.detach(user);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllById(Collection<Long> ids) {
+        log.debug("JPA DAO: Finding {} users by id", ids.size());
+        return userJpaRepository.findAllById(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllByUsernameOrEmail(Collection<String> usernames, Collection<String> emails) {
+        log.debug("JPA DAO: Finding users by {} usernames and {} emails", usernames.size(), emails.size());
+        return userJpaRepository.findByUsernameInOrEmailIn(usernames, emails);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Written as a JDBC batch in the surrounding transaction: Hibernate cannot batch
+     * inserts of entities with IDENTITY keys, and imported users need no managed state.</p>
+     */
+    @Override
+    public void insertAll(List<User> users) {
+        log.debug("JPA DAO: Inserting {} users", users.size());
+        if (users.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, users, users.size(), (statement, user) -> {
+            statement.setString(1, user.getUsername());
+            statement.setString(2, user.getEmail());
+            statement.setString(3, user.getPassword());
+            statement.setString(4, user.getFirstName());
+            statement.setString(5, user.getLastName());
+            statement.setString(6, Objects.requireNonNullElse(user.getRole(), UserRole.USER).name());
+            statement.setObject(7, user.getIsActive());
+            statement.setObject(8, user.getIsVerified());
+            statement.setTimestamp(9, now);
+            statement.setTimestamp(10, now);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Issued as a criteria bulk update, which bypasses the persistence context: pending
+     * changes are flushed first, and a copy of the user already loaded in this transaction
+     * is detached afterwards so it is neither read back stale nor written over the update.</p>
+     */
+    @Override
+    public boolean updateFields(Long id, User changes) {
+        log.debug("JPA DAO: Updating fields of user id: {}", id);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+        update.set(user.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+        setIfPresent(update, user, "username", changes.getUsername());
+        setIfPresent(update, user, "email", changes.getEmail());
+        setIfPresent(update, user, "password", changes.getPassword());
+        setIfPresent(update, user, "firstName", changes.getFirstName());
+        setIfPresent(update, user, "lastName", changes.getLastName());
+        setIfPresent(update, user, "role", changes.getRole());
+        setIfPresent(update, user, "isActive", changes.getIsActive());
+        setIfPresent(update, user, "isVerified", changes.getIsVerified());
+        update.where(cb.equal(user.get("id"), id));
+
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        if (updated > 0) {
+            // getReference returns the managed instance, if any, without a query
+            entityManager.detach(entityManager.getReference(User.class, id));
+        }
+        return updated > 0;
+    }
+
+    private static <T> void setIfPresent(CriteriaUpdate<User> update, Root<User> user, String attribute, T value) {
+        if (value != null) {
+            update.set(user.<T>get(attribute), value);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllAfter(UserCursor after, int limit) {
+        log.debug("JPA DAO: Finding users after cursor, limit={}", limit);
+        return after == null
+            ? userJpaRepository.findAllByOrderByCreatedAtDescIdDesc(Limit.of(limit))
+            : userJpaRepository.findAllAfter(after.createdAt(), after.id(), Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<User> findAll(UserFilter filter, Pageable pageable) {
+        log.debug("JPA DAO: Finding users by {}, page={}", filter, pageable.getPageNumber());
+        // Query by example skips null properties, so the probe holds only the predicates
+        User probe = User.builder()
+            .role(filter.role())
+            .isActive(filter.isActive())
+            .isVerified(filter.isVerified())
+            .build();
+        return userJpaRepository.findAll(Example.of(probe), PageRequest.of(
+            pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "createdAt", "id")));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllAfter(UserFilter filter, UserCursor after, int limit) {
+        log.debug("JPA DAO: Finding users by {} after cursor, limit={}", filter, limit);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = cb.createQuery(User.class);
+        Root<User> user = query.from(User.class);
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.role() != null) {
+            predicates.add(cb.equal(user.get("role"), filter.role()));
+        }
+        if (filter.isActive() != null) {
+            predicates.add(cb.equal(user.get("isActive"), filter.isActive()));
+        }
+        if (filter.isVerified() != null) {
+            predicates.add(cb.equal(user.get("isVerified"), filter.isVerified()));
+        }
+        if (after != null) {
+            Path<LocalDateTime> createdAt = user.get("createdAt");
+            predicates.add(cb.or(
+                cb.lessThan(createdAt, after.createdAt()),
+                cb.and(cb.equal(createdAt, after.createdAt()), cb.lessThan(user.get("id"), after.id()))));
+        }
+        query.where(predicates.toArray(Predicate[]::new))
+            .orderBy(cb.desc(user.get("createdAt")), cb.desc(user.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public long count() {
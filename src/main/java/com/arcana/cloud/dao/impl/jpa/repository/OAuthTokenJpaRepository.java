@@ -21,9 +21,9 @@ import java.util.Optional;
 @ConditionalOnProperty(name = "database.orm", havingValue = "jpa")
 public interface OAuthTokenJpaRepository extends JpaRepository<OAuthToken, Long> {
 
-    Optional<OAuthToken> findByAccessToken(String accessToken);
+    Optional<OAuthToken> findByAccessTokenHash(byte[] accessTokenHash);
 
-    Optional<OAuthToken> findByRefreshToken(String refreshToken);
+    Optional<OAuthToken> findByRefreshTokenHash(byte[] refreshTokenHash);
 
     List<OAuthToken> findByUserAndIsRevokedFalse(User user);
 
@@ -32,8 +32,13 @@ public interface OAuthTokenJpaRepository extends JpaRepository<OAuthToken, Long>
     void revokeAllTokensByUser(@Param("user") User user);
 
     @Modifying
-    @Query("UPDATE OAuthToken t SET t.isRevoked = true WHERE t.accessToken = :accessToken")
-    void revokeByAccessToken(@Param("accessToken") String accessToken);
+    @Query("UPDATE OAuthToken t SET t.isRevoked = true WHERE t.accessTokenHash = :accessTokenHash")
+    void revokeByAccessTokenHash(@Param("accessTokenHash") byte[] accessTokenHash);
+
+    @Modifying
+    @Query("UPDATE OAuthToken t SET t.isRevoked = true WHERE t.refreshTokenHash = :refreshTokenHash "
+        + "AND t.isRevoked = false AND t.refreshExpiresAt > :now")
+    int revokeIfActive(@Param("refreshTokenHash") byte[] refreshTokenHash, @Param("now") LocalDateTime now);
 
     @Modifying
     @Query("DELETE FROM OAuthToken t WHERE t.expiresAt < :now OR t.isRevoked = true")
@@ -41,4 +46,7 @@ public interface OAuthTokenJpaRepository extends JpaRepository<OAuthToken, Long>
 
     @Query("SELECT t FROM OAuthToken t WHERE t.user = :user AND t.isRevoked = false AND t.expiresAt > :now")
     List<OAuthToken> findValidTokensByUser(@Param("user") User user, @Param("now") LocalDateTime now);
+
+    @Query("SELECT t FROM OAuthToken t WHERE t.isRevoked = true AND t.expiresAt > :now")
+    List<OAuthToken> findRevokedUnexpiredTokens(@Param("now") LocalDateTime now);
 }
@@ -1,15 +1,23 @@
 package com.arcana.cloud.dao.impl.jpa.repository;
 
+import com.arcana.cloud.dao.UserDao;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Internal JPA repository for User entity.
@@ -29,6 +37,21 @@ public interface UserJpaRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
+    List<User> findByUsernameInOrEmailIn(Collection<String> usernames, Collection<String> emails);
+
+    List<User> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + UserDao.STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllByOrderByIdAsc();
+
+    @Query("SELECT u FROM User u WHERE u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id) "
+        + "ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findAllAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
     @Query("SELECT u FROM User u WHERE u.role = :role AND u.isActive = true")
     List<User> findActiveUsersByRole(@Param("role") UserRole role);
 
@@ -5,6 +5,7 @@ import com.arcana.cloud.dao.UserDao;
 import com.arcana.cloud.document.OAuthTokenDocument;
 import com.arcana.cloud.entity.OAuthToken;
 import com.arcana.cloud.entity.User;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -23,6 +24,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * MongoDB implementation of OAuthTokenDao.
@@ -37,6 +39,8 @@ public class OAuthTokenDaoMongodbImpl implements OAuthTokenDao {
     private static final String FIELD_LEGACY_ID = "legacyId";
     private static final String FIELD_IS_REVOKED = "isRevoked";
     private static final String FIELD_USER_LEGACY_ID = "userLegacyId";
+    private static final String FIELD_ACCESS_TOKEN_HASH = "accessTokenHash";
+    private static final String FIELD_REFRESH_TOKEN_HASH = "refreshTokenHash";
 
     private final MongoTemplate mongoTemplate;
     private final UserDao userDao;
@@ -44,6 +48,33 @@ public class OAuthTokenDaoMongodbImpl implements OAuthTokenDao {
     // Simple ID generator for legacy ID compatibility
     private static final AtomicLong idGenerator = new AtomicLong(1000000);
 
+    /**
+     * Fills in the token digests of documents written before tokens were looked up by
+     * digest, as the V3 migration does for SQL stores, so tokens issued before the upgrade
+     * can still be found and revoked. Documents that have their digests are left alone, so
+     * once every document is done this is a single empty query.
+     */
+    @PostConstruct
+    public void backfillTokenHashes() {
+        Query missing = new Query(new Criteria().orOperator(
+                Criteria.where(FIELD_ACCESS_TOKEN_HASH).is(null),
+                Criteria.where(FIELD_REFRESH_TOKEN_HASH).is(null)));
+        long count = 0;
+        try (Stream<OAuthTokenDocument> docs = mongoTemplate.stream(missing, OAuthTokenDocument.class)) {
+            for (OAuthTokenDocument doc : (Iterable<OAuthTokenDocument>) docs::iterator) {
+                Update update = new Update()
+                        .set(FIELD_ACCESS_TOKEN_HASH, OAuthToken.digest(doc.getAccessToken()))
+                        .set(FIELD_REFRESH_TOKEN_HASH, OAuthToken.digest(doc.getRefreshToken()));
+                mongoTemplate.updateFirst(new Query(Criteria.where("id").is(doc.getId())), update,
+                        OAuthTokenDocument.class);
+                count++;
+            }
+        }
+        if (count > 0) {
+            log.info("MongoDB DAO: Backfilled token digests for {} OAuth tokens", count);
+        }
+    }
+
     @Override
     public OAuthToken save(OAuthToken entity) {
         log.debug("MongoDB DAO: Saving OAuth token");
@@ -150,7 +181,7 @@ public class OAuthTokenDaoMongodbImpl implements OAuthTokenDao {
     @Override
     public Optional<OAuthToken> findByAccessToken(String accessToken) {
         log.debug("MongoDB DAO: Finding token by access token");
-        Query query = new Query(Criteria.where("accessToken").is(accessToken));
+        Query query = new Query(Criteria.where(FIELD_ACCESS_TOKEN_HASH).is(OAuthToken.digest(accessToken)));
         OAuthTokenDocument doc = mongoTemplate.findOne(query, OAuthTokenDocument.class);
         return convertToEntity(doc);
     }
@@ -158,7 +189,7 @@ public class OAuthTokenDaoMongodbImpl implements OAuthTokenDao {
     @Override
     public Optional<OAuthToken> findByRefreshToken(String refreshToken) {
         log.debug("MongoDB DAO: Finding token by refresh token");
-        Query query = new Query(Criteria.where("refreshToken").is(refreshToken));
+        Query query = new Query(Criteria.where(FIELD_REFRESH_TOKEN_HASH).is(OAuthToken.digest(refreshToken)));
         OAuthTokenDocument doc = mongoTemplate.findOne(query, OAuthTokenDocument.class);
         return convertToEntity(doc);
     }
@@ -187,11 +218,21 @@ public class OAuthTokenDaoMongodbImpl implements OAuthTokenDao {
     @Override
     public void revokeByAccessToken(String accessToken) {
         log.info("MongoDB DAO: Revoking token by access token");
-        Query query = new Query(Criteria.where("accessToken").is(accessToken));
+        Query query = new Query(Criteria.where(FIELD_ACCESS_TOKEN_HASH).is(OAuthToken.digest(accessToken)));
         Update update = new Update().set(FIELD_IS_REVOKED, true);
         mongoTemplate.updateFirst(query, update, OAuthTokenDocument.class);
     }
 
+    @Override
+    public boolean revokeIfActive(String refreshToken, LocalDateTime now) {
+        log.debug("MongoDB DAO: Revoking token by refresh token if active");
+        Query query = new Query(Criteria.where(FIELD_REFRESH_TOKEN_HASH).is(OAuthToken.digest(refreshToken))
+                .and(FIELD_IS_REVOKED).is(false)
+                .and("refreshExpiresAt").gt(now));
+        Update update = new Update().set(FIELD_IS_REVOKED, true);
+        return mongoTemplate.findAndModify(query, update, OAuthTokenDocument.class) != null;
+    }
+
     @Override
     public void deleteExpiredOrRevokedTokens(LocalDateTime now) {
         log.info("MongoDB DAO: Deleting expired or revoked tokens");
@@ -217,6 +258,20 @@ public class OAuthTokenDaoMongodbImpl implements OAuthTokenDao {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<OAuthToken> findRevokedUnexpiredTokens(LocalDateTime now) {
+        log.debug("MongoDB DAO: Finding revoked unexpired tokens");
+        Query query = new Query(Criteria.where(FIELD_IS_REVOKED).is(true)
+                .and("expiresAt").gt(now));
+        return mongoTemplate.find(query, OAuthTokenDocument.class).stream()
+                .map(doc -> {
+                    OAuthToken token = doc.toEntity(User.builder().id(doc.getUserLegacyId()).build());
+                    token.setId(doc.getLegacyId());
+                    return token;
+                })
+                .collect(Collectors.toList());
+    }
+
     private Optional<OAuthToken> convertToEntity(OAuthTokenDocument doc) {
         if (doc == null) {
             return Optional.empty();
@@ -1,26 +1,39 @@
 package com.arcana.cloud.dao.impl.mongodb;
 
+import com.arcana.cloud.dao.UserCursor;
 import com.arcana.cloud.dao.UserDao;
+import com.arcana.cloud.dao.UserFilter;
 import com.arcana.cloud.document.UserDocument;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * MongoDB implementation of UserDao.
@@ -36,6 +49,8 @@ public class UserDaoMongodbImpl implements UserDao {
     private static final String FIELD_USERNAME = "username";
     private static final String FIELD_EMAIL = "email";
     private static final String FIELD_IS_ACTIVE = "isActive";
+    private static final String FIELD_CREATED_AT = "createdAt";
+    private static final int DUPLICATE_KEY_CODE = 11000;
 
     private final MongoTemplate mongoTemplate;
 
@@ -123,6 +138,190 @@ public class UserDaoMongodbImpl implements UserDao {
         return new PageImpl<>(users, pageable, total);
     }
 
+    @Override
+    public long streamAll(Consumer<? super User> action) {
+        log.debug("MongoDB DAO: Streaming all users");
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, FIELD_LEGACY_ID))
+                .cursorBatchSize(STREAM_FETCH_SIZE);
+        long count = 0;
+        try (Stream<UserDocument> docs = mongoTemplate.stream(query, UserDocument.class)) {
+            for (UserDocument doc : (Iterable<UserDocument>) docs::iterator) {
+                User user = doc.toEntity();
+                user.setId(doc.getLegacyId());
+                action.accept(user);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        log.debug("MongoDB DAO: Finding {} users by id", ids.size());
+        Query query = new Query(Criteria.where(FIELD_LEGACY_ID).in(ids));
+        return mongoTemplate.find(query, UserDocument.class).stream()
+                .map(doc -> {
+                    User user = doc.toEntity();
+                    user.setId(doc.getLegacyId());
+                    return user;
+                })
+                .toList();
+    }
+
+    @Override
+    public List<User> findAllByUsernameOrEmail(Collection<String> usernames, Collection<String> emails) {
+        log.debug("MongoDB DAO: Finding users by {} usernames and {} emails", usernames.size(), emails.size());
+        if (usernames.isEmpty() && emails.isEmpty()) {
+            return List.of();
+        }
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where(FIELD_USERNAME).in(usernames),
+                Criteria.where(FIELD_EMAIL).in(emails)));
+        return mongoTemplate.find(query, UserDocument.class).stream()
+                .map(doc -> {
+                    User user = doc.toEntity();
+                    user.setId(doc.getLegacyId());
+                    return user;
+                })
+                .toList();
+    }
+
+    @Override
+    public void insertAll(List<User> users) {
+        log.debug("MongoDB DAO: Inserting {} users", users.size());
+        if (users.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<UserDocument> documents = users.stream()
+                .map(user -> {
+                    UserDocument document = UserDocument.fromEntity(user);
+                    document.setLegacyId(idGenerator.incrementAndGet());
+                    document.setCreatedAt(now);
+                    document.setUpdatedAt(now);
+                    return document;
+                })
+                .toList();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserDocument.class)
+                    .insert(documents)
+                    .execute();
+        } catch (BulkOperationException e) {
+            // There is no transaction to roll back: remove the documents that did get in, so
+            // the batch stays all or nothing
+            Set<Integer> rejected = e.getErrors().stream()
+                    .map(BulkWriteError::getIndex)
+                    .collect(Collectors.toSet());
+            List<Long> inserted = IntStream.range(0, documents.size())
+                    .filter(i -> !rejected.contains(i))
+                    .mapToObj(i -> documents.get(i).getLegacyId())
+                    .toList();
+            if (!inserted.isEmpty()) {
+                mongoTemplate.remove(new Query(Criteria.where(FIELD_LEGACY_ID).in(inserted)), UserDocument.class);
+            }
+            if (e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY_CODE)) {
+                throw new DuplicateKeyException("Username or email already exists", e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean updateFields(Long id, User changes) {
+        log.debug("MongoDB DAO: Updating fields of user id: {}", id);
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        setIfPresent(update, FIELD_USERNAME, changes.getUsername());
+        setIfPresent(update, FIELD_EMAIL, changes.getEmail());
+        setIfPresent(update, "password", changes.getPassword());
+        setIfPresent(update, "firstName", changes.getFirstName());
+        setIfPresent(update, "lastName", changes.getLastName());
+        setIfPresent(update, "role", changes.getRole());
+        setIfPresent(update, FIELD_IS_ACTIVE, changes.getIsActive());
+        setIfPresent(update, "isVerified", changes.getIsVerified());
+        Query query = new Query(Criteria.where(FIELD_LEGACY_ID).is(id));
+        return mongoTemplate.updateFirst(query, update, UserDocument.class).getMatchedCount() > 0;
+    }
+
+    private static void setIfPresent(Update update, String field, Object value) {
+        if (value != null) {
+            update.set(field, value);
+        }
+    }
+
+    @Override
+    public List<User> findAllAfter(UserCursor after, int limit) {
+        log.debug("MongoDB DAO: Finding users after cursor, limit={}", limit);
+        Query query = new Query();
+        if (after != null) {
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where(FIELD_CREATED_AT).lt(after.createdAt()),
+                Criteria.where(FIELD_CREATED_AT).is(after.createdAt()).and(FIELD_LEGACY_ID).lt(after.id())));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, FIELD_CREATED_AT, FIELD_LEGACY_ID)).limit(limit);
+        return mongoTemplate.find(query, UserDocument.class).stream()
+                .map(doc -> {
+                    User user = doc.toEntity();
+                    user.setId(doc.getLegacyId());
+                    return user;
+                })
+                .toList();
+    }
+
+    @Override
+    public Page<User> findAll(UserFilter filter, Pageable pageable) {
+        log.debug("MongoDB DAO: Finding users by {}, page={}", filter, pageable.getPageNumber());
+        Query query = new Query();
+        if (filter.role() != null) {
+            query.addCriteria(Criteria.where("role").is(filter.role()));
+        }
+        if (filter.isActive() != null) {
+            query.addCriteria(Criteria.where(FIELD_IS_ACTIVE).is(filter.isActive()));
+        }
+        if (filter.isVerified() != null) {
+            query.addCriteria(Criteria.where("isVerified").is(filter.isVerified()));
+        }
+        long total = mongoTemplate.count(query, UserDocument.class);
+        query.with(Sort.by(Sort.Direction.DESC, FIELD_CREATED_AT, FIELD_LEGACY_ID))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize());
+        List<User> users = mongoTemplate.find(query, UserDocument.class).stream()
+                .map(doc -> {
+                    User user = doc.toEntity();
+                    user.setId(doc.getLegacyId());
+                    return user;
+                })
+                .toList();
+        return new PageImpl<>(users, pageable, total);
+    }
+
+    @Override
+    public List<User> findAllAfter(UserFilter filter, UserCursor after, int limit) {
+        log.debug("MongoDB DAO: Finding users by {} after cursor, limit={}", filter, limit);
+        Query query = new Query();
+        if (filter.role() != null) {
+            query.addCriteria(Criteria.where("role").is(filter.role()));
+        }
+        if (filter.isActive() != null) {
+            query.addCriteria(Criteria.where(FIELD_IS_ACTIVE).is(filter.isActive()));
+        }
+        if (filter.isVerified() != null) {
+            query.addCriteria(Criteria.where("isVerified").is(filter.isVerified()));
+        }
+        if (after != null) {
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where(FIELD_CREATED_AT).lt(after.createdAt()),
+                Criteria.where(FIELD_CREATED_AT).is(after.createdAt()).and(FIELD_LEGACY_ID).lt(after.id())));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, FIELD_CREATED_AT, FIELD_LEGACY_ID)).limit(limit);
+        return mongoTemplate.find(query, UserDocument.class).stream()
+                .map(doc -> {
+                    User user = doc.toEntity();
+                    user.setId(doc.getLegacyId());
+                    return user;
+                })
+                .toList();
+    }
+
     @Override
     public long count() {
         return mongoTemplate.count(new Query(), UserDocument.class);
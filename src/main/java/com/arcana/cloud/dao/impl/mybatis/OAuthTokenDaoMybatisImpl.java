@@ -35,6 +35,7 @@ public class OAuthTokenDaoMybatisImpl implements OAuthTokenDao {
     @Override
     public OAuthToken save(OAuthToken token) {
         log.debug("MyBatis DAO: Saving OAuth token");
+        token.updateTokenHashes();
         if (token.getId() == null) {
             tokenMapper.insert(token);
         } else {
@@ -120,14 +121,14 @@ public class OAuthTokenDaoMybatisImpl implements OAuthTokenDao {
     @Transactional(readOnly = true)
     public Optional<OAuthToken> findByAccessToken(String accessToken) {
         log.debug("MyBatis DAO: Finding token by access token");
-        return tokenMapper.findByAccessToken(accessToken);
+        return tokenMapper.findByAccessTokenHash(OAuthToken.digest(accessToken));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<OAuthToken> findByRefreshToken(String refreshToken) {
         log.debug("MyBatis DAO: Finding token by refresh token");
-        return tokenMapper.findByRefreshToken(refreshToken);
+        return tokenMapper.findByRefreshTokenHash(OAuthToken.digest(refreshToken));
     }
 
     @Override
@@ -146,7 +147,13 @@ public class OAuthTokenDaoMybatisImpl implements OAuthTokenDao {
     @Override
     public void revokeByAccessToken(String accessToken) {
         log.info("MyBatis DAO: Revoking token by access token");
-        tokenMapper.revokeByAccessToken(accessToken);
+        tokenMapper.revokeByAccessTokenHash(OAuthToken.digest(accessToken));
+    }
+
+    @Override
+    public boolean revokeIfActive(String refreshToken, LocalDateTime now) {
+        log.debug("MyBatis DAO: Revoking token by refresh token if active");
+        return tokenMapper.revokeIfActiveByRefreshTokenHash(OAuthToken.digest(refreshToken), now) > 0;
     }
 
     @Override
@@ -161,4 +168,10 @@ public class OAuthTokenDaoMybatisImpl implements OAuthTokenDao {
         log.debug("MyBatis DAO: Finding valid tokens for user: {}", user.getId());
         return tokenMapper.findValidTokensByUserId(user.getId(), now);
     }
+
+    @Override
+    public List<OAuthToken> findRevokedUnexpiredTokens(LocalDateTime now) {
+        log.debug("MyBatis DAO: Finding revoked unexpired tokens");
+        return tokenMapper.findRevokedUnexpiredTokens(now);
+    }
 }
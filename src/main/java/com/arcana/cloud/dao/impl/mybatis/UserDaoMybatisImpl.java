@@ -1,10 +1,13 @@
 package com.arcana.cloud.dao.impl.mybatis;
 
 import com.arcana.cloud.dao.impl.mybatis.mapper.UserMapper;
+import com.arcana.cloud.dao.UserCursor;
 import com.arcana.cloud.dao.UserDao;
+import com.arcana.cloud.dao.UserFilter;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cursor.Cursor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
@@ -13,9 +16,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * MyBatis implementation of UserDao.
@@ -83,6 +90,86 @@ public class UserDaoMybatisImpl implements UserDao {
         return new PageImpl<>(users, pageable, total);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<? super User> action) {
+        log.debug("MyBatis DAO: Streaming all users");
+        long count = 0;
+        try (Cursor<User> users = userMapper.streamAll()) {
+            for (User user : users) {
+                action.accept(user);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close user cursor", e);
+        }
+        return count;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllById(Collection<Long> ids) {
+        log.debug("MyBatis DAO: Finding {} users by id", ids.size());
+        if (ids.isEmpty()) {
+            // IN () is not valid SQL
+            return List.of();
+        }
+        return userMapper.findAllById(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllByUsernameOrEmail(Collection<String> usernames, Collection<String> emails) {
+        log.debug("MyBatis DAO: Finding users by {} usernames and {} emails", usernames.size(), emails.size());
+        if (usernames.isEmpty() && emails.isEmpty()) {
+            return List.of();
+        }
+        return userMapper.findAllByUsernameOrEmail(usernames, emails);
+    }
+
+    @Override
+    public void insertAll(List<User> users) {
+        log.debug("MyBatis DAO: Inserting {} users", users.size());
+        if (!users.isEmpty()) {
+            userMapper.insertAll(users);
+        }
+    }
+
+    @Override
+    public boolean updateFields(Long id, User changes) {
+        log.debug("MyBatis DAO: Updating fields of user id: {}", id);
+        return userMapper.updateFields(id, changes) > 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllAfter(UserCursor after, int limit) {
+        log.debug("MyBatis DAO: Finding users after cursor, limit={}", limit);
+        return after == null
+            ? userMapper.findAllAfter(null, null, limit)
+            : userMapper.findAllAfter(after.createdAt(), after.id(), limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<User> findAll(UserFilter filter, Pageable pageable) {
+        log.debug("MyBatis DAO: Finding users by {}, page={}", filter, pageable.getPageNumber());
+        long total = userMapper.countByFilter(filter.role(), filter.isActive(), filter.isVerified());
+        List<User> users = total == 0
+            ? List.of()
+            : userMapper.findAllByFilter(filter.role(), filter.isActive(), filter.isVerified(),
+                pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(users, pageable, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllAfter(UserFilter filter, UserCursor after, int limit) {
+        log.debug("MyBatis DAO: Finding users by {} after cursor, limit={}", filter, limit);
+        return userMapper.findAllByFilterAfter(filter.role(), filter.isActive(), filter.isVerified(),
+            after != null ? after.createdAt() : null, after != null ? after.id() : null, limit);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public long count() {
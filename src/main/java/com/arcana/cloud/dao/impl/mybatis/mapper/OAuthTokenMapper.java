@@ -31,14 +31,14 @@ public interface OAuthTokenMapper {
     Optional<OAuthToken> findById(@Param("id") Long id);
 
     /**
-     * Find token by access token.
+     * Find token by the SHA-256 digest of its access token.
      */
-    Optional<OAuthToken> findByAccessToken(@Param("accessToken") String accessToken);
+    Optional<OAuthToken> findByAccessTokenHash(@Param("accessTokenHash") byte[] accessTokenHash);
 
     /**
-     * Find token by refresh token.
+     * Find token by the SHA-256 digest of its refresh token.
      */
-    Optional<OAuthToken> findByRefreshToken(@Param("refreshToken") String refreshToken);
+    Optional<OAuthToken> findByRefreshTokenHash(@Param("refreshTokenHash") byte[] refreshTokenHash);
 
     /**
      * Find non-revoked tokens by user ID.
@@ -50,6 +50,11 @@ public interface OAuthTokenMapper {
      */
     List<OAuthToken> findValidTokensByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
 
+    /**
+     * Find revoked tokens that have not expired yet.
+     */
+    List<OAuthToken> findRevokedUnexpiredTokens(@Param("now") LocalDateTime now);
+
     /**
      * Check if token exists by ID.
      */
@@ -76,9 +81,16 @@ public interface OAuthTokenMapper {
     int revokeAllTokensByUserId(@Param("userId") Long userId);
 
     /**
-     * Revoke token by access token.
+     * Revoke token by the SHA-256 digest of its access token.
+     */
+    int revokeByAccessTokenHash(@Param("accessTokenHash") byte[] accessTokenHash);
+
+    /**
+     * Revoke an active token by the SHA-256 digest of its refresh token.
+     * Returns the number of rows updated: 1 if this call won, 0 otherwise.
      */
-    int revokeByAccessToken(@Param("accessToken") String accessToken);
+    int revokeIfActiveByRefreshTokenHash(@Param("refreshTokenHash") byte[] refreshTokenHash,
+                                         @Param("now") LocalDateTime now);
 
     /**
      * Delete expired or revoked tokens.
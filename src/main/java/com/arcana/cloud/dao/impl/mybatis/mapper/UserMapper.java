@@ -4,7 +4,10 @@ import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,11 +23,21 @@ public interface UserMapper {
      */
     int insert(User user);
 
+    /**
+     * Insert several new users with a single multi-row INSERT; the list must not be empty.
+     */
+    int insertAll(@Param("users") List<User> users);
+
     /**
      * Update an existing user.
      */
     int update(User user);
 
+    /**
+     * Update only the non-null fields of {@code changes} (and the update time) of a user.
+     */
+    int updateFields(@Param("id") Long id, @Param("changes") User changes);
+
     /**
      * Find user by ID.
      */
@@ -70,6 +83,30 @@ public interface UserMapper {
      */
     List<User> findAllWithPagination(@Param("offset") long offset, @Param("limit") int limit);
 
+    /**
+     * Open a forward-only cursor over all users ordered by ID; must be read and closed
+     * inside the transaction that opened it.
+     */
+    Cursor<User> streamAll();
+
+    /**
+     * Find users by IDs; the collection must not be empty.
+     */
+    List<User> findAllById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find users holding any of the usernames or emails; either collection may be empty,
+     * but not both.
+     */
+    List<User> findAllByUsernameOrEmail(@Param("usernames") Collection<String> usernames,
+                                        @Param("emails") Collection<String> emails);
+
+    /**
+     * Find users after a keyset position, newest first; null createdAt means the first page.
+     */
+    List<User> findAllAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                            @Param("limit") int limit);
+
     /**
      * Count all users.
      */
@@ -80,6 +117,28 @@ public interface UserMapper {
      */
     List<User> findActiveUsersByRole(@Param("role") UserRole role);
 
+    /**
+     * Find one page of the users matching the non-null predicates, newest first.
+     */
+    List<User> findAllByFilter(@Param("role") UserRole role, @Param("isActive") Boolean isActive,
+                               @Param("isVerified") Boolean isVerified,
+                               @Param("offset") long offset, @Param("limit") int limit);
+
+    /**
+     * Find the users matching the non-null predicates after a keyset position, newest
+     * first; null createdAt means the first page.
+     */
+    List<User> findAllByFilterAfter(@Param("role") UserRole role, @Param("isActive") Boolean isActive,
+                                    @Param("isVerified") Boolean isVerified,
+                                    @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                    @Param("limit") int limit);
+
+    /**
+     * Count the users matching the non-null predicates.
+     */
+    long countByFilter(@Param("role") UserRole role, @Param("isActive") Boolean isActive,
+                       @Param("isVerified") Boolean isVerified);
+
     /**
      * Find all active users.
      */
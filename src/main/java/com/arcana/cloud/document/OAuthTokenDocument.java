@@ -39,13 +39,19 @@ public class OAuthTokenDocument {
     private Long userLegacyId;
 
     @Field("access_token")
-    @Indexed
     private String accessToken;
 
     @Field("refresh_token")
-    @Indexed
     private String refreshToken;
 
+    @Field("access_token_hash")
+    @Indexed
+    private byte[] accessTokenHash;
+
+    @Field("refresh_token_hash")
+    @Indexed
+    private byte[] refreshTokenHash;
+
     @Field("token_type")
     private String tokenType;
 
@@ -79,6 +85,8 @@ public class OAuthTokenDocument {
                 .user(user)
                 .accessToken(accessToken)
                 .refreshToken(refreshToken)
+                .accessTokenHash(accessTokenHash)
+                .refreshTokenHash(refreshTokenHash)
                 .tokenType(tokenType != null ? tokenType : "Bearer")
                 .expiresAt(expiresAt)
                 .refreshExpiresAt(refreshExpiresAt)
@@ -98,6 +106,8 @@ public class OAuthTokenDocument {
                 .userLegacyId(token.getUser() != null ? token.getUser().getId() : null)
                 .accessToken(token.getAccessToken())
                 .refreshToken(token.getRefreshToken())
+                .accessTokenHash(OAuthToken.digest(token.getAccessToken()))
+                .refreshTokenHash(OAuthToken.digest(token.getRefreshToken()))
                 .tokenType(token.getTokenType())
                 .expiresAt(token.getExpiresAt())
                 .refreshExpiresAt(token.getRefreshExpiresAt())
@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -17,6 +18,7 @@ import java.time.LocalDateTime;
  * MongoDB document representation of User entity.
  */
 @Document(collection = "users")
+@CompoundIndex(name = "created_at_legacy_id", def = "{'created_at': -1, 'legacy_id': -1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
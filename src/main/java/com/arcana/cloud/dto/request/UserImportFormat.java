@@ -0,0 +1,48 @@
+package com.arcana.cloud.dto.request;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Upload formats accepted by the bulk user import.
+ *
+ * <p>Both carry the {@code username}, {@code email} and {@code password} fields, plus the
+ * optional {@code firstName}, {@code lastName} and {@code role}. CSV needs a header line
+ * naming the columns (snake_case names such as {@code first_name} are accepted too); NDJSON
+ * is one JSON object per line.</p>
+ */
+public enum UserImportFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String contentType;
+
+    UserImportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @param contentType the upload's content type; parameters such as charset are ignored
+     * @return the matching format, or null if the content type is not an import format
+     */
+    public static UserImportFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        for (UserImportFormat format : values()) {
+            if (MediaType.parseMediaType(format.contentType).equalsTypeAndSubtype(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.arcana.cloud.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a cursor-paginated listing. Pass {@code nextCursor} back as {@code after}
+ * to get the next page; it is null on the last page. {@code totalElements} is only
+ * filled in when requested, since counting costs a full scan.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressWarnings("java:S1068")
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private Long totalElements;
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), size, nextCursor, totalElements);
+    }
+}
@@ -0,0 +1,47 @@
+package com.arcana.cloud.dto.response;
+
+import com.arcana.cloud.dto.request.UserImportFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a bulk user import. {@code processed} counts the rows read so far; each of
+ * them ends up imported, skipped (username or email already taken, in the store or earlier
+ * in the upload) or failed (invalid row). Only the first rejected rows are listed in
+ * {@code errors}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressWarnings("java:S1068")
+public class UserImportJob {
+    private String id;
+    private Status status;
+    private UserImportFormat format;
+    private long processed;
+    private long imported;
+    private long skipped;
+    private long failed;
+    private List<RowError> errors;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * A rejected row: its line number in the upload and why it was not imported.
+     */
+    public record RowError(long line, String reason) {
+    }
+}
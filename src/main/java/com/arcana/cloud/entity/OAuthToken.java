@@ -8,6 +8,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +17,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 
 @Entity
@@ -39,6 +44,18 @@ public class OAuthToken {
     @Column(name = "refresh_token", nullable = false, length = 500)
     private String refreshToken;
 
+    /**
+     * SHA-256 of {@link #accessToken}; the indexed, fixed-width lookup key.
+     */
+    @Column(name = "access_token_hash", nullable = false, length = 32)
+    private byte[] accessTokenHash;
+
+    /**
+     * SHA-256 of {@link #refreshToken}; the indexed, fixed-width lookup key.
+     */
+    @Column(name = "refresh_token_hash", nullable = false, length = 32)
+    private byte[] refreshTokenHash;
+
     @Column(name = "token_type", length = 50)
     @Builder.Default
     private String tokenType = "Bearer";
@@ -62,4 +79,29 @@ public class OAuthToken {
 
     @Column(name = "user_agent", length = 255)
     private String userAgent;
+
+    /**
+     * Recomputes the lookup digests from the current token values.
+     * Called by JPA before every write; the MyBatis and MongoDB DAOs call it explicitly.
+     */
+    @PrePersist
+    @PreUpdate
+    public void updateTokenHashes() {
+        this.accessTokenHash = digest(accessToken);
+        this.refreshTokenHash = digest(refreshToken);
+    }
+
+    /**
+     * SHA-256 digest of a token, as stored in the {@code *_token_hash} columns.
+     */
+    public static byte[] digest(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
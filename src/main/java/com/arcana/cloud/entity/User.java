@@ -24,7 +24,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class User implements Serializable {
 
     @Serial
@@ -62,7 +62,7 @@ public class User implements Serializable {
     @Builder.Default
     private Boolean isVerified = false;
 
-    @Column(name = "created_at", updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     @CreationTimestamp
     private LocalDateTime createdAt;
 
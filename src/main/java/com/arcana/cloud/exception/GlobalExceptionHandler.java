@@ -2,6 +2,7 @@ package com.arcana.cloud.exception;
 
 import com.arcana.cloud.dto.response.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -95,6 +96,16 @@ public class GlobalExceptionHandler {
             .body(ApiResponse.error("Access denied"));
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<Void>> handleTooManyRequests(
+            TooManyRequestsException ex, WebRequest request) {
+        log.warn("Request rejected: {}", ex.getMessage());
+        return ResponseEntity
+            .status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(ApiResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(SchedulerOperationException.class)
     public ResponseEntity<ApiResponse<Void>> handleSchedulerOperation(
             SchedulerOperationException ex, WebRequest request) {
@@ -0,0 +1,202 @@
+package com.arcana.cloud.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the requests a server works on at once, and adapts the cap to observed latency.
+ *
+ * <p>Gradient algorithm: a long-term average of request latency is the baseline of an
+ * unloaded server. While the recent average stays within {@code tolerance} of it, the limit
+ * grows by about its square root per update; once queueing pushes latency past the baseline,
+ * the limit shrinks in proportion (at most by half per update). Requests that fail because
+ * the server is overloaded (timeouts, rejections further down) back the limit off by 10%.
+ * Updates are smoothed and taken over windows of {@value #WINDOW_SAMPLES} samples, and while
+ * fewer than half the permits are in use latency says nothing about the limit, so it is left
+ * alone.</p>
+ *
+ * <p>Requests beyond the limit are refused immediately instead of queueing, which keeps the
+ * latency of admitted requests flat under overload.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    static final int WINDOW_SAMPLES = 10;
+    // Long-term baseline averages over this many windows
+    private static final int BASELINE_WINDOWS = 100;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+
+    // Guarded by this
+    private double baselineRttNanos;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    /**
+     * @param initialLimit limit before any latency has been observed
+     * @param minLimit lower bound of the limit
+     * @param maxLimit upper bound of the limit
+     * @param tolerance latency increase over the baseline tolerated before the limit shrinks, e.g. 1.5
+     * @param smoothing weight of each update against the current limit, in (0, 1]
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limit bounds: " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Publishes {@code concurrency.limit}, {@code concurrency.limit.in-flight} and
+     * {@code concurrency.limit.rejected}, tagged with the given limiter name.
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current adaptive concurrency limit")
+            .tag("name", name)
+            .register(registry);
+        Gauge.builder("concurrency.limit.in-flight", inFlight, AtomicInteger::get)
+            .description("Requests currently holding a permit")
+            .tag("name", name)
+            .register(registry);
+        FunctionCounter.builder("concurrency.limit.rejected", rejected, LongAdder::sum)
+            .description("Requests refused because the limit was reached")
+            .tag("name", name)
+            .register(registry);
+    }
+
+    /**
+     * Takes a permit, or returns empty when the limit is reached. Every permit must be
+     * released through exactly one of its methods.
+     */
+    public Optional<Permit> tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return Optional.empty();
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return Optional.of(new Permit(current + 1));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    synchronized void sample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        windowDropped |= dropped;
+        if (windowSamples < WINDOW_SAMPLES) {
+            return;
+        }
+
+        double rtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        boolean anyDropped = windowDropped;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+
+        update(rtt, maxInFlight, anyDropped);
+    }
+
+    private void update(double rtt, int maxInFlight, boolean dropped) {
+        baselineRttNanos = baselineRttNanos == 0
+            ? rtt
+            : baselineRttNanos + (rtt - baselineRttNanos) / BASELINE_WINDOWS;
+        // Latency well below the baseline means the baseline is stale (say, a cold start);
+        // let it come down faster than the average alone would
+        if (baselineRttNanos / rtt > 2) {
+            baselineRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        double next;
+        if (dropped) {
+            next = current * BACKOFF_RATIO;
+        } else if (maxInFlight < current / 2) {
+            return;
+        } else {
+            double gradient = Math.clamp(tolerance * baselineRttNanos / rtt, MIN_GRADIENT, 1.0);
+            double target = current * gradient + Math.sqrt(current);
+            next = current * (1 - smoothing) + target * smoothing;
+        }
+        limit = Math.clamp(next, minLimit, maxLimit);
+    }
+
+    /**
+     * A request admitted by the limiter.
+     */
+    public final class Permit {
+
+        private final long startedAt = System.nanoTime();
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * The request completed; its latency counts towards the limit.
+         */
+        public void success() {
+            release(false, true);
+        }
+
+        /**
+         * The request failed because the server is overloaded; the limit backs off.
+         */
+        public void dropped() {
+            release(true, true);
+        }
+
+        /**
+         * The request ended in a way that says nothing about load (a cancellation, a
+         * failure of its own); only the permit is returned.
+         */
+        public void ignore() {
+            release(false, false);
+        }
+
+        private void release(boolean dropped, boolean record) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            inFlight.decrementAndGet();
+            if (record) {
+                sample(System.nanoTime() - startedAt, inFlightAtStart, dropped);
+            }
+        }
+    }
+}
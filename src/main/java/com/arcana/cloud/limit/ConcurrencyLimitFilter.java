@@ -0,0 +1,87 @@
+package com.arcana.cloud.limit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Admits requests to the internal HTTP API through an {@link AdaptiveConcurrencyLimiter};
+ * requests beyond the limit get HTTP 429 at once.
+ *
+ * <p>Only paths under the configured prefixes are limited, minus the excluded ones (streamed
+ * exports, which last as long as their consumer reads). A response of 429, 503 or 504 counts
+ * as dropped.</p>
+ */
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String REJECTED_BODY =
+        "{\"success\":false,\"message\":\"Server is at its concurrency limit\"}";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final List<String> includedPatterns;
+    private final List<String> excludedPatterns;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                  List<String> includedPatterns, List<String> excludedPatterns) {
+        this.limiter = limiter;
+        this.includedPatterns = List.copyOf(includedPatterns);
+        this.excludedPatterns = List.copyOf(excludedPatterns);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return includedPatterns.stream().noneMatch(pattern -> pathMatcher.match(pattern, path))
+            || excludedPatterns.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Optional<AdaptiveConcurrencyLimiter.Permit> acquired = limiter.tryAcquire();
+        if (acquired.isEmpty()) {
+            log.debug("Rejecting {}: concurrency limit {} reached", request.getRequestURI(), limiter.getLimit());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(REJECTED_BODY);
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit = acquired.get();
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            permit.ignore();
+            throw e;
+        }
+        release(permit, response.getStatus());
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter.Permit permit, int status) {
+        if (status == HttpStatus.TOO_MANY_REQUESTS.value()
+            || status == HttpStatus.SERVICE_UNAVAILABLE.value()
+            || status == HttpStatus.GATEWAY_TIMEOUT.value()) {
+            permit.dropped();
+        } else if (status >= 500) {
+            permit.ignore();
+        } else {
+            permit.success();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.arcana.cloud.limit;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.grpc.health.v1.HealthGrpc;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Optional;
+
+/**
+ * Admits unary gRPC calls through an {@link AdaptiveConcurrencyLimiter}; calls beyond the
+ * limit fail at once with {@code RESOURCE_EXHAUSTED}.
+ *
+ * <p>Streaming calls last as long as their consumer reads and health checks must answer
+ * under load, so neither takes a permit. A call that ends in {@code DEADLINE_EXCEEDED} or
+ * {@code RESOURCE_EXHAUSTED} (a saturated pool further down) counts as dropped.</p>
+ */
+@Slf4j
+public class ConcurrencyLimitServerInterceptor implements ServerInterceptor {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitServerInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+        if (method.getType() != MethodDescriptor.MethodType.UNARY
+            || HealthGrpc.SERVICE_NAME.equals(method.getServiceName())) {
+            return next.startCall(call, headers);
+        }
+
+        Optional<AdaptiveConcurrencyLimiter.Permit> acquired = limiter.tryAcquire();
+        if (acquired.isEmpty()) {
+            log.debug("Rejecting {}: concurrency limit {} reached", method.getFullMethodName(), limiter.getLimit());
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Server is at its concurrency limit"),
+                new Metadata());
+            return new ServerCall.Listener<>() { };
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit = acquired.get();
+        ServerCall<ReqT, RespT> limited = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                release(permit, status);
+                super.close(status, trailers);
+            }
+        };
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(limited, headers);
+        } catch (RuntimeException e) {
+            permit.ignore();
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onCancel() {
+                permit.ignore();
+                super.onCancel();
+            }
+        };
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter.Permit permit, Status status) {
+        switch (status.getCode()) {
+            case DEADLINE_EXCEEDED, RESOURCE_EXHAUSTED -> permit.dropped();
+            case CANCELLED, UNKNOWN, INTERNAL, UNAVAILABLE -> permit.ignore();
+            // Answered, if with an application error: a valid latency sample
+            default -> permit.success();
+        }
+    }
+}
@@ -91,6 +91,11 @@ public interface OAuthTokenRepository {
      */
     void revokeByAccessToken(String accessToken);
 
+    /**
+     * Revoke a token by refresh token if it is still active; true if this call revoked it.
+     */
+    boolean revokeIfActive(String refreshToken, LocalDateTime now);
+
     /**
      * Delete expired or revoked tokens.
      */
@@ -100,4 +105,9 @@ public interface OAuthTokenRepository {
      * Find valid tokens for a user.
      */
     List<OAuthToken> findValidTokensByUser(User user, LocalDateTime now);
+
+    /**
+     * Find revoked tokens whose access token has not expired yet.
+     */
+    List<OAuthToken> findRevokedUnexpiredTokens(LocalDateTime now);
 }
@@ -1,12 +1,16 @@
 package com.arcana.cloud.repository;
 
+import com.arcana.cloud.dao.UserCursor;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Repository interface for User entity.
@@ -45,6 +49,45 @@ public interface UserRepository {
      */
     Page<User> findAll(Pageable pageable);
 
+    /**
+     * Pass every user, ordered by ID, to an action without loading them all into memory.
+     *
+     * @return the number of users passed to the action
+     */
+    long streamAll(Consumer<? super User> action);
+
+    /**
+     * Find the users with the given IDs in one round trip; unknown IDs are left out.
+     */
+    List<User> findAllById(Collection<Long> ids);
+
+    /**
+     * Find the users holding any of the given usernames or emails in one round trip.
+     */
+    List<User> findAllByUsernameOrEmail(Collection<String> usernames, Collection<String> emails);
+
+    /**
+     * Insert new users with one batched write; all or none of them are inserted.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if a username or email
+     *         is taken
+     */
+    void insertAll(List<User> users);
+
+    /**
+     * Update only the non-null fields of {@code changes} with a single write.
+     *
+     * @return false if there is no user with that ID
+     * @throws org.springframework.dao.DataIntegrityViolationException if the new username or
+     *         email is taken
+     */
+    boolean updateFields(Long id, User changes);
+
+    /**
+     * Find the next users after a keyset cursor, newest first.
+     */
+    List<User> findAllAfter(UserCursor after, int limit);
+
     /**
      * Count all users.
      */
@@ -90,6 +133,23 @@ public interface UserRepository {
      */
     boolean existsByEmail(String email);
 
+    /**
+     * Check if username exists without waiting for the answer. Remote implementations start
+     * the call and return, so independent checks run concurrently; local ones answer in place.
+     */
+    default CompletableFuture<Boolean> existsByUsernameAsync(String username) {
+        return CompletableFuture.completedFuture(existsByUsername(username));
+    }
+
+    /**
+     * Check if email exists without waiting for the answer.
+     *
+     * @see #existsByUsernameAsync(String)
+     */
+    default CompletableFuture<Boolean> existsByEmailAsync(String email) {
+        return CompletableFuture.completedFuture(existsByEmail(email));
+    }
+
     /**
      * Find active users by role.
      */
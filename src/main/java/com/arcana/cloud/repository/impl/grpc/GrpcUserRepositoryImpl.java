@@ -1,26 +1,42 @@
 package com.arcana.cloud.repository.impl.grpc;
 
+import com.arcana.cloud.dao.DuplicateUserKeyException;
+import com.arcana.cloud.dao.UserCursor;
+import com.arcana.cloud.dao.UserFilter;
+import com.arcana.cloud.dao.UserKeyConflict;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
+import com.arcana.cloud.grpc.BatchCreateUsersRequest;
+import com.arcana.cloud.grpc.BatchGetUsersRequest;
+import com.arcana.cloud.grpc.BatchGetUsersResponse;
 import com.arcana.cloud.grpc.CreateUserRequest;
 import com.arcana.cloud.grpc.DeleteUserRequest;
 import com.arcana.cloud.grpc.ExistsByEmailRequest;
 import com.arcana.cloud.grpc.ExistsByUsernameRequest;
+import com.arcana.cloud.grpc.FindUsersByUsernameOrEmailRequest;
 import com.arcana.cloud.grpc.GetUserByEmailRequest;
+import com.arcana.cloud.grpc.GetUserByUsernameOrEmailRequest;
 import com.arcana.cloud.grpc.GetUserByUsernameRequest;
 import com.arcana.cloud.grpc.GetUserRequest;
+import com.arcana.cloud.grpc.ListUsersByFilterRequest;
 import com.arcana.cloud.grpc.ListUsersRequest;
 import com.arcana.cloud.grpc.ListUsersResponse;
+import com.arcana.cloud.grpc.StreamUsersRequest;
 import com.arcana.cloud.grpc.UpdateUserRequest;
 import com.arcana.cloud.grpc.UserResponse;
 import com.arcana.cloud.grpc.UserServiceGrpc;
 import com.arcana.cloud.repository.UserRepository;
+import com.arcana.cloud.service.client.GrpcFutures;
+import com.arcana.cloud.service.grpc.UserGrpcRepositoryService;
+import io.grpc.Context;
 import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -30,13 +46,21 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * gRPC-backed UserRepository implementation.
  * Active when repository.mode=grpc (service layer in 3-layer deployment).
  * Delegates all user data operations to the repository gRPC server (port 9091).
+ *
+ * <p>Calls are made on the thread of the service-layer handler that needs them, in that
+ * handler's gRPC context, so they carry whatever is left of the caller's deadline and are
+ * cancelled along with the incoming call.</p>
  */
 @Repository
 @Slf4j
@@ -44,12 +68,14 @@ import java.util.Optional;
 public class GrpcUserRepositoryImpl implements UserRepository {
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final int FILTER_PAGE_SIZE = 1000;
 
     private final UserServiceGrpc.UserServiceBlockingStub stub;
+    private final UserServiceGrpc.UserServiceFutureStub futureStub;
 
     public GrpcUserRepositoryImpl(@Qualifier("repositoryChannel") ManagedChannel repositoryChannel) {
         this.stub = UserServiceGrpc.newBlockingStub(repositoryChannel);
+        this.futureStub = UserServiceGrpc.newFutureStub(repositoryChannel);
         log.info("gRPC User Repository initialized");
     }
 
@@ -63,8 +89,25 @@ public class GrpcUserRepositoryImpl implements UserRepository {
 
     private User performUpdate(User user) {
         log.debug("gRPC Repository: Updating user id={}", user.getId());
+        try {
+            return mapFromProto(stub.updateUser(toUpdateRequest(user.getId(), user)));
+        } catch (StatusRuntimeException e) {
+            throw translateDuplicateKey(e);
+        }
+    }
+
+    private User performCreate(User user) {
+        log.debug("gRPC Repository: Creating user username={}", user.getUsername());
+        try {
+            return mapFromProto(stub.createUser(toCreateRequest(user)));
+        } catch (StatusRuntimeException e) {
+            throw translateDuplicateKey(e);
+        }
+    }
+
+    private UpdateUserRequest toUpdateRequest(Long id, User user) {
         UpdateUserRequest.Builder builder = UpdateUserRequest.newBuilder()
-            .setUserId(user.getId());
+            .setUserId(id);
         if (user.getUsername() != null) builder.setUsername(user.getUsername());
         if (user.getEmail() != null) builder.setEmail(user.getEmail());
         if (user.getPassword() != null) builder.setPassword(user.getPassword());
@@ -72,19 +115,42 @@ public class GrpcUserRepositoryImpl implements UserRepository {
         if (user.getLastName() != null) builder.setLastName(user.getLastName());
         if (user.getIsActive() != null) builder.setIsActive(user.getIsActive());
         if (user.getIsVerified() != null) builder.setIsVerified(user.getIsVerified());
-        return mapFromProto(stub.updateUser(builder.build()));
+        if (user.getRole() != null) builder.setRole(user.getRole().name());
+        return builder.build();
     }
 
-    private User performCreate(User user) {
-        log.debug("gRPC Repository: Creating user username={}", user.getUsername());
-        CreateUserRequest request = CreateUserRequest.newBuilder()
+    /**
+     * Turns a rejected write back into the exception the direct DAOs would throw, keeping
+     * which key was taken.
+     */
+    private static RuntimeException translateDuplicateKey(StatusRuntimeException e) {
+        if (e.getStatus().getCode() == Status.Code.ALREADY_EXISTS) {
+            Metadata trailers = e.getTrailers();
+            String conflict = trailers != null
+                ? trailers.get(UserGrpcRepositoryService.KEY_CONFLICT_TRAILER)
+                : null;
+            try {
+                return new DuplicateUserKeyException(
+                    conflict != null ? UserKeyConflict.valueOf(conflict) : UserKeyConflict.UNKNOWN, e);
+            } catch (IllegalArgumentException unknown) {
+                return new DuplicateUserKeyException(UserKeyConflict.UNKNOWN, e);
+            }
+        }
+        if (e.getStatus().getCode() == Status.Code.INVALID_ARGUMENT) {
+            return new DataIntegrityViolationException(e.getStatus().getDescription(), e);
+        }
+        return e;
+    }
+
+    private CreateUserRequest toCreateRequest(User user) {
+        return CreateUserRequest.newBuilder()
             .setUsername(user.getUsername() != null ? user.getUsername() : "")
             .setEmail(user.getEmail() != null ? user.getEmail() : "")
             .setPassword(user.getPassword() != null ? user.getPassword() : "")
             .setFirstName(user.getFirstName() != null ? user.getFirstName() : "")
             .setLastName(user.getLastName() != null ? user.getLastName() : "")
+            .setRole(user.getRole() != null ? user.getRole().name() : "")
             .build();
-        return mapFromProto(stub.createUser(request));
     }
 
     @Override
@@ -121,10 +187,31 @@ public class GrpcUserRepositoryImpl implements UserRepository {
     @Override
     public List<User> findAll() {
         log.debug("gRPC Repository: Finding all users");
-        ListUsersResponse response = stub.listUsers(
-            ListUsersRequest.newBuilder().setPage(0).setSize(DEFAULT_PAGE_SIZE).build()
-        );
-        return response.getUsersList().stream().map(this::mapFromProto).toList();
+        List<User> users = new ArrayList<>();
+        streamAll(users::add);
+        return users;
+    }
+
+    @Override
+    public long streamAll(Consumer<? super User> action) {
+        log.debug("gRPC Repository: Streaming all users");
+        // StreamUsers has no deadline, so the call must be cancelled if the consumer gives up
+        // before the end; otherwise the repository tier keeps its cursor open for a reader
+        // that is gone
+        Context.CancellableContext stream = Context.current().withCancellation();
+        Context previous = stream.attach();
+        try {
+            Iterator<UserResponse> responses = stub.streamUsers(StreamUsersRequest.getDefaultInstance());
+            long count = 0;
+            while (responses.hasNext()) {
+                action.accept(mapFromProto(responses.next()));
+                count++;
+            }
+            return count;
+        } finally {
+            stream.detach(previous);
+            stream.cancel(null);
+        }
     }
 
     @Override
@@ -141,6 +228,74 @@ public class GrpcUserRepositoryImpl implements UserRepository {
         return new PageImpl<>(users, pageable, total);
     }
 
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        log.debug("gRPC Repository: Finding {} users by id", ids.size());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        BatchGetUsersResponse response = stub.batchGetUsers(
+            BatchGetUsersRequest.newBuilder().addAllUserIds(ids).build()
+        );
+        return response.getUsersList().stream().map(this::mapFromProto).toList();
+    }
+
+    @Override
+    public List<User> findAllByUsernameOrEmail(Collection<String> usernames, Collection<String> emails) {
+        log.debug("gRPC Repository: Finding users by {} usernames and {} emails", usernames.size(), emails.size());
+        if (usernames.isEmpty() && emails.isEmpty()) {
+            return List.of();
+        }
+        BatchGetUsersResponse response = stub.findUsersByUsernameOrEmail(
+            FindUsersByUsernameOrEmailRequest.newBuilder()
+                .addAllUsernames(usernames)
+                .addAllEmails(emails)
+                .build()
+        );
+        return response.getUsersList().stream().map(this::mapFromProto).toList();
+    }
+
+    @Override
+    public void insertAll(List<User> users) {
+        log.debug("gRPC Repository: Inserting {} users", users.size());
+        if (users.isEmpty()) {
+            return;
+        }
+        try {
+            stub.batchCreateUsers(BatchCreateUsersRequest.newBuilder()
+                .addAllUsers(users.stream().map(this::toCreateRequest).toList())
+                .build());
+        } catch (StatusRuntimeException e) {
+            throw translateDuplicateKey(e);
+        }
+    }
+
+    @Override
+    public boolean updateFields(Long id, User changes) {
+        log.debug("gRPC Repository: Updating fields of user id={}", id);
+        try {
+            stub.updateUser(toUpdateRequest(id, changes));
+            return true;
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
+                return false;
+            }
+            throw translateDuplicateKey(e);
+        }
+    }
+
+    @Override
+    public List<User> findAllAfter(UserCursor after, int limit) {
+        log.debug("gRPC Repository: Finding users after cursor, limit={}", limit);
+        ListUsersResponse response = stub.listUsers(
+            ListUsersRequest.newBuilder()
+                .setAfter(after != null ? after.encode() : "")
+                .setSize(limit)
+                .build()
+        );
+        return response.getUsersList().stream().map(this::mapFromProto).toList();
+    }
+
     @Override
     public long count() {
         ListUsersResponse response = stub.listUsers(
@@ -204,59 +359,94 @@ public class GrpcUserRepositoryImpl implements UserRepository {
     @Override
     public Optional<User> findByUsernameOrEmail(String username, String email) {
         log.debug("gRPC Repository: Finding user by username={} or email={}", username, email);
-        Optional<User> byUsername = findByUsername(username);
-        if (byUsername.isPresent()) {
-            return byUsername;
+        try {
+            UserResponse response = stub.getUserByUsernameOrEmail(
+                GetUserByUsernameOrEmailRequest.newBuilder()
+                    .setUsername(username != null ? username : "")
+                    .setEmail(email != null ? email : "")
+                    .build()
+            );
+            return Optional.of(mapFromProto(response));
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
+                return Optional.empty();
+            }
+            log.error("gRPC Repository: Error finding user by username={} or email={}", username, email, e);
+            throw new GrpcRepositoryException("gRPC error: " + e.getStatus(), e);
         }
-        return findByEmail(email);
     }
 
     @Override
     public boolean existsByUsername(String username) {
-        try {
-            return stub.existsByUsername(
-                ExistsByUsernameRequest.newBuilder().setUsername(username).build()
-            ).getExists();
-        } catch (StatusRuntimeException e) {
-            log.error("gRPC Repository: Error checking username existence", e);
-            return false;
-        }
+        return GrpcFutures.await(existsByUsernameAsync(username));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsByUsernameAsync(String username) {
+        return GrpcFutures.toCompletableFuture(futureStub.existsByUsername(
+                ExistsByUsernameRequest.newBuilder().setUsername(username).build()))
+            .thenApply(response -> response.getExists())
+            .exceptionally(e -> {
+                log.error("gRPC Repository: Error checking username existence", GrpcFutures.unwrap(e));
+                return false;
+            });
     }
 
     @Override
     public boolean existsByEmail(String email) {
-        try {
-            return stub.existsByEmail(
-                ExistsByEmailRequest.newBuilder().setEmail(email).build()
-            ).getExists();
-        } catch (StatusRuntimeException e) {
-            log.error("gRPC Repository: Error checking email existence", e);
-            return false;
-        }
+        return GrpcFutures.await(existsByEmailAsync(email));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsByEmailAsync(String email) {
+        return GrpcFutures.toCompletableFuture(futureStub.existsByEmail(
+                ExistsByEmailRequest.newBuilder().setEmail(email).build()))
+            .thenApply(response -> response.getExists())
+            .exceptionally(e -> {
+                log.error("gRPC Repository: Error checking email existence", GrpcFutures.unwrap(e));
+                return false;
+            });
     }
 
     @Override
-    public List<User> findActiveUsersByRole(com.arcana.cloud.entity.UserRole role) {
-        log.warn("gRPC Repository: findActiveUsersByRole is not directly supported; fetching all users and filtering");
-        return findAll().stream()
-            .filter(u -> Boolean.TRUE.equals(u.getIsActive()) && role.equals(u.getRole()))
-            .toList();
+    public List<User> findActiveUsersByRole(UserRole role) {
+        log.debug("gRPC Repository: Finding active users by role={}", role);
+        return findAll(UserFilter.activeWithRole(role));
     }
 
     @Override
     public List<User> findAllActiveUsers() {
-        log.debug("gRPC Repository: findAllActiveUsers - fetching all users and filtering");
-        return findAll().stream()
-            .filter(u -> Boolean.TRUE.equals(u.getIsActive()))
-            .toList();
+        log.debug("gRPC Repository: Finding all active users");
+        return findAll(UserFilter.active());
     }
 
     @Override
     public List<User> findUnverifiedUsers() {
-        log.debug("gRPC Repository: findUnverifiedUsers - fetching all users and filtering");
-        return findAll().stream()
-            .filter(u -> !Boolean.TRUE.equals(u.getIsVerified()))
-            .toList();
+        log.debug("gRPC Repository: Finding unverified users");
+        return findAll(UserFilter.unverified());
+    }
+
+    /**
+     * Collects every user matching the filter, which the server applies, following the
+     * keyset cursor page by page: no OFFSET scans and no count per page.
+     */
+    private List<User> findAll(UserFilter filter) {
+        ListUsersByFilterRequest.Builder request = ListUsersByFilterRequest.newBuilder()
+            .setSize(FILTER_PAGE_SIZE)
+            .setAfter("");
+        if (filter.role() != null) request.setRole(filter.role().name());
+        if (filter.isActive() != null) request.setIsActive(filter.isActive());
+        if (filter.isVerified() != null) request.setIsVerified(filter.isVerified());
+
+        List<User> users = new ArrayList<>();
+        while (true) {
+            ListUsersResponse response = stub.listUsersByFilter(request.build());
+            response.getUsersList().forEach(user -> users.add(mapFromProto(user)));
+            if (response.getNextCursor().isEmpty()) {
+                return users;
+            }
+            request.setAfter(response.getNextCursor());
+        }
     }
 
     private User mapFromProto(UserResponse r) {
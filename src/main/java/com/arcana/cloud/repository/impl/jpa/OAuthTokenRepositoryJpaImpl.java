@@ -114,6 +114,12 @@ public class OAuthTokenRepositoryJpaImpl implements OAuthTokenRepository {
         tokenDao.revokeByAccessToken(accessToken);
     }
 
+    @Override
+    public boolean revokeIfActive(String refreshToken, LocalDateTime now) {
+        log.debug("JPA Repository: Revoking token by refresh token if active");
+        return tokenDao.revokeIfActive(refreshToken, now);
+    }
+
     @Override
     public void deleteExpiredOrRevokedTokens(LocalDateTime now) {
         log.info("JPA Repository: Deleting expired or revoked tokens");
@@ -125,4 +131,10 @@ public class OAuthTokenRepositoryJpaImpl implements OAuthTokenRepository {
         log.debug("JPA Repository: Finding valid tokens for user: {}", user.getId());
         return tokenDao.findValidTokensByUser(user, now);
     }
+
+    @Override
+    public List<OAuthToken> findRevokedUnexpiredTokens(LocalDateTime now) {
+        log.debug("JPA Repository: Finding revoked unexpired tokens");
+        return tokenDao.findRevokedUnexpiredTokens(now);
+    }
 }
@@ -1,5 +1,6 @@
 package com.arcana.cloud.repository.impl.jpa;
 
+import com.arcana.cloud.dao.UserCursor;
 import com.arcana.cloud.dao.UserDao;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
@@ -11,8 +12,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * JPA-backed Repository implementation for User entity.
@@ -61,6 +64,42 @@ public class UserRepositoryJpaImpl implements UserRepository {
         return userDao.findAll(pageable);
     }
 
+    @Override
+    public long streamAll(Consumer<? super User> action) {
+        log.debug("JPA Repository: Streaming all users");
+        return userDao.streamAll(action);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        log.debug("JPA Repository: Finding {} users by id", ids.size());
+        return userDao.findAllById(ids);
+    }
+
+    @Override
+    public List<User> findAllByUsernameOrEmail(Collection<String> usernames, Collection<String> emails) {
+        log.debug("JPA Repository: Finding users by {} usernames and {} emails", usernames.size(), emails.size());
+        return userDao.findAllByUsernameOrEmail(usernames, emails);
+    }
+
+    @Override
+    public void insertAll(List<User> users) {
+        log.debug("JPA Repository: Inserting {} users", users.size());
+        userDao.insertAll(users);
+    }
+
+    @Override
+    public boolean updateFields(Long id, User changes) {
+        log.debug("JPA Repository: Updating fields of user id: {}", id);
+        return userDao.updateFields(id, changes);
+    }
+
+    @Override
+    public List<User> findAllAfter(UserCursor after, int limit) {
+        log.debug("JPA Repository: Finding users after cursor, limit={}", limit);
+        return userDao.findAllAfter(after, limit);
+    }
+
     @Override
     public long count() {
         return userDao.count();
@@ -1,20 +1,27 @@
 package com.arcana.cloud.security;
 
+import com.arcana.cloud.cache.UserCache;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    @Autowired(required = false)
+    private UserCache userCache;
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String usernameOrId) throws UsernameNotFoundException {
@@ -22,10 +29,14 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         try {
             Long userId = Long.parseLong(usernameOrId);
-            user = userRepository.findById(userId)
+            user = findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
         } catch (NumberFormatException e) {
-            user = userRepository.findByUsernameOrEmail(usernameOrId, usernameOrId)
+            Optional<User> found = userCache != null
+                ? userCache.findByUsernameOrEmail(usernameOrId,
+                    () -> userRepository.findByUsernameOrEmail(usernameOrId, usernameOrId))
+                : userRepository.findByUsernameOrEmail(usernameOrId, usernameOrId);
+            user = found
                 .orElseThrow(() ->
                     new UsernameNotFoundException("User not found with username or email: " + usernameOrId));
         }
@@ -35,9 +46,15 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Transactional(readOnly = true)
     public UserDetails loadUserById(Long id) {
-        User user = userRepository.findById(id)
+        User user = findById(id)
             .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
 
         return UserPrincipal.create(user);
     }
+
+    private Optional<User> findById(Long id) {
+        return userCache != null
+            ? userCache.findById(id, userRepository::findById)
+            : userRepository.findById(id);
+    }
 }
@@ -6,6 +6,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,35 +18,63 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
+/**
+ * Authenticates requests carrying a bearer JWT.
+ *
+ * <p>Two modes, selected by {@code jwt.authentication.mode}:</p>
+ * <ul>
+ *   <li>{@code lookup} (default): loads the user through {@link UserDetailsService} on every
+ *       request, optionally through the short-TTL {@link UserPrincipalCache}</li>
+ *   <li>{@code claims}: builds the principal from the verified token claims with no lookup;
+ *       disabled users are rejected by the registered {@link TokenRevocationHook}s</li>
+ * </ul>
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    static final String CLAIMS_MODE = "claims";
+
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
 
+    @Value("${jwt.authentication.mode:lookup}")
+    private String authenticationMode;
+
+    @Autowired(required = false)
+    private UserPrincipalCache principalCache;
+
+    @Autowired(required = false)
+    private List<TokenRevocationHook> revocationHooks;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
+            Optional<ParsedToken> parsed = StringUtils.hasText(jwt)
+                ? tokenProvider.parseToken(jwt)
+                : Optional.empty();
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                Long userId = tokenProvider.getUserIdFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userId.toString());
+            if (parsed.isPresent() && !isRevoked(parsed.get())) {
+                UserDetails userDetails = resolvePrincipal(parsed.get());
 
-                UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                    );
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities()
+                        );
 
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
@@ -53,6 +83,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails resolvePrincipal(ParsedToken token) {
+        if (CLAIMS_MODE.equalsIgnoreCase(authenticationMode)) {
+            // Refresh tokens carry no role and must not authenticate API calls
+            if (token.isRefreshToken() || token.role() == null) {
+                return null;
+            }
+            return UserPrincipal.fromToken(token);
+        }
+
+        if (principalCache != null) {
+            return principalCache.get(token.userId(),
+                userId -> userDetailsService.loadUserByUsername(userId.toString()));
+        }
+        return userDetailsService.loadUserByUsername(token.userId().toString());
+    }
+
+    private boolean isRevoked(ParsedToken token) {
+        if (revocationHooks == null) {
+            return false;
+        }
+        for (TokenRevocationHook hook : revocationHooks) {
+            if (hook.isRevoked(token)) {
+                log.debug("Rejected revoked token for user: {}", token.userId());
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
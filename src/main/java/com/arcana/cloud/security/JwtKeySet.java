@@ -0,0 +1,42 @@
+package com.arcana.cloud.security;
+
+import java.security.Key;
+import java.security.PrivateKey;
+
+/**
+ * Asymmetric keys used by {@link JwtTokenProvider} when {@code jwt.signing.algorithm}
+ * is {@code ES256} or {@code EdDSA}.
+ *
+ * <p>Tokens carry the ID of their signing key in the {@code kid} header, so several keys
+ * can be valid at once and keys can rotate without downtime.</p>
+ */
+public interface JwtKeySet {
+
+    /**
+     * Returns the public key for the given key ID.
+     *
+     * @param keyId the {@code kid} header of the token
+     * @return the verification key, or null if the key ID is unknown
+     */
+    Key verificationKey(String keyId);
+
+    /**
+     * Returns the ID of the key new tokens are signed with.
+     *
+     * @return the active key ID
+     * @throws IllegalStateException if this node only verifies tokens
+     */
+    default String signingKeyId() {
+        throw new IllegalStateException("This node does not hold JWT signing keys");
+    }
+
+    /**
+     * Returns the private key new tokens are signed with.
+     *
+     * @return the active private key
+     * @throws IllegalStateException if this node only verifies tokens
+     */
+    default PrivateKey signingKey() {
+        throw new IllegalStateException("This node does not hold JWT signing keys");
+    }
+}
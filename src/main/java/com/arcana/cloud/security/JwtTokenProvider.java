@@ -2,23 +2,42 @@ package com.arcana.cloud.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
-
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and verifies JWTs.
+ *
+ * <p>{@code jwt.signing.algorithm} selects the signature: {@code HS256} (default) uses the
+ * shared {@code jwt.secret}; {@code ES256} or {@code EdDSA} sign with the private key of the
+ * {@link JwtKeySet} and verify by the token's {@code kid}, so tiers that only verify tokens
+ * need no secret and no call to the issuing tier.</p>
+ */
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
+    static final String HMAC_ALGORITHM = "HS256";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -28,76 +47,116 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh.expiration:2592000000}")
     private Long refreshTokenExpiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String signingAlgorithm = HMAC_ALGORITHM;
+
+    @Autowired(required = false)
+    private JwtKeySet keySet;
+
+    /**
+     * Signing key and parser are immutable and thread-safe, so they are built once
+     * instead of on every sign/verify call.
+     */
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        if (isAsymmetric()) {
+            if (keySet == null) {
+                throw new IllegalStateException("jwt.signing.algorithm=" + signingAlgorithm
+                    + " requires a JWT key set");
+            }
+            this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(ProtectedHeader header) {
+                        return keySet.verificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+            return;
+        }
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+            .verifyWith(key)
+            .build();
+        this.signingKey = key;
+    }
+
+    private boolean isAsymmetric() {
+        return !HMAC_ALGORITHM.equalsIgnoreCase(signingAlgorithm);
+    }
+
+    private JwtBuilder sign(JwtBuilder builder) {
+        if (isAsymmetric()) {
+            return builder
+                .header().keyId(keySet.signingKeyId()).and()
+                .signWith(keySet.signingKey());
+        }
+        if (signingKey == null) {
+            init();
+        }
+        return builder.signWith(signingKey);
+    }
+
+    private JwtParser getParser() {
+        if (jwtParser == null) {
+            init();
+        }
+        return jwtParser;
     }
 
     public String generateAccessToken(UserPrincipal userPrincipal) {
+        return generateAccessToken(userPrincipal, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Issues an access token with the given token ID ({@code jti}).
+     * Login issues the access and refresh token of a pair under one ID, so rotating the
+     * refresh token can revoke its access token without loading the stored row.
+     */
+    public String generateAccessToken(UserPrincipal userPrincipal, String tokenId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenExpiration);
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
+            .id(tokenId)
             .subject(userPrincipal.getId().toString())
             .claim("username", userPrincipal.getUsername())
             .claim("email", userPrincipal.getEmail())
             .claim("role", userPrincipal.getRole().name())
             .issuedAt(now)
-            .expiration(expiryDate)
-            .signWith(getSigningKey())
+            .expiration(expiryDate))
             .compact();
     }
 
     public String generateRefreshToken(UserPrincipal userPrincipal) {
+        return generateRefreshToken(userPrincipal, UUID.randomUUID().toString());
+    }
+
+    public String generateRefreshToken(UserPrincipal userPrincipal, String tokenId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshTokenExpiration);
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
+            .id(tokenId)
             .subject(userPrincipal.getId().toString())
-            .claim("type", "refresh")
+            .claim("type", ParsedToken.REFRESH_TYPE)
             .issuedAt(now)
-            .expiration(expiryDate)
-            .signWith(getSigningKey())
+            .expiration(expiryDate))
             .compact();
     }
 
-    public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
-
-        return Long.parseLong(claims.getSubject());
-    }
-
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
-
-        return claims.get("username", String.class);
-    }
-
-    public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
-
-        return claims.get("role", String.class);
-    }
-
-    public boolean validateToken(String token) {
+    /**
+     * Verifies the token signature and expiry once and returns all claims.
+     *
+     * @param token the compact JWT
+     * @return the verified claims, or empty if the token is invalid
+     */
+    public Optional<ParsedToken> parseToken(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
-            return true;
+            return Optional.of(toParsedToken(parseClaims(token)));
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -109,6 +168,41 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public Long getUserIdFromToken(String token) {
+        return Long.parseLong(parseClaims(token).getSubject());
+    }
+
+    public String getUsernameFromToken(String token) {
+        return parseClaims(token).get("username", String.class);
+    }
+
+    public String getRoleFromToken(String token) {
+        return parseClaims(token).get("role", String.class);
+    }
+
+    public boolean validateToken(String token) {
+        return parseToken(token).isPresent();
+    }
+
+    private Claims parseClaims(String token) {
+        return getParser()
+            .parseSignedClaims(token)
+            .getPayload();
+    }
+
+    private ParsedToken toParsedToken(Claims claims) {
+        return new ParsedToken(
+            claims.getId(),
+            Long.parseLong(claims.getSubject()),
+            claims.get("username", String.class),
+            claims.get("email", String.class),
+            claims.get("role", String.class),
+            claims.get("type", String.class),
+            claims.getIssuedAt(),
+            claims.getExpiration()
+        );
     }
 }
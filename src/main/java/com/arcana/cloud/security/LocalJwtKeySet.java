@@ -0,0 +1,138 @@
+package com.arcana.cloud.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Key set of the tiers that issue tokens (monolithic and service layer).
+ *
+ * <p>Keys are read from the JWK Set file at {@code jwt.signing.jwks-file}. Every private key
+ * in the file can verify tokens and is published on the JWKS endpoint; the one named by
+ * {@code jwt.signing.active-key-id} (default: the first private key) signs new tokens.
+ * Public-only entries are published and verified but never used for signing.</p>
+ *
+ * <p>To rotate: add the new key, roll the tier, switch {@code active-key-id}, and drop the
+ * old key once the longest-lived token signed with it has expired.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnExpression(
+    "'${jwt.signing.algorithm:HS256}' != 'HS256' and '${deployment.layer:}' != 'controller'"
+)
+public class LocalJwtKeySet implements JwtKeySet {
+
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String algorithm;
+
+    @Value("${jwt.signing.jwks-file:}")
+    private String jwksFile;
+
+    @Value("${jwt.signing.active-key-id:}")
+    private String activeKeyId;
+
+    private Map<String, PublicJwk<?>> publicKeys;
+    private String signingKeyId;
+    private PrivateKey signingKey;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Map<String, PublicJwk<?>> keys = new LinkedHashMap<>();
+        Map<String, PrivateKey> privateKeys = new LinkedHashMap<>();
+
+        if (StringUtils.hasText(jwksFile)) {
+            JwkSet jwkSet = Jwks.setParser().build().parse(Files.readString(Path.of(jwksFile)));
+            for (Jwk<?> jwk : jwkSet) {
+                String keyId = jwk.getId() != null ? jwk.getId() : jwk.thumbprint().toString();
+                if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                    keys.put(keyId, withId(privateJwk.toPublicJwk(), keyId));
+                    privateKeys.put(keyId, privateJwk.toKey());
+                } else if (jwk instanceof PublicJwk<?> publicJwk) {
+                    keys.put(keyId, withId(publicJwk, keyId));
+                }
+            }
+        } else {
+            KeyPair keyPair = signatureAlgorithm().keyPair().build();
+            String keyId = UUID.randomUUID().toString();
+            keys.put(keyId, Jwks.builder().key(keyPair.getPublic()).id(keyId).build());
+            privateKeys.put(keyId, keyPair.getPrivate());
+            log.warn("jwt.signing.jwks-file is not set; signing with an ephemeral {} key. "
+                + "Tokens will not verify after a restart or on other nodes.", algorithm);
+        }
+
+        String keyId = StringUtils.hasText(activeKeyId)
+            ? activeKeyId
+            : privateKeys.keySet().stream().findFirst().orElse(null);
+        if (keyId == null || !privateKeys.containsKey(keyId)) {
+            throw new IllegalStateException("No private JWK with kid '" + keyId + "' in " + jwksFile);
+        }
+
+        this.publicKeys = keys;
+        this.signingKey = privateKeys.get(keyId);
+        this.signingKeyId = keyId;
+        log.info("JWT signing with {} key '{}', {} key(s) published", algorithm, keyId, keys.size());
+    }
+
+    @Override
+    public Key verificationKey(String keyId) {
+        PublicJwk<?> jwk = keyId != null ? publicKeys.get(keyId) : null;
+        return jwk != null ? jwk.toKey() : null;
+    }
+
+    @Override
+    public String signingKeyId() {
+        return signingKeyId;
+    }
+
+    @Override
+    public PrivateKey signingKey() {
+        return signingKey;
+    }
+
+    /**
+     * Returns the public keys as a JWK Set document.
+     *
+     * @return the JWK Set JSON
+     */
+    public String toPublicJwksJson() {
+        return publicKeys.values().stream()
+            .map(Jwks::json)
+            .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+
+    private SignatureAlgorithm signatureAlgorithm() {
+        return switch (algorithm) {
+            case "ES256" -> Jwts.SIG.ES256;
+            case "EdDSA" -> Jwts.SIG.EdDSA;
+            default -> throw new IllegalStateException("Unsupported jwt.signing.algorithm: " + algorithm);
+        };
+    }
+
+    private static PublicJwk<?> withId(PublicJwk<?> jwk, String keyId) {
+        if (keyId.equals(jwk.getId())) {
+            return jwk;
+        }
+        return Jwks.builder().key(jwk.toKey()).id(keyId).build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.arcana.cloud.security;
+
+import java.util.Date;
+
+/**
+ * Verified claims of a JWT, produced by a single signature check in
+ * {@link JwtTokenProvider#parseToken(String)}.
+ *
+ * <p>Callers that need more than one claim should use this instead of the
+ * individual {@code getXxxFromToken} accessors, each of which re-verifies the token.</p>
+ *
+ * @param tokenId    the {@code jti} claim, unique per issued token
+ * @param userId     the subject of the token
+ * @param username   the {@code username} claim (access tokens only)
+ * @param email      the {@code email} claim (access tokens only)
+ * @param role       the {@code role} claim (access tokens only)
+ * @param type       the {@code type} claim, {@code "refresh"} for refresh tokens
+ * @param issuedAt   when the token was issued
+ * @param expiration when the token expires
+ */
+public record ParsedToken(
+    String tokenId,
+    Long userId,
+    String username,
+    String email,
+    String role,
+    String type,
+    Date issuedAt,
+    Date expiration
+) {
+
+    public static final String REFRESH_TYPE = "refresh";
+
+    public boolean isRefreshToken() {
+        return REFRESH_TYPE.equals(type);
+    }
+}
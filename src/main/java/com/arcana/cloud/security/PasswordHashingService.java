@@ -0,0 +1,153 @@
+package com.arcana.cloud.security;
+
+import com.arcana.cloud.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a dedicated, bounded worker pool instead of request threads.
+ *
+ * <p>This is the primary {@link PasswordEncoder}, so services use it without changes; it
+ * delegates the actual work to the raw BCrypt encoder. At most
+ * {@code security.password-hashing.threads} hashes (default: one per core) run at once and
+ * up to {@code security.password-hashing.queue-capacity} wait; beyond that, callers get a
+ * {@link TooManyRequestsException} (HTTP 429) immediately instead of tying up a thread.</p>
+ *
+ * <p>Metrics: {@code password.hashing.queue.wait} and {@code password.hashing.duration}
+ * timers (tagged by operation) and the {@code password.hashing.rejected} counter.</p>
+ */
+@Component
+@Primary
+@Slf4j
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final String ENCODE = "encode";
+    private static final String MATCHES = "matches";
+
+    private final PasswordEncoder delegate;
+
+    @Value("${security.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${security.password-hashing.queue-capacity:100}")
+    private int queueCapacity = 100;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Counter rejected;
+
+    public PasswordHashingService(@Qualifier("passwordEncoder") PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        if (meterRegistry != null) {
+            this.rejected = meterRegistry.counter("password.hashing.rejected");
+            meterRegistry.gauge("password.hashing.queue.size", executor, pool -> pool.getQueue().size());
+        }
+        log.info("Password hashing pool started: threads={}, queueCapacity={}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(ENCODE, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(MATCHES, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Cheap check on the stored hash; runs inline.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(String operation, Callable<T> work) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                record("password.hashing.queue.wait", operation, startedAt - enqueuedAt);
+                try {
+                    return work.call();
+                } finally {
+                    record("password.hashing.duration", operation, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            log.warn("Password hashing pool saturated, rejecting {}", operation);
+            throw new TooManyRequestsException("Too many concurrent authentication requests, please retry");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void record(String name, String operation, long nanos) {
+        if (meterRegistry != null) {
+            Timer.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
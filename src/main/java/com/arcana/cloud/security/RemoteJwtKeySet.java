@@ -0,0 +1,91 @@
+package com.arcana.cloud.security;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Key set of the controller tier, which only verifies tokens.
+ *
+ * <p>Public keys are fetched from the service tier's JWKS endpoint and cached, so tokens
+ * are verified locally without a call per request. The cache is refreshed every
+ * {@code jwt.signing.jwks-refresh-seconds}, and early when a token names an unknown key ID
+ * (at most once per {@code jwt.signing.jwks-min-refresh-seconds}), which picks up a new
+ * signing key as soon as the service tier publishes it. If a refresh fails the
+ * previously fetched keys stay in use.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnExpression(
+    "'${jwt.signing.algorithm:HS256}' != 'HS256' and '${deployment.layer:}' == 'controller'"
+)
+public class RemoteJwtKeySet implements JwtKeySet {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${jwt.signing.jwks-url:${service.http.url:http://localhost:8081}/internal/api/v1/auth/jwks}")
+    private String jwksUrl;
+
+    @Value("${jwt.signing.jwks-refresh-seconds:300}")
+    private long refreshSeconds;
+
+    @Value("${jwt.signing.jwks-min-refresh-seconds:10}")
+    private long minRefreshSeconds;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Map<String, Key> keys = Map.of();
+    private volatile long fetchedAtMillis;
+
+    @Override
+    public Key verificationKey(String keyId) {
+        if (keyId == null) {
+            return null;
+        }
+        long ageMillis = System.currentTimeMillis() - fetchedAtMillis;
+        Key key = keys.get(keyId);
+        if (key == null ? ageMillis >= minRefreshSeconds * 1000 : ageMillis >= refreshSeconds * 1000) {
+            refresh();
+            key = keys.get(keyId);
+        }
+        return key;
+    }
+
+    /**
+     * Re-fetches the key set. Concurrent callers do not wait; they keep using the current keys.
+     */
+    void refresh() {
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            String json = restTemplate.getForObject(jwksUrl, String.class);
+            JwkSet jwkSet = Jwks.setParser().ignoreUnsupported(true).build().parse(json);
+            Map<String, Key> fetched = new HashMap<>();
+            for (Jwk<?> jwk : jwkSet) {
+                if (jwk instanceof PublicJwk<?> publicJwk && publicJwk.getId() != null) {
+                    fetched.put(publicJwk.getId(), publicJwk.toKey());
+                }
+            }
+            this.keys = Map.copyOf(fetched);
+            log.debug("Fetched {} JWT verification key(s) from {}", fetched.size(), jwksUrl);
+        } catch (Exception e) {
+            log.warn("Failed to fetch JWKS from {}: {}", jwksUrl, e.getMessage());
+        } finally {
+            this.fetchedAtMillis = System.currentTimeMillis();
+            refreshLock.unlock();
+        }
+    }
+}
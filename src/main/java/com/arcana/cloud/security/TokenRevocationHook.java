@@ -0,0 +1,18 @@
+package com.arcana.cloud.security;
+
+/**
+ * Extension point consulted by {@link JwtAuthenticationFilter} after a token's
+ * signature has been verified and before the request is authenticated.
+ *
+ * <p>Implementations must answer from memory; they run on every authenticated request.</p>
+ */
+public interface TokenRevocationHook {
+
+    /**
+     * Returns {@code true} if the verified token must no longer be accepted.
+     *
+     * @param token the verified token claims
+     * @return true if the token is revoked
+     */
+    boolean isRevoked(ParsedToken token);
+}
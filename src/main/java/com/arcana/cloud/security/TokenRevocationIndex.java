@@ -0,0 +1,181 @@
+package com.arcana.cloud.security;
+
+import com.arcana.cloud.entity.OAuthToken;
+import com.arcana.cloud.repository.OAuthTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * In-memory index of revoked access tokens, keyed by their {@code jti} claim.
+ *
+ * <p>Lookups on the request path are a single hash probe; no database query is made.
+ * Each entry expires together with the token it revokes, so the index only ever holds
+ * tokens revoked within the last access-token lifetime.</p>
+ *
+ * <p>On startup the index is seeded from revoked, unexpired rows in {@code oauth_tokens}
+ * (where a repository is available) and from the Redis snapshot. When Redis is configured,
+ * revocations are published on {@value #CHANNEL} so every node applies them.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationIndex implements TokenRevocationHook, MessageListener {
+
+    static final String CHANNEL = "jwt:revocations";
+    static final String SNAPSHOT_KEY = "jwt:revoked";
+
+    private final JwtTokenProvider tokenProvider;
+
+    @Autowired(required = false)
+    private OAuthTokenRepository tokenRepository;
+
+    @Autowired(required = false)
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired(required = false)
+    private RedisMessageListenerContainer listenerContainer;
+
+    private Cache<String, Long> revoked;
+
+    @PostConstruct
+    public void init() {
+        this.revoked = Caffeine.newBuilder()
+            .expireAfter(Expiry.creating((String tokenId, Long expiresAtMillis) ->
+                Duration.ofMillis(Math.max(0, expiresAtMillis - System.currentTimeMillis()))))
+            .build();
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        }
+    }
+
+    /**
+     * Loads revocations made before this node started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (tokenRepository != null) {
+            try {
+                tokenRepository.findRevokedUnexpiredTokens(LocalDateTime.now())
+                    .forEach(token -> revokeLocally(token.getAccessToken()));
+            } catch (Exception e) {
+                log.warn("Failed to seed token revocations from database: {}", e.getMessage());
+            }
+        }
+        if (redisTemplate != null) {
+            try {
+                long now = System.currentTimeMillis();
+                ZSetOperations<String, String> snapshot = redisTemplate.opsForZSet();
+                snapshot.removeRangeByScore(SNAPSHOT_KEY, 0, now);
+                Set<ZSetOperations.TypedTuple<String>> entries =
+                    snapshot.rangeByScoreWithScores(SNAPSHOT_KEY, now, Double.MAX_VALUE);
+                if (entries != null) {
+                    entries.forEach(entry -> add(entry.getValue(), entry.getScore().longValue()));
+                }
+            } catch (Exception e) {
+                log.warn("Failed to seed token revocations from Redis: {}", e.getMessage());
+            }
+        }
+        log.info("Token revocation index seeded with {} entries", size());
+    }
+
+    /**
+     * Revokes an access token on every node.
+     *
+     * @param accessToken the compact access token
+     */
+    public void revoke(String accessToken) {
+        tokenProvider.parseToken(accessToken)
+            .filter(token -> token.tokenId() != null)
+            .ifPresent(token -> revoke(token.tokenId(), token.expiration().getTime()));
+    }
+
+    /**
+     * Revokes an access token by its ID on every node, without needing the token itself.
+     *
+     * @param tokenId the access token's {@code jti}
+     * @param expiresAtMillis when the access token expires; the entry is dropped after that
+     */
+    public void revoke(String tokenId, long expiresAtMillis) {
+        add(tokenId, expiresAtMillis);
+        publish(tokenId, expiresAtMillis);
+    }
+
+    /**
+     * Revokes the access tokens of the given rows on every node.
+     *
+     * @param tokens the token rows being revoked
+     */
+    public void revokeAll(Collection<OAuthToken> tokens) {
+        tokens.forEach(token -> revoke(token.getAccessToken()));
+    }
+
+    @Override
+    public boolean isRevoked(ParsedToken token) {
+        return token.tokenId() != null && revoked.getIfPresent(token.tokenId()) != null;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator <= 0) {
+            log.warn("Ignoring malformed token revocation message");
+            return;
+        }
+        try {
+            add(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed token revocation message");
+        }
+    }
+
+    public long size() {
+        revoked.cleanUp();
+        return revoked.estimatedSize();
+    }
+
+    void add(String tokenId, long expiresAtMillis) {
+        if (tokenId != null && expiresAtMillis > System.currentTimeMillis()) {
+            revoked.put(tokenId, expiresAtMillis);
+        }
+    }
+
+    private void revokeLocally(String accessToken) {
+        tokenProvider.parseToken(accessToken)
+            .filter(token -> token.tokenId() != null)
+            .ifPresent(token -> add(token.tokenId(), token.expiration().getTime()));
+    }
+
+    private void publish(String tokenId, long expiresAtMillis) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().add(SNAPSHOT_KEY, tokenId, expiresAtMillis);
+            redisTemplate.convertAndSend(CHANNEL, tokenId + ":" + expiresAtMillis);
+        } catch (Exception e) {
+            // The database row is already revoked; other nodes pick it up on their next restart
+            log.warn("Failed to publish token revocation: {}", e.getMessage());
+        }
+    }
+}
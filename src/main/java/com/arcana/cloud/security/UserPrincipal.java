@@ -44,6 +44,25 @@ public class UserPrincipal implements UserDetails {
             .build();
     }
 
+    /**
+     * Builds a principal from verified access-token claims without loading the user.
+     * The password is not available and the account is assumed active; disabled users
+     * are rejected through {@link TokenRevocationHook}s instead.
+     */
+    public static UserPrincipal fromToken(ParsedToken token) {
+        UserRole role = UserRole.valueOf(token.role());
+        return UserPrincipal.builder()
+            .id(token.userId())
+            .username(token.username())
+            .email(token.email())
+            .role(role)
+            .isActive(true)
+            .authorities(Collections.singletonList(
+                new SimpleGrantedAuthority("ROLE_" + role.name())
+            ))
+            .build();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,113 @@
+package com.arcana.cloud.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Short-lived, per-node cache of principals loaded by {@link JwtAuthenticationFilter}
+ * in {@code lookup} mode, so repeat requests from the same user skip the user lookup.
+ *
+ * <p>Disabled when {@code jwt.authentication.principal-cache.ttl-seconds} is 0 (default).
+ * When Redis is configured, evictions are published on {@value #CHANNEL}, so a change made
+ * on one node (or on the service layer) drops the principal on every node.</p>
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache implements MessageListener {
+
+    static final String CHANNEL = "users:principal-evictions";
+
+    @Value("${jwt.authentication.principal-cache.ttl-seconds:0}")
+    private long ttlSeconds;
+
+    @Value("${jwt.authentication.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    @Autowired(required = false)
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired(required = false)
+    private RedisMessageListenerContainer listenerContainer;
+
+    private Cache<Long, UserDetails> principals;
+
+    @PostConstruct
+    public void init() {
+        if (ttlSeconds > 0) {
+            this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+            log.info("User principal cache enabled: ttl={}s, maxSize={}", ttlSeconds, maxSize);
+            if (listenerContainer != null) {
+                listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return principals != null;
+    }
+
+    /**
+     * Returns the cached principal for the user, loading it on a miss.
+     *
+     * @param userId the user ID
+     * @param loader loads the principal when not cached
+     * @return the principal
+     */
+    public UserDetails get(Long userId, Function<Long, UserDetails> loader) {
+        if (principals == null) {
+            return loader.apply(userId);
+        }
+        return principals.get(userId, loader);
+    }
+
+    /**
+     * Drops the user's principal here and, through Redis, on every other node. Published
+     * even when this node does not cache principals, since the nodes that authenticate
+     * may.
+     *
+     * @param userId the user ID
+     */
+    public void evict(Long userId) {
+        if (principals != null) {
+            principals.invalidate(userId);
+        }
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.convertAndSend(CHANNEL, userId.toString());
+            } catch (Exception e) {
+                // The TTL bounds how long other nodes keep the stale principal
+                log.warn("Failed to publish principal eviction: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Long userId = Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8));
+            if (principals != null) {
+                principals.invalidate(userId);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed principal eviction message");
+        }
+    }
+}
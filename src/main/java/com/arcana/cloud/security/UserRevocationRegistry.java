@@ -0,0 +1,190 @@
+package com.arcana.cloud.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Registry of users whose existing tokens must stop working, e.g. because the account
+ * was disabled or deleted, or its role changed.
+ *
+ * <p>Tokens issued at or before the revocation time are rejected. An entry only needs
+ * to live as long as an access token can, so entries expire after {@code jwt.expiration}.
+ * Disabling is undone by {@link #restoreUser(Long)}; a role change is not, since tokens
+ * issued before it carry the old role.</p>
+ *
+ * <p>When Redis is configured, revocations and restores are published on
+ * {@value #CHANNEL} so every node applies them, and kept in {@value #SNAPSHOT_KEY} for
+ * nodes that start later.</p>
+ */
+@Component
+@Slf4j
+public class UserRevocationRegistry implements TokenRevocationHook, MessageListener {
+
+    static final String CHANNEL = "users:revocations";
+    static final String SNAPSHOT_KEY = "users:revoked";
+
+    private static final String DISABLED = "D";
+    private static final String REISSUE = "N";
+    private static final String RESTORED = "R";
+    private static final String SEPARATOR = ":";
+
+    @Value("${jwt.expiration:3600000}")
+    private Long accessTokenExpiration;
+
+    @Autowired(required = false)
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired(required = false)
+    private RedisMessageListenerContainer listenerContainer;
+
+    private Cache<Long, Long> disabledAt;
+    private Cache<Long, Long> notBefore;
+
+    @PostConstruct
+    public void init() {
+        this.disabledAt = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(accessTokenExpiration))
+            .build();
+        this.notBefore = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(accessTokenExpiration))
+            .build();
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        }
+    }
+
+    /**
+     * Loads revocations made before this node started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            long cutoff = System.currentTimeMillis() - accessTokenExpiration;
+            ZSetOperations<String, String> snapshot = redisTemplate.opsForZSet();
+            snapshot.removeRangeByScore(SNAPSHOT_KEY, 0, cutoff);
+            Set<ZSetOperations.TypedTuple<String>> entries =
+                snapshot.rangeByScoreWithScores(SNAPSHOT_KEY, cutoff, Double.MAX_VALUE);
+            if (entries != null) {
+                entries.forEach(entry -> apply(entry.getValue() + SEPARATOR + entry.getScore().longValue()));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to seed user revocations from Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rejects every token issued to the user up to now, until {@link #restoreUser(Long)}.
+     *
+     * @param userId the user ID
+     */
+    public void revokeUser(Long userId) {
+        log.info("Revoking tokens for user: {}", userId);
+        long now = System.currentTimeMillis();
+        disabledAt.put(userId, now);
+        publish(DISABLED, userId, now);
+    }
+
+    /**
+     * Rejects every token issued to the user up to now for good, e.g. after a role change,
+     * so the user has to sign in again to get tokens with the new claims.
+     *
+     * @param userId the user ID
+     */
+    public void requireReissue(Long userId) {
+        log.info("Revoking tokens issued before a role change for user: {}", userId);
+        long now = System.currentTimeMillis();
+        notBefore.put(userId, now);
+        publish(REISSUE, userId, now);
+    }
+
+    /**
+     * Accepts the user's tokens again, e.g. after the account is re-enabled. Revocations
+     * from {@link #requireReissue(Long)} stay in place.
+     *
+     * @param userId the user ID
+     */
+    public void restoreUser(Long userId) {
+        disabledAt.invalidate(userId);
+        publish(RESTORED, userId, System.currentTimeMillis());
+    }
+
+    @Override
+    public boolean isRevoked(ParsedToken token) {
+        return isIssuedBy(token, disabledAt.getIfPresent(token.userId()))
+            || isIssuedBy(token, notBefore.getIfPresent(token.userId()));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        apply(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private static boolean isIssuedBy(ParsedToken token, Long revokedAtMillis) {
+        if (revokedAtMillis == null) {
+            return false;
+        }
+        return token.issuedAt() == null || token.issuedAt().getTime() <= revokedAtMillis;
+    }
+
+    /**
+     * Applies a {@code kind:userId:millis} revocation from another node or the snapshot.
+     */
+    private void apply(String body) {
+        String[] parts = body.split(SEPARATOR);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed user revocation message");
+            return;
+        }
+        try {
+            Long userId = Long.valueOf(parts[1]);
+            long millis = Long.parseLong(parts[2]);
+            switch (parts[0]) {
+                case DISABLED -> disabledAt.asMap().merge(userId, millis, Math::max);
+                case REISSUE -> notBefore.asMap().merge(userId, millis, Math::max);
+                case RESTORED -> disabledAt.asMap().computeIfPresent(userId,
+                    (id, revokedAtMillis) -> revokedAtMillis <= millis ? null : revokedAtMillis);
+                default -> log.warn("Ignoring user revocation message of unknown kind {}", parts[0]);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed user revocation message");
+        }
+    }
+
+    private void publish(String kind, Long userId, long millis) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            ZSetOperations<String, String> snapshot = redisTemplate.opsForZSet();
+            if (RESTORED.equals(kind)) {
+                snapshot.remove(SNAPSHOT_KEY, DISABLED + SEPARATOR + userId);
+            } else {
+                snapshot.add(SNAPSHOT_KEY, kind + SEPARATOR + userId, millis);
+            }
+            redisTemplate.convertAndSend(CHANNEL, String.join(SEPARATOR, kind, userId.toString(), Long.toString(millis)));
+        } catch (Exception e) {
+            // This node already applied it; others catch up from the snapshot on restart
+            log.warn("Failed to publish user revocation: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.arcana.cloud.service;
+
+import com.arcana.cloud.dto.request.UserImportFormat;
+import com.arcana.cloud.dto.response.UserImportJob;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Imports users in bulk from an uploaded file, in the background.
+ */
+public interface UserImportService {
+
+    /**
+     * Starts importing the users in a file. The file is read as a stream, so its size is
+     * not limited by memory, and is deleted once the import ends (or could not start).
+     *
+     * @param format the file's format
+     * @param upload the uploaded file; the import takes ownership of it
+     * @return the new job, already running
+     * @throws com.arcana.cloud.exception.TooManyRequestsException if the maximum number of
+     *         imports is already running
+     */
+    UserImportJob startImport(UserImportFormat format, Path upload);
+
+    /**
+     * @param jobId the ID returned by {@link #startImport(UserImportFormat, Path)}
+     * @return the job's current progress, or empty if it is unknown or has expired
+     */
+    Optional<UserImportJob> getImport(String jobId);
+}
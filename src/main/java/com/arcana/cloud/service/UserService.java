@@ -1,9 +1,13 @@
 package com.arcana.cloud.service;
 
+import com.arcana.cloud.dto.response.CursorPage;
 import com.arcana.cloud.entity.User;
 import org.springframework.data.domain.Page;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserService {
 
@@ -11,6 +15,15 @@ public interface UserService {
 
     User getUserById(Long id);
 
+    /**
+     * Resolves several users in one call: cached users are served from the cache and the
+     * rest are fetched with a single query.
+     *
+     * @param ids the user IDs; duplicates and nulls are ignored
+     * @return the users found, in the order of {@code ids}; unknown IDs are left out
+     */
+    List<User> getUsersByIds(Collection<Long> ids);
+
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
@@ -19,6 +32,26 @@ public interface UserService {
 
     Page<User> getUsers(int page, int size);
 
+    /**
+     * Lists users newest first by keyset instead of offset, so deep pages cost the same as
+     * the first one.
+     *
+     * @param after {@code nextCursor} of the previous page, or null/blank for the first page
+     * @param size page size
+     * @param includeTotal whether to also count all users (a full scan)
+     */
+    CursorPage<User> getUsersAfter(String after, int size, boolean includeTotal);
+
+    /**
+     * Passes every user, ordered by ID, to an action as they are read, without holding the
+     * whole table in memory. Meant for exports; the action should not call back into the
+     * user store.
+     *
+     * @param action called once per user on the calling thread; an exception aborts the export
+     * @return the number of users exported
+     */
+    long exportUsers(Consumer<? super User> action);
+
     User updateUser(Long id, User user);
 
     void deleteUser(Long id);
@@ -7,27 +7,30 @@ import com.arcana.cloud.dto.response.AuthResponse;
 import com.arcana.cloud.dto.response.UserResponse;
 import com.arcana.cloud.entity.UserRole;
 import com.arcana.cloud.exception.ServiceUnavailableException;
+import com.arcana.cloud.exception.TooManyRequestsException;
 import com.arcana.cloud.exception.UnauthorizedException;
 import com.arcana.cloud.grpc.AuthServiceGrpc;
 import com.arcana.cloud.grpc.LogoutAllRequest;
 import com.arcana.cloud.grpc.LogoutRequest;
 import com.arcana.cloud.grpc.UserInfo;
 import com.arcana.cloud.service.AuthService;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -42,107 +45,76 @@ import java.util.function.Supplier;
 @Slf4j
 public class GrpcAuthServiceClient implements AuthService {
 
-    @Value("${service.grpc.url:localhost:9090}")
-    private String serviceUrl;
-
-    @Value("${grpc.client.shutdown-timeout-seconds:5}")
-    private long shutdownTimeoutSeconds;
-
+    // Shared, load-balanced channel from GrpcConfig, which also shuts it down
+    @Autowired
+    @Qualifier("serviceChannel")
     private ManagedChannel channel;
-    private AuthServiceGrpc.AuthServiceBlockingStub stub;
+
+    private AuthServiceGrpc.AuthServiceFutureStub stub;
 
     @Autowired(required = false)
     private CircuitBreaker authServiceCircuitBreaker;
 
     @PostConstruct
     public void init() {
-        log.info("Initializing gRPC Auth client for service URL: {}", serviceUrl);
-        this.channel = ManagedChannelBuilder.forTarget(serviceUrl)
-            .usePlaintext()
-            .build();
-        this.stub = AuthServiceGrpc.newBlockingStub(channel);
+        log.info("Initializing gRPC Auth client for service authority: {}", channel.authority());
+        this.stub = AuthServiceGrpc.newFutureStub(channel);
 
         if (authServiceCircuitBreaker != null) {
             log.info("Circuit Breaker enabled for Auth Service");
         }
     }
 
-    @PreDestroy
-    public void shutdown() {
-        if (channel != null && !channel.isShutdown()) {
-            try {
-                channel.shutdown().awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                channel.shutdownNow();
-            }
-        }
-    }
-
     @Override
     public AuthResponse register(RegisterRequest request) {
-        return executeWithCircuitBreaker(() -> {
-            com.arcana.cloud.grpc.RegisterRequest grpcRequest = com.arcana.cloud.grpc.RegisterRequest.newBuilder()
-                .setUsername(request.getUsername())
-                .setEmail(request.getEmail())
-                .setPassword(request.getPassword())
-                .setConfirmPassword(request.getConfirmPassword())
-                .setFirstName(request.getFirstName() != null ? request.getFirstName() : "")
-                .setLastName(request.getLastName() != null ? request.getLastName() : "")
-                .build();
+        com.arcana.cloud.grpc.RegisterRequest grpcRequest = com.arcana.cloud.grpc.RegisterRequest.newBuilder()
+            .setUsername(request.getUsername())
+            .setEmail(request.getEmail())
+            .setPassword(request.getPassword())
+            .setConfirmPassword(request.getConfirmPassword())
+            .setFirstName(request.getFirstName() != null ? request.getFirstName() : "")
+            .setLastName(request.getLastName() != null ? request.getLastName() : "")
+            .build();
 
-            com.arcana.cloud.grpc.AuthResponse response = stub.register(grpcRequest);
-            return fromGrpcResponse(response);
-        }, "register");
+        return GrpcFutures.await(executeAsync(() -> stub.register(grpcRequest), this::fromGrpcResponse, "register"));
     }
 
     @Override
     public AuthResponse login(LoginRequest request) {
-        return executeWithCircuitBreaker(() -> {
-            com.arcana.cloud.grpc.LoginRequest grpcRequest = com.arcana.cloud.grpc.LoginRequest.newBuilder()
-                .setUsernameOrEmail(request.getUsernameOrEmail())
-                .setPassword(request.getPassword())
-                .build();
+        com.arcana.cloud.grpc.LoginRequest grpcRequest = com.arcana.cloud.grpc.LoginRequest.newBuilder()
+            .setUsernameOrEmail(request.getUsernameOrEmail())
+            .setPassword(request.getPassword())
+            .build();
 
-            com.arcana.cloud.grpc.AuthResponse response = stub.login(grpcRequest);
-            return fromGrpcResponse(response);
-        }, "login");
+        return GrpcFutures.await(executeAsync(() -> stub.login(grpcRequest), this::fromGrpcResponse, "login"));
     }
 
     @Override
     public AuthResponse refreshToken(RefreshTokenRequest request) {
-        return executeWithCircuitBreaker(() -> {
-            com.arcana.cloud.grpc.RefreshTokenRequest grpcRequest = com.arcana.cloud.grpc.RefreshTokenRequest.newBuilder()
-                .setRefreshToken(request.getRefreshToken())
-                .build();
+        com.arcana.cloud.grpc.RefreshTokenRequest grpcRequest = com.arcana.cloud.grpc.RefreshTokenRequest.newBuilder()
+            .setRefreshToken(request.getRefreshToken())
+            .build();
 
-            com.arcana.cloud.grpc.AuthResponse response = stub.refreshToken(grpcRequest);
-            return fromGrpcResponse(response);
-        }, "refreshToken");
+        return GrpcFutures.await(executeAsync(() -> stub.refreshToken(grpcRequest),
+            this::fromGrpcResponse, "refreshToken"));
     }
 
     @Override
     public void logout(String accessToken) {
-        executeWithCircuitBreaker(() -> {
-            LogoutRequest grpcRequest = LogoutRequest.newBuilder()
-                .setAccessToken(accessToken)
-                .build();
+        LogoutRequest grpcRequest = LogoutRequest.newBuilder()
+            .setAccessToken(accessToken)
+            .build();
 
-            stub.logout(grpcRequest);
-            return null;
-        }, "logout");
+        GrpcFutures.await(executeAsync(() -> stub.logout(grpcRequest), _ -> null, "logout"));
     }
 
     @Override
     public void logoutAll(Long userId) {
-        executeWithCircuitBreaker(() -> {
-            LogoutAllRequest grpcRequest = LogoutAllRequest.newBuilder()
-                .setUserId(userId)
-                .build();
+        LogoutAllRequest grpcRequest = LogoutAllRequest.newBuilder()
+            .setUserId(userId)
+            .build();
 
-            stub.logoutAll(grpcRequest);
-            return null;
-        }, "logoutAll");
+        GrpcFutures.await(executeAsync(() -> stub.logoutAll(grpcRequest), _ -> null, "logoutAll"));
     }
 
     private AuthResponse fromGrpcResponse(com.arcana.cloud.grpc.AuthResponse response) {
@@ -171,48 +143,55 @@ public class GrpcAuthServiceClient implements AuthService {
     }
 
     /**
-     * Executes a gRPC call with circuit breaker protection.
+     * Starts a unary call with circuit breaker protection.
+     * The breaker records the call when the response arrives, not when it is sent.
      */
-    private <T> T executeWithCircuitBreaker(Supplier<T> supplier, String operation) {
-        try {
-            if (authServiceCircuitBreaker != null) {
-                return authServiceCircuitBreaker.executeSupplier(() -> executeGrpcCall(supplier, operation));
-            } else {
-                return executeGrpcCall(supplier, operation);
+    private <R, T> CompletableFuture<T> executeAsync(Supplier<ListenableFuture<R>> call, Function<R, T> mapper,
+                                                     String operation) {
+        Supplier<CompletionStage<T>> guarded = () -> GrpcFutures.toCompletableFuture(call.get())
+            .exceptionallyCompose(e -> CompletableFuture.failedFuture(translate(GrpcFutures.unwrap(e), operation)))
+            .thenApply(mapper);
+
+        CompletableFuture<T> future = authServiceCircuitBreaker != null
+            ? authServiceCircuitBreaker.executeCompletionStage(guarded).toCompletableFuture()
+            : guarded.get().toCompletableFuture();
+        return future.exceptionallyCompose(e -> {
+            if (GrpcFutures.unwrap(e) instanceof CallNotPermittedException) {
+                log.warn("Circuit breaker OPEN for Auth Service, operation: {}", operation);
+                return CompletableFuture.failedFuture(new ServiceUnavailableException("Auth service is unavailable"));
             }
-        } catch (CallNotPermittedException e) {
-            log.warn("Circuit breaker OPEN for Auth Service, operation: {}", operation);
-            throw new ServiceUnavailableException("Auth service is unavailable");
-        }
+            return CompletableFuture.failedFuture(e);
+        });
     }
 
     /**
-     * Executes a gRPC call with proper error handling and categorization.
+     * Categorizes a failed call by status code for better debugging.
      */
-    private <T> T executeGrpcCall(Supplier<T> supplier, String operation) {
-        try {
-            return supplier.get();
-        } catch (StatusRuntimeException e) {
-            Status.Code code = e.getStatus().getCode();
-
-            // Categorize error by status code for better debugging
-            switch (code) {
-                case UNAUTHENTICATED, PERMISSION_DENIED:
-                    log.debug("Authentication failed in {}: {}", operation, e.getStatus().getDescription());
-                    throw new UnauthorizedException(e.getStatus().getDescription());
-                case UNAVAILABLE, DEADLINE_EXCEEDED:
-                    log.error("Service unavailable in {}: {} ({})", operation, e.getStatus().getDescription(), code);
-                    throw new ServiceUnavailableException("Auth service unavailable: " + e.getStatus().getDescription());
-                case INVALID_ARGUMENT:
-                    log.error("Invalid argument in {}: {}", operation, e.getStatus().getDescription());
-                    throw new IllegalArgumentException("Invalid argument: " + e.getStatus().getDescription());
-                case ALREADY_EXISTS:
-                    log.debug("Resource already exists in {}: {}", operation, e.getStatus().getDescription());
-                    throw new IllegalStateException("Resource already exists: " + e.getStatus().getDescription());
-                default:
-                    log.error("gRPC error in {}: {} ({})", operation, e.getStatus().getDescription(), code);
-                    throw new ServiceUnavailableException("Service error: " + e.getStatus().getDescription());
-            }
+    private RuntimeException translate(Throwable failure, String operation) {
+        if (!(failure instanceof StatusRuntimeException e)) {
+            return failure instanceof RuntimeException runtime ? runtime : new CompletionException(failure);
+        }
+        Status.Code code = e.getStatus().getCode();
+
+        switch (code) {
+            case UNAUTHENTICATED, PERMISSION_DENIED:
+                log.debug("Authentication failed in {}: {}", operation, e.getStatus().getDescription());
+                return new UnauthorizedException(e.getStatus().getDescription());
+            case RESOURCE_EXHAUSTED:
+                log.warn("Request shed in {}: {}", operation, e.getStatus().getDescription());
+                return new TooManyRequestsException(e.getStatus().getDescription());
+            case UNAVAILABLE, DEADLINE_EXCEEDED:
+                log.error("Service unavailable in {}: {} ({})", operation, e.getStatus().getDescription(), code);
+                return new ServiceUnavailableException("Auth service unavailable: " + e.getStatus().getDescription());
+            case INVALID_ARGUMENT:
+                log.error("Invalid argument in {}: {}", operation, e.getStatus().getDescription());
+                return new IllegalArgumentException("Invalid argument: " + e.getStatus().getDescription());
+            case ALREADY_EXISTS:
+                log.debug("Resource already exists in {}: {}", operation, e.getStatus().getDescription());
+                return new IllegalStateException("Resource already exists: " + e.getStatus().getDescription());
+            default:
+                log.error("gRPC error in {}: {} ({})", operation, e.getStatus().getDescription(), code);
+                return new ServiceUnavailableException("Service error: " + e.getStatus().getDescription());
         }
     }
 }
@@ -0,0 +1,120 @@
+package com.arcana.cloud.service.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records each client call against the backend that served it.
+ *
+ * <p>Publishes the {@code grpc.client.calls} timer tagged with the configured target, the
+ * remote address the call ran on, the method and the status code, so uneven load across
+ * replicas of one target shows up as uneven per-backend counts and latencies.</p>
+ *
+ * <p>Backend addresses come and go as pods are replaced, so timers are kept in a bounded
+ * cache: one that has not been used for {@value #IDLE_MINUTES} minutes, or the least
+ * recently used one beyond {@value #DEFAULT_MAX_METERS}, is removed from the registry as
+ * well. Share one instance per target across pooled channels.</p>
+ */
+public class GrpcBackendMetricsInterceptor implements ClientInterceptor {
+
+    static final String METRIC_NAME = "grpc.client.calls";
+    static final int DEFAULT_MAX_METERS = 1000;
+    static final long IDLE_MINUTES = 10;
+    private static final String NO_BACKEND = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final String target;
+    private final Cache<MeterKey, Timer> timers;
+
+    public GrpcBackendMetricsInterceptor(MeterRegistry meterRegistry, String target) {
+        this(meterRegistry, target, DEFAULT_MAX_METERS);
+    }
+
+    GrpcBackendMetricsInterceptor(MeterRegistry meterRegistry, String target, int maxMeters) {
+        this.meterRegistry = meterRegistry;
+        this.target = target;
+        this.timers = Caffeine.newBuilder()
+            .maximumSize(maxMeters)
+            .expireAfterAccess(Duration.ofMinutes(IDLE_MINUTES))
+            // Runs within the eviction, so a timer re-created for the same key is not removed
+            .<MeterKey, Timer>evictionListener((key, timer, cause) -> {
+                if (timer != null) {
+                    meterRegistry.remove(timer);
+                }
+            })
+            .build();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                ClientCall<ReqT, RespT> call = this;
+                long startedAt = System.nanoTime();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        record(method, backend(call), status, System.nanoTime() - startedAt);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    private void record(MethodDescriptor<?, ?> method, String backend, Status status, long nanos) {
+        timers.get(new MeterKey(backend, method.getFullMethodName(), status.getCode()), key ->
+                Timer.builder(METRIC_NAME)
+                    .description("gRPC client calls by backend")
+                    .tag("target", target)
+                    .tag("backend", key.backend())
+                    .tag("method", key.method())
+                    .tag("status", key.status().name())
+                    .register(meterRegistry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Number of timers currently registered by this interceptor.
+     */
+    long meterCount() {
+        timers.cleanUp();
+        return timers.estimatedSize();
+    }
+
+    /**
+     * The remote address of the connection the call ran on; calls that never reached a
+     * backend (no address resolved, no connection available) report "none".
+     */
+    private static String backend(ClientCall<?, ?> call) {
+        SocketAddress address = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (address instanceof InetSocketAddress inet) {
+            return inet.getAddress() != null
+                ? inet.getAddress().getHostAddress() + ":" + inet.getPort()
+                : inet.getHostString() + ":" + inet.getPort();
+        }
+        return address != null ? address.toString() : NO_BACKEND;
+    }
+
+    private record MeterKey(String backend, String method, Status.Code status) {
+    }
+}
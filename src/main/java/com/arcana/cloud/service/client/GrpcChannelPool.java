@@ -0,0 +1,143 @@
+package com.arcana.cloud.service.client;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A channel that spreads calls over several channels to the same target.
+ *
+ * <p>A single channel multiplexes every call onto one HTTP/2 connection per backend, which
+ * caps it at the server's concurrent stream limit. Behind a virtual IP it also pins all
+ * traffic to whichever backend that connection happened to reach. Each pooled channel opens
+ * connections of its own, and calls are handed to the channels in turn.</p>
+ */
+public final class GrpcChannelPool extends ManagedChannel {
+
+    private final List<ManagedChannel> channels;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private GrpcChannelPool(List<ManagedChannel> channels) {
+        this.channels = List.copyOf(channels);
+    }
+
+    /**
+     * Pools the given channels; a single channel is returned as is.
+     */
+    public static ManagedChannel of(List<ManagedChannel> channels) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("A channel pool needs at least one channel");
+        }
+        return channels.size() == 1 ? channels.getFirst() : new GrpcChannelPool(channels);
+    }
+
+    /**
+     * The pooled channels, for monitoring.
+     */
+    public List<ManagedChannel> channels() {
+        return channels;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method,
+                                                         CallOptions callOptions) {
+        ManagedChannel channel = channels.get(Math.floorMod(next.getAndIncrement(), channels.size()));
+        return channel.newCall(method, callOptions);
+    }
+
+    @Override
+    public String authority() {
+        return channels.getFirst().authority();
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        channels.forEach(ManagedChannel::shutdown);
+        return this;
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        channels.forEach(ManagedChannel::shutdownNow);
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return channels.stream().allMatch(ManagedChannel::isShutdown);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return channels.stream().allMatch(ManagedChannel::isTerminated);
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ManagedChannel channel : channels) {
+            if (!channel.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The pool is as healthy as its healthiest channel: READY if any channel is.
+     */
+    @Override
+    public ConnectivityState getState(boolean requestConnection) {
+        ConnectivityState best = ConnectivityState.SHUTDOWN;
+        for (ManagedChannel channel : channels) {
+            ConnectivityState state = channel.getState(requestConnection);
+            if (rank(state) < rank(best)) {
+                best = state;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Runs the callback once, on the first state change of any pooled channel.
+     */
+    @Override
+    public void notifyWhenStateChanged(ConnectivityState source, Runnable callback) {
+        AtomicBoolean notified = new AtomicBoolean();
+        Runnable once = () -> {
+            if (notified.compareAndSet(false, true)) {
+                callback.run();
+            }
+        };
+        for (ManagedChannel channel : channels) {
+            channel.notifyWhenStateChanged(channel.getState(false), once);
+        }
+    }
+
+    @Override
+    public void resetConnectBackoff() {
+        channels.forEach(ManagedChannel::resetConnectBackoff);
+    }
+
+    @Override
+    public void enterIdle() {
+        channels.forEach(ManagedChannel::enterIdle);
+    }
+
+    private static int rank(ConnectivityState state) {
+        return switch (state) {
+            case READY -> 0;
+            case CONNECTING -> 1;
+            case IDLE -> 2;
+            case TRANSIENT_FAILURE -> 3;
+            case SHUTDOWN -> 4;
+        };
+    }
+}
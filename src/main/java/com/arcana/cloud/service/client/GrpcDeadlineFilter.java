@@ -0,0 +1,92 @@
+package com.arcana.cloud.service.client;
+
+import io.grpc.Context;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives each HTTP request a time budget that every gRPC call made on its behalf inherits.
+ *
+ * <p>The budget is the configured request budget, shortened by the caller's
+ * {@code X-Request-Timeout-Ms} header when that asks for less. It is attached as the
+ * deadline of the current gRPC {@link Context}: calls to the service layer send the remaining
+ * time in their {@code grpc-timeout} header, and the service layer's handlers run in a
+ * context with that deadline, so their calls to the repository layer carry what is left of
+ * it too. When the request finishes, calls still in flight for it are cancelled.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnExpression(
+    "'${communication.protocol:grpc}' == 'grpc' and '${deployment.layer:}' == 'controller'"
+)
+@Slf4j
+public class GrpcDeadlineFilter extends OncePerRequestFilter {
+
+    static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    // Expiry only cancels the context, so one daemon thread fires every request's deadline
+    private static final ScheduledExecutorService DEADLINE_SCHEDULER =
+        Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("grpc-deadline").daemon().factory());
+
+    @Value("${grpc.client.request-budget-ms:10000}")
+    private long requestBudgetMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long budgetMs = budgetMs(request.getHeader(TIMEOUT_HEADER));
+        if (budgetMs <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Context.CancellableContext context = Context.current()
+            .withDeadlineAfter(budgetMs, TimeUnit.MILLISECONDS, DEADLINE_SCHEDULER);
+        Context previous = context.attach();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            context.detach(previous);
+            context.cancel(null);
+        }
+    }
+
+    /**
+     * Streamed responses outlive the filter call; they keep no deadline of their own.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    private long budgetMs(String header) {
+        if (!StringUtils.hasText(header)) {
+            return requestBudgetMs;
+        }
+        try {
+            long requested = Long.parseLong(header.trim());
+            return requested > 0 && (requestBudgetMs <= 0 || requested < requestBudgetMs)
+                ? requested
+                : requestBudgetMs;
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed {} header: {}", TIMEOUT_HEADER, header);
+            return requestBudgetMs;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.arcana.cloud.service.client;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Helpers for issuing gRPC calls through future stubs.
+ *
+ * <p>A future stub returns as soon as the request is on the wire, so a caller can start
+ * several independent calls and wait for all of them once. Completion runs on the
+ * channel's executor; channels built with {@link #newVirtualThreadExecutor(String)} complete
+ * on virtual threads and never pin a platform thread while a call is in flight.</p>
+ */
+public final class GrpcFutures {
+
+    private GrpcFutures() {
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread, for gRPC server
+     * handlers and channel callbacks.
+     */
+    public static ExecutorService newVirtualThreadExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix + "-", 0).factory());
+    }
+
+    /**
+     * Adapts the future of a gRPC call. Cancelling the returned future cancels the call.
+     */
+    public static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                call.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        Futures.addCallback(call, new FutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    /**
+     * Waits for a call started with {@link #toCompletableFuture(ListenableFuture)} and
+     * rethrows its failure as thrown by the equivalent blocking call.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            throw asRuntimeException(e);
+        }
+    }
+
+    /**
+     * Strips the wrappers that {@link CompletableFuture} puts around a failure.
+     */
+    public static Throwable unwrap(Throwable t) {
+        Throwable cause = t;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+            && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static RuntimeException asRuntimeException(RuntimeException e) {
+        Throwable cause = unwrap(e);
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return e;
+    }
+}
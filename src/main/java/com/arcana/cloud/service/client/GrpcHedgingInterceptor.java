@@ -0,0 +1,380 @@
+package com.arcana.cloud.service.client;
+
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Context;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedges idempotent unary calls: when a call has not answered within the observed latency
+ * percentile of its method, the same request is sent again and the first answer wins.
+ *
+ * <p>A slow replica (a GC pause, a cold cache) then costs the caller roughly the hedging
+ * delay instead of its full stall. Every attempt carries the original call's deadline, and
+ * the losing attempts are cancelled as soon as one completes. Until a method has enough
+ * samples, the default delay applies.</p>
+ *
+ * <p>Latency samples are the time from the start of the call to the completion of each
+ * attempt that was not cancelled, failures included, so the percentile tracks what
+ * callers wait for rather than only the fastest winners. Hedges are paid for from a token
+ * bucket that every hedgeable call refills by the budget ratio, so when a backend slows
+ * down as a whole, hedging adds at most that fraction of extra load.</p>
+ *
+ * <p>Only list methods that are safe to run twice, and keep gRPC retries off for them:
+ * a retried hedge multiplies the attempts.</p>
+ */
+@Slf4j
+public class GrpcHedgingInterceptor implements ClientInterceptor {
+
+    static final int MIN_SAMPLES = 20;
+    static final double MAX_BUDGET_RATIO = 0.1;
+    static final int MAX_BUDGET_TOKENS = 10;
+    private static final int WINDOW_SIZE = 512;
+
+    private final Set<String> methods;
+    private final int maxAttempts;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long defaultDelayNanos;
+    private final HedgeBudget budget;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * @param methods bare method names to hedge, e.g. {@code GetUser}
+     * @param maxAttempts attempts per call including the first; below 2 nothing is hedged
+     * @param percentile latency percentile that triggers the next attempt, e.g. 0.95
+     * @param minDelayMs lower bound for the hedging delay
+     * @param defaultDelayMs delay used until a method has enough samples
+     */
+    public GrpcHedgingInterceptor(Set<String> methods, int maxAttempts, double percentile,
+                                  long minDelayMs, long defaultDelayMs) {
+        this(methods, maxAttempts, percentile, minDelayMs, defaultDelayMs, MAX_BUDGET_RATIO);
+    }
+
+    /**
+     * @param budgetRatio hedges allowed per hedgeable call, at most {@value #MAX_BUDGET_RATIO}
+     */
+    public GrpcHedgingInterceptor(Set<String> methods, int maxAttempts, double percentile,
+                                  long minDelayMs, long defaultDelayMs, double budgetRatio) {
+        this.methods = Set.copyOf(methods);
+        this.maxAttempts = maxAttempts;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        this.defaultDelayNanos = TimeUnit.MILLISECONDS.toNanos(defaultDelayMs);
+        this.budget = new HedgeBudget(Math.clamp(budgetRatio, 0.0, MAX_BUDGET_RATIO), MAX_BUDGET_TOKENS);
+    }
+
+    /**
+     * Whether the bare method name is hedged by this interceptor.
+     */
+    public boolean isHedged(String bareMethodName) {
+        return maxAttempts >= 2 && methods.contains(bareMethodName);
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        if (method.getType() != MethodDescriptor.MethodType.UNARY || !isHedged(method.getBareMethodName())) {
+            return next.newCall(method, callOptions);
+        }
+        budget.deposit();
+        return new HedgedCall<>(method, callOptions, next,
+            latencies.computeIfAbsent(method.getFullMethodName(), _ -> new LatencyWindow()));
+    }
+
+    /**
+     * The current hedging delay of a method, in nanoseconds.
+     */
+    long delayNanos(String fullMethodName) {
+        LatencyWindow window = latencies.get(fullMethodName);
+        long observed = window != null ? window.percentile(percentile) : -1;
+        return observed < 0 ? defaultDelayNanos : Math.max(minDelayNanos, observed);
+    }
+
+    /**
+     * A unary call fanned out over up to {@code maxAttempts} identical calls.
+     *
+     * <p>Request-side operations are recorded and replayed on every attempt. Responses are
+     * buffered per attempt and only the committed attempt's are passed on: the first to
+     * succeed, or the last to fail.</p>
+     */
+    private final class HedgedCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+
+        private final MethodDescriptor<ReqT, RespT> method;
+        private final CallOptions callOptions;
+        private final Channel next;
+        private final LatencyWindow window;
+        // Hedges start on a timer thread; they still belong to the caller's deadline and cancellation
+        private final Context context = Context.current();
+        private final Object lock = new Object();
+        private final List<Attempt> attempts = new ArrayList<>();
+
+        private Listener<RespT> listener;
+        private long startedAt;
+        private Metadata headers;
+        private ReqT message;
+        private int requested;
+        private boolean halfClosed;
+        private boolean cancelled;
+        private boolean committed;
+
+        HedgedCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next,
+                   LatencyWindow window) {
+            this.method = method;
+            this.callOptions = callOptions;
+            this.next = next;
+            this.window = window;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            this.listener = responseListener;
+            this.startedAt = System.nanoTime();
+            this.headers = headers;
+            startAttempt();
+        }
+
+        @Override
+        public void request(int numMessages) {
+            for (Attempt attempt : snapshot(() -> requested += numMessages)) {
+                attempt.call.request(numMessages);
+            }
+        }
+
+        @Override
+        public void sendMessage(ReqT request) {
+            for (Attempt attempt : snapshot(() -> message = request)) {
+                attempt.call.sendMessage(request);
+            }
+        }
+
+        @Override
+        public void halfClose() {
+            for (Attempt attempt : snapshot(() -> halfClosed = true)) {
+                attempt.call.halfClose();
+            }
+            scheduleHedge();
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            for (Attempt attempt : snapshot(() -> cancelled = true)) {
+                attempt.call.cancel(message, cause);
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            synchronized (lock) {
+                return attempts.getFirst().call.isReady();
+            }
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            synchronized (lock) {
+                Attempt winner = attempts.stream().filter(a -> a.won).findFirst().orElse(attempts.getFirst());
+                return winner.call.getAttributes();
+            }
+        }
+
+        private List<Attempt> snapshot(Runnable record) {
+            synchronized (lock) {
+                record.run();
+                return List.copyOf(attempts);
+            }
+        }
+
+        private void scheduleHedge() {
+            long delay = delayNanos(method.getFullMethodName());
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+                boolean started;
+                synchronized (lock) {
+                    started = !committed && !cancelled && attempts.size() < maxAttempts;
+                }
+                if (started && !budget.tryWithdraw()) {
+                    log.debug("Not hedging {}: hedge budget spent", method.getFullMethodName());
+                    return;
+                }
+                if (started) {
+                    log.debug("Hedging {} after {}ms", method.getFullMethodName(),
+                        TimeUnit.NANOSECONDS.toMillis(delay));
+                    context.run(this::startAttempt);
+                    scheduleHedge();
+                }
+            });
+        }
+
+        private void startAttempt() {
+            Attempt attempt = new Attempt(next.newCall(method, callOptions));
+            Metadata attemptHeaders = new Metadata();
+            attemptHeaders.merge(headers);
+            int pendingRequests;
+            ReqT pendingMessage;
+            boolean pendingHalfClose;
+            synchronized (lock) {
+                if (committed || (cancelled && !attempts.isEmpty())) {
+                    return;
+                }
+                attempts.add(attempt);
+                pendingRequests = requested;
+                pendingMessage = message;
+                pendingHalfClose = halfClosed;
+            }
+            attempt.call.start(attempt, attemptHeaders);
+            if (pendingRequests > 0) {
+                attempt.call.request(pendingRequests);
+            }
+            if (pendingMessage != null) {
+                attempt.call.sendMessage(pendingMessage);
+            }
+            if (pendingHalfClose) {
+                attempt.call.halfClose();
+            }
+        }
+
+        private final class Attempt extends Listener<RespT> {
+
+            private final ClientCall<ReqT, RespT> call;
+            private Metadata responseHeaders;
+            private RespT response;
+            private boolean closed;
+            private boolean won;
+
+            Attempt(ClientCall<ReqT, RespT> call) {
+                this.call = call;
+            }
+
+            @Override
+            public void onHeaders(Metadata headers) {
+                responseHeaders = headers;
+            }
+
+            @Override
+            public void onMessage(RespT message) {
+                response = message;
+            }
+
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+                // Cancelled attempts lost to another or were given up by the caller
+                if (status.getCode() != Status.Code.CANCELLED) {
+                    window.add(System.nanoTime() - startedAt);
+                }
+                List<Attempt> losers;
+                synchronized (lock) {
+                    closed = true;
+                    boolean othersOpen = attempts.stream().anyMatch(a -> !a.closed);
+                    if (committed || (!status.isOk() && othersOpen)) {
+                        return;
+                    }
+                    committed = true;
+                    won = true;
+                    losers = attempts.stream().filter(a -> !a.closed).toList();
+                }
+                for (Attempt loser : losers) {
+                    loser.call.cancel("Another hedged attempt completed first", null);
+                }
+                if (responseHeaders != null) {
+                    listener.onHeaders(responseHeaders);
+                }
+                if (response != null) {
+                    listener.onMessage(response);
+                }
+                listener.onClose(status, trailers);
+            }
+        }
+    }
+
+    /**
+     * The most recent attempt latencies of one method.
+     *
+     * <p>Besides the samples in arrival order, a sorted copy is maintained as they come
+     * and go (a binary search and a shift each), so reading a percentile is a lookup.</p>
+     */
+    static final class LatencyWindow {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+        private final long[] sorted = new long[WINDOW_SIZE];
+        private int count;
+        private int next;
+
+        synchronized void add(long nanos) {
+            if (count == samples.length) {
+                int evicted = Arrays.binarySearch(sorted, 0, count, samples[next]);
+                System.arraycopy(sorted, evicted + 1, sorted, evicted, count - evicted - 1);
+                count--;
+            }
+            int insertAt = Arrays.binarySearch(sorted, 0, count, nanos);
+            if (insertAt < 0) {
+                insertAt = -insertAt - 1;
+            }
+            System.arraycopy(sorted, insertAt, sorted, insertAt + 1, count - insertAt);
+            sorted[insertAt] = nanos;
+            count++;
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+        }
+
+        /**
+         * The given percentile of the recorded latencies, or -1 with too few samples.
+         */
+        synchronized long percentile(double percentile) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            int index = (int) Math.ceil(percentile * count) - 1;
+            return sorted[Math.clamp(index, 0, count - 1)];
+        }
+    }
+
+    /**
+     * Token bucket for hedges: each hedgeable call adds {@code ratio} of a token, each hedge
+     * takes a whole one, and at most {@code maxTokens} are saved up for bursts.
+     */
+    static final class HedgeBudget {
+
+        private static final long MILLIS_PER_TOKEN = 1000;
+
+        private final long depositMillis;
+        private final long capacityMillis;
+        private final AtomicLong millis;
+
+        HedgeBudget(double ratio, int maxTokens) {
+            this.depositMillis = Math.round(ratio * MILLIS_PER_TOKEN);
+            this.capacityMillis = maxTokens * MILLIS_PER_TOKEN;
+            this.millis = new AtomicLong(capacityMillis);
+        }
+
+        void deposit() {
+            millis.accumulateAndGet(depositMillis, (current, deposit) -> Math.min(capacityMillis, current + deposit));
+        }
+
+        boolean tryWithdraw() {
+            long current;
+            do {
+                current = millis.get();
+                if (current < MILLIS_PER_TOKEN) {
+                    return false;
+                }
+            } while (!millis.compareAndSet(current, current - MILLIS_PER_TOKEN));
+            return true;
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package com.arcana.cloud.service.client;
 
+import com.arcana.cloud.dto.response.CursorPage;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
 import com.arcana.cloud.exception.ResourceNotFoundException;
 import com.arcana.cloud.exception.ServiceUnavailableException;
+import com.arcana.cloud.exception.TooManyRequestsException;
 import com.arcana.cloud.exception.UnauthorizedException;
+import com.arcana.cloud.grpc.BatchGetUsersRequest;
+import com.arcana.cloud.grpc.BatchGetUsersResponse;
 import com.arcana.cloud.grpc.CreateUserRequest;
 import com.arcana.cloud.grpc.GetUserByEmailRequest;
 import com.arcana.cloud.grpc.GetUserByUsernameRequest;
 import com.arcana.cloud.grpc.GetUserRequest;
 import com.arcana.cloud.grpc.ListUsersRequest;
 import com.arcana.cloud.grpc.ListUsersResponse;
+import com.arcana.cloud.grpc.StreamUsersRequest;
 import com.arcana.cloud.grpc.UpdateUserRequest;
 import com.arcana.cloud.grpc.UserResponse;
 import com.arcana.cloud.grpc.UserServiceGrpc;
@@ -18,28 +23,35 @@ import com.arcana.cloud.grpc.ExistsByUsernameRequest;
 import com.arcana.cloud.grpc.ExistsByEmailRequest;
 import com.arcana.cloud.grpc.DeleteUserRequest;
 import com.arcana.cloud.service.UserService;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.grpc.Context;
 import io.grpc.ManagedChannel;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import io.grpc.ManagedChannelBuilder;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 @Service
@@ -49,14 +61,13 @@ import java.util.function.Supplier;
 @Slf4j
 public class GrpcUserServiceClient implements UserService {
 
-    @Value("${service.grpc.url:localhost:9090}")
-    private String serviceUrl;
-
-    @Value("${grpc.client.shutdown-timeout-seconds:5}")
-    private long shutdownTimeoutSeconds;
-
+    // Shared, load-balanced channel from GrpcConfig, which also shuts it down
+    @Autowired
+    @Qualifier("serviceChannel")
     private ManagedChannel channel;
+
     private UserServiceGrpc.UserServiceBlockingStub stub;
+    private UserServiceGrpc.UserServiceFutureStub futureStub;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     @Autowired(required = false)
@@ -64,174 +75,241 @@ public class GrpcUserServiceClient implements UserService {
 
     @PostConstruct
     public void init() {
-        log.info("Initializing gRPC client for service URL: {}", serviceUrl);
-        this.channel = ManagedChannelBuilder.forTarget(serviceUrl)
-            .usePlaintext()
-            .build();
+        log.info("Initializing gRPC client for service authority: {}", channel.authority());
         this.stub = UserServiceGrpc.newBlockingStub(channel);
+        this.futureStub = UserServiceGrpc.newFutureStub(channel);
 
         if (userServiceCircuitBreaker != null) {
             log.info("Circuit Breaker enabled for User Service");
         }
     }
 
-    @PreDestroy
-    public void shutdown() {
-        if (channel != null && !channel.isShutdown()) {
-            try {
-                channel.shutdown().awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                channel.shutdownNow();
-            }
-        }
-    }
-
     @Override
     public User createUser(User user) {
-        return executeWithCircuitBreaker(() -> {
-            CreateUserRequest request = CreateUserRequest.newBuilder()
-                .setUsername(user.getUsername())
-                .setEmail(user.getEmail())
-                .setPassword(user.getPassword())
-                .setFirstName(user.getFirstName() != null ? user.getFirstName() : "")
-                .setLastName(user.getLastName() != null ? user.getLastName() : "")
-                .build();
+        CreateUserRequest request = CreateUserRequest.newBuilder()
+            .setUsername(user.getUsername())
+            .setEmail(user.getEmail())
+            .setPassword(user.getPassword())
+            .setFirstName(user.getFirstName() != null ? user.getFirstName() : "")
+            .setLastName(user.getLastName() != null ? user.getLastName() : "")
+            .build();
 
-            UserResponse response = stub.createUser(request);
-            return fromGrpcResponse(response);
-        }, "createUser");
+        return GrpcFutures.await(executeAsync(() -> futureStub.createUser(request),
+            this::fromGrpcResponse, "createUser"));
     }
 
     @Override
     public User getUserById(Long id) {
-        return executeWithCircuitBreaker(() -> {
-            GetUserRequest request = GetUserRequest.newBuilder()
-                .setUserId(id)
-                .build();
+        return GrpcFutures.await(getUserByIdAsync(id));
+    }
 
-            UserResponse response = stub.getUser(request);
-            return fromGrpcResponse(response);
-        }, "getUserById", () -> {
+    /**
+     * Starts a lookup by ID without waiting for it; fails with ResourceNotFoundException.
+     */
+    public CompletableFuture<User> getUserByIdAsync(Long id) {
+        GetUserRequest request = GetUserRequest.newBuilder()
+            .setUserId(id)
+            .build();
+
+        return executeAsync(() -> futureStub.getUser(request), this::fromGrpcResponse, "getUserById", () -> {
             throw new ResourceNotFoundException("User", "id", id);
         });
     }
 
+    @Override
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        BatchGetUsersRequest request = BatchGetUsersRequest.newBuilder()
+            .addAllUserIds(ids.stream().filter(Objects::nonNull).toList())
+            .build();
+
+        return GrpcFutures.await(executeAsync(() -> futureStub.batchGetUsers(request),
+            response -> response.getUsersList().stream()
+                .map(this::fromGrpcResponse)
+                .toList(),
+            "getUsersByIds"));
+    }
+
     @Override
     public Optional<User> findByUsername(String username) {
-        return executeWithCircuitBreaker(() -> {
-            GetUserByUsernameRequest request = GetUserByUsernameRequest.newBuilder()
-                .setUsername(username)
-                .build();
+        return GrpcFutures.await(findByUsernameAsync(username));
+    }
 
-            UserResponse response = stub.getUserByUsername(request);
-            return Optional.of(fromGrpcResponse(response));
-        }, "findByUsername", Optional::empty);
+    /**
+     * Starts a lookup by username without waiting for it.
+     */
+    public CompletableFuture<Optional<User>> findByUsernameAsync(String username) {
+        GetUserByUsernameRequest request = GetUserByUsernameRequest.newBuilder()
+            .setUsername(username)
+            .build();
+
+        return emptyIfNotFound(executeAsync(() -> futureStub.getUserByUsername(request),
+            response -> Optional.of(fromGrpcResponse(response)), "findByUsername", Optional::empty));
     }
 
     @Override
     public Optional<User> findByEmail(String email) {
-        return executeWithCircuitBreaker(() -> {
-            GetUserByEmailRequest request = GetUserByEmailRequest.newBuilder()
-                .setEmail(email)
-                .build();
+        return GrpcFutures.await(findByEmailAsync(email));
+    }
 
-            UserResponse response = stub.getUserByEmail(request);
-            return Optional.of(fromGrpcResponse(response));
-        }, "findByEmail", Optional::empty);
+    /**
+     * Starts a lookup by email without waiting for it.
+     */
+    public CompletableFuture<Optional<User>> findByEmailAsync(String email) {
+        GetUserByEmailRequest request = GetUserByEmailRequest.newBuilder()
+            .setEmail(email)
+            .build();
+
+        return emptyIfNotFound(executeAsync(() -> futureStub.getUserByEmail(request),
+            response -> Optional.of(fromGrpcResponse(response)), "findByEmail", Optional::empty));
     }
 
     @Override
     public Optional<User> findByUsernameOrEmail(String usernameOrEmail) {
-        Optional<User> byUsername = findByUsername(usernameOrEmail);
-        if (byUsername.isPresent()) {
-            return byUsername;
-        }
-        return findByEmail(usernameOrEmail);
+        // Both lookups are in flight at once; a username match still wins over an email match
+        CompletableFuture<Optional<User>> byUsername = findByUsernameAsync(usernameOrEmail);
+        CompletableFuture<Optional<User>> byEmail = findByEmailAsync(usernameOrEmail);
+        return GrpcFutures.await(byUsername.thenCombine(byEmail, (user, other) -> user.or(() -> other)));
     }
 
     @Override
     public Page<User> getUsers(int page, int size) {
-        return executeWithCircuitBreaker(() -> {
-            ListUsersRequest request = ListUsersRequest.newBuilder()
-                .setPage(page)
-                .setSize(size)
-                .build();
+        ListUsersRequest request = ListUsersRequest.newBuilder()
+            .setPage(page)
+            .setSize(size)
+            .build();
 
-            ListUsersResponse response = stub.listUsers(request);
+        return GrpcFutures.await(executeAsync(() -> futureStub.listUsers(request), response -> {
             List<User> users = response.getUsersList().stream()
                 .map(this::fromGrpcResponse)
                 .toList();
 
             return new PageImpl<>(users, PageRequest.of(page, size), response.getPageInfo().getTotalElements());
-        }, "getUsers");
+        }, "getUsers"));
     }
 
     @Override
-    public User updateUser(Long id, User user) {
-        return executeWithCircuitBreaker(() -> {
-            UpdateUserRequest.Builder builder = UpdateUserRequest.newBuilder()
-                .setUserId(id);
+    public CursorPage<User> getUsersAfter(String after, int size, boolean includeTotal) {
+        ListUsersRequest request = ListUsersRequest.newBuilder()
+            .setAfter(after != null ? after : "")
+            .setSize(size)
+            .setIncludeTotal(includeTotal)
+            .build();
 
-            if (user.getUsername() != null) {
-                builder.setUsername(user.getUsername());
-            }
-            if (user.getEmail() != null) {
-                builder.setEmail(user.getEmail());
-            }
-            if (user.getPassword() != null) {
-                builder.setPassword(user.getPassword());
-            }
-            if (user.getFirstName() != null) {
-                builder.setFirstName(user.getFirstName());
-            }
-            if (user.getLastName() != null) {
-                builder.setLastName(user.getLastName());
-            }
-            if (user.getIsActive() != null) {
-                builder.setIsActive(user.getIsActive());
-            }
-            if (user.getIsVerified() != null) {
-                builder.setIsVerified(user.getIsVerified());
+        return GrpcFutures.await(executeAsync(() -> futureStub.listUsers(request), response -> {
+            List<User> users = response.getUsersList().stream()
+                .map(this::fromGrpcResponse)
+                .toList();
+
+            return CursorPage.<User>builder()
+                .content(users)
+                .size(size)
+                .nextCursor(response.getNextCursor().isEmpty() ? null : response.getNextCursor())
+                .totalElements(response.hasPageInfo() ? response.getPageInfo().getTotalElements() : null)
+                .build();
+        }, "getUsersAfter"));
+    }
+
+    @Override
+    public long exportUsers(Consumer<? super User> action) {
+        return executeWithCircuitBreaker(() -> {
+            // An export runs as long as its client keeps reading, so it is not bound by the
+            // request's time budget: the stream runs in a context without that deadline, and
+            // is cancelled if the consumer gives up before the end
+            Context.CancellableContext export = Context.current().fork().withCancellation();
+            Context previous = export.attach();
+            try {
+                // The blocking iterator requests one message at a time, so the server never
+                // runs further ahead of this consumer than the transport window
+                Iterator<UserResponse> users = stub.streamUsers(StreamUsersRequest.getDefaultInstance());
+                long count = 0;
+                while (users.hasNext()) {
+                    action.accept(fromGrpcResponse(users.next()));
+                    count++;
+                }
+                return count;
+            } finally {
+                export.detach(previous);
+                export.cancel(null);
             }
+        }, "exportUsers");
+    }
+
+    @Override
+    public User updateUser(Long id, User user) {
+        UpdateUserRequest.Builder builder = UpdateUserRequest.newBuilder()
+            .setUserId(id);
 
-            UserResponse response = stub.updateUser(builder.build());
-            return fromGrpcResponse(response);
-        }, "updateUser");
+        if (user.getUsername() != null) {
+            builder.setUsername(user.getUsername());
+        }
+        if (user.getEmail() != null) {
+            builder.setEmail(user.getEmail());
+        }
+        if (user.getPassword() != null) {
+            builder.setPassword(user.getPassword());
+        }
+        if (user.getFirstName() != null) {
+            builder.setFirstName(user.getFirstName());
+        }
+        if (user.getLastName() != null) {
+            builder.setLastName(user.getLastName());
+        }
+        if (user.getIsActive() != null) {
+            builder.setIsActive(user.getIsActive());
+        }
+        if (user.getIsVerified() != null) {
+            builder.setIsVerified(user.getIsVerified());
+        }
+
+        UpdateUserRequest request = builder.build();
+        return GrpcFutures.await(executeAsync(() -> futureStub.updateUser(request),
+            this::fromGrpcResponse, "updateUser"));
     }
 
     @Override
     public void deleteUser(Long id) {
-        executeWithCircuitBreaker(() -> {
-            DeleteUserRequest request = DeleteUserRequest.newBuilder()
-                .setUserId(id)
-                .build();
+        DeleteUserRequest request = DeleteUserRequest.newBuilder()
+            .setUserId(id)
+            .build();
 
-            stub.deleteUser(request);
-            return null;
-        }, "deleteUser");
+        GrpcFutures.await(executeAsync(() -> futureStub.deleteUser(request), _ -> null, "deleteUser"));
     }
 
     @Override
     public boolean existsByUsername(String username) {
-        return executeWithCircuitBreaker(() -> {
-            ExistsByUsernameRequest request = ExistsByUsernameRequest.newBuilder()
-                .setUsername(username)
-                .build();
+        return GrpcFutures.await(existsByUsernameAsync(username));
+    }
+
+    /**
+     * Starts a username check without waiting for it.
+     */
+    public CompletableFuture<Boolean> existsByUsernameAsync(String username) {
+        ExistsByUsernameRequest request = ExistsByUsernameRequest.newBuilder()
+            .setUsername(username)
+            .build();
 
-            return stub.existsByUsername(request).getExists();
-        }, "existsByUsername", () -> false);
+        return executeAsync(() -> futureStub.existsByUsername(request),
+            response -> response.getExists(), "existsByUsername", () -> false);
     }
 
     @Override
     public boolean existsByEmail(String email) {
-        return executeWithCircuitBreaker(() -> {
-            ExistsByEmailRequest request = ExistsByEmailRequest.newBuilder()
-                .setEmail(email)
-                .build();
+        return GrpcFutures.await(existsByEmailAsync(email));
+    }
+
+    /**
+     * Starts an email check without waiting for it.
+     */
+    public CompletableFuture<Boolean> existsByEmailAsync(String email) {
+        ExistsByEmailRequest request = ExistsByEmailRequest.newBuilder()
+            .setEmail(email)
+            .build();
 
-            return stub.existsByEmail(request).getExists();
-        }, "existsByEmail", () -> false);
+        return executeAsync(() -> futureStub.existsByEmail(request),
+            response -> response.getExists(), "existsByEmail", () -> false);
     }
 
     private User fromGrpcResponse(UserResponse response) {
@@ -251,6 +329,52 @@ public class GrpcUserServiceClient implements UserService {
             .build();
     }
 
+    /**
+     * Starts a unary call on the future stub with circuit breaker protection.
+     * Fails with ServiceUnavailableException if circuit is open.
+     */
+    private <R, T> CompletableFuture<T> executeAsync(Supplier<ListenableFuture<R>> call, Function<R, T> mapper,
+                                                     String operation) {
+        return executeAsync(call, mapper, operation, () -> {
+            throw new ServiceUnavailableException("User service is unavailable");
+        });
+    }
+
+    /**
+     * Starts a unary call on the future stub with circuit breaker protection and fallback.
+     * The breaker records the call when the response arrives, not when it is sent.
+     */
+    private <R, T> CompletableFuture<T> executeAsync(Supplier<ListenableFuture<R>> call, Function<R, T> mapper,
+                                                     String operation, Supplier<T> fallback) {
+        Supplier<CompletionStage<T>> guarded = () -> GrpcFutures.toCompletableFuture(call.get())
+            .exceptionallyCompose(e -> CompletableFuture.failedFuture(translate(GrpcFutures.unwrap(e), operation)))
+            .thenApply(mapper);
+
+        CompletableFuture<T> future = userServiceCircuitBreaker != null
+            ? userServiceCircuitBreaker.executeCompletionStage(guarded).toCompletableFuture()
+            : guarded.get().toCompletableFuture();
+        return future.exceptionallyCompose(e -> {
+            if (!(GrpcFutures.unwrap(e) instanceof CallNotPermittedException)) {
+                return CompletableFuture.failedFuture(e);
+            }
+            log.warn("Circuit breaker OPEN for User Service, operation: {}", operation);
+            try {
+                return CompletableFuture.completedFuture(fallback.get());
+            } catch (RuntimeException fallbackFailure) {
+                return CompletableFuture.failedFuture(fallbackFailure);
+            }
+        });
+    }
+
+    /**
+     * A lookup that finds nothing answers empty rather than failing.
+     */
+    private static CompletableFuture<Optional<User>> emptyIfNotFound(CompletableFuture<Optional<User>> lookup) {
+        return lookup.exceptionallyCompose(e -> GrpcFutures.unwrap(e) instanceof ResourceNotFoundException
+            ? CompletableFuture.completedFuture(Optional.empty())
+            : CompletableFuture.failedFuture(e));
+    }
+
     /**
      * Executes a gRPC call with circuit breaker protection.
      * Throws ServiceUnavailableException if circuit is open.
@@ -284,26 +408,38 @@ public class GrpcUserServiceClient implements UserService {
         try {
             return supplier.get();
         } catch (StatusRuntimeException e) {
-            Status.Code code = e.getStatus().getCode();
-
-            // Categorize error by status code for better debugging
-            switch (code) {
-                case NOT_FOUND:
-                    log.debug("Resource not found in {}: {}", operation, e.getStatus().getDescription());
-                    throw new ResourceNotFoundException("Resource", operation, e.getStatus().getDescription());
-                case UNAVAILABLE, DEADLINE_EXCEEDED:
-                    log.error("Service unavailable in {}: {} ({})", operation, e.getStatus().getDescription(), code);
-                    throw new ServiceUnavailableException("User service unavailable: " + e.getStatus().getDescription());
-                case PERMISSION_DENIED, UNAUTHENTICATED:
-                    log.error("Permission denied in {}: {}", operation, e.getStatus().getDescription());
-                    throw new UnauthorizedException("Permission denied: " + e.getStatus().getDescription());
-                case INVALID_ARGUMENT:
-                    log.error("Invalid argument in {}: {}", operation, e.getStatus().getDescription());
-                    throw new IllegalArgumentException("Invalid argument: " + e.getStatus().getDescription());
-                default:
-                    log.error("gRPC error in {}: {} ({})", operation, e.getStatus().getDescription(), code);
-                    throw new ServiceUnavailableException("Service error: " + e.getStatus().getDescription());
-            }
+            throw translate(e, operation);
+        }
+    }
+
+    /**
+     * Categorizes a failed call by status code for better debugging.
+     */
+    private RuntimeException translate(Throwable failure, String operation) {
+        if (!(failure instanceof StatusRuntimeException e)) {
+            return failure instanceof RuntimeException runtime ? runtime : new CompletionException(failure);
+        }
+        Status.Code code = e.getStatus().getCode();
+
+        switch (code) {
+            case NOT_FOUND:
+                log.debug("Resource not found in {}: {}", operation, e.getStatus().getDescription());
+                return new ResourceNotFoundException("Resource", operation, e.getStatus().getDescription());
+            case RESOURCE_EXHAUSTED:
+                log.warn("Request shed in {}: {}", operation, e.getStatus().getDescription());
+                return new TooManyRequestsException(e.getStatus().getDescription());
+            case UNAVAILABLE, DEADLINE_EXCEEDED:
+                log.error("Service unavailable in {}: {} ({})", operation, e.getStatus().getDescription(), code);
+                return new ServiceUnavailableException("User service unavailable: " + e.getStatus().getDescription());
+            case PERMISSION_DENIED, UNAUTHENTICATED:
+                log.error("Permission denied in {}: {}", operation, e.getStatus().getDescription());
+                return new UnauthorizedException("Permission denied: " + e.getStatus().getDescription());
+            case INVALID_ARGUMENT:
+                log.error("Invalid argument in {}: {}", operation, e.getStatus().getDescription());
+                return new IllegalArgumentException("Invalid argument: " + e.getStatus().getDescription());
+            default:
+                log.error("gRPC error in {}: {} ({})", operation, e.getStatus().getDescription(), code);
+                return new ServiceUnavailableException("Service error: " + e.getStatus().getDescription());
         }
     }
 }
@@ -5,9 +5,12 @@ import com.arcana.cloud.dto.request.RefreshTokenRequest;
 import com.arcana.cloud.dto.request.RegisterRequest;
 import com.arcana.cloud.dto.response.ApiResponse;
 import com.arcana.cloud.dto.response.AuthResponse;
+import com.arcana.cloud.exception.TooManyRequestsException;
 import com.arcana.cloud.exception.UnauthorizedException;
 import com.arcana.cloud.service.AuthService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.core.ParameterizedTypeReference;
@@ -15,6 +18,7 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -33,11 +37,9 @@ public class HttpAuthServiceClient implements AuthService {
     @Value("${service.http.url:http://localhost:8081}")
     private String serviceUrl;
 
-    private final RestTemplate restTemplate;
-
-    public HttpAuthServiceClient() {
-        this.restTemplate = new RestTemplate();
-    }
+    @Autowired
+    @Qualifier("serviceRestTemplate")
+    private RestTemplate restTemplate;
 
     @Override
     public AuthResponse register(RegisterRequest request) {
@@ -55,6 +57,8 @@ public class HttpAuthServiceClient implements AuthService {
             }
             throw new IllegalStateException("Failed to register user: "
                 + (response.getBody() != null ? response.getBody().getMessage() : "Unknown error"));
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw new TooManyRequestsException("Too many concurrent authentication requests, please retry");
         } catch (RestClientException e) {
             log.error("HTTP error during registration", e);
             throw new IllegalStateException("Failed to register user: " + e.getMessage());
@@ -76,6 +80,8 @@ public class HttpAuthServiceClient implements AuthService {
                 return response.getBody().getData();
             }
             throw new UnauthorizedException("Invalid credentials");
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw new TooManyRequestsException("Too many concurrent authentication requests, please retry");
         } catch (RestClientException e) {
             log.error("HTTP error during login", e);
             throw new UnauthorizedException("Invalid credentials");
@@ -1,13 +1,20 @@
 package com.arcana.cloud.service.client;
 
+import com.arcana.cloud.controller.internal.InternalUserController.ExistsResponse;
+import com.arcana.cloud.controller.internal.InternalUserController.UserCreateDto;
+import com.arcana.cloud.controller.internal.InternalUserController.UserUpdateDto;
 import com.arcana.cloud.dto.response.ApiResponse;
+import com.arcana.cloud.dto.response.CursorPage;
 import com.arcana.cloud.dto.response.PagedResponse;
 import com.arcana.cloud.dto.response.UserResponse;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
 import com.arcana.cloud.exception.ResourceNotFoundException;
+import com.arcana.cloud.exception.ServiceUnavailableException;
 import com.arcana.cloud.service.UserService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.core.ParameterizedTypeReference;
@@ -20,11 +27,19 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @ConditionalOnExpression(
@@ -39,22 +54,22 @@ public class HttpUserServiceClient implements UserService {
     @Value("${service.users.api.path:/internal/api/v1/users}")
     private String usersApiPath;
 
-    private final RestTemplate restTemplate;
+    @Autowired
+    @Qualifier("serviceRestTemplate")
+    private RestTemplate restTemplate;
 
-    public HttpUserServiceClient() {
-        this.restTemplate = new RestTemplate();
-    }
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
 
     @Override
     public User createUser(User user) {
         try {
             log.debug("HTTP client: Creating user via {}", serviceUrl);
-            Map<String, Object> request = Map.of(
-                "username", user.getUsername(),
-                "email", user.getEmail(),
-                "password", user.getPassword(),
-                "firstName", user.getFirstName() != null ? user.getFirstName() : "",
-                "lastName", user.getLastName() != null ? user.getLastName() : ""
+            UserCreateDto request = new UserCreateDto(
+                user.getUsername(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getFirstName() != null ? user.getFirstName() : "",
+                user.getLastName() != null ? user.getLastName() : ""
             );
 
             ResponseEntity<ApiResponse<UserResponse>> response = restTemplate.exchange(
@@ -95,6 +110,36 @@ public class HttpUserServiceClient implements UserService {
         }
     }
 
+    @Override
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        log.debug("HTTP client: Getting {} users via {}", ids.size(), serviceUrl);
+        String url = UriComponentsBuilder.fromUriString(serviceUrl + usersApiPath + "/batch")
+            .queryParam("ids", ids.stream().filter(Objects::nonNull).toList())
+            .toUriString();
+        ResponseEntity<ApiResponse<List<UserResponse>>> response;
+        try {
+            response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() { }
+            );
+        } catch (RestClientException e) {
+            log.error("HTTP error getting users by id", e);
+            throw new ServiceUnavailableException("User service unavailable: " + e.getMessage());
+        }
+
+        if (response.getBody() == null || !response.getBody().isSuccess()) {
+            throw new ServiceUnavailableException("User service returned no users");
+        }
+        return response.getBody().getData().stream()
+            .map(this::fromResponse)
+            .toList();
+    }
+
     @Override
     public Optional<User> findByUsername(String username) {
         try {
@@ -171,32 +216,77 @@ public class HttpUserServiceClient implements UserService {
         }
     }
 
+    @Override
+    public CursorPage<User> getUsersAfter(String after, int size, boolean includeTotal) {
+        log.debug("HTTP client: Listing users after cursor, size {} via {}", size, serviceUrl);
+        String url = UriComponentsBuilder.fromUriString(serviceUrl + usersApiPath + "/cursor")
+            .queryParamIfPresent("after", Optional.ofNullable(after))
+            .queryParam("size", size)
+            .queryParam("includeTotal", includeTotal)
+            .toUriString();
+        ResponseEntity<ApiResponse<CursorPage<UserResponse>>> response;
+        try {
+            response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() { }
+            );
+        } catch (RestClientException e) {
+            log.error("HTTP error listing users after cursor", e);
+            throw new ServiceUnavailableException("User service unavailable: " + e.getMessage());
+        }
+
+        if (response.getBody() == null || !response.getBody().isSuccess()) {
+            // Unlike getUsers, an empty page would end a sync job early; fail instead
+            throw new ServiceUnavailableException("User service returned no page");
+        }
+        CursorPage<User> users = response.getBody().getData().map(this::fromResponse);
+        // As over gRPC, the protobuf encoding only carries the page size along with a total
+        users.setSize(size);
+        return users;
+    }
+
+    @Override
+    public long exportUsers(Consumer<? super User> action) {
+        log.info("HTTP client: Exporting users via {}", serviceUrl);
+        try {
+            Long count = restTemplate.execute(serviceUrl + usersApiPath + "/export", HttpMethod.GET, null,
+                response -> {
+                    long exported = 0;
+                    try (BufferedReader lines = new BufferedReader(
+                            new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                        String line;
+                        while ((line = lines.readLine()) != null) {
+                            if (!line.isBlank()) {
+                                action.accept(fromResponse(jsonMapper.readValue(line, UserResponse.class)));
+                                exported++;
+                            }
+                        }
+                    }
+                    return exported;
+                });
+            return count != null ? count : 0;
+        } catch (RestClientException e) {
+            // Includes a stream cut off mid-way; a partial export must not pass as complete
+            log.error("HTTP error exporting users", e);
+            throw new ServiceUnavailableException("User service unavailable: " + e.getMessage());
+        }
+    }
+
     @Override
     public User updateUser(Long id, User user) {
         try {
             log.debug("HTTP client: Updating user {} via {}", id, serviceUrl);
-            Map<String, Object> request = new java.util.HashMap<>();
-            if (user.getUsername() != null) {
-                request.put("username", user.getUsername());
-            }
-            if (user.getEmail() != null) {
-                request.put("email", user.getEmail());
-            }
-            if (user.getPassword() != null) {
-                request.put("password", user.getPassword());
-            }
-            if (user.getFirstName() != null) {
-                request.put("firstName", user.getFirstName());
-            }
-            if (user.getLastName() != null) {
-                request.put("lastName", user.getLastName());
-            }
-            if (user.getIsActive() != null) {
-                request.put("isActive", user.getIsActive());
-            }
-            if (user.getIsVerified() != null) {
-                request.put("isVerified", user.getIsVerified());
-            }
+            // Null fields are left unchanged by the service layer
+            UserUpdateDto request = new UserUpdateDto();
+            request.setUsername(user.getUsername());
+            request.setEmail(user.getEmail());
+            request.setPassword(user.getPassword());
+            request.setFirstName(user.getFirstName());
+            request.setLastName(user.getLastName());
+            request.setIsActive(user.getIsActive());
+            request.setIsVerified(user.getIsVerified());
 
             ResponseEntity<ApiResponse<UserResponse>> response = restTemplate.exchange(
                 serviceUrl + usersApiPath + "/" + id,
@@ -262,11 +352,6 @@ public class HttpUserServiceClient implements UserService {
         }
     }
 
-    @lombok.Data
-    static class ExistsResponse {
-        private boolean exists;
-    }
-
     private User fromResponse(UserResponse response) {
         return User.builder()
             .id(response.getId())
@@ -4,6 +4,7 @@ import com.arcana.cloud.dto.request.LoginRequest;
 import com.arcana.cloud.dto.request.RefreshTokenRequest;
 import com.arcana.cloud.dto.request.RegisterRequest;
 import com.arcana.cloud.dto.response.AuthResponse;
+import com.arcana.cloud.exception.TooManyRequestsException;
 import com.arcana.cloud.grpc.AuthServiceGrpc;
 import com.arcana.cloud.grpc.LogoutAllRequest;
 import com.arcana.cloud.grpc.LogoutRequest;
@@ -12,6 +13,7 @@ import com.arcana.cloud.grpc.UserInfo;
 import com.arcana.cloud.grpc.ValidateTokenRequest;
 import com.arcana.cloud.grpc.ValidateTokenResponse;
 import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.ParsedToken;
 import com.arcana.cloud.service.AuthService;
 import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
@@ -20,6 +22,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 /**
  * gRPC server for AuthService.
  * Active in: monolithic mode OR service layer of layered mode.
@@ -52,6 +56,10 @@ public class AuthGrpcService extends AuthServiceGrpc.AuthServiceImplBase {
             AuthResponse response = authService.register(registerRequest);
             responseObserver.onNext(toGrpcResponse(response));
             responseObserver.onCompleted();
+        } catch (TooManyRequestsException e) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                .withDescription(e.getMessage())
+                .asRuntimeException());
         } catch (Exception e) {
             log.error("gRPC: Error registering user", e);
             responseObserver.onError(Status.INTERNAL
@@ -74,6 +82,10 @@ public class AuthGrpcService extends AuthServiceGrpc.AuthServiceImplBase {
             AuthResponse response = authService.login(loginRequest);
             responseObserver.onNext(toGrpcResponse(response));
             responseObserver.onCompleted();
+        } catch (TooManyRequestsException e) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                .withDescription(e.getMessage())
+                .asRuntimeException());
         } catch (Exception e) {
             log.error("gRPC: Error during login", e);
             responseObserver.onError(Status.UNAUTHENTICATED
@@ -144,20 +156,14 @@ public class AuthGrpcService extends AuthServiceGrpc.AuthServiceImplBase {
                               StreamObserver<ValidateTokenResponse> responseObserver) {
         try {
             log.debug("gRPC: Validating token");
-            boolean valid = tokenProvider.validateToken(request.getToken());
+            Optional<ParsedToken> parsed = tokenProvider.parseToken(request.getToken());
 
             ValidateTokenResponse.Builder builder = ValidateTokenResponse.newBuilder()
-                .setValid(valid);
-
-            if (valid) {
-                Long userId = tokenProvider.getUserIdFromToken(request.getToken());
-                String username = tokenProvider.getUsernameFromToken(request.getToken());
-                String role = tokenProvider.getRoleFromToken(request.getToken());
+                .setValid(parsed.isPresent());
 
-                builder.setUserId(userId)
-                    .setUsername(username != null ? username : "")
-                    .setRole(role != null ? role : "");
-            }
+            parsed.ifPresent(token -> builder.setUserId(token.userId())
+                .setUsername(token.username() != null ? token.username() : "")
+                .setRole(token.role() != null ? token.role() : ""));
 
             responseObserver.onNext(builder.build());
             responseObserver.onCompleted();
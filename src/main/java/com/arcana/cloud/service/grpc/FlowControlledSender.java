@@ -0,0 +1,97 @@
+package com.arcana.cloud.service.grpc;
+
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.function.Consumer;
+
+/**
+ * Sends server-streaming responses no faster than the client reads them.
+ *
+ * <p>{@link #accept(Object)} blocks the producing thread while the call's outbound buffer
+ * is full, so a slow client holds back the database cursor feeding the stream instead of
+ * growing the server's heap. If the client cancels, the next send fails with
+ * {@link Status#CANCELLED}, which unwinds the producer.</p>
+ *
+ * <p>Must be created in the service method, before it returns, and the producer must then
+ * be handed to {@link #start(String, Runnable)}: gRPC delivers the ready and cancel
+ * callbacks on the call's serializing executor, which a producer blocking on that same
+ * executor would never let run. Observers that are not a {@link ServerCallStreamObserver}
+ * (e.g. in tests) are written to without waiting, and their producer runs inline.</p>
+ *
+ * @param <T> the response message type
+ */
+final class FlowControlledSender<T> implements Consumer<T> {
+
+    private static final long READY_POLL_MILLIS = 1000;
+
+    private final StreamObserver<T> observer;
+    private final ServerCallStreamObserver<T> serverObserver;
+    private final Object readiness = new Object();
+    private volatile boolean cancelled;
+
+    FlowControlledSender(StreamObserver<T> observer) {
+        this.observer = observer;
+        this.serverObserver = observer instanceof ServerCallStreamObserver<T> call ? call : null;
+        if (serverObserver != null) {
+            serverObserver.setOnReadyHandler(this::wakeUp);
+            serverObserver.setOnCancelHandler(() -> {
+                cancelled = true;
+                wakeUp();
+            });
+        }
+    }
+
+    @Override
+    public void accept(T value) {
+        if (serverObserver != null) {
+            awaitReady();
+        }
+        observer.onNext(value);
+    }
+
+    /**
+     * Runs the producer, which sends through this sender and then completes or fails the
+     * call, on a virtual thread of its own. The call's gRPC context goes with it, so calls
+     * the producer makes are cancelled along with this one.
+     */
+    void start(String name, Runnable producer) {
+        if (serverObserver == null) {
+            producer.run();
+            return;
+        }
+        Thread.ofVirtual().name(name).start(Context.current().wrap(producer));
+    }
+
+    /**
+     * @return true once the client has cancelled the call; nothing more can be sent
+     */
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void awaitReady() {
+        synchronized (readiness) {
+            // Re-checked on a timer as well, in case a ready signal raced with the check
+            while (!serverObserver.isReady() && !cancelled) {
+                try {
+                    readiness.wait(READY_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw Status.CANCELLED.withDescription("Interrupted while streaming").asRuntimeException();
+                }
+            }
+        }
+        if (cancelled) {
+            throw Status.CANCELLED.withDescription("Client cancelled the stream").asRuntimeException();
+        }
+    }
+
+    private void wakeUp() {
+        synchronized (readiness) {
+            readiness.notifyAll();
+        }
+    }
+}
@@ -1,33 +1,53 @@
 package com.arcana.cloud.service.grpc;
 
+import com.arcana.cloud.dao.UserCursor;
 import com.arcana.cloud.dao.UserDao;
+import com.arcana.cloud.dao.UserFilter;
+import com.arcana.cloud.dao.UserKeyConflict;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
+import com.arcana.cloud.grpc.BatchCreateUsersRequest;
+import com.arcana.cloud.grpc.BatchCreateUsersResponse;
+import com.arcana.cloud.grpc.BatchGetUsersRequest;
+import com.arcana.cloud.grpc.BatchGetUsersResponse;
 import com.arcana.cloud.grpc.CreateUserRequest;
 import com.arcana.cloud.grpc.DeleteUserRequest;
 import com.arcana.cloud.grpc.DeleteUserResponse;
 import com.arcana.cloud.grpc.ExistsByEmailRequest;
 import com.arcana.cloud.grpc.ExistsByUsernameRequest;
 import com.arcana.cloud.grpc.ExistsResponse;
+import com.arcana.cloud.grpc.FindUsersByUsernameOrEmailRequest;
 import com.arcana.cloud.grpc.GetUserByEmailRequest;
+import com.arcana.cloud.grpc.GetUserByUsernameOrEmailRequest;
 import com.arcana.cloud.grpc.GetUserByUsernameRequest;
 import com.arcana.cloud.grpc.GetUserRequest;
+import com.arcana.cloud.grpc.ListUsersByFilterRequest;
 import com.arcana.cloud.grpc.ListUsersRequest;
 import com.arcana.cloud.grpc.ListUsersResponse;
 import com.arcana.cloud.grpc.PageInfo;
+import com.arcana.cloud.grpc.StreamUsersRequest;
 import com.arcana.cloud.grpc.UpdateUserRequest;
 import com.arcana.cloud.grpc.UserResponse;
 import com.arcana.cloud.grpc.UserServiceGrpc;
+import io.grpc.Metadata;
 import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * gRPC server for UserService — Repository layer.
@@ -45,6 +65,12 @@ public class UserGrpcRepositoryService extends UserServiceGrpc.UserServiceImplBa
     private static final String USER_NOT_FOUND_MSG = "User not found";
     private static final String INTERNAL_ERROR_MSG = "Internal error";
 
+    /**
+     * Trailer naming the {@link UserKeyConflict} of an {@code ALREADY_EXISTS} write.
+     */
+    public static final Metadata.Key<String> KEY_CONFLICT_TRAILER =
+        Metadata.Key.of("x-user-key-conflict", Metadata.ASCII_STRING_MARSHALLER);
+
     private final UserDao userDao;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
@@ -71,6 +97,51 @@ public class UserGrpcRepositoryService extends UserServiceGrpc.UserServiceImplBa
         }
     }
 
+    @Override
+    public void batchGetUsers(BatchGetUsersRequest request, StreamObserver<BatchGetUsersResponse> responseObserver) {
+        try {
+            log.debug("gRPC Repository: Getting {} users by id", request.getUserIdsCount());
+            Map<Long, User> users = userDao.findAllById(request.getUserIdsList()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+            BatchGetUsersResponse.Builder responseBuilder = BatchGetUsersResponse.newBuilder();
+            request.getUserIdsList().stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .forEach(user -> responseBuilder.addUsers(toGrpcResponse(user)));
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("gRPC Repository: Error getting users by id", e);
+            responseObserver.onError(
+                Status.INTERNAL.withDescription(INTERNAL_ERROR_MSG).asRuntimeException()
+            );
+        }
+    }
+
+    @Override
+    public void streamUsers(StreamUsersRequest request, StreamObserver<UserResponse> responseObserver) {
+        FlowControlledSender<UserResponse> sender = new FlowControlledSender<>(responseObserver);
+        sender.start("grpc-stream-users", () -> {
+            try {
+                log.info("gRPC Repository: Streaming all users");
+                long count = userDao.streamAll(user -> sender.accept(toGrpcResponse(user)));
+                log.info("gRPC Repository: Streamed {} users", count);
+                responseObserver.onCompleted();
+            } catch (Exception e) {
+                if (sender.isCancelled()) {
+                    log.info("gRPC Repository: User stream cancelled by the client");
+                    return;
+                }
+                log.error("gRPC Repository: Error streaming users", e);
+                responseObserver.onError(Status.INTERNAL
+                    .withDescription(INTERNAL_ERROR_MSG)
+                    .asRuntimeException());
+            }
+        });
+    }
+
     @Override
     public void getUserByUsername(GetUserByUsernameRequest request, StreamObserver<UserResponse> responseObserver) {
         try {
@@ -117,20 +188,61 @@ public class UserGrpcRepositoryService extends UserServiceGrpc.UserServiceImplBa
         }
     }
 
+    @Override
+    public void getUserByUsernameOrEmail(GetUserByUsernameOrEmailRequest request,
+                                         StreamObserver<UserResponse> responseObserver) {
+        try {
+            log.debug("gRPC Repository: Getting user by username={} or email={}",
+                request.getUsername(), request.getEmail());
+            // A username match wins over an email match, in one round trip for the caller
+            userDao.findByUsername(request.getUsername())
+                .or(() -> userDao.findByEmail(request.getEmail()))
+                .map(this::toGrpcResponse)
+                .ifPresentOrElse(
+                    resp -> {
+                        responseObserver.onNext(resp);
+                        responseObserver.onCompleted();
+                    },
+                    () -> responseObserver.onError(
+                        Status.NOT_FOUND.withDescription(USER_NOT_FOUND_MSG).asRuntimeException()
+                    )
+                );
+        } catch (Exception e) {
+            log.error("gRPC Repository: Error getting user by username or email", e);
+            responseObserver.onError(
+                Status.INTERNAL.withDescription(INTERNAL_ERROR_MSG).asRuntimeException()
+            );
+        }
+    }
+
+    @Override
+    public void findUsersByUsernameOrEmail(FindUsersByUsernameOrEmailRequest request,
+                                           StreamObserver<BatchGetUsersResponse> responseObserver) {
+        try {
+            log.debug("gRPC Repository: Finding users by {} usernames and {} emails",
+                request.getUsernamesCount(), request.getEmailsCount());
+            BatchGetUsersResponse.Builder responseBuilder = BatchGetUsersResponse.newBuilder();
+            userDao.findAllByUsernameOrEmail(request.getUsernamesList(), request.getEmailsList())
+                .forEach(user -> responseBuilder.addUsers(toGrpcResponse(user)));
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("gRPC Repository: Error finding users by username or email", e);
+            responseObserver.onError(
+                Status.INTERNAL.withDescription(INTERNAL_ERROR_MSG).asRuntimeException()
+            );
+        }
+    }
+
     @Override
     public void createUser(CreateUserRequest request, StreamObserver<UserResponse> responseObserver) {
         try {
             log.debug("gRPC Repository: Creating user username={}", request.getUsername());
-            User user = User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .password(request.getPassword())
-                .firstName(request.getFirstName().isEmpty() ? null : request.getFirstName())
-                .lastName(request.getLastName().isEmpty() ? null : request.getLastName())
-                .build();
-            User saved = userDao.save(user);
+            User saved = userDao.save(fromCreateRequest(request));
             responseObserver.onNext(toGrpcResponse(saved));
             responseObserver.onCompleted();
+        } catch (DataIntegrityViolationException e) {
+            responseObserver.onError(writeRejected(e));
         } catch (Exception e) {
             log.error("gRPC Repository: Error creating user", e);
             responseObserver.onError(
@@ -139,24 +251,54 @@ public class UserGrpcRepositoryService extends UserServiceGrpc.UserServiceImplBa
         }
     }
 
+    @Override
+    public void batchCreateUsers(BatchCreateUsersRequest request,
+                                 StreamObserver<BatchCreateUsersResponse> responseObserver) {
+        try {
+            log.debug("gRPC Repository: Creating {} users", request.getUsersCount());
+            userDao.insertAll(request.getUsersList().stream().map(this::fromCreateRequest).toList());
+            responseObserver.onNext(BatchCreateUsersResponse.newBuilder()
+                .setCreatedCount(request.getUsersCount())
+                .build());
+            responseObserver.onCompleted();
+        } catch (DataIntegrityViolationException e) {
+            responseObserver.onError(writeRejected(e));
+        } catch (Exception e) {
+            log.error("gRPC Repository: Error creating users", e);
+            responseObserver.onError(
+                Status.INTERNAL.withDescription("Failed to create users: " + e.getMessage()).asRuntimeException()
+            );
+        }
+    }
+
     @Override
     public void updateUser(UpdateUserRequest request, StreamObserver<UserResponse> responseObserver) {
         try {
             log.debug("gRPC Repository: Updating user id={}", request.getUserId());
-            User existing = userDao.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException(USER_NOT_FOUND_MSG));
-
-            if (request.hasUsername()) existing.setUsername(request.getUsername());
-            if (request.hasEmail()) existing.setEmail(request.getEmail());
-            if (request.hasPassword()) existing.setPassword(request.getPassword());
-            if (request.hasFirstName()) existing.setFirstName(request.getFirstName());
-            if (request.hasLastName()) existing.setLastName(request.getLastName());
-            if (request.hasIsActive()) existing.setIsActive(request.getIsActive());
-            if (request.hasIsVerified()) existing.setIsVerified(request.getIsVerified());
-
-            User saved = userDao.save(existing);
-            responseObserver.onNext(toGrpcResponse(saved));
+            User changes = User.builder()
+                .username(request.hasUsername() ? request.getUsername() : null)
+                .email(request.hasEmail() ? request.getEmail() : null)
+                .password(request.hasPassword() ? request.getPassword() : null)
+                .firstName(request.hasFirstName() ? request.getFirstName() : null)
+                .lastName(request.hasLastName() ? request.getLastName() : null)
+                .role(request.hasRole() ? UserRole.valueOf(request.getRole()) : null)
+                .isActive(request.hasIsActive() ? request.getIsActive() : null)
+                .isVerified(request.hasIsVerified() ? request.getIsVerified() : null)
+                .build();
+
+            Optional<User> saved = userDao.updateFields(request.getUserId(), changes)
+                ? userDao.findById(request.getUserId())
+                : Optional.empty();
+            if (saved.isEmpty()) {
+                responseObserver.onError(
+                    Status.NOT_FOUND.withDescription(USER_NOT_FOUND_MSG).asRuntimeException()
+                );
+                return;
+            }
+            responseObserver.onNext(toGrpcResponse(saved.get()));
             responseObserver.onCompleted();
+        } catch (DataIntegrityViolationException e) {
+            responseObserver.onError(writeRejected(e));
         } catch (Exception e) {
             log.error("gRPC Repository: Error updating user", e);
             responseObserver.onError(
@@ -186,8 +328,12 @@ public class UserGrpcRepositoryService extends UserServiceGrpc.UserServiceImplBa
     @Override
     public void listUsers(ListUsersRequest request, StreamObserver<ListUsersResponse> responseObserver) {
         try {
-            log.debug("gRPC Repository: Listing users page={}, size={}", request.getPage(), request.getSize());
             int size = request.getSize() > 0 ? request.getSize() : 20;
+            if (request.hasAfter()) {
+                listUsersAfter(request, size, responseObserver);
+                return;
+            }
+            log.debug("gRPC Repository: Listing users page={}, size={}", request.getPage(), request.getSize());
             PageRequest pageRequest = PageRequest.of(request.getPage(), size);
             Page<User> usersPage = userDao.findAll(pageRequest);
 
@@ -210,6 +356,111 @@ public class UserGrpcRepositoryService extends UserServiceGrpc.UserServiceImplBa
         }
     }
 
+    @Override
+    public void listUsersByFilter(ListUsersByFilterRequest request,
+                                  StreamObserver<ListUsersResponse> responseObserver) {
+        UserFilter filter;
+        try {
+            filter = new UserFilter(
+                request.hasRole() ? UserRole.valueOf(request.getRole()) : null,
+                request.hasIsActive() ? request.getIsActive() : null,
+                request.hasIsVerified() ? request.getIsVerified() : null);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(
+                Status.INVALID_ARGUMENT.withDescription("Unknown role: " + request.getRole()).asRuntimeException()
+            );
+            return;
+        }
+        try {
+            int size = request.getSize() > 0 ? request.getSize() : 20;
+            if (request.hasAfter()) {
+                listUsersByFilterAfter(filter, request.getAfter(), size, responseObserver);
+                return;
+            }
+            log.debug("gRPC Repository: Listing users by {}, page={}, size={}", filter, request.getPage(), size);
+            Page<User> usersPage = userDao.findAll(filter, PageRequest.of(request.getPage(), size));
+
+            ListUsersResponse.Builder builder = ListUsersResponse.newBuilder();
+            usersPage.getContent().forEach(user -> builder.addUsers(toGrpcResponse(user)));
+            builder.setPageInfo(PageInfo.newBuilder()
+                .setPage(request.getPage())
+                .setSize(size)
+                .setTotalElements(usersPage.getTotalElements())
+                .setTotalPages(usersPage.getTotalPages())
+                .build());
+
+            responseObserver.onNext(builder.build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("gRPC Repository: Error listing users by filter", e);
+            responseObserver.onError(
+                Status.INTERNAL.withDescription("Failed to list users").asRuntimeException()
+            );
+        }
+    }
+
+    private void listUsersByFilterAfter(UserFilter filter, String cursor, int size,
+                                        StreamObserver<ListUsersResponse> responseObserver) {
+        log.debug("gRPC Repository: Listing users by {} after cursor, size={}", filter, size);
+        UserCursor after;
+        try {
+            after = UserCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(
+                Status.INVALID_ARGUMENT.withDescription("Invalid cursor").asRuntimeException()
+            );
+            return;
+        }
+        List<User> users = userDao.findAllAfter(filter, after, size);
+
+        ListUsersResponse.Builder builder = ListUsersResponse.newBuilder();
+        users.forEach(user -> builder.addUsers(toGrpcResponse(user)));
+        if (users.size() == size) {
+            UserCursor next = UserCursor.after(users.get(users.size() - 1));
+            if (next != null) {
+                builder.setNextCursor(next.encode());
+            }
+        }
+
+        responseObserver.onNext(builder.build());
+        responseObserver.onCompleted();
+    }
+
+    private void listUsersAfter(ListUsersRequest request, int size,
+                                StreamObserver<ListUsersResponse> responseObserver) {
+        log.debug("gRPC Repository: Listing users after cursor, size={}", size);
+        UserCursor after;
+        try {
+            after = UserCursor.decode(request.getAfter());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(
+                Status.INVALID_ARGUMENT.withDescription("Invalid cursor").asRuntimeException()
+            );
+            return;
+        }
+        List<User> users = userDao.findAllAfter(after, size);
+
+        ListUsersResponse.Builder builder = ListUsersResponse.newBuilder();
+        users.forEach(user -> builder.addUsers(toGrpcResponse(user)));
+        if (users.size() == size) {
+            UserCursor next = UserCursor.after(users.get(users.size() - 1));
+            if (next != null) {
+                builder.setNextCursor(next.encode());
+            }
+        }
+        if (request.getIncludeTotal()) {
+            long total = userDao.count();
+            builder.setPageInfo(PageInfo.newBuilder()
+                .setSize(size)
+                .setTotalElements(total)
+                .setTotalPages((int) ((total + size - 1) / size))
+                .build());
+        }
+
+        responseObserver.onNext(builder.build());
+        responseObserver.onCompleted();
+    }
+
     @Override
     public void existsByUsername(ExistsByUsernameRequest request, StreamObserver<ExistsResponse> responseObserver) {
         try {
@@ -238,6 +489,17 @@ public class UserGrpcRepositoryService extends UserServiceGrpc.UserServiceImplBa
         }
     }
 
+    private User fromCreateRequest(CreateUserRequest request) {
+        return User.builder()
+            .username(request.getUsername())
+            .email(request.getEmail())
+            .password(request.getPassword())
+            .firstName(request.getFirstName().isEmpty() ? null : request.getFirstName())
+            .lastName(request.getLastName().isEmpty() ? null : request.getLastName())
+            .role(request.getRole().isEmpty() ? UserRole.USER : UserRole.valueOf(request.getRole()))
+            .build();
+    }
+
     private UserResponse toGrpcResponse(User user) {
         return UserResponse.newBuilder()
             .setId(user.getId())
@@ -253,4 +515,20 @@ public class UserGrpcRepositoryService extends UserServiceGrpc.UserServiceImplBa
             .setUpdatedAt(user.getUpdatedAt() != null ? user.getUpdatedAt().format(FORMATTER) : "")
             .build();
     }
+
+    /**
+     * A taken username or email is {@code ALREADY_EXISTS} with the key in a trailer, so the
+     * service layer can report which one; any other integrity violation is
+     * {@code INVALID_ARGUMENT}.
+     */
+    private static StatusRuntimeException writeRejected(DataIntegrityViolationException e) {
+        Optional<UserKeyConflict> conflict = UserKeyConflict.of(e);
+        if (conflict.isEmpty()) {
+            log.warn("gRPC Repository: User write rejected: {}", e.getMostSpecificCause().getMessage());
+            return Status.INVALID_ARGUMENT.withDescription("User data rejected by the database").asRuntimeException();
+        }
+        Metadata trailers = new Metadata();
+        trailers.put(KEY_CONFLICT_TRAILER, conflict.get().name());
+        return Status.ALREADY_EXISTS.withDescription(conflict.get().message()).asRuntimeException(trailers);
+    }
 }
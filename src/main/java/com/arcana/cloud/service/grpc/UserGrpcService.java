@@ -1,6 +1,11 @@
 package com.arcana.cloud.service.grpc;
 
+import com.arcana.cloud.dto.response.CursorPage;
 import com.arcana.cloud.entity.User;
+import com.arcana.cloud.exception.TooManyRequestsException;
+import com.arcana.cloud.exception.ValidationException;
+import com.arcana.cloud.grpc.BatchGetUsersRequest;
+import com.arcana.cloud.grpc.BatchGetUsersResponse;
 import com.arcana.cloud.grpc.CreateUserRequest;
 import com.arcana.cloud.grpc.DeleteUserRequest;
 import com.arcana.cloud.grpc.DeleteUserResponse;
@@ -13,6 +18,7 @@ import com.arcana.cloud.grpc.GetUserRequest;
 import com.arcana.cloud.grpc.ListUsersRequest;
 import com.arcana.cloud.grpc.ListUsersResponse;
 import com.arcana.cloud.grpc.PageInfo;
+import com.arcana.cloud.grpc.StreamUsersRequest;
 import com.arcana.cloud.grpc.UpdateUserRequest;
 import com.arcana.cloud.grpc.UserResponse;
 import com.arcana.cloud.grpc.UserServiceGrpc;
@@ -62,6 +68,49 @@ public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
         }
     }
 
+    @Override
+    public void batchGetUsers(BatchGetUsersRequest request, StreamObserver<BatchGetUsersResponse> responseObserver) {
+        try {
+            log.debug("gRPC: Getting {} users by id", request.getUserIdsCount());
+            BatchGetUsersResponse.Builder responseBuilder = BatchGetUsersResponse.newBuilder();
+            userService.getUsersByIds(request.getUserIdsList())
+                .forEach(user -> responseBuilder.addUsers(toGrpcResponse(user)));
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+        } catch (ValidationException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                .withDescription(e.getMessage())
+                .asRuntimeException());
+        } catch (Exception e) {
+            log.error("gRPC: Error getting users by id", e);
+            responseObserver.onError(Status.INTERNAL
+                .withDescription(INTERNAL_ERROR_MSG)
+                .asRuntimeException());
+        }
+    }
+
+    @Override
+    public void streamUsers(StreamUsersRequest request, StreamObserver<UserResponse> responseObserver) {
+        FlowControlledSender<UserResponse> sender = new FlowControlledSender<>(responseObserver);
+        sender.start("grpc-stream-users", () -> {
+            try {
+                log.info("gRPC: Streaming all users");
+                long count = userService.exportUsers(user -> sender.accept(toGrpcResponse(user)));
+                log.info("gRPC: Streamed {} users", count);
+                responseObserver.onCompleted();
+            } catch (Exception e) {
+                if (sender.isCancelled()) {
+                    log.info("gRPC: User stream cancelled by the client");
+                    return;
+                }
+                log.error("gRPC: Error streaming users", e);
+                responseObserver.onError(Status.INTERNAL
+                    .withDescription(INTERNAL_ERROR_MSG)
+                    .asRuntimeException());
+            }
+        });
+    }
+
     @Override
     public void getUserByUsername(GetUserByUsernameRequest request, StreamObserver<UserResponse> responseObserver) {
         try {
@@ -119,6 +168,10 @@ public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
             User createdUser = userService.createUser(user);
             responseObserver.onNext(toGrpcResponse(createdUser));
             responseObserver.onCompleted();
+        } catch (TooManyRequestsException e) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                .withDescription(e.getMessage())
+                .asRuntimeException());
         } catch (Exception e) {
             log.error("gRPC: Error creating user", e);
             responseObserver.onError(Status.INTERNAL
@@ -144,6 +197,10 @@ public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
             User updatedUser = userService.updateUser(request.getUserId(), userUpdate);
             responseObserver.onNext(toGrpcResponse(updatedUser));
             responseObserver.onCompleted();
+        } catch (TooManyRequestsException e) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                .withDescription(e.getMessage())
+                .asRuntimeException());
         } catch (Exception e) {
             log.error("gRPC: Error updating user", e);
             responseObserver.onError(Status.INTERNAL
@@ -173,6 +230,10 @@ public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
     @Override
     public void listUsers(ListUsersRequest request, StreamObserver<ListUsersResponse> responseObserver) {
         try {
+            if (request.hasAfter()) {
+                listUsersAfter(request, responseObserver);
+                return;
+            }
             log.debug("gRPC: Listing users page: {}, size: {}", request.getPage(), request.getSize());
             Page<User> usersPage = userService.getUsers(request.getPage(), request.getSize());
 
@@ -196,6 +257,36 @@ public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
         }
     }
 
+    private void listUsersAfter(ListUsersRequest request, StreamObserver<ListUsersResponse> responseObserver) {
+        log.debug("gRPC: Listing users after cursor, size: {}", request.getSize());
+        CursorPage<User> usersPage;
+        try {
+            usersPage = userService.getUsersAfter(request.getAfter(), request.getSize(), request.getIncludeTotal());
+        } catch (ValidationException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                .withDescription(e.getMessage())
+                .asRuntimeException());
+            return;
+        }
+
+        ListUsersResponse.Builder responseBuilder = ListUsersResponse.newBuilder();
+        usersPage.getContent().forEach(user -> responseBuilder.addUsers(toGrpcResponse(user)));
+        if (usersPage.getNextCursor() != null) {
+            responseBuilder.setNextCursor(usersPage.getNextCursor());
+        }
+        if (usersPage.getTotalElements() != null) {
+            long total = usersPage.getTotalElements();
+            responseBuilder.setPageInfo(PageInfo.newBuilder()
+                .setSize(request.getSize())
+                .setTotalElements(total)
+                .setTotalPages((int) ((total + request.getSize() - 1) / request.getSize()))
+                .build());
+        }
+
+        responseObserver.onNext(responseBuilder.build());
+        responseObserver.onCompleted();
+    }
+
     @Override
     public void existsByUsername(ExistsByUsernameRequest request, StreamObserver<ExistsResponse> responseObserver) {
         try {
@@ -1,5 +1,8 @@
 package com.arcana.cloud.service.impl;
 
+import com.arcana.cloud.cache.UserCache;
+import com.arcana.cloud.cache.UserKeyFilter;
+import com.arcana.cloud.dao.UserKeyConflict;
 import com.arcana.cloud.dto.request.LoginRequest;
 import com.arcana.cloud.dto.request.RefreshTokenRequest;
 import com.arcana.cloud.dto.request.RegisterRequest;
@@ -13,17 +16,25 @@ import com.arcana.cloud.mapper.UserMapper;
 import com.arcana.cloud.repository.OAuthTokenRepository;
 import com.arcana.cloud.repository.UserRepository;
 import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.ParsedToken;
+import com.arcana.cloud.security.TokenRevocationIndex;
 import com.arcana.cloud.security.UserPrincipal;
 import com.arcana.cloud.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * AuthService implementation with direct database access.
@@ -42,6 +53,15 @@ public class AuthServiceImpl implements AuthService {
     private final JwtTokenProvider tokenProvider;
     private final UserMapper userMapper;
 
+    @Autowired(required = false)
+    private TokenRevocationIndex revocationIndex;
+
+    @Autowired(required = false)
+    private UserCache userCache;
+
+    @Autowired(required = false)
+    private UserKeyFilter userKeyFilter;
+
     @Value("${jwt.expiration:3600000}")
     private Long accessTokenExpiration;
 
@@ -56,11 +76,22 @@ public class AuthServiceImpl implements AuthService {
             throw new ValidationException("Passwords do not match");
         }
 
-        if (userRepository.existsByUsername(request.getUsername())) {
+        // The key filter answers most sign-ups (new usernames and emails) without a lookup;
+        // the checks it cannot answer are issued together rather than one after the other
+        CompletableFuture<Boolean> usernameTaken =
+            userKeyFilter == null || userKeyFilter.mightContainUsername(request.getUsername())
+                ? userRepository.existsByUsernameAsync(request.getUsername())
+                : CompletableFuture.completedFuture(false);
+        CompletableFuture<Boolean> emailTaken =
+            userKeyFilter == null || userKeyFilter.mightContainEmail(request.getEmail())
+                ? userRepository.existsByEmailAsync(request.getEmail())
+                : CompletableFuture.completedFuture(false);
+
+        if (usernameTaken.join()) {
             throw new ValidationException("Username already exists");
         }
 
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (emailTaken.join()) {
             throw new ValidationException("Email already exists");
         }
 
@@ -75,7 +106,17 @@ public class AuthServiceImpl implements AuthService {
             .isVerified(false)
             .build();
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw UserKeyConflict.of(e)
+                .<RuntimeException>map(conflict -> new ValidationException(conflict.message(), e))
+                .orElse(e);
+        }
+        if (userKeyFilter != null) {
+            userKeyFilter.add(savedUser);
+        }
         log.info("User registered successfully with id: {}", savedUser.getId());
 
         return generateAuthResponse(savedUser);
@@ -85,10 +126,12 @@ public class AuthServiceImpl implements AuthService {
     public AuthResponse login(LoginRequest request) {
         log.info("Login attempt for user: {}", request.getUsernameOrEmail());
 
-        User user = userRepository.findByUsernameOrEmail(
-                request.getUsernameOrEmail(),
-                request.getUsernameOrEmail()
-            )
+        String usernameOrEmail = request.getUsernameOrEmail();
+        Optional<User> found = userCache != null
+            ? userCache.findByUsernameOrEmail(usernameOrEmail,
+                () -> userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail))
+            : userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
+        User user = found
             .orElseThrow(() -> new UnauthorizedException("Invalid username or password"));
 
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
@@ -99,6 +142,19 @@ public class AuthServiceImpl implements AuthService {
             throw new UnauthorizedException("Account is disabled");
         }
 
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            // Stored hash is below the target cost; the plaintext is only available now.
+            // Only the hash is written: the rest of the row may have changed since it was read
+            String rehashed = passwordEncoder.encode(request.getPassword());
+            userRepository.updateFields(user.getId(),
+                User.builder().role(null).isActive(null).isVerified(null).password(rehashed).build());
+            if (userCache != null) {
+                // Only once the new hash is stored, so a reload cannot bring back the old one
+                userCache.evict(user.getId(), user.getUsername(), user.getEmail());
+            }
+            log.info("Rehashed password to target cost for user: {}", user.getUsername());
+        }
+
         log.info("User logged in successfully: {}", user.getUsername());
         return generateAuthResponse(user);
     }
@@ -107,27 +163,28 @@ public class AuthServiceImpl implements AuthService {
     public AuthResponse refreshToken(RefreshTokenRequest request) {
         log.info("Refreshing token");
 
-        if (!tokenProvider.validateToken(request.getRefreshToken())) {
-            throw new UnauthorizedException("Invalid refresh token");
-        }
+        ParsedToken refreshToken = tokenProvider.parseToken(request.getRefreshToken())
+            .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
 
-        Long userId = tokenProvider.getUserIdFromToken(request.getRefreshToken());
-        User user = userRepository.findById(userId)
+        Optional<User> found = userCache != null
+            ? userCache.findById(refreshToken.userId(), userRepository::findById)
+            : userRepository.findById(refreshToken.userId());
+        User user = found
             .orElseThrow(() -> new UnauthorizedException("User not found"));
 
         if (!user.getIsActive()) {
             throw new UnauthorizedException("Account is disabled");
         }
 
-        OAuthToken existingToken = tokenRepository.findByRefreshToken(request.getRefreshToken())
-            .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
-
-        if (existingToken.getIsRevoked()) {
+        // One conditional update: of concurrent refreshes with the same token, exactly one wins
+        if (!tokenRepository.revokeIfActive(request.getRefreshToken(), LocalDateTime.now())) {
             throw new UnauthorizedException("Token has been revoked");
         }
-
-        existingToken.setIsRevoked(true);
-        tokenRepository.save(existingToken);
+        if (revocationIndex != null && refreshToken.tokenId() != null && refreshToken.issuedAt() != null) {
+            // The access token of the pair shares the refresh token's ID and issue time
+            revocationIndex.revoke(refreshToken.tokenId(),
+                refreshToken.issuedAt().getTime() + accessTokenExpiration);
+        }
 
         log.info("Token refreshed successfully for user: {}", user.getUsername());
         return generateAuthResponse(user);
@@ -137,6 +194,9 @@ public class AuthServiceImpl implements AuthService {
     public void logout(String accessToken) {
         log.info("Logging out user");
         tokenRepository.revokeByAccessToken(accessToken);
+        if (revocationIndex != null) {
+            revocationIndex.revoke(accessToken);
+        }
     }
 
     @Override
@@ -144,14 +204,21 @@ public class AuthServiceImpl implements AuthService {
         log.info("Logging out all sessions for user: {}", userId);
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new ValidationException("User not found"));
+        List<OAuthToken> activeTokens = revocationIndex != null
+            ? tokenRepository.findValidTokensByUser(user, LocalDateTime.now())
+            : List.of();
         tokenRepository.revokeAllTokensByUser(user);
+        if (revocationIndex != null) {
+            revocationIndex.revokeAll(activeTokens);
+        }
     }
 
     private AuthResponse generateAuthResponse(User user) {
         UserPrincipal principal = UserPrincipal.create(user);
 
-        String accessToken = tokenProvider.generateAccessToken(principal);
-        String refreshToken = tokenProvider.generateRefreshToken(principal);
+        String tokenId = UUID.randomUUID().toString();
+        String accessToken = tokenProvider.generateAccessToken(principal, tokenId);
+        String refreshToken = tokenProvider.generateRefreshToken(principal, tokenId);
 
         LocalDateTime now = LocalDateTime.now();
         OAuthToken token = OAuthToken.builder()
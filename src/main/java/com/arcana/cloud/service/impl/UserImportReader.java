@@ -0,0 +1,243 @@
+package com.arcana.cloud.service.impl;
+
+import com.arcana.cloud.dto.request.UserImportFormat;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the rows of an import upload one at a time, so only the current row is held in
+ * memory. Field names are matched without regard to case, underscores or dashes
+ * ({@code first_name}, {@code firstName} and {@code FirstName} are the same field).
+ *
+ * <p>A row that cannot be parsed is returned with an error instead of failing the
+ * import; an I/O error does fail it, and so does a row longer than the maximum, since the
+ * reader cannot tell where the next row starts without reading all of it.</p>
+ */
+abstract class UserImportReader {
+
+    /**
+     * One row of the upload.
+     *
+     * @param line the line the row starts on
+     * @param fields the row's values by normalized field name
+     * @param error why the row could not be parsed, or null
+     */
+    record Row(long line, Map<String, String> fields, String error) {
+
+        String get(String field) {
+            return fields.get(field);
+        }
+    }
+
+    /**
+     * A row with more characters than the reader accepts; the rest of the upload cannot be
+     * read.
+     */
+    static final class RowTooLongException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        RowTooLongException(long line, int maxRowLength) {
+            super("Row at line " + line + " is longer than " + maxRowLength + " characters");
+        }
+    }
+
+    /**
+     * @param maxRowLength the most characters a row may have, line breaks included
+     */
+    static UserImportReader open(UserImportFormat format, Reader in, JsonMapper jsonMapper, int maxRowLength) {
+        BufferedReader reader = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        return switch (format) {
+            case CSV -> new Csv(reader, maxRowLength);
+            case NDJSON -> new Ndjson(reader, jsonMapper, maxRowLength);
+        };
+    }
+
+    /**
+     * @return the next row, or null at the end of the upload
+     */
+    abstract Row next() throws IOException;
+
+    static String normalizeField(String name) {
+        // A byte order mark, as spreadsheet exports often start with, is not part of the first name
+        return name.replace("\uFEFF", "").strip().replace("_", "").replace("-", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * RFC 4180 CSV: comma-separated, optionally double-quoted fields (which may contain
+     * commas, line breaks and doubled quotes), with a header line.
+     */
+    private static final class Csv extends UserImportReader {
+
+        private final BufferedReader in;
+        private final int maxRowLength;
+        private List<String> header;
+        private long line = 1;
+
+        Csv(BufferedReader in, int maxRowLength) {
+            this.in = in;
+            this.maxRowLength = maxRowLength;
+        }
+
+        @Override
+        Row next() throws IOException {
+            if (header == null) {
+                List<String> names = readRecord();
+                if (names == null) {
+                    return null;
+                }
+                header = names.stream().map(UserImportReader::normalizeField).toList();
+            }
+            while (true) {
+                long start = line;
+                List<String> values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+                if (values.size() == 1 && values.get(0).isEmpty()) {
+                    continue;
+                }
+                if (values.size() != header.size()) {
+                    return new Row(start, Map.of(),
+                        "Expected " + header.size() + " columns but found " + values.size());
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < values.size(); i++) {
+                    fields.put(header.get(i), values.get(i));
+                }
+                return new Row(start, fields, null);
+            }
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            long start = line;
+            int length = 0;
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                // An unterminated quote would otherwise read the rest of the upload into one field
+                if (++length > maxRowLength) {
+                    throw new RowTooLongException(start, maxRowLength);
+                }
+                if (quoted) {
+                    if (c == -1) {
+                        values.add(value.toString());
+                        return values;
+                    }
+                    if (c == '"') {
+                        int next = in.read();
+                        if (next == '"') {
+                            value.append('"');
+                        } else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        value.append((char) c);
+                    }
+                } else if (c == '"' && value.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    values.add(value.toString());
+                    return values;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+    }
+
+    /**
+     * Newline-delimited JSON: one object per line; blank lines are ignored.
+     */
+    private static final class Ndjson extends UserImportReader {
+
+        private final BufferedReader in;
+        private final JsonMapper jsonMapper;
+        private final int maxRowLength;
+        private final StringBuilder buffer = new StringBuilder();
+        private long line;
+
+        Ndjson(BufferedReader in, JsonMapper jsonMapper, int maxRowLength) {
+            this.in = in;
+            this.jsonMapper = jsonMapper;
+            this.maxRowLength = maxRowLength;
+        }
+
+        @Override
+        Row next() throws IOException {
+            String text;
+            do {
+                text = readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+
+            JsonNode node;
+            try {
+                node = jsonMapper.readTree(text);
+            } catch (JacksonException e) {
+                return new Row(line, Map.of(), "Malformed JSON");
+            }
+            if (node == null || !node.isObject()) {
+                return new Row(line, Map.of(), "Expected a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (Map.Entry<String, JsonNode> property : node.properties()) {
+                JsonNode value = property.getValue();
+                fields.put(normalizeField(property.getKey()), value.isNull() ? null : value.asString());
+            }
+            return new Row(line, fields, null);
+        }
+
+        /**
+         * Like {@link BufferedReader#readLine()}, but gives up on a line longer than the
+         * maximum instead of buffering all of it.
+         */
+        private String readLine() throws IOException {
+            buffer.setLength(0);
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1 && c != '\n') {
+                if (buffer.length() == maxRowLength) {
+                    throw new RowTooLongException(line + 1, maxRowLength);
+                }
+                if (c != '\r') {
+                    buffer.append((char) c);
+                }
+                c = in.read();
+            }
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.arcana.cloud.service.impl;
+
+import com.arcana.cloud.cache.UserKeyFilter;
+import com.arcana.cloud.dao.UserKeyConflict;
+import com.arcana.cloud.dto.request.UserCreateRequest;
+import com.arcana.cloud.dto.request.UserImportFormat;
+import com.arcana.cloud.dto.response.UserImportJob;
+import com.arcana.cloud.entity.User;
+import com.arcana.cloud.entity.UserRole;
+import com.arcana.cloud.exception.TooManyRequestsException;
+import com.arcana.cloud.repository.UserRepository;
+import com.arcana.cloud.service.UserImportService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk user import: streams an uploaded file in chunks and, for each chunk, checks the
+ * usernames and emails against the store with one query, hashes the passwords on all
+ * cores, and inserts the new users with one batched write.
+ *
+ * <p>A chunk whose write hits a unique constraint (a key taken after the check) is
+ * retried row by row, so only the offending rows are skipped. Jobs live in memory on the
+ * node that runs them and are forgotten a while after they end.</p>
+ *
+ * <p>Passwords are hashed with the raw BCrypt encoder on the import's own pool, not
+ * through {@link com.arcana.cloud.security.PasswordHashingService}: an import must neither
+ * take the login hashing slots nor fail when that queue is full.</p>
+ *
+ * Active in: monolithic mode only, like {@link com.arcana.cloud.controller.UserImportController}.
+ */
+@Service
+@Slf4j
+@ConditionalOnExpression("'${deployment.layer:}' == ''")
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final String FIELD_USERNAME = "username";
+    private static final String FIELD_EMAIL = "email";
+    private static final String FIELD_PASSWORD = "password";
+    private static final String FIELD_FIRST_NAME = "firstname";
+    private static final String FIELD_LAST_NAME = "lastname";
+    private static final String FIELD_ROLE = "role";
+    private static final String USERNAME_EXISTS = "Username already exists";
+    private static final String EMAIL_EXISTS = "Email already exists";
+    // A chunk is one multi-row INSERT binding 8 parameters per row; PostgreSQL takes at most
+    // 65,535 parameters per statement
+    private static final int MAX_CHUNK_SIZE = 5000;
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+
+    @Autowired(required = false)
+    private UserKeyFilter userKeyFilter;
+
+    @Value("${users.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${users.import.max-row-length:65536}")
+    private int maxRowLength = 65536;
+
+    @Value("${users.import.hash-parallelism:0}")
+    private int hashParallelism;
+
+    @Value("${users.import.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs = 2;
+
+    @Value("${users.import.max-reported-errors:100}")
+    private int maxReportedErrors = 100;
+
+    @Value("${users.import.retention:PT24H}")
+    private Duration retention = Duration.ofHours(24);
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor jobExecutor;
+    private ForkJoinPool hashPool;
+
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 @Qualifier("passwordEncoder") PasswordEncoder passwordEncoder,
+                                 Validator validator,
+                                 JsonMapper jsonMapper) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            log.warn("users.import.chunk-size={} is out of range, using {}", chunkSize,
+                Math.clamp(chunkSize, 1, MAX_CHUNK_SIZE));
+            chunkSize = Math.clamp(chunkSize, 1, MAX_CHUNK_SIZE);
+        }
+        // No queue: an import beyond the limit is refused rather than left waiting
+        this.jobExecutor = new ThreadPoolExecutor(0, maxConcurrentJobs, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), Thread.ofPlatform().name("user-import-", 0).factory());
+        this.hashPool = new ForkJoinPool(hashParallelism > 0
+            ? hashParallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        hashPool.shutdownNow();
+    }
+
+    @Override
+    public UserImportJob startImport(UserImportFormat format, Path upload) {
+        expireFinishedJobs();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format);
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job, upload));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteUpload(upload);
+            throw new TooManyRequestsException("Too many user imports running, try again later");
+        }
+        log.info("Started user import {} ({})", job.id, format);
+        return job.snapshot();
+    }
+
+    @Override
+    public Optional<UserImportJob> getImport(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(ImportJob::snapshot);
+    }
+
+    void run(ImportJob job, Path upload) {
+        try (Reader in = Files.newBufferedReader(upload, StandardCharsets.UTF_8)) {
+            UserImportReader reader = UserImportReader.open(job.format, in, jsonMapper, maxRowLength);
+            Set<String> seenUsernames = new HashSet<>();
+            Set<String> seenEmails = new HashSet<>();
+            List<Candidate> chunk = new ArrayList<>(chunkSize);
+            UserImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                job.processed.incrementAndGet();
+                Candidate candidate = toCandidate(job, row);
+                if (candidate == null) {
+                    continue;
+                }
+                // Repeats within the upload are caught here; the store only sees each key once
+                if (!seenUsernames.add(fold(candidate.user().getUsername()))) {
+                    job.skip(row.line(), USERNAME_EXISTS);
+                } else if (!seenEmails.add(fold(candidate.user().getEmail()))) {
+                    job.skip(row.line(), EMAIL_EXISTS);
+                } else {
+                    chunk.add(candidate);
+                }
+                if (chunk.size() == chunkSize) {
+                    importChunk(job, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk);
+            }
+            job.finish(UserImportJob.Status.COMPLETED, null);
+            log.info("User import {} completed: {} imported, {} skipped, {} failed",
+                job.id, job.imported.get(), job.skipped.get(), job.failed.get());
+        } catch (UserImportReader.RowTooLongException e) {
+            job.finish(UserImportJob.Status.FAILED, e.getMessage());
+            log.warn("User import {} failed: {}", job.id, e.getMessage());
+        } catch (Exception e) {
+            job.finish(UserImportJob.Status.FAILED, "Import stopped after " + job.processed.get() + " rows");
+            log.error("User import {} failed after {} rows", job.id, job.processed.get(), e);
+        } finally {
+            deleteUpload(upload);
+        }
+    }
+
+    private Candidate toCandidate(ImportJob job, UserImportReader.Row row) {
+        if (row.error() != null) {
+            job.fail(row.line(), row.error());
+            return null;
+        }
+        UserCreateRequest request = UserCreateRequest.builder()
+            .username(row.get(FIELD_USERNAME))
+            .email(row.get(FIELD_EMAIL))
+            .password(row.get(FIELD_PASSWORD))
+            .firstName(blankToNull(row.get(FIELD_FIRST_NAME)))
+            .lastName(blankToNull(row.get(FIELD_LAST_NAME)))
+            .build();
+        Optional<String> violation = validator.validate(request).stream()
+            .map(ConstraintViolation::getMessage)
+            .min(Comparator.naturalOrder());
+        if (violation.isPresent()) {
+            job.fail(row.line(), violation.get());
+            return null;
+        }
+        UserRole role = UserRole.USER;
+        String roleName = blankToNull(row.get(FIELD_ROLE));
+        if (roleName != null) {
+            try {
+                role = UserRole.valueOf(roleName.strip().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                job.fail(row.line(), "Unknown role: " + roleName);
+                return null;
+            }
+        }
+        User user = User.builder()
+            .username(request.getUsername())
+            .email(request.getEmail())
+            .password(request.getPassword())
+            .firstName(request.getFirstName())
+            .lastName(request.getLastName())
+            .role(role)
+            .build();
+        return new Candidate(row.line(), user);
+    }
+
+    private void importChunk(ImportJob job, List<Candidate> chunk) {
+        List<Candidate> fresh = withoutTakenKeys(job, chunk);
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        // BCrypt dominates the import; spread it over the cores instead of one row at a time
+        hashPool.submit(() -> fresh.parallelStream()
+            .forEach(candidate -> candidate.user().setPassword(
+                passwordEncoder.encode(candidate.user().getPassword()))))
+            .join();
+
+        try {
+            userRepository.insertAll(fresh.stream().map(Candidate::user).toList());
+            fresh.forEach(candidate -> imported(job, candidate));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("User import {}: chunk hit a unique constraint, retrying row by row", job.id);
+            for (Candidate candidate : fresh) {
+                try {
+                    userRepository.insertAll(List.of(candidate.user()));
+                    imported(job, candidate);
+                } catch (DataIntegrityViolationException rejected) {
+                    Optional<UserKeyConflict> conflict = UserKeyConflict.of(rejected);
+                    if (conflict.isPresent()) {
+                        job.skip(candidate.line(), conflict.get().message());
+                    } else {
+                        job.fail(candidate.line(), "Rejected by the database");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips the candidates whose username or email is already in the store, looked up with
+     * a single query. Keys the key filter rules out are not looked up at all.
+     */
+    private List<Candidate> withoutTakenKeys(ImportJob job, List<Candidate> chunk) {
+        List<String> usernames = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        for (Candidate candidate : chunk) {
+            User user = candidate.user();
+            if (userKeyFilter == null || userKeyFilter.mightContainUsername(user.getUsername())) {
+                usernames.add(user.getUsername());
+            }
+            if (userKeyFilter == null || userKeyFilter.mightContainEmail(user.getEmail())) {
+                emails.add(user.getEmail());
+            }
+        }
+        if (usernames.isEmpty() && emails.isEmpty()) {
+            return chunk;
+        }
+
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        for (User existing : userRepository.findAllByUsernameOrEmail(usernames, emails)) {
+            takenUsernames.add(fold(existing.getUsername()));
+            takenEmails.add(fold(existing.getEmail()));
+        }
+        List<Candidate> fresh = new ArrayList<>(chunk.size());
+        for (Candidate candidate : chunk) {
+            if (takenUsernames.contains(fold(candidate.user().getUsername()))) {
+                job.skip(candidate.line(), USERNAME_EXISTS);
+            } else if (takenEmails.contains(fold(candidate.user().getEmail()))) {
+                job.skip(candidate.line(), EMAIL_EXISTS);
+            } else {
+                fresh.add(candidate);
+            }
+        }
+        return fresh;
+    }
+
+    private void imported(ImportJob job, Candidate candidate) {
+        job.imported.incrementAndGet();
+        if (userKeyFilter != null) {
+            userKeyFilter.add(candidate.user());
+        }
+    }
+
+    private void expireFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static void deleteUpload(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            log.warn("Failed to delete user import upload {}: {}", upload, e.getMessage());
+        }
+    }
+
+    private static String fold(String key) {
+        return key == null ? null : key.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private record Candidate(long line, User user) {
+    }
+
+    /**
+     * Mutable progress of a running import; counters are read concurrently by status
+     * requests.
+     */
+    final class ImportJob {
+
+        private final String id;
+        private final UserImportFormat format;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<UserImportJob.RowError> errors = new ArrayList<>();
+        private volatile UserImportJob.Status status = UserImportJob.Status.RUNNING;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        ImportJob(String id, UserImportFormat format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void skip(long line, String reason) {
+            skipped.incrementAndGet();
+            report(line, reason);
+        }
+
+        void fail(long line, String reason) {
+            failed.incrementAndGet();
+            report(line, reason);
+        }
+
+        void finish(UserImportJob.Status finalStatus, String finalMessage) {
+            this.message = finalMessage;
+            this.finishedAt = LocalDateTime.now();
+            this.status = finalStatus;
+        }
+
+        private void report(long line, String reason) {
+            synchronized (errors) {
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(new UserImportJob.RowError(line, reason));
+                }
+            }
+        }
+
+        UserImportJob snapshot() {
+            List<UserImportJob.RowError> reported;
+            synchronized (errors) {
+                reported = List.copyOf(errors);
+            }
+            return UserImportJob.builder()
+                .id(id)
+                .status(status)
+                .format(format)
+                .processed(processed.get())
+                .imported(imported.get())
+                .skipped(skipped.get())
+                .failed(failed.get())
+                .errors(reported)
+                .message(message)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .build();
+        }
+    }
+}
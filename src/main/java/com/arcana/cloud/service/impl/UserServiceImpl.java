@@ -1,24 +1,42 @@
 package com.arcana.cloud.service.impl;
 
+import com.arcana.cloud.cache.UserCache;
+import com.arcana.cloud.cache.UserKeyFilter;
+import com.arcana.cloud.dao.UserCursor;
+import com.arcana.cloud.dao.UserKeyConflict;
+import com.arcana.cloud.dto.response.CursorPage;
 import com.arcana.cloud.entity.User;
+import com.arcana.cloud.entity.UserRole;
 import com.arcana.cloud.exception.ResourceNotFoundException;
 import com.arcana.cloud.exception.ValidationException;
 import com.arcana.cloud.repository.UserRepository;
+import com.arcana.cloud.security.UserPrincipalCache;
+import com.arcana.cloud.security.UserRevocationRegistry;
 import com.arcana.cloud.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
-import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * UserService implementation with direct database access.
@@ -32,55 +50,105 @@ import java.util.Optional;
 @ConditionalOnExpression("'${deployment.layer:}' == '' or '${deployment.layer:}' == 'service'")
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
+    @Autowired(required = false)
+    private UserRevocationRegistry userRevocationRegistry;
+
+    @Autowired(required = false)
+    private UserPrincipalCache principalCache;
+
+    @Autowired(required = false)
+    private UserCache userCache;
+
+    @Autowired(required = false)
+    private UserKeyFilter userKeyFilter;
+
     @Override
     public User createUser(User user) {
         log.info("Creating new user with username: {}", user.getUsername());
 
-        if (userRepository.existsByUsername(user.getUsername())) {
-            throw new ValidationException("Username already exists");
+        // No exists checks up front: the unique indexes reject a taken username or email
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateKey(e);
         }
-
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new ValidationException("Email already exists");
+        if (userKeyFilter != null) {
+            userKeyFilter.add(savedUser);
         }
-
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        User savedUser = userRepository.save(user);
         log.info("User created successfully with id: {}", savedUser.getId());
         return savedUser;
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "users", key = "#id")
     public User getUserById(Long id) {
         log.debug("Fetching user by id: {}", id);
-        return userRepository.findById(id)
+        Optional<User> user = userCache != null
+            ? userCache.findById(id, userRepository::findById)
+            : userRepository.findById(id);
+        return user
             .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(distinctIds::add);
+        }
+        log.debug("Fetching {} users by id", distinctIds.size());
+        if (distinctIds.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("At most " + MAX_BATCH_SIZE + " user IDs per request");
+        }
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, User> users = userCache != null
+            ? userCache.findAllById(distinctIds, userRepository::findAllById)
+            : userRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return distinctIds.stream()
+            .map(users::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
         log.debug("Fetching user by username: {}", username);
-        return userRepository.findByUsername(username);
+        return userCache != null
+            ? userCache.findByUsername(username, () -> userRepository.findByUsername(username))
+            : userRepository.findByUsername(username);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         log.debug("Fetching user by email: {}", email);
-        return userRepository.findByEmail(email);
+        return userCache != null
+            ? userCache.findByEmail(email, () -> userRepository.findByEmail(email))
+            : userRepository.findByEmail(email);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<User> findByUsernameOrEmail(String usernameOrEmail) {
         log.debug("Fetching user by username or email: {}", usernameOrEmail);
-        return userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
+        return userCache != null
+            ? userCache.findByUsernameOrEmail(usernameOrEmail,
+                () -> userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail))
+            : userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
     }
 
     @Override
@@ -92,54 +160,125 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @CacheEvict(value = "users", key = "#id")
+    @Transactional(readOnly = true)
+    public CursorPage<User> getUsersAfter(String after, int size, boolean includeTotal) {
+        log.debug("Fetching users after cursor, size: {}", size);
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        UserCursor cursor;
+        try {
+            cursor = UserCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+
+        // One extra row tells whether there is a next page without counting
+        List<User> users = userRepository.findAllAfter(cursor, size + 1);
+        boolean hasMore = users.size() > size;
+        List<User> content = hasMore ? users.subList(0, size) : users;
+        UserCursor next = hasMore ? UserCursor.after(content.get(content.size() - 1)) : null;
+        return CursorPage.<User>builder()
+            .content(content)
+            .size(size)
+            .nextCursor(next != null ? next.encode() : null)
+            .totalElements(includeTotal ? userRepository.count() : null)
+            .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(Consumer<? super User> action) {
+        log.info("Exporting all users");
+        return userRepository.streamAll(action);
+    }
+
+    @Override
     public User updateUser(Long id, User userUpdate) {
         log.info("Updating user with id: {}", id);
 
         User existingUser = userRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+        String previousUsername = existingUser.getUsername();
+        String previousEmail = existingUser.getEmail();
 
-        if (userUpdate.getUsername() != null && !userUpdate.getUsername().equals(existingUser.getUsername())) {
-            if (userRepository.existsByUsername(userUpdate.getUsername())) {
-                throw new ValidationException("Username already exists");
-            }
-            existingUser.setUsername(userUpdate.getUsername());
+        // Only the columns that change are written, in one statement; the unique indexes
+        // reject a taken username or email. The role is not one of them, see changeRole
+        User changes = User.builder().role(null).isActive(null).isVerified(null).build();
+        if (userUpdate.getUsername() != null && !userUpdate.getUsername().equals(previousUsername)) {
+            changes.setUsername(userUpdate.getUsername());
         }
-
-        if (userUpdate.getEmail() != null && !userUpdate.getEmail().equals(existingUser.getEmail())) {
-            if (userRepository.existsByEmail(userUpdate.getEmail())) {
-                throw new ValidationException("Email already exists");
-            }
-            existingUser.setEmail(userUpdate.getEmail());
+        if (userUpdate.getEmail() != null && !userUpdate.getEmail().equals(previousEmail)) {
+            changes.setEmail(userUpdate.getEmail());
         }
-
         if (userUpdate.getPassword() != null) {
-            existingUser.setPassword(passwordEncoder.encode(userUpdate.getPassword()));
+            changes.setPassword(passwordEncoder.encode(userUpdate.getPassword()));
         }
+        changes.setFirstName(userUpdate.getFirstName());
+        changes.setLastName(userUpdate.getLastName());
+        changes.setIsActive(userUpdate.getIsActive());
+        changes.setIsVerified(userUpdate.getIsVerified());
 
-        if (userUpdate.getFirstName() != null) {
-            existingUser.setFirstName(userUpdate.getFirstName());
+        boolean updated;
+        try {
+            updated = userRepository.updateFields(id, changes);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateKey(e);
         }
-
-        if (userUpdate.getLastName() != null) {
-            existingUser.setLastName(userUpdate.getLastName());
+        if (!updated) {
+            throw new ResourceNotFoundException("User", "id", id);
         }
+        User savedUser = applyChanges(existingUser, changes);
 
-        if (userUpdate.getIsActive() != null) {
-            existingUser.setIsActive(userUpdate.getIsActive());
+        if (userKeyFilter != null) {
+            userKeyFilter.add(savedUser);
+            userKeyFilter.retire((changes.getUsername() == null ? 0 : 1) + (changes.getEmail() == null ? 0 : 1));
         }
+        onUserChanged(id, userUpdate.getIsActive(), false,
+            previousUsername, previousEmail, savedUser.getUsername(), savedUser.getEmail());
+        log.info("User updated successfully with id: {}", savedUser.getId());
+        return savedUser;
+    }
 
-        if (userUpdate.getIsVerified() != null) {
-            existingUser.setIsVerified(userUpdate.getIsVerified());
-        }
+    /**
+     * Changes a user's role. Tokens issued before the change carry the old role in their
+     * claims, so they stop being accepted and the user has to sign in again.
+     *
+     * <p>Not part of {@link UserService}: the inter-tier APIs carry no role, so roles are
+     * only changed where the users are stored.</p>
+     */
+    public User changeRole(Long id, UserRole role) {
+        log.info("Changing role of user with id: {} to {}", id, role);
 
-        User savedUser = userRepository.save(existingUser);
-        log.info("User updated successfully with id: {}", savedUser.getId());
+        User existingUser = userRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+        if (existingUser.getRole() == role) {
+            return existingUser;
+        }
+        User changes = User.builder().role(role).isActive(null).isVerified(null).build();
+        if (!userRepository.updateFields(id, changes)) {
+            throw new ResourceNotFoundException("User", "id", id);
+        }
+        User savedUser = applyChanges(existingUser, changes);
+        onUserChanged(id, null, true, savedUser.getUsername(), savedUser.getEmail());
+        log.info("User role changed successfully with id: {}", id);
         return savedUser;
     }
 
+    private static User applyChanges(User user, User changes) {
+        if (changes.getUsername() != null) user.setUsername(changes.getUsername());
+        if (changes.getEmail() != null) user.setEmail(changes.getEmail());
+        if (changes.getPassword() != null) user.setPassword(changes.getPassword());
+        if (changes.getFirstName() != null) user.setFirstName(changes.getFirstName());
+        if (changes.getLastName() != null) user.setLastName(changes.getLastName());
+        if (changes.getRole() != null) user.setRole(changes.getRole());
+        if (changes.getIsActive() != null) user.setIsActive(changes.getIsActive());
+        if (changes.getIsVerified() != null) user.setIsVerified(changes.getIsVerified());
+        user.setUpdatedAt(LocalDateTime.now());
+        return user;
+    }
+
     @Override
-    @CacheEvict(value = "users", key = "#id")
     public void deleteUser(Long id) {
         log.info("Deleting user with id: {}", id);
 
@@ -148,18 +287,66 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.deleteById(id);
+        if (userKeyFilter != null) {
+            userKeyFilter.retire(2);
+        }
+        onUserChanged(id, false, false);
         log.info("User deleted successfully with id: {}", id);
     }
 
+    /**
+     * Keeps caches and token authentication in step with account changes: every cache key
+     * of the user and its cached principal are dropped, tokens of disabled or deleted users
+     * stop being accepted, and tokens issued before a role change carry the old role in
+     * their claims, so they are rejected for good.
+     */
+    private void onUserChanged(Long id, Boolean isActive, boolean roleChanged, String... secondaryKeys) {
+        if (userCache != null) {
+            userCache.evict(id, secondaryKeys);
+        }
+        if (principalCache != null) {
+            principalCache.evict(id);
+        }
+        if (userRevocationRegistry != null && isActive != null) {
+            if (isActive) {
+                userRevocationRegistry.restoreUser(id);
+            } else {
+                userRevocationRegistry.revokeUser(id);
+            }
+        }
+        if (userRevocationRegistry != null && roleChanged) {
+            userRevocationRegistry.requireReissue(id);
+        }
+    }
+
+    /**
+     * Reports a username or email taken by another user as the validation error the
+     * clients expect rather than a constraint violation. The key is told from the
+     * constraint the database names in its error (see {@link UserKeyConflict}) instead of
+     * by another query, which PostgreSQL would refuse in the failed transaction anyway.
+     * Other integrity violations are passed on unchanged.
+     */
+    private static RuntimeException duplicateKey(DataIntegrityViolationException e) {
+        return UserKeyConflict.of(e)
+            .<RuntimeException>map(conflict -> new ValidationException(conflict.message(), e))
+            .orElse(e);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
+        if (userKeyFilter != null && !userKeyFilter.mightContainUsername(username)) {
+            return false;
+        }
         return userRepository.existsByUsername(username);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
+        if (userKeyFilter != null && !userKeyFilter.mightContainEmail(email)) {
+            return false;
+        }
         return userRepository.existsByEmail(email);
     }
 }
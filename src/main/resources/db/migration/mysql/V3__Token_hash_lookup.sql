@@ -0,0 +1,19 @@
+-- Look up OAuth tokens by a fixed-width SHA-256 digest instead of the raw token.
+-- Replaces the 191-char prefix indexes on access_token/refresh_token with
+-- 32-byte indexes on the digests; the raw token columns are kept but no longer indexed.
+
+ALTER TABLE oauth_tokens
+    ADD COLUMN access_token_hash BINARY(32) NULL AFTER refresh_token,
+    ADD COLUMN refresh_token_hash BINARY(32) NULL AFTER access_token_hash;
+
+UPDATE oauth_tokens
+SET access_token_hash = UNHEX(SHA2(access_token, 256)),
+    refresh_token_hash = UNHEX(SHA2(refresh_token, 256));
+
+ALTER TABLE oauth_tokens
+    MODIFY COLUMN access_token_hash BINARY(32) NOT NULL,
+    MODIFY COLUMN refresh_token_hash BINARY(32) NOT NULL,
+    DROP INDEX idx_oauth_tokens_access_token,
+    DROP INDEX idx_oauth_tokens_refresh_token,
+    ADD INDEX idx_oauth_tokens_access_token_hash (access_token_hash),
+    ADD INDEX idx_oauth_tokens_refresh_token_hash (refresh_token_hash);
@@ -0,0 +1,6 @@
+-- Keyset pagination over users: ORDER BY created_at DESC, id DESC with a
+-- (created_at, id) cursor reads straight from this index instead of
+-- sorting the table and skipping OFFSET rows.
+
+ALTER TABLE users
+    ADD INDEX idx_users_created_at_id (created_at, id);
@@ -0,0 +1,12 @@
+-- Keyset pagination over users compares (created_at, id) against the cursor,
+-- which never matches a NULL created_at: such rows were silently skipped.
+-- Backfill them from updated_at (or now) and forbid NULLs from here on.
+-- updated_at is assigned to itself so ON UPDATE does not bump it.
+
+UPDATE users
+SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP),
+    updated_at = updated_at
+WHERE created_at IS NULL;
+
+ALTER TABLE users
+    MODIFY COLUMN created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
@@ -0,0 +1,23 @@
+-- Look up OAuth tokens by a fixed-width SHA-256 digest instead of the raw token.
+-- Replaces the indexes on access_token/refresh_token with indexes on the 32-byte
+-- digests; the raw token columns are kept but no longer indexed.
+
+ALTER TABLE oauth_tokens
+    ADD COLUMN IF NOT EXISTS access_token_hash BYTEA,
+    ADD COLUMN IF NOT EXISTS refresh_token_hash BYTEA;
+
+UPDATE oauth_tokens
+SET access_token_hash = sha256(convert_to(access_token, 'UTF8')),
+    refresh_token_hash = sha256(convert_to(refresh_token, 'UTF8'));
+
+ALTER TABLE oauth_tokens
+    ALTER COLUMN access_token_hash SET NOT NULL,
+    ALTER COLUMN refresh_token_hash SET NOT NULL,
+    ADD CONSTRAINT chk_oauth_tokens_access_token_hash_len CHECK (octet_length(access_token_hash) = 32),
+    ADD CONSTRAINT chk_oauth_tokens_refresh_token_hash_len CHECK (octet_length(refresh_token_hash) = 32);
+
+DROP INDEX IF EXISTS idx_oauth_tokens_access_token;
+DROP INDEX IF EXISTS idx_oauth_tokens_refresh_token;
+
+CREATE INDEX IF NOT EXISTS idx_oauth_tokens_access_token_hash ON oauth_tokens(access_token_hash);
+CREATE INDEX IF NOT EXISTS idx_oauth_tokens_refresh_token_hash ON oauth_tokens(refresh_token_hash);
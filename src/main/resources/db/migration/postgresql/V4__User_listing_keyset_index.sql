@@ -0,0 +1,5 @@
+-- Keyset pagination over users: ORDER BY created_at DESC, id DESC with a
+-- (created_at, id) cursor reads straight from this index instead of
+-- sorting the table and skipping OFFSET rows.
+
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users(created_at, id);
@@ -0,0 +1,15 @@
+-- Keyset pagination over users compares (created_at, id) against the cursor,
+-- which never matches a NULL created_at: such rows were silently skipped.
+-- Backfill them from updated_at (or now) and forbid NULLs from here on.
+-- The updated_at trigger is paused so the backfill does not bump it.
+
+ALTER TABLE users DISABLE TRIGGER update_users_updated_at;
+
+UPDATE users
+SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP)
+WHERE created_at IS NULL;
+
+ALTER TABLE users ENABLE TRIGGER update_users_updated_at;
+
+ALTER TABLE users
+    ALTER COLUMN created_at SET NOT NULL;
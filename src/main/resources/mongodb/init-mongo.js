@@ -38,13 +38,14 @@ db.users.createIndex({ email: 1 }, { unique: true });
 db.users.createIndex({ role: 1 });
 db.users.createIndex({ is_active: 1 });
 db.users.createIndex({ legacy_id: 1 }, { unique: true, sparse: true });
+db.users.createIndex({ created_at: -1, legacy_id: -1 }, { name: 'created_at_legacy_id' });
 
 // Create oauth_tokens collection
 db.createCollection('oauth_tokens');
 
 // Create indexes for oauth_tokens collection
-db.oauth_tokens.createIndex({ access_token: 1 });
-db.oauth_tokens.createIndex({ refresh_token: 1 });
+db.oauth_tokens.createIndex({ access_token_hash: 1 });
+db.oauth_tokens.createIndex({ refresh_token_hash: 1 });
 db.oauth_tokens.createIndex({ user_legacy_id: 1 });
 db.oauth_tokens.createIndex({ expires_at: 1 });
 db.oauth_tokens.createIndex({ is_revoked: 1 });
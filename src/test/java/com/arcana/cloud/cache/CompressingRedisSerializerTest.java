@@ -0,0 +1,104 @@
+package com.arcana.cloud.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressingRedisSerializerTest {
+
+    private final RedisSerializer<Object> strings = new RedisSerializer<>() {
+        @Override
+        public byte[] serialize(Object value) {
+            return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    private final CompressingRedisSerializer serializer = new CompressingRedisSerializer(strings, 64);
+
+    @Test
+    void testSmallValue_StoredPlain() {
+        byte[] bytes = serializer.serialize("short");
+
+        assertEquals(CompressingRedisSerializer.PLAIN, bytes[0]);
+        assertEquals("short", serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testLargeValue_DeflatedAndRestored() {
+        String value = "alice@example.com,".repeat(100);
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertEquals(CompressingRedisSerializer.DEFLATED, bytes[0]);
+        assertTrue(bytes.length < value.length() / 4);
+        assertEquals(value, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testIncompressibleValue_StoredPlain() {
+        byte[] value = new byte[200];
+        new Random(7).nextBytes(value);
+        CompressingRedisSerializer raw = new CompressingRedisSerializer(new RedisSerializer<>() {
+            @Override
+            public byte[] serialize(Object bytes) {
+                return (byte[]) bytes;
+            }
+
+            @Override
+            public Object deserialize(byte[] bytes) {
+                return bytes;
+            }
+        }, 64);
+
+        byte[] bytes = raw.serialize(value);
+
+        assertEquals(CompressingRedisSerializer.PLAIN, bytes[0]);
+        assertArrayEquals(value, (byte[]) raw.deserialize(bytes));
+    }
+
+    @Test
+    void testZeroThreshold_StillWritesMarker() {
+        CompressingRedisSerializer uncompressed = new CompressingRedisSerializer(strings, 0);
+        String value = "alice@example.com,".repeat(100);
+
+        byte[] bytes = uncompressed.serialize(value);
+
+        assertEquals(CompressingRedisSerializer.PLAIN, bytes[0]);
+        assertEquals(value, serializer.deserialize(bytes));
+        assertEquals(value, uncompressed.deserialize(serializer.serialize(value)));
+    }
+
+    @Test
+    void testForgedLength_Rejected() {
+        byte[] bytes = serializer.serialize("alice@example.com,".repeat(100));
+
+        ByteBuffer.wrap(bytes).putInt(1, Integer.MAX_VALUE);
+        assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+
+        ByteBuffer.wrap(bytes).putInt(1, 10);
+        assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+
+        assertThrows(SerializationException.class,
+            () -> serializer.deserialize(new byte[] {CompressingRedisSerializer.DEFLATED, 0}));
+    }
+
+    @Test
+    void testEntryWithoutMarker_ReadsAsMiss() {
+        assertNull(serializer.deserialize("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+    }
+}
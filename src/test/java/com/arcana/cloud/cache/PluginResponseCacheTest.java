@@ -0,0 +1,148 @@
+package com.arcana.cloud.cache;
+
+import com.arcana.cloud.cache.PluginResponseCache.CachedResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginResponseCacheTest {
+
+    private static final String KEY = "http://service:8081/api/v1/plugins/dashboard/stats";
+
+    private PluginResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PluginResponseCache();
+        ReflectionTestUtils.setField(cache, "plugins", new String[] {"dashboard"});
+        ReflectionTestUtils.setField(cache, "maxBytes", 10_000L);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", 100);
+        ReflectionTestUtils.setField(cache, "retainSeconds", 600L);
+        ReflectionTestUtils.setField(cache, "coalesceTimeoutMs", 1000L);
+        cache.init();
+    }
+
+    @Test
+    void testIsEnabled_OnlyListedPlugins() {
+        assertTrue(cache.isEnabled("dashboard"));
+        assertFalse(cache.isEnabled("audit"));
+    }
+
+    @Test
+    void testToEntry_FollowsCacheControl() {
+        HttpHeaders request = new HttpHeaders();
+
+        CachedResponse fresh = cache.toEntry(request, 200, response("max-age=30", null), new byte[10]);
+        assertNotNull(fresh);
+        assertTrue(fresh.isFresh());
+        assertEquals(TimeUnit.SECONDS.toNanos(30), fresh.freshForNanos());
+
+        CachedResponse revalidateEachTime = cache.toEntry(request, 200, response("no-cache", "\"v1\""), new byte[10]);
+        assertNotNull(revalidateEachTime);
+        assertFalse(revalidateEachTime.isFresh());
+
+        assertNull(cache.toEntry(request, 200, response("no-store", "\"v1\""), new byte[10]));
+        assertNull(cache.toEntry(request, 200, response("private, max-age=30", null), new byte[10]));
+        assertNull(cache.toEntry(request, 200, response(null, null), new byte[10]));
+        assertNull(cache.toEntry(request, 404, response("max-age=30", null), new byte[10]));
+        assertNull(cache.toEntry(request, 200, response("max-age=30", null), new byte[101]));
+    }
+
+    @Test
+    void testToEntry_CredentialedRequestsNeedExplicitPermission() {
+        HttpHeaders request = new HttpHeaders();
+        request.setBearerAuth("token");
+
+        assertNull(cache.toEntry(request, 200, response("max-age=30", null), new byte[10]));
+        assertNotNull(cache.toEntry(request, 200, response("public, max-age=30", null), new byte[10]));
+        assertNotNull(cache.toEntry(request, 200, response("s-maxage=30", null), new byte[10]));
+    }
+
+    @Test
+    void testGet_MatchesVaryAndIfNoneMatch() {
+        HttpHeaders english = new HttpHeaders();
+        english.set(HttpHeaders.ACCEPT_LANGUAGE, "en");
+        HttpHeaders responseHeaders = response("max-age=30", "W/\"v1\"");
+        responseHeaders.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE);
+        cache.complete(cache.begin(KEY, english), cache.toEntry(english, 200, responseHeaders, new byte[10]));
+
+        CachedResponse cached = cache.get(KEY, english);
+        assertNotNull(cached);
+        HttpHeaders german = new HttpHeaders();
+        german.set(HttpHeaders.ACCEPT_LANGUAGE, "de");
+        assertNull(cache.get(KEY, german));
+
+        PluginResponseCache.Flight germanFetch = cache.begin(KEY, german);
+        assertTrue(germanFetch.isLeader());
+        CachedResponse germanEntry = cache.toEntry(german, 200, responseHeaders, new byte[10]);
+        cache.complete(germanFetch, germanEntry);
+        assertSame(germanEntry, cache.get(KEY, german));
+        assertSame(cached, cache.get(KEY, english));
+
+        english.setIfNoneMatch("\"v1\"");
+        assertTrue(cached.notModifiedFor(english));
+        english.setIfNoneMatch("\"v2\"");
+        assertFalse(cached.notModifiedFor(english));
+    }
+
+    @Test
+    void testRevalidated_TakesNewDirectivesKeepsBody() {
+        byte[] body = {1, 2, 3};
+        CachedResponse stale = cache.toEntry(new HttpHeaders(), 200, response("no-cache", "\"v1\""), body);
+
+        CachedResponse refreshed = cache.revalidated(stale, response("max-age=30", "\"v1\""));
+
+        assertTrue(refreshed.isFresh());
+        assertSame(body, refreshed.body());
+    }
+
+    @Test
+    void testBegin_CoalescesConcurrentMisses() throws Exception {
+        PluginResponseCache.Flight leader = cache.begin(KEY, new HttpHeaders());
+        PluginResponseCache.Flight follower = cache.begin(KEY, new HttpHeaders());
+        assertTrue(leader.isLeader());
+        assertFalse(follower.isLeader());
+
+        CompletableFuture<CachedResponse> waiting = CompletableFuture.supplyAsync(follower::await);
+        CachedResponse entry = cache.toEntry(new HttpHeaders(), 200, response("max-age=30", null), new byte[10]);
+        cache.complete(leader, entry);
+
+        assertSame(entry, waiting.get(5, TimeUnit.SECONDS));
+        assertSame(entry, cache.get(KEY, new HttpHeaders()));
+        assertTrue(cache.begin(KEY, new HttpHeaders()).isLeader());
+    }
+
+    @Test
+    void testComplete_NothingToStoreKeepsEntry() {
+        CachedResponse entry = cache.toEntry(new HttpHeaders(), 200, response("no-cache", "\"v1\""), new byte[10]);
+        cache.complete(cache.begin(KEY, new HttpHeaders()), entry);
+
+        PluginResponseCache.Flight refetch = cache.begin(KEY, new HttpHeaders());
+        cache.complete(refetch, null);
+
+        assertSame(entry, cache.get(KEY, new HttpHeaders()));
+        assertNull(refetch.await());
+    }
+
+    private static HttpHeaders response(String cacheControl, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        if (cacheControl != null) {
+            headers.setCacheControl(cacheControl);
+        }
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,129 @@
+package com.arcana.cloud.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager("users");
+        cacheManager = new TwoLevelCacheManager(remoteCacheManager, redisTemplate, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void testGet_RepeatReadsServedFromLocal() {
+        Cache remote = remoteCacheManager.getCache("users");
+        remote.put(1L, "alice");
+        Cache cache = cacheManager.getCache("users");
+
+        assertEquals("alice", cache.get(1L).get());
+        remote.evict(1L);
+
+        assertEquals("alice", cache.get(1L).get());
+    }
+
+    @Test
+    void testGet_MissInBothLevels() {
+        assertNull(cacheManager.getCache("users").get(1L));
+    }
+
+    @Test
+    void testGetWithLoader_LoadsOnceAndWritesThrough() {
+        Cache cache = cacheManager.getCache("users");
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("alice", cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return "alice";
+        }));
+        assertEquals("alice", cache.get(1L, () -> "loaded-again"));
+
+        assertEquals(1, loads.get());
+        assertEquals("alice", remoteCacheManager.getCache("users").get(1L).get());
+    }
+
+    @Test
+    void testEvict_RemovesBothLevelsAndBroadcasts() {
+        Cache cache = cacheManager.getCache("users");
+        cache.put(1L, "alice");
+
+        cache.evict(1L);
+
+        assertNull(cache.get(1L));
+        assertNull(remoteCacheManager.getCache("users").get(1L));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(2))
+            .convertAndSend(eq(TwoLevelCacheManager.CHANNEL), message.capture());
+        assertEquals("E", message.getValue().split("\\|")[0]);
+        assertEquals("users", message.getValue().split("\\|")[2]);
+        assertEquals("1", message.getValue().split("\\|")[3]);
+    }
+
+    @Test
+    void testOnMessage_FromOtherNodeDropsLocalCopyOnly() {
+        Cache cache = cacheManager.getCache("users");
+        cache.put(1L, "alice");
+
+        cacheManager.onMessage(message("E|other-node|users|1"), null);
+
+        assertNotNull(remoteCacheManager.getCache("users").get(1L));
+        remoteCacheManager.getCache("users").put(1L, "alice-updated");
+        assertEquals("alice-updated", cache.get(1L).get());
+    }
+
+    @Test
+    void testOnMessage_IgnoresOwnMessages() {
+        Cache cache = cacheManager.getCache("users");
+        cache.put(1L, "alice");
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(TwoLevelCacheManager.CHANNEL), published.capture());
+        remoteCacheManager.getCache("users").evict(1L);
+
+        cacheManager.onMessage(message(published.getValue()), null);
+
+        assertEquals("alice", cache.get(1L).get());
+    }
+
+    @Test
+    void testOnMessage_ClearFromOtherNode() {
+        Cache cache = cacheManager.getCache("users");
+        cache.put(1L, "alice");
+        remoteCacheManager.getCache("users").clear();
+
+        cacheManager.onMessage(message("C|other-node|users"), null);
+
+        assertNull(cache.get(1L));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(TwoLevelCacheManager.CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8));
+    }
+}
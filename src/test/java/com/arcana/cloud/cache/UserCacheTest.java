@@ -0,0 +1,230 @@
+package com.arcana.cloud.cache;
+
+import com.arcana.cloud.entity.User;
+import com.arcana.cloud.entity.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserCacheTest {
+
+    private UserCache userCache;
+    private User user;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache();
+        ReflectionTestUtils.setField(userCache, "cacheManager", new ConcurrentMapCacheManager());
+        user = User.builder()
+            .id(1L)
+            .username("alice")
+            .email("alice@example.com")
+            .role(UserRole.USER)
+            .build();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testFindByUsername_SecondLookupServedFromCache() {
+        assertEquals(Optional.of(user), userCache.findByUsername("alice", this::load));
+        assertEquals(Optional.of(user), userCache.findByUsername("alice", this::load));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testCachedUser_CallersGetTheirOwnCopy() {
+        userCache.findById(1L, id -> load()).orElseThrow().setPassword("changed-by-first-caller");
+        user.setPassword("changed-by-loader");
+
+        User cached = userCache.findById(1L, id -> load()).orElseThrow();
+
+        assertEquals(1, loads.get());
+        assertNull(cached.getPassword());
+        cached.setPassword("changed-by-second-caller");
+        assertNull(userCache.findById(1L, id -> load()).orElseThrow().getPassword());
+    }
+
+    @Test
+    void testSecondaryLookups_ShareTheIdEntry() {
+        userCache.findByUsername("alice", this::load);
+
+        assertEquals(Optional.of(user), userCache.findByEmail("alice@example.com", this::load));
+        assertEquals(Optional.of(user), userCache.findByUsernameOrEmail("alice@example.com", this::load));
+        assertEquals(Optional.of(user), userCache.findById(1L, id -> load()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testEvictById_InvalidatesEverySecondaryKey() {
+        userCache.findByUsername("alice", this::load);
+
+        userCache.evict(1L);
+        userCache.findByUsername("alice", this::load);
+        userCache.evict(1L);
+        userCache.findByEmail("alice@example.com", this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testRename_OldUsernameNoLongerResolves() {
+        userCache.findByUsername("alice", this::load);
+        User renamed = User.builder().id(1L).username("alice2").email("alice@example.com").build();
+        userCache.put(renamed);
+
+        // The old index entry still points at id 1, but that entry is no longer "alice"
+        Optional<User> result = userCache.findByUsername("alice", Optional::empty);
+
+        assertTrue(result.isEmpty());
+        assertEquals(Optional.of(renamed), userCache.findByUsername("alice2", this::load));
+    }
+
+    @Test
+    void testWithoutCacheManager_AlwaysLoads() {
+        UserCache uncached = new UserCache();
+
+        uncached.findByUsername("alice", this::load);
+        uncached.findByUsername("alice", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testFindAllById_OnlyMissingIdsGoToTheLoader() {
+        User bob = User.builder().id(2L).username("bob").email("bob@example.com").build();
+        userCache.put(user);
+        List<Collection<Long>> batches = new ArrayList<>();
+
+        Map<Long, User> found = userCache.findAllById(List.of(1L, 2L, 3L), ids -> {
+            batches.add(List.copyOf(ids));
+            return List.of(bob);
+        });
+
+        assertEquals(Map.of(1L, user, 2L, bob), found);
+        assertEquals(List.of(List.of(2L, 3L)), batches);
+        assertEquals(Optional.of(bob), userCache.findById(2L, id -> load()));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testFindAllById_AllCachedSkipsTheLoader() {
+        userCache.put(user);
+
+        Map<Long, User> found = userCache.findAllById(List.of(1L), ids -> {
+            throw new AssertionError("should not load");
+        });
+
+        assertEquals(Map.of(1L, user), found);
+    }
+
+    @Test
+    void testConcurrentMisses_ShareOneLoad() throws Exception {
+        int callers = 8;
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            Supplier<Optional<User>> slowLoad = () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Optional.of(user);
+            };
+            List<Future<Optional<User>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> userCache.findById(1L, id -> slowLoad.get())));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> userCache.findById(1L, id -> slowLoad.get())));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Optional<User>> result : results) {
+                assertEquals(Optional.of(user), result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testEvictDuringLoad_LoadedRowIsNotCached() {
+        userCache.findById(1L, id -> {
+            // An update commits while this reader still holds the old row
+            userCache.evict(1L, "alice", "alice@example.com");
+            return load();
+        });
+
+        userCache.findById(1L, id -> load());
+        userCache.evict(1L);
+        userCache.findAllById(List.of(1L), ids -> {
+            userCache.evict(1L);
+            return List.of(load().orElseThrow());
+        });
+        userCache.findById(1L, id -> load());
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testFailedLoad_PropagatesAndDoesNotStick() {
+        assertThrows(IllegalStateException.class, () -> userCache.findById(1L, id -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        assertEquals(Optional.of(user), userCache.findById(1L, id -> load()));
+    }
+
+    @Test
+    void testEarlyRefresh_ReloadsEntryAtExpiry() {
+        ReflectionTestUtils.setField(userCache, "usersTtlMinutes", 0L);
+        userCache.findById(1L, id -> load());
+
+        userCache.findById(1L, id -> load());
+        userCache.findByUsername("alice", this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testEarlyRefresh_DisabledWithZeroBeta() {
+        ReflectionTestUtils.setField(userCache, "usersTtlMinutes", 0L);
+        ReflectionTestUtils.setField(userCache, "earlyRefreshBeta", 0.0);
+        userCache.findById(1L, id -> load());
+
+        userCache.findById(1L, id -> load());
+
+        assertEquals(1, loads.get());
+    }
+
+    private Optional<User> load() {
+        loads.incrementAndGet();
+        return Optional.of(user);
+    }
+}
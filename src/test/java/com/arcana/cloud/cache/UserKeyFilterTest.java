@@ -0,0 +1,164 @@
+package com.arcana.cloud.cache;
+
+import com.arcana.cloud.dao.UserCursor;
+import com.arcana.cloud.entity.User;
+import com.arcana.cloud.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserKeyFilterTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private UserKeyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = newFilter();
+        ReflectionTestUtils.setField(filter, "userRepository", userRepository);
+        ReflectionTestUtils.setField(filter, "redisTemplate", redisTemplate);
+    }
+
+    @Test
+    void testBeforeScan_EveryKeyIsMaybe() {
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContainUsername("anyone"));
+        assertTrue(filter.mightContainEmail("anyone@example.com"));
+    }
+
+    @Test
+    void testRebuild_ScansAllPages() {
+        when(userRepository.findAllAfter(null, 2)).thenReturn(List.of(user("alice", 3L), user("bob", 2L)));
+        when(userRepository.findAllAfter(new UserCursor(CREATED_AT, 2L), 2)).thenReturn(List.of(user("carol", 1L)));
+
+        filter.rebuild();
+
+        assertTrue(filter.isReady());
+        verify(userRepository, times(2)).findAllAfter(any(), eq(2));
+        assertTrue(filter.mightContainUsername("alice"));
+        assertTrue(filter.mightContainUsername("carol"));
+        assertTrue(filter.mightContainEmail("bob@example.com"));
+        assertFalse(filter.mightContainUsername("mallory"));
+        assertFalse(filter.mightContainEmail("mallory@example.com"));
+    }
+
+    @Test
+    void testAdd_VisibleAndFoldedLikeTheCollation() {
+        scanEmpty();
+
+        filter.add(user("José"));
+
+        assertTrue(filter.mightContainUsername("José"));
+        assertTrue(filter.mightContainUsername("JOSE"));
+        assertTrue(filter.mightContainEmail("josé@example.com"));
+        assertFalse(filter.mightContainEmail("José"));
+    }
+
+    @Test
+    void testAdd_PublishedHashesReachOtherNodes() {
+        scanEmpty();
+        filter.add(user("alice"));
+        ArgumentCaptor<String> messages = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(2)).convertAndSend(eq(UserKeyFilter.CHANNEL), messages.capture());
+
+        UserKeyFilter otherNode = newFilter();
+        ReflectionTestUtils.setField(otherNode, "userRepository", userRepository);
+        otherNode.rebuild();
+        messages.getAllValues().forEach(body -> otherNode.onMessage(message(body), null));
+
+        assertTrue(otherNode.mightContainUsername("alice"));
+        assertTrue(otherNode.mightContainEmail("alice@example.com"));
+        assertFalse(messages.getValue().contains("alice"));
+    }
+
+    @Test
+    void testFailedScan_StaysMaybe() {
+        when(userRepository.findAllAfter(any(), anyInt())).thenThrow(new IllegalStateException("db down"));
+
+        filter.rebuild();
+
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContainUsername("mallory"));
+    }
+
+    @Test
+    void testRebuild_ReplaysKeysAddedBeforeTheirCommit() {
+        scanEmpty();
+        // Added before its transaction commits, so the next scan does not see it yet
+        filter.add(user("dave"));
+
+        filter.rebuild();
+
+        assertTrue(filter.mightContainUsername("dave"));
+        assertTrue(filter.mightContainEmail("dave@example.com"));
+    }
+
+    @Test
+    void testRebuild_UserWithoutCreationTimeFailsTheScan() {
+        when(userRepository.findAllAfter(null, 2)).thenReturn(List.of(user("alice", 3L),
+            User.builder().id(2L).username("legacy").email("legacy@example.com").build()));
+
+        filter.rebuild();
+
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContainUsername("mallory"));
+    }
+
+    private void scanEmpty() {
+        when(userRepository.findAllAfter(any(), anyInt())).thenReturn(List.of());
+        filter.rebuild();
+    }
+
+    private static UserKeyFilter newFilter() {
+        UserKeyFilter keyFilter = new UserKeyFilter();
+        ReflectionTestUtils.setField(keyFilter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(keyFilter, "scanBatchSize", 2);
+        keyFilter.init();
+        return keyFilter;
+    }
+
+    private static User user(String username) {
+        return user(username, null);
+    }
+
+    private static User user(String username, Long id) {
+        return User.builder()
+            .id(id)
+            .createdAt(CREATED_AT)
+            .username(username)
+            .email(username.toLowerCase() + "@example.com")
+            .build();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(UserKeyFilter.CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,68 @@
+package com.arcana.cloud.cache;
+
+import com.arcana.cloud.entity.User;
+import com.arcana.cloud.entity.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserProtobufRedisSerializerTest {
+
+    private final RedisSerializer<Object> json = new GenericJacksonJsonRedisSerializer(JsonMapper.builder().build());
+    private final UserProtobufRedisSerializer serializer = new UserProtobufRedisSerializer(json);
+
+    @Test
+    void testUser_RoundTripsAndIsSmallerThanJson() {
+        User user = User.builder()
+            .id(42L)
+            .username("alice")
+            .email("alice@example.com")
+            .password("$2a$12$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0")
+            .firstName("Alice")
+            .role(UserRole.ADMIN)
+            .isActive(true)
+            .isVerified(false)
+            .createdAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123_456_789))
+            .build();
+
+        byte[] bytes = serializer.serialize(user);
+
+        assertEquals(UserProtobufRedisSerializer.FORMAT_USER_V1, bytes[0]);
+        assertEquals(user, serializer.deserialize(bytes));
+        assertTrue(bytes.length < json.serialize(user).length / 2);
+    }
+
+    @Test
+    void testUser_NullFieldsStayNull() {
+        User user = User.builder().id(1L).username("bob").email("bob@example.com").build();
+        user.setIsActive(null);
+
+        User read = (User) serializer.deserialize(serializer.serialize(user));
+
+        assertNull(read.getFirstName());
+        assertNull(read.getPassword());
+        assertNull(read.getIsActive());
+        assertNull(read.getCreatedAt());
+    }
+
+    @Test
+    void testOtherValues_UseFallback() {
+        byte[] bytes = serializer.serialize("42");
+
+        assertEquals(UserProtobufRedisSerializer.FORMAT_FALLBACK, bytes[0]);
+        assertEquals("42", serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testUnknownFormat_ReadsAsMiss() {
+        assertNull(serializer.deserialize("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,242 @@
+package com.arcana.cloud.controller;
+
+import com.arcana.cloud.cache.PluginResponseCache;
+import com.arcana.cloud.config.ServiceConfiguration;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("StreamingPluginProxyController")
+class StreamingPluginProxyControllerTest {
+
+    private MockWebServer serviceLayer;
+    private PluginResponseCache cache;
+    private StreamingPluginProxyController controller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serviceLayer = new MockWebServer();
+        serviceLayer.start();
+        String url = serviceLayer.url("/").toString();
+
+        cache = new PluginResponseCache();
+        ReflectionTestUtils.setField(cache, "plugins", new String[] {"dashboard"});
+        ReflectionTestUtils.setField(cache, "maxBytes", 1_000_000L);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", 10_000);
+        ReflectionTestUtils.setField(cache, "retainSeconds", 600L);
+        ReflectionTestUtils.setField(cache, "coalesceTimeoutMs", 5000L);
+        cache.init();
+
+        controller = new StreamingPluginProxyController(new JdkClientHttpRequestFactory(
+            HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()), cache);
+        ReflectionTestUtils.setField(controller, "serviceLayerUrl", url);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        serviceLayer.shutdown();
+    }
+
+    @Test
+    @DisplayName("request and response bytes pass through unchanged, with Content-Length")
+    void post_streamsBytes() throws Exception {
+        byte[] payload = new byte[100_000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        serviceLayer.enqueue(new MockResponse()
+            .setResponseCode(201)
+            .setHeader("Content-Type", "application/octet-stream")
+            .setBody(new okio.Buffer().write(payload)));
+
+        MockHttpServletRequest request = request("POST", "/api/v1/proxy/plugins/audit/export");
+        request.setQueryString("format=raw");
+        request.setContent(payload);
+        request.setContentType("application/octet-stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.proxy("audit", request, response);
+
+        RecordedRequest proxied = serviceLayer.takeRequest(5, TimeUnit.SECONDS);
+        assertEquals("/api/v1/plugins/audit/export?format=raw", proxied.getPath());
+        assertEquals(String.valueOf(payload.length), proxied.getHeader("Content-Length"));
+        assertArrayEquals(payload, proxied.getBody().readByteArray());
+        assertEquals("127.0.0.1", proxied.getHeader("X-Forwarded-For"));
+
+        assertEquals(201, response.getStatus());
+        assertEquals(payload.length, response.getContentLength());
+        assertArrayEquals(payload, response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("over the configured HTTP/2 client, uploads stream and slow downloads outlast the read timeout")
+    void http2Client_noTotalTimeout() throws Exception {
+        ServiceConfiguration configuration = new ServiceConfiguration();
+        ReflectionTestUtils.setField(configuration, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(configuration, "readTimeoutMs", 200);
+        HttpClient http2 = configuration.serviceHttpClient();
+        StreamingPluginProxyController http2Controller = new StreamingPluginProxyController(
+            configuration.pluginProxyRequestFactory(http2), cache);
+        ReflectionTestUtils.setField(http2Controller, "serviceLayerUrl", serviceLayer.url("/").toString());
+
+        byte[] payload = new byte[64_000];
+        serviceLayer.enqueue(new MockResponse()
+            .setHeader("Content-Type", "application/octet-stream")
+            .setBody(new okio.Buffer().write(payload))
+            .throttleBody(16_000, 200, TimeUnit.MILLISECONDS));
+
+        MockHttpServletRequest request = request("POST", "/api/v1/proxy/plugins/audit/export");
+        request.setContent(payload);
+        request.setContentType("application/octet-stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        http2Controller.proxy("audit", request, response);
+
+        assertArrayEquals(payload, serviceLayer.takeRequest(5, TimeUnit.SECONDS).getBody().readByteArray());
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(payload, response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("error statuses from the plugin are passed on, hop-by-hop headers are not")
+    void errorStatus_passedThrough() throws Exception {
+        serviceLayer.enqueue(new MockResponse()
+            .setResponseCode(404)
+            .setHeader("X-Plugin", "audit")
+            .setChunkedBody("{\"error\":\"not found\"}", 4));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.proxy("audit", request("GET", "/api/v1/proxy/plugins/audit/missing"), response);
+
+        assertEquals(404, response.getStatus());
+        assertEquals("audit", response.getHeader("X-Plugin"));
+        assertNull(response.getHeader("Transfer-Encoding"));
+        assertEquals("{\"error\":\"not found\"}", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("an unreachable service layer gives 502")
+    void unreachable_badGateway() throws Exception {
+        serviceLayer.shutdown();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.proxy("audit", request("GET", "/api/v1/proxy/plugins/audit/status"), response);
+
+        assertEquals(HttpStatus.BAD_GATEWAY.value(), response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"success\":false"));
+    }
+
+    @Test
+    @DisplayName("a failing client write stops the copy")
+    void clientGone_copyStops() {
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () ->
+            StreamingPluginProxyController.copy(new ByteArrayInputStream(new byte[10]), disconnected));
+    }
+
+    @Test
+    @DisplayName("cached plugins answer fresh GETs from the cache, with 304 for a matching If-None-Match")
+    void cachedPlugin_freshHit() throws Exception {
+        serviceLayer.enqueue(new MockResponse()
+            .setHeader("Cache-Control", "max-age=60")
+            .setHeader("ETag", "\"v1\"")
+            .setBody("{\"widgets\":3}"));
+
+        MockHttpServletResponse miss = new MockHttpServletResponse();
+        controller.proxy("dashboard", request("GET", "/api/v1/proxy/plugins/dashboard/stats"), miss);
+        assertEquals("MISS", miss.getHeader("X-Cache"));
+        assertEquals("{\"widgets\":3}", miss.getContentAsString());
+
+        MockHttpServletResponse hit = new MockHttpServletResponse();
+        controller.proxy("dashboard", request("GET", "/api/v1/proxy/plugins/dashboard/stats"), hit);
+        assertEquals("HIT", hit.getHeader("X-Cache"));
+        assertEquals("{\"widgets\":3}", hit.getContentAsString());
+
+        MockHttpServletRequest conditional = request("GET", "/api/v1/proxy/plugins/dashboard/stats");
+        conditional.addHeader("If-None-Match", "\"v1\"");
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        controller.proxy("dashboard", conditional, notModified);
+        assertEquals(304, notModified.getStatus());
+        assertEquals("\"v1\"", notModified.getHeader("ETag"));
+        assertEquals(0, notModified.getContentAsByteArray().length);
+
+        assertEquals(1, serviceLayer.getRequestCount());
+    }
+
+    @Test
+    @DisplayName("stale entries are revalidated upstream with If-None-Match")
+    void cachedPlugin_revalidates() throws Exception {
+        serviceLayer.enqueue(new MockResponse()
+            .setHeader("Cache-Control", "no-cache")
+            .setHeader("ETag", "\"v1\"")
+            .setBody("{\"widgets\":3}"));
+        serviceLayer.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+
+        controller.proxy("dashboard", request("GET", "/api/v1/proxy/plugins/dashboard/stats"),
+            new MockHttpServletResponse());
+        MockHttpServletResponse revalidated = new MockHttpServletResponse();
+        controller.proxy("dashboard", request("GET", "/api/v1/proxy/plugins/dashboard/stats"), revalidated);
+
+        serviceLayer.takeRequest(5, TimeUnit.SECONDS);
+        assertEquals("\"v1\"", serviceLayer.takeRequest(5, TimeUnit.SECONDS).getHeader("If-None-Match"));
+        assertEquals(200, revalidated.getStatus());
+        assertEquals("REVALIDATED", revalidated.getHeader("X-Cache"));
+        assertEquals("{\"widgets\":3}", revalidated.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("plugins not opted in, and no-store responses, always go upstream")
+    void uncached_goesUpstream() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            serviceLayer.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=60").setBody("a"));
+        }
+        for (int i = 0; i < 2; i++) {
+            serviceLayer.enqueue(new MockResponse().setHeader("Cache-Control", "no-store").setBody("b"));
+        }
+
+        for (int i = 0; i < 2; i++) {
+            controller.proxy("audit", request("GET", "/api/v1/proxy/plugins/audit/stats"),
+                new MockHttpServletResponse());
+        }
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            controller.proxy("dashboard", request("GET", "/api/v1/proxy/plugins/dashboard/live"), response);
+            assertEquals("b", response.getContentAsString());
+        }
+
+        assertEquals(4, serviceLayer.getRequestCount());
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("127.0.0.1");
+        return request;
+    }
+}
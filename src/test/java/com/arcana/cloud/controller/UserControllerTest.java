@@ -25,13 +25,17 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -109,6 +113,39 @@ class UserControllerTest {
             .andExpect(jsonPath("$.data.content[0].username").value("testuser"));
     }
 
+    @Test
+    void testExportUsers_AsAdmin_WritesOneLinePerUser() throws Exception {
+        when(userService.exportUsers(any())).thenAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(0);
+            action.accept(testUser);
+            action.accept(adminUser);
+            return 2L;
+        });
+
+        String body = mockMvc.perform(get("/api/v1/users/export")
+                .header("Authorization", "Bearer " + adminToken))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("testuser", jsonMapper.readTree(lines[0]).get("username").asString());
+        assertFalse(lines[1].contains("encoded_admin_password"));
+    }
+
+    @Test
+    void testGetUsersByIds_AsAdmin_Success() throws Exception {
+        when(userService.getUsersByIds(List.of(1L, 99L))).thenReturn(List.of(testUser, adminUser));
+
+        mockMvc.perform(get("/api/v1/users/batch")
+                .header("Authorization", "Bearer " + adminToken)
+                .param("ids", "1,99"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data[0].username").value("testuser"))
+            .andExpect(jsonPath("$.data[1].username").value("admin"));
+    }
+
     @Test
     void testGetUsers_Unauthorized() throws Exception {
         mockMvc.perform(get("/api/v1/users"))
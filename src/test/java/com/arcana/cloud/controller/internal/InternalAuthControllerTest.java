@@ -9,6 +9,7 @@ import com.arcana.cloud.dto.response.UserResponse;
 import com.arcana.cloud.entity.UserRole;
 import com.arcana.cloud.exception.UnauthorizedException;
 import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.ParsedToken;
 import com.arcana.cloud.service.AuthService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +20,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -154,10 +157,8 @@ class InternalAuthControllerTest {
 
     @Test
     void testValidateToken_ValidToken() {
-        when(tokenProvider.validateToken("valid_token")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("valid_token")).thenReturn(1L);
-        when(tokenProvider.getUsernameFromToken("valid_token")).thenReturn("testuser");
-        when(tokenProvider.getRoleFromToken("valid_token")).thenReturn("USER");
+        when(tokenProvider.parseToken("valid_token")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, "testuser", null, "USER", null, null, null)));
 
         ResponseEntity<ApiResponse<InternalAuthController.TokenValidationResponse>> response =
             internalAuthController.validateToken("valid_token");
@@ -176,7 +177,7 @@ class InternalAuthControllerTest {
 
     @Test
     void testValidateToken_InvalidToken() {
-        when(tokenProvider.validateToken("invalid_token")).thenReturn(false);
+        when(tokenProvider.parseToken("invalid_token")).thenReturn(Optional.empty());
 
         ResponseEntity<ApiResponse<InternalAuthController.TokenValidationResponse>> response =
             internalAuthController.validateToken("invalid_token");
@@ -247,7 +248,7 @@ class InternalAuthControllerTest {
 
     @Test
     void testValidateToken_ResponseMessage() {
-        when(tokenProvider.validateToken("token")).thenReturn(false);
+        when(tokenProvider.parseToken("token")).thenReturn(Optional.empty());
         ResponseEntity<ApiResponse<InternalAuthController.TokenValidationResponse>> response =
             internalAuthController.validateToken("token");
         assertEquals("Token validation complete", response.getBody().getMessage());
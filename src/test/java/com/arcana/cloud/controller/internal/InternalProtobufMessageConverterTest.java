@@ -0,0 +1,127 @@
+package com.arcana.cloud.controller.internal;
+
+import com.arcana.cloud.controller.internal.InternalUserController.ExistsResponse;
+import com.arcana.cloud.controller.internal.InternalUserController.UserUpdateDto;
+import com.arcana.cloud.dto.request.LoginRequest;
+import com.arcana.cloud.dto.response.ApiResponse;
+import com.arcana.cloud.dto.response.AuthResponse;
+import com.arcana.cloud.dto.response.CursorPage;
+import com.arcana.cloud.dto.response.UserResponse;
+import com.arcana.cloud.entity.UserRole;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("InternalProtobufMessageConverter")
+class InternalProtobufMessageConverterTest {
+
+    private final InternalProtobufMessageConverter converter =
+        new InternalProtobufMessageConverter(JsonMapper.builder().build());
+
+    private static final UserResponse USER = UserResponse.builder()
+        .id(7L)
+        .username("alice")
+        .email("alice@example.com")
+        .firstName("Alice")
+        .role(UserRole.ADMIN)
+        .isActive(true)
+        .isVerified(false)
+        .createdAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5))
+        .build();
+
+    @Test
+    @DisplayName("a user response survives the round trip")
+    void userResponse_roundTrip() throws Exception {
+        ApiResponse<UserResponse> read = roundTrip(ApiResponse.success(USER, "User created"),
+            new ParameterizedTypeReference<ApiResponse<UserResponse>>() { }.getType());
+
+        assertTrue(read.isSuccess());
+        assertEquals(USER.getId(), read.getData().getId());
+        assertEquals(USER.getEmail(), read.getData().getEmail());
+        assertEquals(USER.getRole(), read.getData().getRole());
+        assertEquals(USER.getCreatedAt(), read.getData().getCreatedAt());
+        // Unset names read back as null, as they do from JSON
+        assertEquals("Alice", read.getData().getFirstName());
+        assertNull(read.getData().getLastName());
+        assertNull(read.getData().getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("cursor pages, auth responses and exists flags survive the round trip")
+    void payloads_roundTrip() throws Exception {
+        CursorPage<UserResponse> page = roundTrip(
+            ApiResponse.success(new CursorPage<>(List.of(USER), 1, "next", null)),
+            new ParameterizedTypeReference<ApiResponse<CursorPage<UserResponse>>>() { }.getType()).getData();
+        assertEquals("alice", page.getContent().getFirst().getUsername());
+        assertEquals("next", page.getNextCursor());
+        assertNull(page.getTotalElements());
+
+        AuthResponse auth = roundTrip(
+            ApiResponse.success(AuthResponse.builder().accessToken("a").refreshToken("r").expiresIn(60L).user(USER).build()),
+            new ParameterizedTypeReference<ApiResponse<AuthResponse>>() { }.getType()).getData();
+        assertEquals("Bearer", auth.getTokenType());
+        assertEquals(60L, auth.getExpiresIn());
+        assertEquals(UserRole.ADMIN, auth.getUser().getRole());
+        assertNull(auth.getUser().getLastName());
+
+        ExistsResponse exists = roundTrip(ApiResponse.success(new ExistsResponse(true)),
+            new ParameterizedTypeReference<ApiResponse<ExistsResponse>>() { }.getType()).getData();
+        assertTrue(exists.isExists());
+    }
+
+    @Test
+    @DisplayName("request bodies keep unset update fields unset")
+    void requests_roundTrip() throws Exception {
+        UserUpdateDto update = new UserUpdateDto();
+        update.setEmail("new@example.com");
+        update.setIsActive(false);
+
+        UserUpdateDto readUpdate = roundTrip(update, UserUpdateDto.class);
+        assertEquals("new@example.com", readUpdate.getEmail());
+        assertFalse(readUpdate.getIsActive());
+        assertNull(readUpdate.getUsername());
+        assertNull(readUpdate.getIsVerified());
+
+        LoginRequest login = roundTrip(LoginRequest.builder().usernameOrEmail("alice").password("secret").build(),
+            LoginRequest.class);
+        assertEquals("alice", login.getUsernameOrEmail());
+    }
+
+    @Test
+    @DisplayName("error responses are written as JSON with their message; unknown payloads are left to JSON")
+    void errorsAndUnknownTypes() throws Exception {
+        Type userType = new ParameterizedTypeReference<ApiResponse<UserResponse>>() { }.getType();
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(ApiResponse.error("User not found"), userType, InternalProtobufMessageConverter.PROTOBUF, output);
+        assertEquals(MediaType.APPLICATION_JSON, output.getHeaders().getContentType());
+        assertTrue(output.getBodyAsString().contains("\"message\":\"User not found\""));
+        assertEquals(output.getBodyAsBytes().length, output.getHeaders().getContentLength());
+
+        Type mapType = new ParameterizedTypeReference<ApiResponse<Map<String, String>>>() { }.getType();
+        assertFalse(converter.canWrite(mapType, ApiResponse.class, InternalProtobufMessageConverter.PROTOBUF));
+        assertFalse(converter.canRead(Map.class, null, InternalProtobufMessageConverter.PROTOBUF));
+        assertTrue(converter.canRead(userType, null, InternalProtobufMessageConverter.PROTOBUF));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T roundTrip(Object value, Type type) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(value, type, InternalProtobufMessageConverter.PROTOBUF, output);
+        assertEquals(output.getBodyAsBytes().length, output.getHeaders().getContentLength());
+        return (T) converter.read(type, null, new MockHttpInputMessage(output.getBodyAsBytes()));
+    }
+}
@@ -13,6 +13,7 @@ import com.arcana.cloud.dto.request.RegisterRequest;
 import com.arcana.cloud.dto.response.AuthResponse;
 import com.arcana.cloud.mapper.UserMapper;
 import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.ParsedToken;
 import com.arcana.cloud.service.AuthService;
 import com.arcana.cloud.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -115,10 +116,8 @@ class InternalControllersCoverageTest {
 
     @Test
     void auth_validateToken_valid() {
-        when(tokenProvider.validateToken("vtok")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("vtok")).thenReturn(1L);
-        when(tokenProvider.getUsernameFromToken("vtok")).thenReturn("alice");
-        when(tokenProvider.getRoleFromToken("vtok")).thenReturn("USER");
+        when(tokenProvider.parseToken("vtok")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, "alice", null, "USER", null, null, null)));
         ResponseEntity<ApiResponse<InternalAuthController.TokenValidationResponse>> resp =
             internalAuthController.validateToken("vtok");
         assertEquals(HttpStatus.OK, resp.getStatusCode());
@@ -128,7 +127,7 @@ class InternalControllersCoverageTest {
 
     @Test
     void auth_validateToken_invalid() {
-        when(tokenProvider.validateToken("bad")).thenReturn(false);
+        when(tokenProvider.parseToken("bad")).thenReturn(Optional.empty());
         ResponseEntity<ApiResponse<InternalAuthController.TokenValidationResponse>> resp =
             internalAuthController.validateToken("bad");
         assertFalse(resp.getBody().getData().isValid());
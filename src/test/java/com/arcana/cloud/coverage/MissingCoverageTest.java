@@ -16,11 +16,13 @@ import com.arcana.cloud.mapper.UserMapper;
 import com.arcana.cloud.repository.OAuthTokenRepository;
 import com.arcana.cloud.repository.UserRepository;
 import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.ParsedToken;
 import com.arcana.cloud.security.UserPrincipal;
 import com.arcana.cloud.service.impl.AuthServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -48,7 +50,8 @@ class MissingCoverageTest {
 
     // ── AuthServiceImpl ────────────────────────────────────────────────────
 
-    @Mock UserRepository userRepository;
+    // Default methods (the async exists checks) fall through to the stubbed blocking ones
+    @Mock(answer = Answers.CALLS_REAL_METHODS) UserRepository userRepository;
     @Mock OAuthTokenRepository tokenRepository;
     @Mock PasswordEncoder passwordEncoder;
     @Mock JwtTokenProvider tokenProvider;
@@ -79,8 +82,8 @@ class MissingCoverageTest {
         when(userRepository.existsByEmail("alice@example.com")).thenReturn(false);
         when(passwordEncoder.encode("P@ss1!")).thenReturn("hashed");
         when(userRepository.save(any())).thenReturn(activeUser);
-        when(tokenProvider.generateAccessToken(any())).thenReturn("at");
-        when(tokenProvider.generateRefreshToken(any())).thenReturn("rt");
+        when(tokenProvider.generateAccessToken(any(), any())).thenReturn("at");
+        when(tokenProvider.generateRefreshToken(any(), any())).thenReturn("rt");
         when(tokenRepository.save(any())).thenReturn(OAuthToken.builder()
             .accessToken("at").refreshToken("rt")
             .expiresAt(LocalDateTime.now().plusHours(1))
@@ -127,8 +130,8 @@ class MissingCoverageTest {
     void login_success() {
         when(userRepository.findByUsernameOrEmail("alice", "alice")).thenReturn(Optional.of(activeUser));
         when(passwordEncoder.matches("pw", "hashed")).thenReturn(true);
-        when(tokenProvider.generateAccessToken(any())).thenReturn("at");
-        when(tokenProvider.generateRefreshToken(any())).thenReturn("rt");
+        when(tokenProvider.generateAccessToken(any(), any())).thenReturn("at");
+        when(tokenProvider.generateRefreshToken(any(), any())).thenReturn("rt");
         when(tokenRepository.save(any())).thenReturn(OAuthToken.builder()
             .accessToken("at").refreshToken("rt")
             .expiresAt(LocalDateTime.now().plusHours(1))
@@ -175,18 +178,13 @@ class MissingCoverageTest {
 
     @Test
     void refreshToken_success() {
-        OAuthToken token = OAuthToken.builder()
-            .id(1L).user(activeUser)
-            .accessToken("old_at").refreshToken("rt")
-            .isRevoked(false)
-            .refreshExpiresAt(LocalDateTime.now().plusDays(1)).build();
-        when(tokenProvider.validateToken("rt")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("rt")).thenReturn(1L);
+        when(tokenProvider.parseToken("rt")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
         when(userRepository.findById(1L)).thenReturn(Optional.of(activeUser));
-        when(tokenRepository.findByRefreshToken("rt")).thenReturn(Optional.of(token));
-        when(tokenProvider.generateAccessToken(any())).thenReturn("new_at");
-        when(tokenProvider.generateRefreshToken(any())).thenReturn("new_rt");
-        when(tokenRepository.save(any())).thenReturn(token);
+        when(tokenRepository.revokeIfActive(eq("rt"), any(LocalDateTime.class))).thenReturn(true);
+        when(tokenProvider.generateAccessToken(any(), any())).thenReturn("new_at");
+        when(tokenProvider.generateRefreshToken(any(), any())).thenReturn("new_rt");
+        when(tokenRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
         when(userMapper.toResponse(any())).thenReturn(userResponse);
 
         AuthResponse resp = authService.refreshToken(
@@ -196,7 +194,7 @@ class MissingCoverageTest {
 
     @Test
     void refreshToken_invalidToken() {
-        when(tokenProvider.validateToken("bad_rt")).thenReturn(false);
+        when(tokenProvider.parseToken("bad_rt")).thenReturn(Optional.empty());
         assertThrows(UnauthorizedException.class,
             () -> authService.refreshToken(RefreshTokenRequest.builder().refreshToken("bad_rt").build()));
     }
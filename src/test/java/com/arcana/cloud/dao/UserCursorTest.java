@@ -0,0 +1,37 @@
+package com.arcana.cloud.dao;
+
+import com.arcana.cloud.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserCursorTest {
+
+    @Test
+    void testEncodeDecode_RoundTrip() {
+        UserCursor cursor = new UserCursor(LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_000_000), 42L);
+
+        assertEquals(cursor, UserCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void testDecode_BlankIsFirstPage() {
+        assertNull(UserCursor.decode(null));
+        assertNull(UserCursor.decode(" "));
+    }
+
+    @Test
+    void testDecode_Malformed() {
+        assertThrows(IllegalArgumentException.class, () -> UserCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> UserCursor.decode("!!!"));
+    }
+
+    @Test
+    void testAfter_UserWithoutCreationTime() {
+        assertNull(UserCursor.after(User.builder().id(1L).build()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.arcana.cloud.dao;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserKeyConflictTest {
+
+    @Test
+    void testOf_NamesTheKeyFromEachStore() {
+        assertEquals(Optional.of(UserKeyConflict.USERNAME),
+            conflict("Duplicate entry 'alice' for key 'users.username'"));
+        assertEquals(Optional.of(UserKeyConflict.EMAIL),
+            conflict("ERROR: duplicate key value violates unique constraint \"users_email_key\"\n"
+                + "  Detail: Key (email)=(alice@example.com) already exists."));
+        assertEquals(Optional.of(UserKeyConflict.USERNAME),
+            conflict("Unique index or primary key violation: \"PUBLIC.CONSTRAINT_INDEX_4 ON PUBLIC.USERS(USERNAME NULLS FIRST)"
+                + " VALUES ( /* 1 */ 'alice' )\"; SQL statement:\ninsert into users ..."));
+        assertEquals(Optional.of(UserKeyConflict.EMAIL),
+            conflict("E11000 duplicate key error collection: arcana.users index: email_1 dup key: { email: \"a@b.c\" }"));
+    }
+
+    @Test
+    void testOf_IgnoresTheRejectedValue() {
+        assertEquals(Optional.of(UserKeyConflict.EMAIL),
+            conflict("Duplicate entry 'username' for key 'users.email'"));
+        assertEquals(Optional.of(UserKeyConflict.USERNAME),
+            conflict("Duplicate entry 'x' for key 'users.email' for key 'users.username'"));
+    }
+
+    @Test
+    void testOf_OtherViolationsAreNotConflicts() {
+        assertEquals(Optional.empty(), conflict("Column 'email' cannot be null"));
+        assertEquals(Optional.empty(), conflict("Data too long for column 'username' at row 1"));
+        assertEquals(Optional.empty(), UserKeyConflict.of(new DataIntegrityViolationException(
+            "could not execute statement", new SQLException("null value in column \"email\" violates not-null constraint"))));
+    }
+
+    @Test
+    void testOf_UnnamedDuplicateIsUnknown() {
+        assertEquals(Optional.of(UserKeyConflict.UNKNOWN), UserKeyConflict.of(new DuplicateKeyException("duplicate")));
+        assertEquals(Optional.of(UserKeyConflict.EMAIL),
+            UserKeyConflict.of(new DuplicateUserKeyException(UserKeyConflict.EMAIL, null)));
+    }
+
+    private static Optional<UserKeyConflict> conflict(String driverMessage) {
+        return UserKeyConflict.of(new DataIntegrityViolationException(
+            "could not execute statement", new SQLException(driverMessage)));
+    }
+}
@@ -122,7 +122,7 @@ class OAuthTokenDaoJpaImplTest {
         @Test
         @DisplayName("Should find token by access token")
         void findByAccessToken_ShouldReturnToken() {
-            when(tokenJpaRepository.findByAccessToken("access-token-123"))
+            when(tokenJpaRepository.findByAccessTokenHash(OAuthToken.digest("access-token-123")))
                     .thenReturn(Optional.of(testToken));
 
             Optional<OAuthToken> result = tokenDao.findByAccessToken("access-token-123");
@@ -133,7 +133,7 @@ class OAuthTokenDaoJpaImplTest {
         @Test
         @DisplayName("Should find token by refresh token")
         void findByRefreshToken_ShouldReturnToken() {
-            when(tokenJpaRepository.findByRefreshToken("refresh-token-456"))
+            when(tokenJpaRepository.findByRefreshTokenHash(OAuthToken.digest("refresh-token-456")))
                     .thenReturn(Optional.of(testToken));
 
             Optional<OAuthToken> result = tokenDao.findByRefreshToken("refresh-token-456");
@@ -163,6 +163,17 @@ class OAuthTokenDaoJpaImplTest {
             assertThat(result).hasSize(1);
         }
 
+        @Test
+        @DisplayName("Should find revoked unexpired tokens")
+        void findRevokedUnexpiredTokens_ShouldReturnRevokedTokens() {
+            when(tokenJpaRepository.findRevokedUnexpiredTokens(any(LocalDateTime.class)))
+                    .thenReturn(Collections.singletonList(testToken));
+
+            List<OAuthToken> result = tokenDao.findRevokedUnexpiredTokens(now);
+
+            assertThat(result).hasSize(1);
+        }
+
         @Test
         @DisplayName("Should find all tokens")
         void findAll_ShouldReturnAllTokens() {
@@ -245,11 +256,22 @@ class OAuthTokenDaoJpaImplTest {
         @Test
         @DisplayName("Should revoke token by access token")
         void revokeByAccessToken_ShouldRevokeToken() {
-            doNothing().when(tokenJpaRepository).revokeByAccessToken("access-token-123");
+            doNothing().when(tokenJpaRepository).revokeByAccessTokenHash(OAuthToken.digest("access-token-123"));
 
             tokenDao.revokeByAccessToken("access-token-123");
 
-            verify(tokenJpaRepository).revokeByAccessToken("access-token-123");
+            verify(tokenJpaRepository).revokeByAccessTokenHash(OAuthToken.digest("access-token-123"));
+        }
+
+        @Test
+        @DisplayName("Should report whether the conditional revoke updated a row")
+        void revokeIfActive_ShouldReturnWhetherRowWasUpdated() {
+            when(tokenJpaRepository.revokeIfActive(OAuthToken.digest("refresh-token-456"), now))
+                    .thenReturn(1)
+                    .thenReturn(0);
+
+            assertThat(tokenDao.revokeIfActive("refresh-token-456", now)).isTrue();
+            assertThat(tokenDao.revokeIfActive("refresh-token-456", now)).isFalse();
         }
     }
 
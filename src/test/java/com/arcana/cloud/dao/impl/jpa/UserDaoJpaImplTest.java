@@ -17,10 +17,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -154,6 +156,19 @@ class UserDaoJpaImplTest {
             assertThat(result).hasSize(2);
         }
 
+        @Test
+        @DisplayName("Should stream all users through the repository stream")
+        void streamAll_ShouldVisitEveryUser() {
+            User other = User.builder().id(2L).build();
+            when(userJpaRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(testUser, other));
+            List<User> visited = new ArrayList<>();
+
+            long count = userDao.streamAll(visited::add);
+
+            assertThat(count).isEqualTo(2);
+            assertThat(visited).containsExactly(testUser, other);
+        }
+
         @Test
         @DisplayName("Should find all users with pagination")
         void findAll_WithPagination_ShouldReturnPage() {
@@ -1,5 +1,6 @@
 package com.arcana.cloud.dao.impl.jpa;
 
+import com.arcana.cloud.dao.UserCursor;
 import com.arcana.cloud.dao.impl.jpa.repository.UserJpaRepository;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
@@ -122,6 +123,28 @@ class UserDaoJpaIntegrationTest {
 
             assertThat(result).hasSize(2);
         }
+
+        @Test
+        @DisplayName("Should update only the given fields")
+        void updateFields_ShouldWriteOnlyGivenFields() {
+            User saved = userDao.save(testUser);
+
+            boolean updated = userDao.updateFields(saved.getId(),
+                    User.builder().firstName("Changed").role(null).isActive(null).isVerified(null).build());
+
+            assertThat(updated).isTrue();
+            User found = userDao.findById(saved.getId()).orElseThrow();
+            assertThat(found.getFirstName()).isEqualTo("Changed");
+            assertThat(found.getLastName()).isEqualTo("User");
+            assertThat(found.getUsername()).isEqualTo("testuser");
+            assertThat(found.getIsActive()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should report a missing user on partial update")
+        void updateFields_NonExisting_ShouldReturnFalse() {
+            assertThat(userDao.updateFields(999L, User.builder().firstName("Changed").build())).isFalse();
+        }
     }
 
     @Nested
@@ -211,6 +234,33 @@ class UserDaoJpaIntegrationTest {
             assertThat(result.getTotalElements()).isEqualTo(15);
         }
 
+        @Test
+        @DisplayName("Should page through users by keyset without gaps or repeats")
+        void findAllAfter_ShouldWalkAllUsers() {
+            LocalDateTime createdAt = LocalDateTime.now().withNano(0);
+            for (int i = 0; i < 5; i++) {
+                userDao.save(User.builder()
+                        .username("user" + i)
+                        .email("user" + i + "@example.com")
+                        .password("password")
+                        .role(UserRole.USER)
+                        .isActive(true)
+                        .isVerified(false)
+                        .createdAt(createdAt)
+                        .updatedAt(createdAt)
+                        .build());
+            }
+
+            List<User> first = userDao.findAllAfter(null, 3);
+            List<User> second = userDao.findAllAfter(UserCursor.after(first.get(2)), 3);
+
+            assertThat(first).hasSize(3);
+            assertThat(second).hasSize(2);
+            assertThat(first.get(0).getId()).isGreaterThan(first.get(2).getId());
+            assertThat(second).extracting(User::getId).doesNotContainAnyElementsOf(
+                    first.stream().map(User::getId).toList());
+        }
+
         @Test
         @DisplayName("Should find active users by role")
         void findActiveUsersByRole_ShouldReturnUsers() {
@@ -4,11 +4,13 @@ import com.arcana.cloud.dao.UserDao;
 import com.arcana.cloud.document.OAuthTokenDocument;
 import com.arcana.cloud.entity.OAuthToken;
 import com.arcana.cloud.entity.User;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,6 +26,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -191,6 +194,10 @@ class OAuthTokenDaoMongodbImplTest {
             Optional<OAuthToken> result = tokenDao.findByAccessToken("access-token-123");
 
             assertThat(result).isPresent();
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).findOne(query.capture(), eq(OAuthTokenDocument.class));
+            assertThat(query.getValue().getQueryObject().get("accessTokenHash"))
+                    .isEqualTo(OAuthToken.digest("access-token-123"));
         }
 
         @Test
@@ -246,6 +253,19 @@ class OAuthTokenDaoMongodbImplTest {
             assertThat(result).hasSize(1);
         }
 
+        @Test
+        @DisplayName("Should find revoked unexpired tokens without resolving users")
+        void findRevokedUnexpiredTokens_ShouldReturnRevokedTokens() {
+            when(mongoTemplate.find(any(Query.class), eq(OAuthTokenDocument.class)))
+                    .thenReturn(Collections.singletonList(testDocument));
+
+            List<OAuthToken> result = tokenDao.findRevokedUnexpiredTokens(now);
+
+            assertThat(result).hasSize(1);
+            assertThat(result.get(0).getUser().getId()).isEqualTo(testDocument.getUserLegacyId());
+            verify(userDao, never()).findById(any());
+        }
+
         @Test
         @DisplayName("Should find all tokens")
         void findAll_ShouldReturnAllTokens() {
@@ -338,6 +358,67 @@ class OAuthTokenDaoMongodbImplTest {
 
             verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(OAuthTokenDocument.class));
         }
+
+        @Test
+        @DisplayName("Should revoke active token with a single findAndModify")
+        void revokeIfActive_Active_ShouldReturnTrue() {
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(OAuthTokenDocument.class)))
+                    .thenReturn(testDocument);
+
+            boolean result = tokenDao.revokeIfActive("refresh-token-456", now);
+
+            assertThat(result).isTrue();
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), eq(OAuthTokenDocument.class));
+            assertThat(query.getValue().getQueryObject().get("refreshTokenHash"))
+                    .isEqualTo(OAuthToken.digest("refresh-token-456"));
+            assertThat(query.getValue().getQueryObject().get("isRevoked")).isEqualTo(false);
+        }
+
+        @Test
+        @DisplayName("Should report false when no active token matched")
+        void revokeIfActive_AlreadyRevoked_ShouldReturnFalse() {
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(OAuthTokenDocument.class)))
+                    .thenReturn(null);
+
+            assertThat(tokenDao.revokeIfActive("refresh-token-456", now)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Digest Backfill")
+    class DigestBackfill {
+
+        @Test
+        @DisplayName("Should fill in digests of documents written before digest lookups")
+        void testBackfillTokenHashes() {
+            OAuthTokenDocument legacy = OAuthTokenDocument.builder()
+                    .id("mongo-id-legacy")
+                    .accessToken("legacy-access")
+                    .refreshToken("legacy-refresh")
+                    .build();
+            when(mongoTemplate.stream(any(Query.class), eq(OAuthTokenDocument.class)))
+                    .thenReturn(Stream.of(legacy));
+
+            tokenDao.backfillTokenHashes();
+
+            ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+            verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(OAuthTokenDocument.class));
+            Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+            assertThat((byte[]) set.get("accessTokenHash")).isEqualTo(OAuthToken.digest("legacy-access"));
+            assertThat((byte[]) set.get("refreshTokenHash")).isEqualTo(OAuthToken.digest("legacy-refresh"));
+        }
+
+        @Test
+        @DisplayName("Should write nothing when every document has its digests")
+        void testBackfillTokenHashes_NothingMissing() {
+            when(mongoTemplate.stream(any(Query.class), eq(OAuthTokenDocument.class)))
+                    .thenReturn(Stream.empty());
+
+            tokenDao.backfillTokenHashes();
+
+            verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(OAuthTokenDocument.class));
+        }
     }
 
     @Nested
@@ -3,11 +3,14 @@ package com.arcana.cloud.dao.impl.mongodb;
 import com.arcana.cloud.document.UserDocument;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -16,6 +19,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -139,6 +143,33 @@ class UserDaoMongodbImplTest {
             assertThat(result).hasSize(2);
             verify(mongoTemplate, times(2)).save(any(UserDocument.class));
         }
+
+        @Test
+        @DisplayName("Should set only the given fields without reading the document")
+        void updateFields_ShouldSetOnlyGivenFields() {
+            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(UserDocument.class)))
+                    .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+            boolean updated = userDao.updateFields(1L,
+                    User.builder().email("new@example.com").role(null).isActive(null).isVerified(null).build());
+
+            assertThat(updated).isTrue();
+            ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+            verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(UserDocument.class));
+            Document set = (Document) update.getValue().getUpdateObject().get("$set");
+            assertThat(set).containsEntry("email", "new@example.com").containsKey("updatedAt");
+            assertThat(set).doesNotContainKeys("username", "role", "isActive");
+            verify(mongoTemplate, never()).findOne(any(Query.class), eq(UserDocument.class));
+        }
+
+        @Test
+        @DisplayName("Should report a missing user on partial update")
+        void updateFields_NoDocumentMatched_ShouldReturnFalse() {
+            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(UserDocument.class)))
+                    .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+            assertThat(userDao.updateFields(999L, User.builder().firstName("X").build())).isFalse();
+        }
     }
 
     @Nested
@@ -87,6 +87,23 @@ class OAuthTokenDaoMybatisImplTest {
             assertThat(result).isNotNull();
         }
 
+        @Test
+        @DisplayName("Should populate token digests before writing")
+        void save_ShouldPopulateTokenHashes() {
+            OAuthToken newToken = OAuthToken.builder()
+                    .user(testUser)
+                    .accessToken("new-access-token")
+                    .refreshToken("new-refresh-token")
+                    .build();
+
+            tokenDao.save(newToken);
+
+            assertThat(newToken.getAccessTokenHash())
+                    .hasSize(32)
+                    .isEqualTo(OAuthToken.digest("new-access-token"));
+            assertThat(newToken.getRefreshTokenHash()).isEqualTo(OAuthToken.digest("new-refresh-token"));
+        }
+
         @Test
         @DisplayName("Should update existing token when ID is not null")
         void save_ExistingToken_ShouldUpdate() {
@@ -142,7 +159,7 @@ class OAuthTokenDaoMybatisImplTest {
         @Test
         @DisplayName("Should find token by access token")
         void findByAccessToken_ShouldReturnToken() {
-            when(tokenMapper.findByAccessToken("access-token-123"))
+            when(tokenMapper.findByAccessTokenHash(OAuthToken.digest("access-token-123")))
                     .thenReturn(Optional.of(testToken));
 
             Optional<OAuthToken> result = tokenDao.findByAccessToken("access-token-123");
@@ -153,7 +170,7 @@ class OAuthTokenDaoMybatisImplTest {
         @Test
         @DisplayName("Should find token by refresh token")
         void findByRefreshToken_ShouldReturnToken() {
-            when(tokenMapper.findByRefreshToken("refresh-token-456"))
+            when(tokenMapper.findByRefreshTokenHash(OAuthToken.digest("refresh-token-456")))
                     .thenReturn(Optional.of(testToken));
 
             Optional<OAuthToken> result = tokenDao.findByRefreshToken("refresh-token-456");
@@ -183,6 +200,17 @@ class OAuthTokenDaoMybatisImplTest {
             assertThat(result).hasSize(1);
         }
 
+        @Test
+        @DisplayName("Should find revoked unexpired tokens")
+        void findRevokedUnexpiredTokens_ShouldReturnRevokedTokens() {
+            when(tokenMapper.findRevokedUnexpiredTokens(any(LocalDateTime.class)))
+                    .thenReturn(Collections.singletonList(testToken));
+
+            List<OAuthToken> result = tokenDao.findRevokedUnexpiredTokens(now);
+
+            assertThat(result).hasSize(1);
+        }
+
         @Test
         @DisplayName("Should find all tokens")
         void findAll_ShouldReturnAllTokens() {
@@ -266,11 +294,22 @@ class OAuthTokenDaoMybatisImplTest {
         @Test
         @DisplayName("Should revoke token by access token")
         void revokeByAccessToken_ShouldRevokeToken() {
-            when(tokenMapper.revokeByAccessToken("access-token-123")).thenReturn(1);
+            when(tokenMapper.revokeByAccessTokenHash(OAuthToken.digest("access-token-123"))).thenReturn(1);
 
             tokenDao.revokeByAccessToken("access-token-123");
 
-            verify(tokenMapper).revokeByAccessToken("access-token-123");
+            verify(tokenMapper).revokeByAccessTokenHash(OAuthToken.digest("access-token-123"));
+        }
+
+        @Test
+        @DisplayName("Should report whether the conditional revoke updated a row")
+        void revokeIfActive_ShouldReturnWhetherRowWasUpdated() {
+            when(tokenMapper.revokeIfActiveByRefreshTokenHash(OAuthToken.digest("refresh-token-456"), now))
+                    .thenReturn(1)
+                    .thenReturn(0);
+
+            assertThat(tokenDao.revokeIfActive("refresh-token-456", now)).isTrue();
+            assertThat(tokenDao.revokeIfActive("refresh-token-456", now)).isFalse();
         }
     }
 
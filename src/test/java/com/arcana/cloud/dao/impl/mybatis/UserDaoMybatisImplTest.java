@@ -1,8 +1,11 @@
 package com.arcana.cloud.dao.impl.mybatis;
 
+import com.arcana.cloud.dao.UserCursor;
+import com.arcana.cloud.dao.UserFilter;
 import com.arcana.cloud.dao.impl.mybatis.mapper.UserMapper;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,6 +19,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -103,6 +107,45 @@ class UserDaoMybatisImplTest {
             assertThat(result).hasSize(2);
             verify(userMapper, times(2)).update(any(User.class));
         }
+
+        @Test
+        @DisplayName("Should insert many users with one statement")
+        void insertAll_ShouldUseSingleStatement() {
+            User user2 = User.builder().username("user2").build();
+            List<User> users = List.of(testUser, user2);
+
+            userDao.insertAll(users);
+
+            verify(userMapper).insertAll(users);
+            verify(userMapper, never()).insert(any(User.class));
+        }
+
+        @Test
+        @DisplayName("Should not issue an INSERT without users")
+        void insertAll_Empty_ShouldSkipStatement() {
+            userDao.insertAll(List.of());
+
+            verify(userMapper, never()).insertAll(any());
+        }
+
+        @Test
+        @DisplayName("Should update only the given fields with one statement")
+        void updateFields_ShouldUsePartialUpdate() {
+            User changes = User.builder().firstName("Changed").build();
+            when(userMapper.updateFields(1L, changes)).thenReturn(1);
+
+            assertThat(userDao.updateFields(1L, changes)).isTrue();
+            verify(userMapper, never()).update(any(User.class));
+            verify(userMapper, never()).findById(any());
+        }
+
+        @Test
+        @DisplayName("Should report a missing user on partial update")
+        void updateFields_NoRowMatched_ShouldReturnFalse() {
+            when(userMapper.updateFields(eq(999L), any(User.class))).thenReturn(0);
+
+            assertThat(userDao.updateFields(999L, User.builder().build())).isFalse();
+        }
     }
 
     @Nested
@@ -174,6 +217,63 @@ class UserDaoMybatisImplTest {
             assertThat(result).hasSize(2);
         }
 
+        @Test
+        @DisplayName("Should stream all users through a cursor and close it")
+        void streamAll_ShouldVisitEveryUserAndCloseCursor() throws Exception {
+            @SuppressWarnings("unchecked")
+            Cursor<User> cursor = mock(Cursor.class);
+            when(cursor.iterator()).thenReturn(List.of(testUser).iterator());
+            when(userMapper.streamAll()).thenReturn(cursor);
+            List<User> visited = new ArrayList<>();
+
+            long count = userDao.streamAll(visited::add);
+
+            assertThat(count).isEqualTo(1);
+            assertThat(visited).containsExactly(testUser);
+            verify(cursor).close();
+        }
+
+        @Test
+        @DisplayName("Should find users by IDs in one query")
+        void findAllById_ShouldUseSingleQuery() {
+            List<Long> ids = List.of(1L, 2L);
+            when(userMapper.findAllById(ids)).thenReturn(List.of(testUser));
+
+            List<User> result = userDao.findAllById(ids);
+
+            assertThat(result).containsExactly(testUser);
+        }
+
+        @Test
+        @DisplayName("Should not query for an empty ID list")
+        void findAllById_Empty_ShouldSkipQuery() {
+            List<User> result = userDao.findAllById(List.of());
+
+            assertThat(result).isEmpty();
+            verify(userMapper, never()).findAllById(any());
+        }
+
+        @Test
+        @DisplayName("Should find users by usernames or emails in one query")
+        void findAllByUsernameOrEmail_ShouldUseSingleQuery() {
+            List<String> usernames = List.of("testuser");
+            List<String> emails = List.of();
+            when(userMapper.findAllByUsernameOrEmail(usernames, emails)).thenReturn(List.of(testUser));
+
+            List<User> result = userDao.findAllByUsernameOrEmail(usernames, emails);
+
+            assertThat(result).containsExactly(testUser);
+        }
+
+        @Test
+        @DisplayName("Should not query without usernames or emails")
+        void findAllByUsernameOrEmail_Empty_ShouldSkipQuery() {
+            List<User> result = userDao.findAllByUsernameOrEmail(List.of(), List.of());
+
+            assertThat(result).isEmpty();
+            verify(userMapper, never()).findAllByUsernameOrEmail(any(), any());
+        }
+
         @Test
         @DisplayName("Should find all users with pagination")
         void findAll_WithPagination_ShouldReturnPage() {
@@ -191,6 +291,44 @@ class UserDaoMybatisImplTest {
             verify(userMapper).findAllWithPagination(0L, 10);
         }
 
+        @Test
+        @DisplayName("Should find one page of filtered users")
+        void findAll_WithFilter_ShouldPageInTheDatabase() {
+            Pageable pageable = PageRequest.of(2, 10);
+            when(userMapper.countByFilter(UserRole.ADMIN, true, null)).thenReturn(21L);
+            when(userMapper.findAllByFilter(UserRole.ADMIN, true, null, 20L, 10))
+                    .thenReturn(Collections.singletonList(testUser));
+
+            Page<User> result = userDao.findAll(UserFilter.activeWithRole(UserRole.ADMIN), pageable);
+
+            assertThat(result.getContent()).containsExactly(testUser);
+            assertThat(result.getTotalElements()).isEqualTo(21);
+        }
+
+        @Test
+        @DisplayName("Should skip the page query when nothing matches the filter")
+        void findAll_WithFilter_NoMatches_ShouldOnlyCount() {
+            when(userMapper.countByFilter(null, true, false)).thenReturn(0L);
+
+            Page<User> result = userDao.findAll(UserFilter.unverified(), PageRequest.of(0, 10));
+
+            assertThat(result.getContent()).isEmpty();
+            verify(userMapper, never()).findAllByFilter(any(), any(), any(), anyLong(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should find filtered users after a keyset cursor without counting")
+        void findAllAfter_WithFilter_ShouldNotCount() {
+            LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+            when(userMapper.findAllByFilterAfter(null, true, null, createdAt, 42L, 10))
+                    .thenReturn(Collections.singletonList(testUser));
+
+            List<User> result = userDao.findAllAfter(UserFilter.active(), new UserCursor(createdAt, 42L), 10);
+
+            assertThat(result).containsExactly(testUser);
+            verify(userMapper, never()).countByFilter(any(), any(), any());
+        }
+
         @Test
         @DisplayName("Should find active users by role")
         void findActiveUsersByRole_ShouldReturnUsers() {
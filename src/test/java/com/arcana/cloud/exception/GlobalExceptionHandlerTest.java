@@ -56,6 +56,17 @@ class GlobalExceptionHandlerTest {
         assertEquals("Access denied", response.getBody().getMessage());
     }
 
+    @Test
+    void testHandleTooManyRequests() {
+        TooManyRequestsException ex = new TooManyRequestsException("Slow down");
+        ResponseEntity<ApiResponse<Void>> response = handler.handleTooManyRequests(ex, webRequest);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        assertNotNull(response.getBody());
+        assertEquals("Slow down", response.getBody().getMessage());
+    }
+
     @Test
     void testHandleValidation() {
         ValidationException ex = new ValidationException("Invalid input");
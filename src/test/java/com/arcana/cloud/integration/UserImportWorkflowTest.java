@@ -0,0 +1,151 @@
+package com.arcana.cloud.integration;
+
+import com.arcana.cloud.entity.User;
+import com.arcana.cloud.entity.UserRole;
+import com.arcana.cloud.repository.UserRepository;
+import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the bulk user import: upload, background job and progress polling
+ * against the real store.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserImportWorkflowTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String adminToken;
+    private User adminUser;
+
+    @BeforeEach
+    void setUp() {
+        adminUser = userRepository.findByUsername("importadmin").orElseGet(() -> userRepository.save(User.builder()
+            .username("importadmin")
+            .email("importadmin@example.com")
+            .password(passwordEncoder.encode("AdminPass123"))
+            .role(UserRole.ADMIN)
+            .isActive(true)
+            .isVerified(true)
+            .build()));
+        adminToken = tokenProvider.generateAccessToken(UserPrincipal.create(adminUser));
+    }
+
+    @Test
+    void testAdminCanImportCsv() throws Exception {
+        String prefix = "imp" + System.currentTimeMillis();
+        String csv = "username,email,password,first_name,last_name,role\n"
+            + prefix + "a," + prefix + "a@example.com,Password123,\"Ann, Jr\",Lee,\n"
+            + prefix + "b," + prefix + "b@example.com,Password123,Ben,Lee,moderator\n"
+            + prefix + "a," + prefix + "c@example.com,Password123,Dup,Lee,\n"
+            + "importadmin,someone-" + prefix + "@example.com,Password123,Taken,Lee,\n"
+            + prefix + "d,not-an-email,Password123,Bad,Lee,\n";
+
+        String body = mockMvc.perform(post("/api/v1/users/import")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType("text/csv")
+                .content(csv))
+            .andExpect(status().isAccepted())
+            .andExpect(header().exists("Location"))
+            .andExpect(jsonPath("$.data.id").exists())
+            .andReturn().getResponse().getContentAsString();
+        String jobId = jsonMapper.readTree(body).get("data").get("id").asString();
+
+        JsonNode job = awaitJob(jobId);
+
+        assertEquals("COMPLETED", job.get("status").asString());
+        assertEquals(5, job.get("processed").asLong());
+        assertEquals(2, job.get("imported").asLong());
+        assertEquals(2, job.get("skipped").asLong());
+        assertEquals(1, job.get("failed").asLong());
+        User imported = userRepository.findByUsername(prefix + "a").orElseThrow();
+        assertEquals("Ann, Jr", imported.getFirstName());
+        assertTrue(passwordEncoder.matches("Password123", imported.getPassword()));
+        assertEquals(UserRole.MODERATOR, userRepository.findByUsername(prefix + "b").orElseThrow().getRole());
+    }
+
+    @Test
+    void testAdminCanImportNdjson() throws Exception {
+        String username = "impnd" + System.currentTimeMillis();
+        String ndjson = "{\"username\":\"" + username + "\",\"email\":\"" + username
+            + "@example.com\",\"password\":\"Password123\"}\n";
+
+        String body = mockMvc.perform(post("/api/v1/users/import")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType("application/x-ndjson")
+                .content(ndjson))
+            .andExpect(status().isAccepted())
+            .andReturn().getResponse().getContentAsString();
+
+        JsonNode job = awaitJob(jsonMapper.readTree(body).get("data").get("id").asString());
+
+        assertEquals(1, job.get("imported").asLong());
+        assertTrue(userRepository.existsByUsername(username));
+    }
+
+    @Test
+    void testImportRejectsOtherContentTypes() throws Exception {
+        mockMvc.perform(post("/api/v1/users/import")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType("application/json")
+                .content("[]"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testUnknownImportJob() throws Exception {
+        mockMvc.perform(get("/api/v1/users/import/missing")
+                .header("Authorization", "Bearer " + adminToken))
+            .andExpect(status().isNotFound());
+    }
+
+    private JsonNode awaitJob(String jobId) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            String body = mockMvc.perform(get("/api/v1/users/import/" + jobId)
+                    .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            JsonNode job = jsonMapper.readTree(body).get("data");
+            if (!"RUNNING".equals(job.get("status").asString()) || System.nanoTime() > deadline) {
+                return job;
+            }
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+    }
+}
@@ -181,6 +181,61 @@ class UserManagementWorkflowTest {
             .andExpect(jsonPath("$.data.lastName").value("Name"));
     }
 
+    @Test
+    void testCreateWithTakenUsernameIsRejectedByUniqueIndex() throws Exception {
+        String username = "uniqueone" + System.currentTimeMillis();
+        createUser(username);
+
+        UserCreateRequest takenUsername = UserCreateRequest.builder()
+            .username(username)
+            .email("other-" + username + "@example.com")
+            .password("UserPass123")
+            .build();
+        mockMvc.perform(post("/api/v1/users")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonMapper.writeValueAsString(takenUsername)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Username already exists"));
+    }
+
+    @Test
+    void testUpdateToTakenEmailIsRejectedByUniqueIndex() throws Exception {
+        String first = "uniquetwo" + System.currentTimeMillis();
+        String second = "uniquethree" + System.currentTimeMillis();
+        Long firstId = createUser(first);
+        createUser(second);
+
+        mockMvc.perform(put("/api/v1/users/" + firstId)
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonMapper.writeValueAsString(UserUpdateRequest.builder()
+                    .email(second + "@example.com")
+                    .build())))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Email already exists"));
+
+        mockMvc.perform(get("/api/v1/users/" + firstId)
+                .header("Authorization", "Bearer " + adminToken))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.email").value(first + "@example.com"));
+    }
+
+    private Long createUser(String username) throws Exception {
+        UserCreateRequest request = UserCreateRequest.builder()
+            .username(username)
+            .email(username + "@example.com")
+            .password("UserPass123")
+            .build();
+        MvcResult result = mockMvc.perform(post("/api/v1/users")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andReturn();
+        return jsonMapper.readTree(result.getResponse().getContentAsString()).get("data").get("id").asLong();
+    }
+
     @Test
     void testAdminCanDeleteUser() throws Exception {
         // First create a user
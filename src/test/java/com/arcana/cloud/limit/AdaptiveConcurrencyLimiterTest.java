@@ -0,0 +1,106 @@
+package com.arcana.cloud.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("AdaptiveConcurrencyLimiter")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    @DisplayName("permits beyond the limit are refused until one is returned")
+    void tryAcquire_refusesBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1.5, 0.2);
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire().orElseThrow();
+        limiter.tryAcquire().orElseThrow();
+        assertTrue(limiter.tryAcquire().isEmpty());
+
+        first.ignore();
+        first.ignore();
+        assertEquals(1, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire().isPresent());
+    }
+
+    @Test
+    @DisplayName("the limit grows while latency holds steady and permits are in use")
+    void steadyLatency_limitGrows() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100, 1.5, 0.2);
+
+        windows(limiter, 10, RTT, 20, false);
+
+        assertTrue(limiter.getLimit() > 20, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("the limit shrinks once latency climbs past the baseline")
+    void risingLatency_limitShrinks() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 5, 100, 1.5, 0.2);
+        windows(limiter, 5, RTT, 50, false);
+        int beforeQueueing = limiter.getLimit();
+
+        windows(limiter, 10, RTT * 10, beforeQueueing, false);
+
+        assertTrue(limiter.getLimit() < beforeQueueing,
+            "limit " + limiter.getLimit() + " was " + beforeQueueing);
+    }
+
+    @Test
+    @DisplayName("a dropped request backs the limit off")
+    void dropped_backsOff() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 5, 100, 1.5, 0.2);
+
+        windows(limiter, 1, RTT, 50, true);
+
+        assertEquals(45, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("latency says nothing while most permits are idle; bounds always hold")
+    void appLimited_unchangedAndBounded() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 22, 1.5, 0.2);
+
+        windows(limiter, 10, RTT, 2, false);
+        assertEquals(20, limiter.getLimit());
+
+        windows(limiter, 50, RTT, 20, false);
+        assertEquals(22, limiter.getLimit());
+
+        windows(limiter, 50, RTT, 20, true);
+        assertEquals(5, limiter.getLimit());
+
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(1, 0, 10, 1.5, 0.2));
+    }
+
+    @Test
+    @DisplayName("limit, in-flight and rejections are published per limiter")
+    void bindTo_publishesMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 1.5, 0.2);
+        limiter.bindTo(registry, "grpc");
+
+        Optional<AdaptiveConcurrencyLimiter.Permit> permit = limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        assertTrue(permit.isPresent());
+        assertEquals(1.0, registry.get("concurrency.limit").tag("name", "grpc").gauge().value());
+        assertEquals(1.0, registry.get("concurrency.limit.in-flight").tag("name", "grpc").gauge().value());
+        assertEquals(1.0, registry.get("concurrency.limit.rejected").tag("name", "grpc").functionCounter().count());
+    }
+
+    private static void windows(AdaptiveConcurrencyLimiter limiter, int count, long rttNanos,
+                                int inFlight, boolean dropped) {
+        for (int i = 0; i < count * AdaptiveConcurrencyLimiter.WINDOW_SAMPLES; i++) {
+            limiter.sample(rttNanos, inFlight, dropped);
+        }
+    }
+}
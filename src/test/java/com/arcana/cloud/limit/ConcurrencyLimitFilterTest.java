@@ -0,0 +1,72 @@
+package com.arcana.cloud.limit;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("ConcurrencyLimitFilter")
+class ConcurrencyLimitFilterTest {
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1.5, 0.2);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+            limiter, List.of("/internal/api/**"), List.of("/internal/api/v1/users/export"));
+
+    @Test
+    @DisplayName("requests beyond the limit get 429 with Retry-After")
+    void beyondLimit_tooManyRequests() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+
+        filter.doFilter(request("/internal/api/v1/users/1"), new MockHttpServletResponse(), (_, _) -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request("/internal/api/v1/users/2"), response, (_, _) -> { });
+            nested.set(response);
+        });
+
+        assertEquals(429, nested.get().getStatus());
+        assertEquals("1", nested.get().getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(nested.get().getContentAsString().contains("\"success\":false"));
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("excluded and non-internal paths take no permit")
+    void excludedPaths_notLimited() throws Exception {
+        AtomicReference<Integer> inFlight = new AtomicReference<>();
+
+        filter.doFilter(request("/internal/api/v1/users/export"), new MockHttpServletResponse(),
+                (_, _) -> inFlight.set(limiter.getInFlight()));
+        assertEquals(0, inFlight.get());
+
+        filter.doFilter(request("/api/v1/users/1"), new MockHttpServletResponse(),
+                (_, _) -> inFlight.set(limiter.getInFlight()));
+        assertEquals(0, inFlight.get());
+    }
+
+    @Test
+    @DisplayName("the permit is returned when the request fails or is answered with an error")
+    void failedRequest_releasesPermit() throws Exception {
+        assertThrows(IllegalStateException.class, () ->
+                filter.doFilter(request("/internal/api/v1/auth/login"), new MockHttpServletResponse(), (_, _) -> {
+                    throw new IllegalStateException("boom");
+                }));
+        assertEquals(0, limiter.getInFlight());
+
+        filter.doFilter(request("/internal/api/v1/auth/login"), new MockHttpServletResponse(),
+                (_, response) -> ((HttpServletResponse) response).setStatus(503));
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
@@ -0,0 +1,103 @@
+package com.arcana.cloud.limit;
+
+import com.arcana.cloud.grpc.ExistsByUsernameRequest;
+import com.arcana.cloud.grpc.ExistsResponse;
+import com.arcana.cloud.grpc.GetUserRequest;
+import com.arcana.cloud.grpc.UserResponse;
+import com.arcana.cloud.grpc.UserServiceGrpc;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("ConcurrencyLimitServerInterceptor")
+class ConcurrencyLimitServerInterceptorTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1.5, 0.2);
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(new UserServiceGrpc.UserServiceImplBase() {
+                    @Override
+                    public void existsByUsername(ExistsByUsernameRequest request,
+                                                 StreamObserver<ExistsResponse> responseObserver) {
+                        started.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        responseObserver.onNext(ExistsResponse.newBuilder().setExists(true).build());
+                        responseObserver.onCompleted();
+                    }
+
+                    @Override
+                    public void getUser(GetUserRequest request, StreamObserver<UserResponse> responseObserver) {
+                        responseObserver.onError(Status.NOT_FOUND.asRuntimeException());
+                    }
+                }, new ConcurrencyLimitServerInterceptor(limiter)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("calls beyond the limit fail fast with RESOURCE_EXHAUSTED")
+    void beyondLimit_resourceExhausted() throws Exception {
+        ListenableFuture<ExistsResponse> inFlight = UserServiceGrpc.newFutureStub(channel)
+                .existsByUsername(ExistsByUsernameRequest.newBuilder().setUsername("a").build());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        StatusRuntimeException shed = assertThrows(StatusRuntimeException.class,
+                () -> UserServiceGrpc.newBlockingStub(channel)
+                        .existsByUsername(ExistsByUsernameRequest.newBuilder().setUsername("b").build()));
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, shed.getStatus().getCode());
+
+        release.countDown();
+        assertTrue(inFlight.get(5, TimeUnit.SECONDS).getExists());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("a call answered with an application error returns its permit")
+    void applicationError_releasesPermit() {
+        UserServiceGrpc.UserServiceBlockingStub stub = UserServiceGrpc.newBlockingStub(channel);
+
+        for (int i = 0; i < 3; i++) {
+            StatusRuntimeException notFound = assertThrows(StatusRuntimeException.class,
+                    () -> stub.getUser(GetUserRequest.newBuilder().setUserId(1).build()));
+            assertEquals(Status.Code.NOT_FOUND, notFound.getStatus().getCode());
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,221 @@
+package com.arcana.cloud.repository.impl.grpc;
+
+import com.arcana.cloud.dao.DuplicateUserKeyException;
+import com.arcana.cloud.dao.UserCursor;
+import com.arcana.cloud.dao.UserDao;
+import com.arcana.cloud.dao.UserFilter;
+import com.arcana.cloud.dao.UserKeyConflict;
+import com.arcana.cloud.entity.User;
+import com.arcana.cloud.entity.UserRole;
+import com.arcana.cloud.grpc.ListUsersByFilterRequest;
+import com.arcana.cloud.grpc.UserServiceGrpc;
+import com.arcana.cloud.service.grpc.UserGrpcRepositoryService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Real gRPC round trips between GrpcUserRepositoryImpl and UserGrpcRepositoryService.
+ *
+ * <p>Both ends run in process over {@link InProcessServerBuilder}, so filters and paging
+ * travel through actual protobuf serialization.</p>
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GrpcUserRepositoryImpl — Real In-Process gRPC Protocol Tests")
+class GrpcUserRepositoryImplRealTest {
+
+    @Mock private UserDao userDao;
+
+    private Server grpcServer;
+    private ManagedChannel channel;
+    private GrpcUserRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String serverName = InProcessServerBuilder.generateName();
+        grpcServer = InProcessServerBuilder.forName(serverName)
+                .directExecutor()
+                .addService(new UserGrpcRepositoryService(userDao))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName)
+                .directExecutor()
+                .build();
+        repository = new GrpcUserRepositoryImpl(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        grpcServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("findAllActiveUsers: filter applied by the server, pages walked past 1000 users")
+    void findAllActiveUsers_walksEveryPage() {
+        when(userDao.findAllAfter(eq(UserFilter.active()), any(), anyInt())).thenAnswer(invocation -> {
+            UserCursor after = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            long from = after == null ? 0 : after.id();
+            long to = Math.min(from + limit, 1500);
+            return users(from, to);
+        });
+
+        List<User> result = repository.findAllActiveUsers();
+
+        assertEquals(1500, result.size());
+        assertEquals(1L, result.get(0).getId());
+        assertEquals(1500L, result.get(1499).getId());
+        verify(userDao, never()).findAll(eq(UserFilter.active()), any(Pageable.class));
+        verify(userDao, never()).count();
+    }
+
+    @Test
+    @DisplayName("findActiveUsersByRole / findUnverifiedUsers: predicates survive the wire")
+    void filteredQueries_sendTheirPredicates() {
+        when(userDao.findAllAfter(eq(UserFilter.activeWithRole(UserRole.ADMIN)), any(), anyInt()))
+                .thenReturn(users(0, 2));
+        when(userDao.findAllAfter(eq(UserFilter.unverified()), any(), anyInt()))
+                .thenReturn(List.of());
+
+        assertEquals(2, repository.findActiveUsersByRole(UserRole.ADMIN).size());
+        assertTrue(repository.findUnverifiedUsers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("listUsersByFilter: unknown role → INVALID_ARGUMENT")
+    void listUsersByFilter_unknownRole() {
+        UserServiceGrpc.UserServiceBlockingStub stub = UserServiceGrpc.newBlockingStub(channel);
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class, () ->
+                stub.listUsersByFilter(ListUsersByFilterRequest.newBuilder().setRole("ROOT").build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+    }
+
+    @Test
+    @DisplayName("save: a taken email comes back as that key, a not-null violation not as a duplicate")
+    void save_constraintViolationsKeepTheirKind() {
+        User newUser = User.builder().username("alice").email("alice@example.com").password("x").build();
+        when(userDao.save(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("ERROR: duplicate key value violates unique constraint \"users_email_key\"")))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Column 'email' cannot be null")));
+
+        DuplicateUserKeyException duplicate = assertThrows(DuplicateUserKeyException.class,
+                () -> repository.save(newUser));
+        assertEquals(UserKeyConflict.EMAIL, duplicate.getConflict());
+
+        DataIntegrityViolationException rejected = assertThrows(DataIntegrityViolationException.class,
+                () -> repository.save(newUser));
+        assertFalse(rejected instanceof DuplicateKeyException);
+    }
+
+    @Test
+    @DisplayName("findByUsernameOrEmail: one call, username match preferred, email as fallback")
+    void findByUsernameOrEmail_singleCall() {
+        User byEmail = users(6, 7).get(0);
+        when(userDao.findByUsername("someone@example.com")).thenReturn(Optional.empty());
+        when(userDao.findByEmail("someone@example.com")).thenReturn(Optional.of(byEmail));
+        when(userDao.findByUsername("ghost")).thenReturn(Optional.empty());
+        when(userDao.findByEmail("ghost")).thenReturn(Optional.empty());
+
+        assertEquals(7L, repository.findByUsernameOrEmail("someone@example.com", "someone@example.com")
+                .orElseThrow().getId());
+        assertTrue(repository.findByUsernameOrEmail("ghost", "ghost").isEmpty());
+    }
+
+    @Test
+    @DisplayName("existsByUsernameAsync / existsByEmailAsync: both in flight, answers come back over the wire")
+    void existsAsync_issuedTogether() {
+        when(userDao.existsByUsername("taken")).thenReturn(true);
+        when(userDao.existsByEmail("free@example.com")).thenReturn(false);
+
+        CompletableFuture<Boolean> username = repository.existsByUsernameAsync("taken");
+        CompletableFuture<Boolean> email = repository.existsByEmailAsync("free@example.com");
+
+        assertTrue(username.join());
+        assertFalse(email.join());
+    }
+
+    @Test
+    @DisplayName("existsByUsername: a failed call answers false, as before")
+    void existsByUsername_failureAnswersFalse() {
+        when(userDao.existsByUsername("boom")).thenThrow(new IllegalStateException("database down"));
+
+        assertFalse(repository.existsByUsername("boom"));
+    }
+
+    @Test
+    @DisplayName("streamAll: a consumer that gives up cancels the stream, ending the repository producer")
+    void streamAll_consumerFailureCancelsStream() throws Exception {
+        CountDownLatch producerDone = new CountDownLatch(1);
+        when(userDao.streamAll(any())).thenAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(0);
+            try {
+                for (long i = 0; i < 1_000_000; i++) {
+                    action.accept(users(i, i + 1).get(0));
+                }
+                return 1_000_000L;
+            } finally {
+                producerDone.countDown();
+            }
+        });
+        AtomicInteger received = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> repository.streamAll(user -> {
+            if (received.incrementAndGet() == 10) {
+                throw new IllegalStateException("client disconnected");
+            }
+        }));
+
+        assertTrue(producerDone.await(5, TimeUnit.SECONDS));
+    }
+
+    private static List<User> users(long from, long to) {
+        LocalDateTime now = LocalDateTime.now();
+        return LongStream.range(from, to)
+                .mapToObj(i -> User.builder()
+                        .id(i + 1).username("user" + (i + 1)).email("user" + (i + 1) + "@example.com")
+                        .role(UserRole.USER).isActive(true).isVerified(false)
+                        .createdAt(now).updatedAt(now)
+                        .build())
+                .toList();
+    }
+}
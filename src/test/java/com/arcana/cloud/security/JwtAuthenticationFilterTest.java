@@ -16,10 +16,16 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -68,8 +74,8 @@ class JwtAuthenticationFilterTest {
 
         String token = realTokenProvider.generateAccessToken(userPrincipal);
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(tokenProvider.validateToken(token)).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken(token)).thenReturn(1L);
+        when(tokenProvider.parseToken(token)).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
 
         UserDetails userDetails = userPrincipal;
         when(userDetailsService.loadUserByUsername("1")).thenReturn(userDetails);
@@ -101,7 +107,7 @@ class JwtAuthenticationFilterTest {
         FilterChain filterChain = mock(FilterChain.class);
 
         when(request.getHeader("Authorization")).thenReturn("Bearer invalid.token.here");
-        when(tokenProvider.validateToken("invalid.token.here")).thenReturn(false);
+        when(tokenProvider.parseToken("invalid.token.here")).thenReturn(Optional.empty());
 
         filter.doFilterInternal(request, response, filterChain);
 
@@ -130,11 +136,92 @@ class JwtAuthenticationFilterTest {
         FilterChain filterChain = mock(FilterChain.class);
 
         when(request.getHeader("Authorization")).thenReturn("Bearer some.token.here");
-        when(tokenProvider.validateToken(anyString())).thenThrow(new RuntimeException("JWT error"));
+        when(tokenProvider.parseToken(anyString())).thenThrow(new RuntimeException("JWT error"));
 
         // Should not throw, should continue the filter chain
         filter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
     }
+
+    @Test
+    void testDoFilterInternal_ClaimsMode_SkipsUserLookup() throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain filterChain = mock(FilterChain.class);
+        ReflectionTestUtils.setField(filter, "authenticationMode", "claims");
+
+        String token = realTokenProvider.generateAccessToken(userPrincipal);
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(tokenProvider.parseToken(token)).thenReturn(realTokenProvider.parseToken(token));
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        UserPrincipal principal =
+            (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertEquals(1L, principal.getId());
+        assertEquals("testuser", principal.getUsername());
+        assertEquals(UserRole.USER, principal.getRole());
+    }
+
+    @Test
+    void testDoFilterInternal_ClaimsMode_RejectsRefreshToken() throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain filterChain = mock(FilterChain.class);
+        ReflectionTestUtils.setField(filter, "authenticationMode", "claims");
+
+        String token = realTokenProvider.generateRefreshToken(userPrincipal);
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(tokenProvider.parseToken(token)).thenReturn(realTokenProvider.parseToken(token));
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void testDoFilterInternal_RevokedToken_SkipsAuthentication() throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain filterChain = mock(FilterChain.class);
+        ReflectionTestUtils.setField(filter, "revocationHooks", List.<TokenRevocationHook>of(token -> true));
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer some.token.here");
+        when(tokenProvider.parseToken("some.token.here")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void testDoFilterInternal_PrincipalCache_LoadsUserOnce() throws Exception {
+        UserPrincipalCache principalCache = new UserPrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(principalCache, "maxSize", 100L);
+        principalCache.init();
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain filterChain = mock(FilterChain.class);
+        when(request.getHeader("Authorization")).thenReturn("Bearer some.token.here");
+        when(tokenProvider.parseToken("some.token.here")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
+        when(userDetailsService.loadUserByUsername("1")).thenReturn(userPrincipal);
+
+        filter.doFilterInternal(request, response, filterChain);
+        SecurityContextHolder.clearContext();
+        filter.doFilterInternal(request, response, filterChain);
+
+        verify(userDetailsService, times(1)).loadUserByUsername("1");
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
 }
@@ -6,9 +6,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SuppressWarnings("java:S2925")
@@ -141,6 +146,15 @@ class JwtTokenProviderTest {
         assertFalse(accessToken.equals(refreshToken));
     }
 
+    @Test
+    void testTokenPairSharesTokenId() {
+        String accessToken = tokenProvider.generateAccessToken(userPrincipal, "pair-id");
+        String refreshToken = tokenProvider.generateRefreshToken(userPrincipal, "pair-id");
+
+        assertEquals("pair-id", tokenProvider.parseToken(accessToken).orElseThrow().tokenId());
+        assertEquals("pair-id", tokenProvider.parseToken(refreshToken).orElseThrow().tokenId());
+    }
+
     @Test
     void testMultipleTokensForSameUser() throws InterruptedException {
         String token1 = tokenProvider.generateAccessToken(userPrincipal);
@@ -208,4 +222,104 @@ class JwtTokenProviderTest {
 
         assertFalse(isValid);
     }
+
+    @Test
+    void testParseToken_ReturnsAllClaims() {
+        String token = tokenProvider.generateAccessToken(userPrincipal);
+
+        ParsedToken parsed = tokenProvider.parseToken(token).orElseThrow();
+
+        assertEquals(1L, parsed.userId());
+        assertEquals("testuser", parsed.username());
+        assertEquals("test@example.com", parsed.email());
+        assertEquals("USER", parsed.role());
+        assertNotNull(parsed.issuedAt());
+        assertNotNull(parsed.expiration());
+        assertFalse(parsed.isRefreshToken());
+    }
+
+    @Test
+    void testParseToken_RefreshToken() {
+        String refreshToken = tokenProvider.generateRefreshToken(userPrincipal);
+
+        ParsedToken parsed = tokenProvider.parseToken(refreshToken).orElseThrow();
+
+        assertEquals(1L, parsed.userId());
+        assertTrue(parsed.isRefreshToken());
+        assertNull(parsed.username());
+    }
+
+    @Test
+    void testParseToken_InvalidToken() {
+        assertTrue(tokenProvider.parseToken("invalid.token.here").isEmpty());
+        assertTrue(tokenProvider.parseToken(null).isEmpty());
+    }
+
+    @Test
+    void testInit_BuildsKeyOnceAndKeepsTokensValid() {
+        tokenProvider.init();
+        String token = tokenProvider.generateAccessToken(userPrincipal);
+
+        assertTrue(tokenProvider.validateToken(token));
+    }
+
+    @Test
+    void testAsymmetricSigning_ES256_RoundTripWithKeyId() throws Exception {
+        LocalJwtKeySet keySet = ephemeralKeySet("ES256");
+        JwtTokenProvider provider = asymmetricProvider("ES256", keySet);
+
+        String token = provider.generateAccessToken(userPrincipal);
+
+        ParsedToken parsed = provider.parseToken(token).orElseThrow();
+        assertEquals(1L, parsed.userId());
+        assertEquals("USER", parsed.role());
+        String header = new String(
+            Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+        assertTrue(header.contains("\"kid\":\"" + keySet.signingKeyId() + "\""));
+    }
+
+    @Test
+    void testAsymmetricSigning_EdDSA_RoundTrip() throws Exception {
+        JwtTokenProvider provider = asymmetricProvider("EdDSA", ephemeralKeySet("EdDSA"));
+
+        String refreshToken = provider.generateRefreshToken(userPrincipal);
+
+        assertTrue(provider.parseToken(refreshToken).orElseThrow().isRefreshToken());
+    }
+
+    @Test
+    void testAsymmetricSigning_RejectsForeignAndHmacTokens() throws Exception {
+        JwtTokenProvider provider = asymmetricProvider("ES256", ephemeralKeySet("ES256"));
+        JwtTokenProvider foreign = asymmetricProvider("ES256", ephemeralKeySet("ES256"));
+
+        assertTrue(provider.parseToken(foreign.generateAccessToken(userPrincipal)).isEmpty());
+        assertTrue(provider.parseToken(tokenProvider.generateAccessToken(userPrincipal)).isEmpty());
+    }
+
+    @Test
+    void testAsymmetricSigning_WithoutKeySet_FailsFast() {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "signingAlgorithm", "ES256");
+
+        assertThrows(IllegalStateException.class, provider::init);
+    }
+
+    private LocalJwtKeySet ephemeralKeySet(String algorithm) throws Exception {
+        LocalJwtKeySet keySet = new LocalJwtKeySet();
+        ReflectionTestUtils.setField(keySet, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keySet, "jwksFile", "");
+        ReflectionTestUtils.setField(keySet, "activeKeyId", "");
+        keySet.init();
+        return keySet;
+    }
+
+    private JwtTokenProvider asymmetricProvider(String algorithm, JwtKeySet keySet) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "accessTokenExpiration", 3600000L);
+        ReflectionTestUtils.setField(provider, "refreshTokenExpiration", 86400000L);
+        ReflectionTestUtils.setField(provider, "signingAlgorithm", algorithm);
+        ReflectionTestUtils.setField(provider, "keySet", keySet);
+        provider.init();
+        return provider;
+    }
 }
@@ -0,0 +1,74 @@
+package com.arcana.cloud.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalJwtKeySetTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testInit_WithoutFile_GeneratesEphemeralKey() throws Exception {
+        LocalJwtKeySet keySet = keySet("ES256", "", "");
+
+        assertNotNull(keySet.signingKeyId());
+        assertNotNull(keySet.signingKey());
+        assertNotNull(keySet.verificationKey(keySet.signingKeyId()));
+        assertNull(keySet.verificationKey("unknown"));
+    }
+
+    @Test
+    void testInit_FromFile_SignsWithActiveKeyAndPublishesAll() throws Exception {
+        Path file = writeJwks(Jwts.SIG.ES256.keyPair().build(), "old", Jwts.SIG.ES256.keyPair().build(), "new");
+
+        LocalJwtKeySet keySet = keySet("ES256", file.toString(), "new");
+
+        assertEquals("new", keySet.signingKeyId());
+        assertNotNull(keySet.verificationKey("old"));
+        assertNotNull(keySet.verificationKey("new"));
+
+        JwkSet published = Jwks.setParser().build().parse(keySet.toPublicJwksJson());
+        assertEquals(2, published.getKeys().size());
+        assertFalse(keySet.toPublicJwksJson().contains("\"d\""));
+    }
+
+    @Test
+    void testInit_UnknownActiveKey_Fails() throws Exception {
+        Path file = writeJwks(Jwts.SIG.EdDSA.keyPair().build(), "k1", Jwts.SIG.EdDSA.keyPair().build(), "k2");
+
+        assertThrows(IllegalStateException.class, () -> keySet("EdDSA", file.toString(), "missing"));
+    }
+
+    private LocalJwtKeySet keySet(String algorithm, String file, String activeKeyId) throws Exception {
+        LocalJwtKeySet keySet = new LocalJwtKeySet();
+        ReflectionTestUtils.setField(keySet, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keySet, "jwksFile", file);
+        ReflectionTestUtils.setField(keySet, "activeKeyId", activeKeyId);
+        keySet.init();
+        return keySet;
+    }
+
+    private Path writeJwks(KeyPair first, String firstId, KeyPair second, String secondId) throws Exception {
+        String json = "{\"keys\":["
+            + Jwks.UNSAFE_JSON(Jwks.builder().keyPair(first).id(firstId).build()) + ","
+            + Jwks.UNSAFE_JSON(Jwks.builder().keyPair(second).id(secondId).build()) + "]}";
+        Path file = tempDir.resolve("jwks.json");
+        Files.writeString(file, json);
+        return file;
+    }
+}
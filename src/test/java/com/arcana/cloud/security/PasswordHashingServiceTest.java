@@ -0,0 +1,130 @@
+package com.arcana.cloud.security;
+
+import com.arcana.cloud.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHashingServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testEncodeAndMatches_RunOnHashingPoolAndRecordMetrics() {
+        AtomicReference<String> hashingThread = new AtomicReference<>();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(anyString())).thenAnswer(invocation -> {
+            hashingThread.set(Thread.currentThread().getName());
+            return bcrypt.encode(invocation.getArgument(0));
+        });
+        when(delegate.matches(anyString(), anyString()))
+            .thenAnswer(invocation -> bcrypt.matches(invocation.getArgument(0), invocation.getArgument(1)));
+        service = service(delegate, 2, 10);
+
+        String hash = service.encode("Password123");
+
+        assertTrue(service.matches("Password123", hash));
+        assertFalse(service.matches("wrong", hash));
+        assertTrue(hashingThread.get().startsWith("password-hash-"));
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hashing.queue.wait").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void testSubmit_RejectsWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        service = service(delegate, 1, 1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> service.encode("running"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> service.encode("queued"));
+            waitForQueued(1);
+
+            assertThrows(TooManyRequestsException.class, () -> service.encode("rejected"));
+            assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void testUpgradeEncoding_DelegatesToTargetCost() {
+        service = service(new BCryptPasswordEncoder(5), 1, 10);
+        String weakHash = new BCryptPasswordEncoder(4).encode("Password123");
+
+        assertTrue(service.upgradeEncoding(weakHash));
+        assertFalse(service.upgradeEncoding(new BCryptPasswordEncoder(5).encode("Password123")));
+    }
+
+    @Test
+    void testEncode_PropagatesDelegateFailure() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(anyString())).thenThrow(new IllegalArgumentException("bad input"));
+        service = service(delegate, 1, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> service.encode("Password123"));
+    }
+
+    private PasswordHashingService service(PasswordEncoder delegate, int threads, int queueCapacity) {
+        PasswordHashingService hashingService = new PasswordHashingService(delegate);
+        ReflectionTestUtils.setField(hashingService, "threads", threads);
+        ReflectionTestUtils.setField(hashingService, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(hashingService, "meterRegistry", meterRegistry);
+        hashingService.init();
+        assertNotNull(ReflectionTestUtils.getField(hashingService, "executor"));
+        return hashingService;
+    }
+
+    private void waitForQueued(int expected) throws InterruptedException {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor)
+            ReflectionTestUtils.getField(service, "executor");
+        for (int i = 0; i < 100 && executor.getQueue().size() < expected; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, executor.getQueue().size());
+    }
+}
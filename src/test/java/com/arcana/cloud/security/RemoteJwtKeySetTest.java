@@ -0,0 +1,84 @@
+package com.arcana.cloud.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RemoteJwtKeySetTest {
+
+    private static final String JWKS_URL = "http://service:8081/internal/api/v1/auth/jwks";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private RemoteJwtKeySet remoteKeySet;
+    private LocalJwtKeySet issuerKeySet;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        issuerKeySet = new LocalJwtKeySet();
+        ReflectionTestUtils.setField(issuerKeySet, "algorithm", "ES256");
+        ReflectionTestUtils.setField(issuerKeySet, "jwksFile", "");
+        ReflectionTestUtils.setField(issuerKeySet, "activeKeyId", "");
+        issuerKeySet.init();
+
+        remoteKeySet = new RemoteJwtKeySet(restTemplate);
+        ReflectionTestUtils.setField(remoteKeySet, "jwksUrl", JWKS_URL);
+        ReflectionTestUtils.setField(remoteKeySet, "refreshSeconds", 300L);
+        ReflectionTestUtils.setField(remoteKeySet, "minRefreshSeconds", 10L);
+    }
+
+    @Test
+    void testVerificationKey_FetchesOnceAndCaches() {
+        when(restTemplate.getForObject(JWKS_URL, String.class)).thenReturn(issuerKeySet.toPublicJwksJson());
+
+        assertNotNull(remoteKeySet.verificationKey(issuerKeySet.signingKeyId()));
+        assertNotNull(remoteKeySet.verificationKey(issuerKeySet.signingKeyId()));
+
+        verify(restTemplate, times(1)).getForObject(JWKS_URL, String.class);
+    }
+
+    @Test
+    void testVerificationKey_UnknownKeyRefreshesAtMostOncePerInterval() {
+        when(restTemplate.getForObject(JWKS_URL, String.class)).thenReturn(issuerKeySet.toPublicJwksJson());
+
+        assertNull(remoteKeySet.verificationKey("rotated-in-later"));
+        assertNull(remoteKeySet.verificationKey("rotated-in-later"));
+
+        verify(restTemplate, times(1)).getForObject(JWKS_URL, String.class);
+    }
+
+    @Test
+    void testVerificationKey_FetchFailureKeepsPreviousKeys() {
+        when(restTemplate.getForObject(eq(JWKS_URL), eq(String.class)))
+            .thenReturn(issuerKeySet.toPublicJwksJson())
+            .thenThrow(new ResourceAccessException("service down"));
+        assertNotNull(remoteKeySet.verificationKey(issuerKeySet.signingKeyId()));
+
+        ReflectionTestUtils.setField(remoteKeySet, "fetchedAtMillis", 0L);
+
+        assertNotNull(remoteKeySet.verificationKey(issuerKeySet.signingKeyId()));
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(String.class));
+    }
+
+    @Test
+    void testVerificationKey_NullKeyId() {
+        assertNull(remoteKeySet.verificationKey(null));
+        assertEquals(0L, ReflectionTestUtils.getField(remoteKeySet, "fetchedAtMillis"));
+    }
+}
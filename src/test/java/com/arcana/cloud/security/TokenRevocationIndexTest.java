@@ -0,0 +1,134 @@
+package com.arcana.cloud.security;
+
+import com.arcana.cloud.entity.OAuthToken;
+import com.arcana.cloud.entity.User;
+import com.arcana.cloud.entity.UserRole;
+import com.arcana.cloud.repository.OAuthTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationIndexTest {
+
+    private JwtTokenProvider tokenProvider;
+    private TokenRevocationIndex index;
+    private UserPrincipal userPrincipal;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+            "test-secret-key-for-testing-only-must-be-32-chars");
+        ReflectionTestUtils.setField(tokenProvider, "accessTokenExpiration", 3600000L);
+        ReflectionTestUtils.setField(tokenProvider, "refreshTokenExpiration", 86400000L);
+
+        index = new TokenRevocationIndex(tokenProvider);
+        index.init();
+
+        userPrincipal = UserPrincipal.create(User.builder()
+            .id(1L)
+            .username("testuser")
+            .email("test@example.com")
+            .password("encoded_password")
+            .role(UserRole.USER)
+            .isActive(true)
+            .build());
+    }
+
+    @Test
+    void testRevoke_RejectsOnlyThatToken() {
+        String revokedToken = tokenProvider.generateAccessToken(userPrincipal);
+        String otherToken = tokenProvider.generateAccessToken(userPrincipal);
+
+        index.revoke(revokedToken);
+
+        assertTrue(index.isRevoked(tokenProvider.parseToken(revokedToken).orElseThrow()));
+        assertFalse(index.isRevoked(tokenProvider.parseToken(otherToken).orElseThrow()));
+    }
+
+    @Test
+    void testRevokeById_RejectsTokenIssuedWithThatId() {
+        String accessToken = tokenProvider.generateAccessToken(userPrincipal, "pair-id");
+        ParsedToken parsed = tokenProvider.parseToken(accessToken).orElseThrow();
+
+        index.revoke("pair-id", parsed.expiration().getTime());
+
+        assertTrue(index.isRevoked(parsed));
+    }
+
+    @Test
+    void testRevoke_PublishesToOtherNodes() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        @SuppressWarnings("unchecked")
+        ZSetOperations<String, String> zSetOps = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        ReflectionTestUtils.setField(index, "redisTemplate", redisTemplate);
+        String token = tokenProvider.generateAccessToken(userPrincipal);
+        String tokenId = tokenProvider.parseToken(token).orElseThrow().tokenId();
+
+        index.revoke(token);
+
+        verify(zSetOps).add(eq(TokenRevocationIndex.SNAPSHOT_KEY), eq(tokenId), anyDouble());
+        verify(redisTemplate).convertAndSend(eq(TokenRevocationIndex.CHANNEL), anyString());
+    }
+
+    @Test
+    void testOnMessage_AppliesRemoteRevocation() {
+        String token = tokenProvider.generateAccessToken(userPrincipal);
+        ParsedToken parsed = tokenProvider.parseToken(token).orElseThrow();
+        String body = parsed.tokenId() + ":" + parsed.expiration().getTime();
+
+        index.onMessage(new DefaultMessage(
+            TokenRevocationIndex.CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(index.isRevoked(parsed));
+    }
+
+    @Test
+    void testOnMessage_IgnoresMalformedAndExpiredEntries() {
+        index.onMessage(new DefaultMessage(new byte[0], "garbage".getBytes(StandardCharsets.UTF_8)), null);
+        index.onMessage(new DefaultMessage(new byte[0], "abc:notanumber".getBytes(StandardCharsets.UTF_8)), null);
+        index.onMessage(new DefaultMessage(new byte[0], "abc:1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testSeed_LoadsRevokedTokensFromRepository() {
+        String token = tokenProvider.generateAccessToken(userPrincipal);
+        OAuthTokenRepository tokenRepository = mock(OAuthTokenRepository.class);
+        when(tokenRepository.findRevokedUnexpiredTokens(any(LocalDateTime.class)))
+            .thenReturn(List.of(OAuthToken.builder().accessToken(token).isRevoked(true).build()));
+        ReflectionTestUtils.setField(index, "tokenRepository", tokenRepository);
+
+        index.seed();
+
+        assertTrue(index.isRevoked(tokenProvider.parseToken(token).orElseThrow()));
+    }
+
+    @Test
+    void testIsRevoked_TokenWithoutId() {
+        ParsedToken legacy = new ParsedToken(null, 1L, null, null, "USER", null, null, null);
+
+        assertFalse(index.isRevoked(legacy));
+    }
+}
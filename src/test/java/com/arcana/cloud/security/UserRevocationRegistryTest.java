@@ -0,0 +1,119 @@
+package com.arcana.cloud.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserRevocationRegistryTest {
+
+    private UserRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new UserRevocationRegistry();
+        ReflectionTestUtils.setField(registry, "accessTokenExpiration", 3600000L);
+        registry.init();
+    }
+
+    @Test
+    void testTokenNotRevokedByDefault() {
+        assertFalse(registry.isRevoked(token(1L, System.currentTimeMillis())));
+    }
+
+    @Test
+    void testRevokeUser_RejectsTokensIssuedBefore() {
+        ParsedToken oldToken = token(1L, System.currentTimeMillis() - 60_000);
+
+        registry.revokeUser(1L);
+
+        assertTrue(registry.isRevoked(oldToken));
+        assertFalse(registry.isRevoked(token(2L, System.currentTimeMillis() - 60_000)));
+    }
+
+    @Test
+    void testRevokeUser_AcceptsTokensIssuedAfter() {
+        registry.revokeUser(1L);
+
+        assertFalse(registry.isRevoked(token(1L, System.currentTimeMillis() + 60_000)));
+    }
+
+    @Test
+    void testRestoreUser_AcceptsTokensAgain() {
+        ParsedToken oldToken = token(1L, System.currentTimeMillis() - 60_000);
+        registry.revokeUser(1L);
+
+        registry.restoreUser(1L);
+
+        assertFalse(registry.isRevoked(oldToken));
+    }
+
+    @Test
+    void testRequireReissue_NotUndoneByRestore() {
+        ParsedToken oldToken = token(1L, System.currentTimeMillis() - 60_000);
+        registry.requireReissue(1L);
+        registry.revokeUser(1L);
+
+        registry.restoreUser(1L);
+
+        assertTrue(registry.isRevoked(oldToken));
+        assertFalse(registry.isRevoked(token(1L, System.currentTimeMillis() + 60_000)));
+    }
+
+    @Test
+    void testRevokeUser_PublishesToOtherNodes() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        @SuppressWarnings("unchecked")
+        ZSetOperations<String, String> zSetOps = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        ReflectionTestUtils.setField(registry, "redisTemplate", redisTemplate);
+
+        registry.revokeUser(1L);
+        registry.restoreUser(1L);
+
+        verify(zSetOps).add(eq(UserRevocationRegistry.SNAPSHOT_KEY), eq("D:1"), anyDouble());
+        verify(zSetOps).remove(UserRevocationRegistry.SNAPSHOT_KEY, "D:1");
+        verify(redisTemplate, times(2)).convertAndSend(eq(UserRevocationRegistry.CHANNEL), anyString());
+    }
+
+    @Test
+    void testOnMessage_AppliesRemoteRevocationAndRestore() {
+        ParsedToken oldToken = token(1L, System.currentTimeMillis() - 60_000);
+        long now = System.currentTimeMillis();
+
+        registry.onMessage(message("D:1:" + now), null);
+        assertTrue(registry.isRevoked(oldToken));
+
+        registry.onMessage(message("R:1:" + (now + 1)), null);
+        assertFalse(registry.isRevoked(oldToken));
+
+        registry.onMessage(message("N:1:" + now), null);
+        registry.onMessage(message("garbage"), null);
+        assertTrue(registry.isRevoked(oldToken));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(UserRevocationRegistry.CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ParsedToken token(Long userId, long issuedAtMillis) {
+        return new ParsedToken(null, userId, "user", "user@example.com", "USER", null,
+            new Date(issuedAtMillis), new Date(issuedAtMillis + 3600000L));
+    }
+}
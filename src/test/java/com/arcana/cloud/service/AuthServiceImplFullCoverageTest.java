@@ -14,6 +14,7 @@ import com.arcana.cloud.mapper.UserMapper;
 import com.arcana.cloud.repository.OAuthTokenRepository;
 import com.arcana.cloud.repository.UserRepository;
 import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.ParsedToken;
 import com.arcana.cloud.security.UserPrincipal;
 import com.arcana.cloud.service.impl.AuthServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +22,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -50,7 +52,8 @@ import static org.mockito.Mockito.when;
 @DisplayName("AuthServiceImpl - Full Coverage Tests")
 class AuthServiceImplFullCoverageTest {
 
-    @Mock
+    // Default methods (the async exists checks) fall through to the stubbed blocking ones
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private UserRepository userRepository;
 
     @Mock
@@ -127,8 +130,8 @@ class AuthServiceImplFullCoverageTest {
         when(userRepository.existsByEmail("charlie@example.com")).thenReturn(false);
         when(passwordEncoder.encode("Secure123!")).thenReturn("hashed");
         when(userRepository.save(any(User.class))).thenReturn(activeUser);
-        when(tokenProvider.generateAccessToken(any(UserPrincipal.class))).thenReturn("AT");
-        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class))).thenReturn("RT");
+        when(tokenProvider.generateAccessToken(any(UserPrincipal.class), any())).thenReturn("AT");
+        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class), any())).thenReturn("RT");
         when(tokenRepository.save(any(OAuthToken.class))).thenReturn(OAuthToken.builder().build());
         when(userMapper.toResponse(activeUser)).thenReturn(userResponse);
 
@@ -171,8 +174,10 @@ class AuthServiceImplFullCoverageTest {
 
         when(userRepository.existsByUsername("alice")).thenReturn(true);
 
-        assertThrows(ValidationException.class, () -> authService.register(req));
-        verify(userRepository, never()).existsByEmail(anyString());
+        // The email check is issued alongside the username check, but nothing is written
+        ValidationException ex = assertThrows(ValidationException.class, () -> authService.register(req));
+        assertEquals("Username already exists", ex.getMessage());
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -213,8 +218,8 @@ class AuthServiceImplFullCoverageTest {
             assertTrue(u.getIsActive());
             return activeUser;
         });
-        when(tokenProvider.generateAccessToken(any())).thenReturn("a");
-        when(tokenProvider.generateRefreshToken(any())).thenReturn("r");
+        when(tokenProvider.generateAccessToken(any(), any())).thenReturn("a");
+        when(tokenProvider.generateRefreshToken(any(), any())).thenReturn("r");
         when(tokenRepository.save(any())).thenReturn(OAuthToken.builder().build());
         when(userMapper.toResponse(any())).thenReturn(userResponse);
 
@@ -236,8 +241,8 @@ class AuthServiceImplFullCoverageTest {
         when(userRepository.findByUsernameOrEmail("alice", "alice"))
             .thenReturn(Optional.of(activeUser));
         when(passwordEncoder.matches("plainPw", "hashed_pw")).thenReturn(true);
-        when(tokenProvider.generateAccessToken(any())).thenReturn("AT");
-        when(tokenProvider.generateRefreshToken(any())).thenReturn("RT");
+        when(tokenProvider.generateAccessToken(any(), any())).thenReturn("AT");
+        when(tokenProvider.generateRefreshToken(any(), any())).thenReturn("RT");
         when(tokenRepository.save(any())).thenReturn(OAuthToken.builder().build());
         when(userMapper.toResponse(activeUser)).thenReturn(userResponse);
 
@@ -258,8 +263,8 @@ class AuthServiceImplFullCoverageTest {
         when(userRepository.findByUsernameOrEmail("alice@example.com", "alice@example.com"))
             .thenReturn(Optional.of(activeUser));
         when(passwordEncoder.matches("plainPw", "hashed_pw")).thenReturn(true);
-        when(tokenProvider.generateAccessToken(any())).thenReturn("AT");
-        when(tokenProvider.generateRefreshToken(any())).thenReturn("RT");
+        when(tokenProvider.generateAccessToken(any(), any())).thenReturn("AT");
+        when(tokenProvider.generateRefreshToken(any(), any())).thenReturn("RT");
         when(tokenRepository.save(any())).thenReturn(OAuthToken.builder().build());
         when(userMapper.toResponse(activeUser)).thenReturn(userResponse);
 
@@ -319,27 +324,16 @@ class AuthServiceImplFullCoverageTest {
     @Test
     @DisplayName("refreshToken: success → revokes old token, issues new tokens")
     void refreshToken_success() {
-        OAuthToken existing = OAuthToken.builder()
-            .id(10L)
-            .user(activeUser)
-            .accessToken("old_AT")
-            .refreshToken("valid_RT")
-            .isRevoked(false)
-            .expiresAt(LocalDateTime.now().plusHours(1))
-            .refreshExpiresAt(LocalDateTime.now().plusDays(30))
-            .build();
-
         RefreshTokenRequest req = RefreshTokenRequest.builder()
             .refreshToken("valid_RT")
             .build();
 
-        when(tokenProvider.validateToken("valid_RT")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("valid_RT")).thenReturn(1L);
+        when(tokenProvider.parseToken("valid_RT")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
         when(userRepository.findById(1L)).thenReturn(Optional.of(activeUser));
-        when(tokenRepository.findByRefreshToken("valid_RT")).thenReturn(Optional.of(existing));
-        when(tokenRepository.save(any(OAuthToken.class))).thenReturn(existing);
-        when(tokenProvider.generateAccessToken(any())).thenReturn("new_AT");
-        when(tokenProvider.generateRefreshToken(any())).thenReturn("new_RT");
+        when(tokenRepository.revokeIfActive(eq("valid_RT"), any(LocalDateTime.class))).thenReturn(true);
+        when(tokenProvider.generateAccessToken(any(), any())).thenReturn("new_AT");
+        when(tokenProvider.generateRefreshToken(any(), any())).thenReturn("new_RT");
         when(userMapper.toResponse(activeUser)).thenReturn(userResponse);
 
         AuthResponse resp = authService.refreshToken(req);
@@ -347,10 +341,11 @@ class AuthServiceImplFullCoverageTest {
         assertEquals("new_AT", resp.getAccessToken());
         assertEquals("new_RT", resp.getRefreshToken());
 
-        // verify old token was marked revoked
+        // old token revoked by the conditional update; only the new pair is saved
+        verify(tokenRepository).revokeIfActive(eq("valid_RT"), any(LocalDateTime.class));
         ArgumentCaptor<OAuthToken> cap = ArgumentCaptor.forClass(OAuthToken.class);
-        verify(tokenRepository, times(2)).save(cap.capture());
-        assertTrue(cap.getAllValues().get(0).getIsRevoked());
+        verify(tokenRepository, times(1)).save(cap.capture());
+        assertEquals("new_RT", cap.getValue().getRefreshToken());
     }
 
     @Test
@@ -360,7 +355,7 @@ class AuthServiceImplFullCoverageTest {
             .refreshToken("bad_RT")
             .build();
 
-        when(tokenProvider.validateToken("bad_RT")).thenReturn(false);
+        when(tokenProvider.parseToken("bad_RT")).thenReturn(Optional.empty());
 
         assertThrows(UnauthorizedException.class, () -> authService.refreshToken(req));
         verify(userRepository, never()).findById(any());
@@ -373,8 +368,8 @@ class AuthServiceImplFullCoverageTest {
             .refreshToken("valid_RT")
             .build();
 
-        when(tokenProvider.validateToken("valid_RT")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("valid_RT")).thenReturn(99L);
+        when(tokenProvider.parseToken("valid_RT")).thenReturn(Optional.of(
+            new ParsedToken(null, 99L, null, null, null, null, null, null)));
         when(userRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThrows(UnauthorizedException.class, () -> authService.refreshToken(req));
@@ -387,8 +382,8 @@ class AuthServiceImplFullCoverageTest {
             .refreshToken("valid_RT")
             .build();
 
-        when(tokenProvider.validateToken("valid_RT")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("valid_RT")).thenReturn(2L);
+        when(tokenProvider.parseToken("valid_RT")).thenReturn(Optional.of(
+            new ParsedToken(null, 2L, null, null, null, null, null, null)));
         when(userRepository.findById(2L)).thenReturn(Optional.of(inactiveUser));
 
         UnauthorizedException ex = assertThrows(UnauthorizedException.class,
@@ -403,10 +398,10 @@ class AuthServiceImplFullCoverageTest {
             .refreshToken("valid_RT")
             .build();
 
-        when(tokenProvider.validateToken("valid_RT")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("valid_RT")).thenReturn(1L);
+        when(tokenProvider.parseToken("valid_RT")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
         when(userRepository.findById(1L)).thenReturn(Optional.of(activeUser));
-        when(tokenRepository.findByRefreshToken("valid_RT")).thenReturn(Optional.empty());
+        when(tokenRepository.revokeIfActive(eq("valid_RT"), any(LocalDateTime.class))).thenReturn(false);
 
         assertThrows(UnauthorizedException.class, () -> authService.refreshToken(req));
     }
@@ -414,20 +409,14 @@ class AuthServiceImplFullCoverageTest {
     @Test
     @DisplayName("refreshToken: token already revoked → UnauthorizedException")
     void refreshToken_tokenRevoked() {
-        OAuthToken revoked = OAuthToken.builder()
-            .id(10L)
-            .refreshToken("valid_RT")
-            .isRevoked(true)
-            .build();
-
         RefreshTokenRequest req = RefreshTokenRequest.builder()
             .refreshToken("valid_RT")
             .build();
 
-        when(tokenProvider.validateToken("valid_RT")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("valid_RT")).thenReturn(1L);
+        when(tokenProvider.parseToken("valid_RT")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
         when(userRepository.findById(1L)).thenReturn(Optional.of(activeUser));
-        when(tokenRepository.findByRefreshToken("valid_RT")).thenReturn(Optional.of(revoked));
+        when(tokenRepository.revokeIfActive(eq("valid_RT"), any(LocalDateTime.class))).thenReturn(false);
 
         UnauthorizedException ex = assertThrows(UnauthorizedException.class,
             () -> authService.refreshToken(req));
@@ -502,8 +491,8 @@ class AuthServiceImplFullCoverageTest {
         when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("enc");
         when(userRepository.save(any(User.class))).thenReturn(activeUser);
-        when(tokenProvider.generateAccessToken(any())).thenReturn("A");
-        when(tokenProvider.generateRefreshToken(any())).thenReturn("R");
+        when(tokenProvider.generateAccessToken(any(), any())).thenReturn("A");
+        when(tokenProvider.generateRefreshToken(any(), any())).thenReturn("R");
         when(tokenRepository.save(tokenCaptor.capture()))
             .thenReturn(OAuthToken.builder().build());
         when(userMapper.toResponse(any())).thenReturn(userResponse);
@@ -14,11 +14,15 @@ import com.arcana.cloud.mapper.UserMapper;
 import com.arcana.cloud.repository.OAuthTokenRepository;
 import com.arcana.cloud.repository.UserRepository;
 import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.ParsedToken;
+import com.arcana.cloud.security.TokenRevocationIndex;
 import com.arcana.cloud.security.UserPrincipal;
 import com.arcana.cloud.service.impl.AuthServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -26,13 +30,20 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,7 +51,8 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class AuthServiceTest {
 
-    @Mock
+    // Default methods (the async exists checks) fall through to the stubbed blocking ones
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private UserRepository userRepository;
 
     @Mock
@@ -113,8 +125,8 @@ class AuthServiceTest {
         when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
-        when(tokenProvider.generateAccessToken(any(UserPrincipal.class))).thenReturn("access_token");
-        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class))).thenReturn("refresh_token");
+        when(tokenProvider.generateAccessToken(any(UserPrincipal.class), any())).thenReturn("access_token");
+        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class), any())).thenReturn("refresh_token");
         when(tokenRepository.save(any(OAuthToken.class))).thenReturn(OAuthToken.builder().build());
         when(userMapper.toResponse(any(User.class))).thenReturn(testUserResponse);
 
@@ -155,12 +167,28 @@ class AuthServiceTest {
         assertThrows(ValidationException.class, () -> authService.register(registerRequest));
     }
 
+    @Test
+    void testRegister_IssuesBothExistsChecksBeforeWaiting() {
+        CompletableFuture<Boolean> usernameTaken = new CompletableFuture<>();
+        when(userRepository.existsByUsernameAsync("newuser")).thenReturn(usernameTaken);
+        // The username answer only arrives once the email check has been sent as well
+        when(userRepository.existsByEmailAsync("new@example.com")).thenAnswer(invocation -> {
+            usernameTaken.complete(true);
+            return CompletableFuture.completedFuture(false);
+        });
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> authService.register(registerRequest));
+
+        assertEquals("Username already exists", ex.getMessage());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     @Test
     void testLogin_Success() {
         when(userRepository.findByUsernameOrEmail(anyString(), anyString())).thenReturn(Optional.of(testUser));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(tokenProvider.generateAccessToken(any(UserPrincipal.class))).thenReturn("access_token");
-        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class))).thenReturn("refresh_token");
+        when(tokenProvider.generateAccessToken(any(UserPrincipal.class), any())).thenReturn("access_token");
+        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class), any())).thenReturn("refresh_token");
         when(tokenRepository.save(any(OAuthToken.class))).thenReturn(OAuthToken.builder().build());
         when(userMapper.toResponse(any(User.class))).thenReturn(testUserResponse);
 
@@ -171,6 +199,32 @@ class AuthServiceTest {
         assertEquals("refresh_token", response.getRefreshToken());
     }
 
+    @Test
+    void testLogin_RehashesPasswordBelowTargetCost() {
+        when(userRepository.findByUsernameOrEmail(anyString(), anyString())).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("encoded_password")).thenReturn(true);
+        when(passwordEncoder.encode(loginRequest.getPassword())).thenReturn("rehashed_password");
+        when(userRepository.updateFields(eq(testUser.getId()), any(User.class))).thenReturn(true);
+        when(tokenProvider.generateAccessToken(any(UserPrincipal.class), any())).thenReturn("access_token");
+        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class), any())).thenReturn("refresh_token");
+        when(userMapper.toResponse(any(User.class))).thenReturn(testUserResponse);
+
+        authService.login(loginRequest);
+
+        // Only the hash is written, so concurrent changes to the rest of the row survive
+        ArgumentCaptor<User> changes = ArgumentCaptor.forClass(User.class);
+        verify(userRepository, times(1)).updateFields(eq(testUser.getId()), changes.capture());
+        verify(userRepository, never()).save(any(User.class));
+        assertEquals("rehashed_password", changes.getValue().getPassword());
+        assertNull(changes.getValue().getRole());
+        assertNull(changes.getValue().getIsActive());
+        assertNull(changes.getValue().getIsVerified());
+        assertNull(changes.getValue().getFirstName());
+        // The looked-up instance may be shared through the cache; it is left alone
+        assertEquals("encoded_password", testUser.getPassword());
+    }
+
     @Test
     void testLogin_UserNotFound() {
         when(userRepository.findByUsernameOrEmail(anyString(), anyString())).thenReturn(Optional.empty());
@@ -211,8 +265,8 @@ class AuthServiceTest {
 
         when(userRepository.findByUsernameOrEmail(anyString(), anyString())).thenReturn(Optional.of(testUser));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(tokenProvider.generateAccessToken(any(UserPrincipal.class))).thenReturn("access_token");
-        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class))).thenReturn("refresh_token");
+        when(tokenProvider.generateAccessToken(any(UserPrincipal.class), any())).thenReturn("access_token");
+        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class), any())).thenReturn("refresh_token");
         when(tokenRepository.save(any(OAuthToken.class))).thenReturn(OAuthToken.builder().build());
         when(userMapper.toResponse(any(User.class))).thenReturn(testUserResponse);
 
@@ -238,13 +292,13 @@ class AuthServiceTest {
             .isRevoked(false)
             .build();
 
-        when(tokenProvider.validateToken(anyString())).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken(anyString())).thenReturn(1L);
+        when(tokenProvider.parseToken(anyString())).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(tokenRepository.findByRefreshToken(anyString())).thenReturn(Optional.of(existingToken));
+        when(tokenRepository.revokeIfActive(eq("valid_refresh_token"), any(LocalDateTime.class))).thenReturn(true);
         when(tokenRepository.save(any(OAuthToken.class))).thenReturn(existingToken);
-        when(tokenProvider.generateAccessToken(any(UserPrincipal.class))).thenReturn("new_access_token");
-        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class))).thenReturn("new_refresh_token");
+        when(tokenProvider.generateAccessToken(any(UserPrincipal.class), any())).thenReturn("new_access_token");
+        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class), any())).thenReturn("new_refresh_token");
         when(userMapper.toResponse(any(User.class))).thenReturn(testUserResponse);
 
         AuthResponse response = authService.refreshToken(refreshRequest);
@@ -252,6 +306,27 @@ class AuthServiceTest {
         assertNotNull(response);
         assertEquals("new_access_token", response.getAccessToken());
         assertEquals("new_refresh_token", response.getRefreshToken());
+        verify(tokenRepository, never()).findByRefreshToken(anyString());
+    }
+
+    @Test
+    void testRefreshToken_RevokesPairedAccessTokenInIndex() {
+        TokenRevocationIndex revocationIndex = mock(TokenRevocationIndex.class);
+        ReflectionTestUtils.setField(authService, "revocationIndex", revocationIndex);
+        Date issuedAt = new Date();
+        RefreshTokenRequest refreshRequest = RefreshTokenRequest.builder()
+            .refreshToken("valid_refresh_token")
+            .build();
+
+        when(tokenProvider.parseToken(anyString())).thenReturn(Optional.of(
+            new ParsedToken("pair-id", 1L, null, null, null, ParsedToken.REFRESH_TYPE, issuedAt, null)));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(tokenRepository.revokeIfActive(eq("valid_refresh_token"), any(LocalDateTime.class))).thenReturn(true);
+        when(userMapper.toResponse(any(User.class))).thenReturn(testUserResponse);
+
+        authService.refreshToken(refreshRequest);
+
+        verify(revocationIndex).revoke("pair-id", issuedAt.getTime() + 3600000L);
     }
 
     @Test
@@ -260,7 +335,7 @@ class AuthServiceTest {
             .refreshToken("invalid_refresh_token")
             .build();
 
-        when(tokenProvider.validateToken(anyString())).thenReturn(false);
+        when(tokenProvider.parseToken(anyString())).thenReturn(Optional.empty());
 
         assertThrows(UnauthorizedException.class, () -> authService.refreshToken(refreshRequest));
     }
@@ -271,8 +346,8 @@ class AuthServiceTest {
             .refreshToken("valid_refresh_token")
             .build();
 
-        when(tokenProvider.validateToken(anyString())).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken(anyString())).thenReturn(999L);
+        when(tokenProvider.parseToken(anyString())).thenReturn(Optional.of(
+            new ParsedToken(null, 999L, null, null, null, null, null, null)));
         when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
         assertThrows(UnauthorizedException.class, () -> authService.refreshToken(refreshRequest));
@@ -291,8 +366,8 @@ class AuthServiceTest {
             .isActive(false)
             .build();
 
-        when(tokenProvider.validateToken(anyString())).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken(anyString())).thenReturn(1L);
+        when(tokenProvider.parseToken(anyString())).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
         when(userRepository.findById(1L)).thenReturn(Optional.of(disabledUser));
 
         assertThrows(UnauthorizedException.class, () -> authService.refreshToken(refreshRequest));
@@ -304,10 +379,10 @@ class AuthServiceTest {
             .refreshToken("valid_refresh_token")
             .build();
 
-        when(tokenProvider.validateToken(anyString())).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken(anyString())).thenReturn(1L);
+        when(tokenProvider.parseToken(anyString())).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(tokenRepository.findByRefreshToken(anyString())).thenReturn(Optional.empty());
+        when(tokenRepository.revokeIfActive(anyString(), any(LocalDateTime.class))).thenReturn(false);
 
         assertThrows(UnauthorizedException.class, () -> authService.refreshToken(refreshRequest));
     }
@@ -318,18 +393,10 @@ class AuthServiceTest {
             .refreshToken("revoked_refresh_token")
             .build();
 
-        OAuthToken revokedToken = OAuthToken.builder()
-            .id(1L)
-            .user(testUser)
-            .accessToken("access_token")
-            .refreshToken("revoked_refresh_token")
-            .isRevoked(true)
-            .build();
-
-        when(tokenProvider.validateToken(anyString())).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken(anyString())).thenReturn(1L);
+        when(tokenProvider.parseToken(anyString())).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(tokenRepository.findByRefreshToken(anyString())).thenReturn(Optional.of(revokedToken));
+        when(tokenRepository.revokeIfActive(eq("revoked_refresh_token"), any(LocalDateTime.class))).thenReturn(false);
 
         assertThrows(UnauthorizedException.class, () -> authService.refreshToken(refreshRequest));
     }
@@ -352,6 +419,21 @@ class AuthServiceTest {
         verify(tokenRepository, times(1)).revokeAllTokensByUser(testUser);
     }
 
+    @Test
+    void testLogoutAll_RevokesActiveAccessTokensInIndex() {
+        TokenRevocationIndex revocationIndex = mock(TokenRevocationIndex.class);
+        ReflectionTestUtils.setField(authService, "revocationIndex", revocationIndex);
+        List<OAuthToken> activeTokens = List.of(OAuthToken.builder().accessToken("access-1").build());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(tokenRepository.findValidTokensByUser(any(User.class), any(LocalDateTime.class)))
+            .thenReturn(activeTokens);
+
+        authService.logoutAll(1L);
+
+        verify(tokenRepository, times(1)).revokeAllTokensByUser(testUser);
+        verify(revocationIndex, times(1)).revokeAll(activeTokens);
+    }
+
     @Test
     void testLogoutAll_UserNotFound() {
         when(userRepository.findById(999L)).thenReturn(Optional.empty());
@@ -390,8 +472,8 @@ class AuthServiceTest {
         when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
         when(userRepository.save(any(User.class))).thenReturn(savedUser);
-        when(tokenProvider.generateAccessToken(any(UserPrincipal.class))).thenReturn("access_token");
-        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class))).thenReturn("refresh_token");
+        when(tokenProvider.generateAccessToken(any(UserPrincipal.class), any())).thenReturn("access_token");
+        when(tokenProvider.generateRefreshToken(any(UserPrincipal.class), any())).thenReturn("refresh_token");
         when(tokenRepository.save(any(OAuthToken.class))).thenReturn(OAuthToken.builder().build());
         when(userMapper.toResponse(any(User.class))).thenReturn(savedUserResponse);
 
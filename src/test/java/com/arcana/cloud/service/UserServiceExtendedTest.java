@@ -12,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -23,6 +24,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -119,7 +121,8 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.existsByUsername("existinguser")).thenReturn(true);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenThrow(
+            new DataIntegrityViolationException("Duplicate entry 'existinguser' for key 'users.username'"));
 
         assertThrows(ValidationException.class, () -> userService.updateUser(1L, userUpdate));
     }
@@ -131,7 +134,8 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.existsByEmail("existing@example.com")).thenReturn(true);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenThrow(
+            new DataIntegrityViolationException("Duplicate entry 'existing@example.com' for key 'users.email'"));
 
         assertThrows(ValidationException.class, () -> userService.updateUser(1L, userUpdate));
     }
@@ -144,13 +148,13 @@ class UserServiceExtendedTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(passwordEncoder.encode("newPassword123")).thenReturn("new_encoded_password");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         User updated = userService.updateUser(1L, userUpdate);
 
         assertNotNull(updated);
         verify(passwordEncoder).encode("newPassword123");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).updateFields(eq(1L), any(User.class));
     }
 
     @Test
@@ -160,7 +164,7 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         User updated = userService.updateUser(1L, userUpdate);
 
@@ -174,7 +178,7 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         User updated = userService.updateUser(1L, userUpdate);
 
@@ -189,12 +193,12 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         User updated = userService.updateUser(1L, userUpdate);
 
         assertNotNull(updated);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).updateFields(eq(1L), any(User.class));
     }
 
     @Test
@@ -205,12 +209,12 @@ class UserServiceExtendedTest {
             .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         User updated = userService.updateUser(1L, userUpdate);
 
         assertNotNull(updated);
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).updateFields(eq(1L), any(User.class));
     }
 
     @Test
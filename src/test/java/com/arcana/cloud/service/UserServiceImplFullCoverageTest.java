@@ -13,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -31,6 +32,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -80,8 +82,6 @@ class UserServiceImplFullCoverageTest {
             .password("plain")
             .build();
 
-        when(userRepository.existsByUsername("bob")).thenReturn(false);
-        when(userRepository.existsByEmail("bob@example.com")).thenReturn(false);
         when(passwordEncoder.encode("plain")).thenReturn("encoded");
         when(userRepository.save(any(User.class))).thenReturn(existingUser);
 
@@ -93,7 +93,7 @@ class UserServiceImplFullCoverageTest {
     }
 
     @Test
-    @DisplayName("createUser: username taken → ValidationException, no save")
+    @DisplayName("createUser: username taken → unique index rejects insert → ValidationException")
     void createUser_usernameExists() {
         User newUser = User.builder()
             .username("alice")
@@ -101,15 +101,17 @@ class UserServiceImplFullCoverageTest {
             .password("plain")
             .build();
 
-        when(userRepository.existsByUsername("alice")).thenReturn(true);
+        when(passwordEncoder.encode("plain")).thenReturn("encoded");
+        when(userRepository.save(any(User.class))).thenThrow(
+            new DuplicateKeyException("Duplicate entry 'alice' for key 'users.username'"));
 
-        assertThrows(ValidationException.class, () -> userService.createUser(newUser));
-        verify(userRepository, never()).save(any());
-        verify(passwordEncoder, never()).encode(anyString());
+        ValidationException ex = assertThrows(ValidationException.class, () -> userService.createUser(newUser));
+        assertEquals("Username already exists", ex.getMessage());
+        verify(userRepository, never()).existsByUsername(anyString());
     }
 
     @Test
-    @DisplayName("createUser: email taken → ValidationException, no save")
+    @DisplayName("createUser: email taken → unique index rejects insert → ValidationException")
     void createUser_emailExists() {
         User newUser = User.builder()
             .username("bob")
@@ -117,11 +119,13 @@ class UserServiceImplFullCoverageTest {
             .password("plain")
             .build();
 
-        when(userRepository.existsByUsername("bob")).thenReturn(false);
-        when(userRepository.existsByEmail("alice@example.com")).thenReturn(true);
+        when(passwordEncoder.encode("plain")).thenReturn("encoded");
+        when(userRepository.save(any(User.class))).thenThrow(
+            new DuplicateKeyException("E11000 duplicate key error collection: arcana.users index: email_1"));
 
-        assertThrows(ValidationException.class, () -> userService.createUser(newUser));
-        verify(userRepository, never()).save(any());
+        ValidationException ex = assertThrows(ValidationException.class, () -> userService.createUser(newUser));
+        assertEquals("Email already exists", ex.getMessage());
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     // ─── getUserById() ───────────────────────────────────────────────────────
@@ -275,9 +279,12 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().username("takenname").build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.existsByUsername("takenname")).thenReturn(true);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenThrow(
+            new DuplicateKeyException("Duplicate entry 'takenname' for key 'users.username'"));
 
-        assertThrows(ValidationException.class, () -> userService.updateUser(1L, update));
+        ValidationException ex = assertThrows(ValidationException.class, () -> userService.updateUser(1L, update));
+        assertEquals("Username already exists", ex.getMessage());
+        assertEquals("alice", existingUser.getUsername());
         verify(userRepository, never()).save(any());
     }
 
@@ -287,7 +294,7 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().username("alice").build(); // same as existing
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         User result = userService.updateUser(1L, update);
 
@@ -301,9 +308,11 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().email("taken@example.com").build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenThrow(
+            new DuplicateKeyException("duplicate key value violates unique constraint \"users_email_key\""));
 
-        assertThrows(ValidationException.class, () -> userService.updateUser(1L, update));
+        ValidationException ex = assertThrows(ValidationException.class, () -> userService.updateUser(1L, update));
+        assertEquals("Email already exists", ex.getMessage());
     }
 
     @Test
@@ -312,7 +321,7 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().email("alice@example.com").build(); // same as existing
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         User result = userService.updateUser(1L, update);
 
@@ -327,7 +336,7 @@ class UserServiceImplFullCoverageTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
         when(passwordEncoder.encode("newPlain")).thenReturn("newHashed");
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         userService.updateUser(1L, update);
 
@@ -341,7 +350,7 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().firstName("Alicia").build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         userService.updateUser(1L, update);
 
@@ -354,7 +363,7 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().lastName("Jones").build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         userService.updateUser(1L, update);
 
@@ -367,7 +376,7 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().isActive(false).build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         userService.updateUser(1L, update);
 
@@ -380,7 +389,7 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().isVerified(true).build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         userService.updateUser(1L, update);
 
@@ -393,7 +402,7 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().build(); // all null
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         User result = userService.updateUser(1L, update);
 
@@ -407,8 +416,7 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().username("alice_new").build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.existsByUsername("alice_new")).thenReturn(false);
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         userService.updateUser(1L, update);
 
@@ -421,8 +429,7 @@ class UserServiceImplFullCoverageTest {
         User update = User.builder().email("alice_new@example.com").build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.existsByEmail("alice_new@example.com")).thenReturn(false);
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         userService.updateUser(1L, update);
 
@@ -1,31 +1,54 @@
 package com.arcana.cloud.service;
 
+import com.arcana.cloud.cache.UserCache;
+import com.arcana.cloud.cache.UserKeyFilter;
+import com.arcana.cloud.dao.UserCursor;
+import com.arcana.cloud.dto.response.CursorPage;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
 import com.arcana.cloud.exception.ResourceNotFoundException;
 import com.arcana.cloud.exception.ValidationException;
 import com.arcana.cloud.repository.UserRepository;
+import com.arcana.cloud.security.ParsedToken;
+import com.arcana.cloud.security.UserRevocationRegistry;
 import com.arcana.cloud.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -67,8 +90,6 @@ class UserServiceTest {
             .password("plainPassword")
             .build();
 
-        when(userRepository.existsByUsername(anyString())).thenReturn(false);
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
@@ -77,6 +98,8 @@ class UserServiceTest {
         assertNotNull(createdUser);
         assertEquals("testuser", createdUser.getUsername());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     @Test
@@ -87,9 +110,12 @@ class UserServiceTest {
             .password("plainPassword")
             .build();
 
-        when(userRepository.existsByUsername(anyString())).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException(
+            "Duplicate entry 'existinguser' for key 'users.username'"));
 
-        assertThrows(ValidationException.class, () -> userService.createUser(newUser));
+        ValidationException e = assertThrows(ValidationException.class, () -> userService.createUser(newUser));
+        assertEquals("Username already exists", e.getMessage());
     }
 
     @Test
@@ -100,10 +126,59 @@ class UserServiceTest {
             .password("plainPassword")
             .build();
 
-        when(userRepository.existsByUsername(anyString())).thenReturn(false);
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException(
+            "duplicate key value violates unique constraint \"users_email_key\""));
+
+        ValidationException e = assertThrows(ValidationException.class, () -> userService.createUser(newUser));
+        assertEquals("Email already exists", e.getMessage());
+    }
+
+    @Test
+    void testCreateUser_KeyFilterNegativeSkipsExistsQueries() {
+        UserKeyFilter keyFilter = mock(UserKeyFilter.class);
+        ReflectionTestUtils.setField(userService, "userKeyFilter", keyFilter);
+        User newUser = User.builder()
+            .username("newuser")
+            .email("new@example.com")
+            .password("plainPassword")
+            .build();
+        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        userService.createUser(newUser);
+
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(keyFilter).add(testUser);
+    }
+
+    @Test
+    void testCreateUser_ConstraintViolationReportedAsValidationError() {
+        User newUser = User.builder()
+            .username("newuser")
+            .email("new@example.com")
+            .password("plainPassword")
+            .build();
+        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class)))
+            .thenThrow(new DuplicateKeyException("duplicate key"));
+
+        ValidationException e = assertThrows(ValidationException.class, () -> userService.createUser(newUser));
+        assertEquals("Username or email already exists", e.getMessage());
+    }
+
+    @Test
+    void testCreateUser_NotNullViolationIsNotReportedAsDuplicate() {
+        User newUser = User.builder()
+            .username("newuser")
+            .password("plainPassword")
+            .build();
+        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class)))
+            .thenThrow(new DataIntegrityViolationException("Column 'email' cannot be null"));
 
-        assertThrows(ValidationException.class, () -> userService.createUser(newUser));
+        assertThrows(DataIntegrityViolationException.class, () -> userService.createUser(newUser));
     }
 
     @Test
@@ -135,6 +210,76 @@ class UserServiceTest {
         assertEquals("testuser", result.getContent().get(0).getUsername());
     }
 
+    @Test
+    void testExportUsers_StreamsFromRepository() {
+        when(userRepository.streamAll(any())).thenAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(0);
+            action.accept(testUser);
+            return 1L;
+        });
+        List<User> exported = new ArrayList<>();
+
+        assertEquals(1L, userService.exportUsers(exported::add));
+        assertEquals(List.of(testUser), exported);
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetUsersByIds_OneQueryInRequestOrder() {
+        User other = User.builder().id(2L).username("other").build();
+        when(userRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(testUser, other));
+
+        List<User> result = userService.getUsersByIds(Arrays.asList(2L, 3L, null, 1L, 2L));
+
+        assertEquals(List.of(other, testUser), result);
+        verify(userRepository, times(1)).findAllById(any());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetUsersByIds_TooMany() {
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        assertThrows(ValidationException.class, () -> userService.getUsersByIds(ids));
+        verify(userRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testGetUsersAfter_FullPageHasNextCursorAndNoCount() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<User> rows = List.of(
+            User.builder().id(3L).createdAt(createdAt).build(),
+            User.builder().id(2L).createdAt(createdAt).build(),
+            User.builder().id(1L).createdAt(createdAt).build());
+        when(userRepository.findAllAfter(null, 3)).thenReturn(rows);
+
+        CursorPage<User> result = userService.getUsersAfter(null, 2, false);
+
+        assertEquals(2, result.getContent().size());
+        assertEquals(new UserCursor(createdAt, 2L), UserCursor.decode(result.getNextCursor()));
+        assertNull(result.getTotalElements());
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void testGetUsersAfter_LastPageHasNoNextCursor() {
+        UserCursor after = new UserCursor(LocalDateTime.of(2024, 1, 1, 0, 0), 5L);
+        when(userRepository.findAllAfter(after, 21)).thenReturn(List.of(testUser));
+        when(userRepository.count()).thenReturn(6L);
+
+        CursorPage<User> result = userService.getUsersAfter(after.encode(), 20, true);
+
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNextCursor());
+        assertEquals(6L, result.getTotalElements());
+    }
+
+    @Test
+    void testGetUsersAfter_InvalidCursor() {
+        assertThrows(ValidationException.class, () -> userService.getUsersAfter("not-a-cursor", 20, false));
+        assertThrows(ValidationException.class, () -> userService.getUsersAfter(null, 0, false));
+    }
+
     @Test
     void testUpdateUser_Success() {
         User userUpdate = User.builder()
@@ -143,12 +288,85 @@ class UserServiceTest {
             .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
 
         User updatedUser = userService.updateUser(1L, userUpdate);
 
-        assertNotNull(updatedUser);
-        verify(userRepository, times(1)).save(any(User.class));
+        assertEquals("Updated", updatedUser.getFirstName());
+        assertEquals("Name", updatedUser.getLastName());
+        assertNotNull(updatedUser.getUpdatedAt());
+        ArgumentCaptor<User> changes = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).updateFields(eq(1L), changes.capture());
+        assertEquals("Updated", changes.getValue().getFirstName());
+        assertNull(changes.getValue().getUsername());
+        assertNull(changes.getValue().getEmail());
+        assertNull(changes.getValue().getRole());
+        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByUsername(anyString());
+    }
+
+    @Test
+    void testUpdateUser_Deactivate_RevokesExistingTokens() {
+        UserRevocationRegistry registry = new UserRevocationRegistry();
+        ReflectionTestUtils.setField(registry, "accessTokenExpiration", 3600000L);
+        registry.init();
+        ReflectionTestUtils.setField(userService, "userRevocationRegistry", registry);
+        ParsedToken issuedBefore = new ParsedToken(null, 1L, "testuser", "test@example.com", "USER", null,
+            new Date(System.currentTimeMillis() - 1000), new Date(System.currentTimeMillis() + 3600000));
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
+
+        userService.updateUser(1L, User.builder().isActive(false).build());
+        assertTrue(registry.isRevoked(issuedBefore));
+
+        userService.updateUser(1L, User.builder().isActive(true).build());
+        assertFalse(registry.isRevoked(issuedBefore));
+    }
+
+    @Test
+    void testChangeRole_RevokesTokensForGood() {
+        UserRevocationRegistry registry = new UserRevocationRegistry();
+        ReflectionTestUtils.setField(registry, "accessTokenExpiration", 3600000L);
+        registry.init();
+        ReflectionTestUtils.setField(userService, "userRevocationRegistry", registry);
+        ParsedToken issuedBefore = new ParsedToken(null, 1L, "testuser", "test@example.com", "USER", null,
+            new Date(System.currentTimeMillis() - 1000), new Date(System.currentTimeMillis() + 3600000));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
+
+        User updated = userService.changeRole(1L, UserRole.ADMIN);
+
+        assertEquals(UserRole.ADMIN, updated.getRole());
+        assertTrue(registry.isRevoked(issuedBefore));
+    }
+
+    @Test
+    void testUpdateUser_IgnoresRole() {
+        UserRevocationRegistry registry = mock(UserRevocationRegistry.class);
+        ReflectionTestUtils.setField(userService, "userRevocationRegistry", registry);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
+
+        // Roles change only through changeRole, so a role left in an update is not applied
+        userService.updateUser(1L, User.builder().role(UserRole.ADMIN).firstName("New").build());
+
+        ArgumentCaptor<User> changes = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).updateFields(eq(1L), changes.capture());
+        assertNull(changes.getValue().getRole());
+        verify(registry, never()).requireReissue(any());
+    }
+
+    @Test
+    void testUpdateUser_UsernameChange_EvictsOldAndNewCacheKeys() {
+        UserCache userCache = mock(UserCache.class);
+        ReflectionTestUtils.setField(userService, "userCache", userCache);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
+
+        userService.updateUser(1L, User.builder().username("renamed").build());
+
+        verify(userCache).evict(1L, "testuser", "test@example.com", "renamed", "test@example.com");
     }
 
     @Test
@@ -162,6 +380,45 @@ class UserServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> userService.updateUser(999L, userUpdate));
     }
 
+    @Test
+    void testUpdateUser_UnchangedKeysAreNotWritten() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.encode("newPassword")).thenReturn("new_encoded");
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(true);
+
+        User updatedUser = userService.updateUser(1L, User.builder()
+            .username("testuser").email("test@example.com").password("newPassword").build());
+
+        ArgumentCaptor<User> changes = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).updateFields(eq(1L), changes.capture());
+        assertNull(changes.getValue().getUsername());
+        assertNull(changes.getValue().getEmail());
+        assertEquals("new_encoded", changes.getValue().getPassword());
+        assertEquals("new_encoded", updatedUser.getPassword());
+    }
+
+    @Test
+    void testUpdateUser_TakenUsernameReportedAsValidationError() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenThrow(new DataIntegrityViolationException(
+            "Unique index or primary key violation: \"PUBLIC.CONSTRAINT_INDEX_4 ON PUBLIC.USERS(USERNAME)\"; "
+                + "SQL statement:\nupdate users set updated_at=?, username=?, email=? where id=?"));
+
+        ValidationException e = assertThrows(ValidationException.class,
+            () -> userService.updateUser(1L, User.builder().username("taken").build()));
+        assertEquals("Username already exists", e.getMessage());
+        assertEquals("testuser", testUser.getUsername());
+    }
+
+    @Test
+    void testUpdateUser_DeletedConcurrently() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.updateFields(eq(1L), any(User.class))).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+            () -> userService.updateUser(1L, User.builder().firstName("Updated").build()));
+    }
+
     @Test
     void testDeleteUser_Success() {
         when(userRepository.existsById(1L)).thenReturn(true);
@@ -0,0 +1,108 @@
+package com.arcana.cloud.service.client;
+
+import com.arcana.cloud.grpc.ExistsByEmailRequest;
+import com.arcana.cloud.grpc.ExistsByUsernameRequest;
+import com.arcana.cloud.grpc.ExistsResponse;
+import com.arcana.cloud.grpc.UserServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("GrpcBackendMetricsInterceptor")
+class GrpcBackendMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private String serverName;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+                .directExecutor()
+                .addService(new UserServiceGrpc.UserServiceImplBase() {
+                    @Override
+                    public void existsByUsername(ExistsByUsernameRequest request,
+                                                 StreamObserver<ExistsResponse> responseObserver) {
+                        responseObserver.onNext(ExistsResponse.newBuilder().setExists(true).build());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName)
+                .directExecutor()
+                .intercept(new GrpcBackendMetricsInterceptor(registry, "users:9090"))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("each call is timed with its target, backend, method and status")
+    void recordsCallsPerBackend() {
+        UserServiceGrpc.UserServiceBlockingStub stub = UserServiceGrpc.newBlockingStub(channel);
+
+        stub.existsByUsername(ExistsByUsernameRequest.newBuilder().setUsername("a").build());
+        stub.existsByUsername(ExistsByUsernameRequest.newBuilder().setUsername("b").build());
+        StatusRuntimeException failed = assertThrows(StatusRuntimeException.class,
+                () -> stub.existsByEmail(ExistsByEmailRequest.newBuilder().setEmail("c").build()));
+        assertEquals(Status.Code.UNIMPLEMENTED, failed.getStatus().getCode());
+
+        Timer ok = registry.get(GrpcBackendMetricsInterceptor.METRIC_NAME)
+                .tag("target", "users:9090")
+                .tag("method", "arcana.cloud.UserService/ExistsByUsername")
+                .tag("status", "OK")
+                .timer();
+        Timer unimplemented = registry.get(GrpcBackendMetricsInterceptor.METRIC_NAME)
+                .tag("method", "arcana.cloud.UserService/ExistsByEmail")
+                .tag("status", "UNIMPLEMENTED")
+                .timer();
+
+        assertEquals(2, ok.count());
+        assertEquals(1, unimplemented.count());
+        assertNotEquals("none", ok.getId().getTag("backend"));
+    }
+
+    @Test
+    @DisplayName("timers beyond the bound are removed from the registry")
+    void boundsRegisteredTimers() throws Exception {
+        GrpcBackendMetricsInterceptor bounded = new GrpcBackendMetricsInterceptor(registry, "users:9090", 1);
+        ManagedChannel boundedChannel = InProcessChannelBuilder.forName(serverName)
+                .directExecutor()
+                .intercept(bounded)
+                .build();
+        try {
+            UserServiceGrpc.UserServiceBlockingStub stub = UserServiceGrpc.newBlockingStub(boundedChannel);
+            stub.existsByUsername(ExistsByUsernameRequest.newBuilder().setUsername("a").build());
+            assertThrows(StatusRuntimeException.class,
+                    () -> stub.existsByEmail(ExistsByEmailRequest.newBuilder().setEmail("c").build()));
+
+            assertEquals(1, bounded.meterCount());
+            assertEquals(1, registry.find(GrpcBackendMetricsInterceptor.METRIC_NAME).timers().size());
+        } finally {
+            boundedChannel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.arcana.cloud.service.client;
+
+import com.arcana.cloud.grpc.ExistsByUsernameRequest;
+import com.arcana.cloud.grpc.ExistsResponse;
+import com.arcana.cloud.grpc.UserServiceGrpc;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("GrpcChannelPool")
+class GrpcChannelPoolTest {
+
+    private Server first;
+    private Server second;
+    private ManagedChannel pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String firstName = InProcessServerBuilder.generateName();
+        String secondName = InProcessServerBuilder.generateName();
+        first = start(firstName, true);
+        second = start(secondName, false);
+        pool = GrpcChannelPool.of(List.of(
+                InProcessChannelBuilder.forName(firstName).directExecutor().build(),
+                InProcessChannelBuilder.forName(secondName).directExecutor().build()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        first.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        second.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("calls are handed to the pooled channels in turn")
+    void newCall_roundRobin() {
+        UserServiceGrpc.UserServiceBlockingStub stub = UserServiceGrpc.newBlockingStub(pool);
+
+        List<Boolean> answers = IntStream.range(0, 4)
+                .mapToObj(_ -> stub.existsByUsername(ExistsByUsernameRequest.newBuilder().setUsername("u").build())
+                        .getExists())
+                .toList();
+
+        assertEquals(List.of(true, false, true, false), answers);
+    }
+
+    @Test
+    @DisplayName("shutdown and termination cover every pooled channel")
+    void shutdown_allChannels() throws Exception {
+        pool.shutdown();
+
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(pool.isShutdown());
+        assertTrue(pool.isTerminated());
+        ((GrpcChannelPool) pool).channels().forEach(channel -> assertTrue(channel.isTerminated()));
+        assertEquals(ConnectivityState.SHUTDOWN, pool.getState(false));
+    }
+
+    @Test
+    @DisplayName("a single channel is not wrapped; an empty pool is rejected")
+    void of_singleAndEmpty() {
+        ManagedChannel single = InProcessChannelBuilder.forName("unused").build();
+        try {
+            assertSame(single, GrpcChannelPool.of(List.of(single)));
+        } finally {
+            single.shutdownNow();
+        }
+        assertThrows(IllegalArgumentException.class, () -> GrpcChannelPool.of(List.of()));
+    }
+
+    private static Server start(String name, boolean exists) throws Exception {
+        return InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new UserServiceGrpc.UserServiceImplBase() {
+                    @Override
+                    public void existsByUsername(ExistsByUsernameRequest request,
+                                                 StreamObserver<ExistsResponse> responseObserver) {
+                        responseObserver.onNext(ExistsResponse.newBuilder().setExists(exists).build());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+    }
+}
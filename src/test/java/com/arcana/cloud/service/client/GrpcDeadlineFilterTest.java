@@ -0,0 +1,116 @@
+package com.arcana.cloud.service.client;
+
+import com.arcana.cloud.grpc.ExistsByUsernameRequest;
+import com.arcana.cloud.grpc.ExistsResponse;
+import com.arcana.cloud.grpc.UserServiceGrpc;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("GrpcDeadlineFilter")
+class GrpcDeadlineFilterTest {
+
+    private final AtomicReference<Deadline> serverDeadline = new AtomicReference<>();
+
+    private GrpcDeadlineFilter filter;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        filter = new GrpcDeadlineFilter();
+        ReflectionTestUtils.setField(filter, "requestBudgetMs", 10_000L);
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new UserServiceGrpc.UserServiceImplBase() {
+                    @Override
+                    public void existsByUsername(ExistsByUsernameRequest request,
+                                                 StreamObserver<ExistsResponse> responseObserver) {
+                        serverDeadline.set(Context.current().getDeadline());
+                        responseObserver.onNext(ExistsResponse.newBuilder().setExists(true).build());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("gRPC calls made for the request carry the request budget")
+    void budget_propagatesToCalls() throws Exception {
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), existsCall());
+
+        assertNotNull(serverDeadline.get());
+        long remainingMs = serverDeadline.get().timeRemaining(TimeUnit.MILLISECONDS);
+        assertTrue(remainingMs > 5_000 && remainingMs <= 10_000, "remaining " + remainingMs);
+    }
+
+    @Test
+    @DisplayName("the timeout header shortens the budget but never extends it")
+    void header_onlyShortens() throws Exception {
+        MockHttpServletRequest shorter = new MockHttpServletRequest();
+        shorter.addHeader(GrpcDeadlineFilter.TIMEOUT_HEADER, "500");
+        filter.doFilter(shorter, new MockHttpServletResponse(), existsCall());
+        assertTrue(serverDeadline.get().timeRemaining(TimeUnit.MILLISECONDS) <= 500);
+
+        MockHttpServletRequest longer = new MockHttpServletRequest();
+        longer.addHeader(GrpcDeadlineFilter.TIMEOUT_HEADER, "60000");
+        filter.doFilter(longer, new MockHttpServletResponse(), existsCall());
+        assertTrue(serverDeadline.get().timeRemaining(TimeUnit.MILLISECONDS) <= 10_000);
+    }
+
+    @Test
+    @DisplayName("a zero budget leaves calls without a deadline")
+    void zeroBudget_noDeadline() throws Exception {
+        ReflectionTestUtils.setField(filter, "requestBudgetMs", 0L);
+
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), existsCall());
+
+        assertNull(serverDeadline.get());
+    }
+
+    @Test
+    @DisplayName("the request's context is cancelled once the request completes")
+    void context_cancelledAfterRequest() throws Exception {
+        AtomicReference<Context> requestContext = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (_, _) -> requestContext.set(Context.current()));
+
+        assertTrue(requestContext.get().isCancelled());
+        assertNull(Context.current().getDeadline());
+    }
+
+    private FilterChain existsCall() {
+        return (_, _) -> UserServiceGrpc.newBlockingStub(channel)
+                .existsByUsername(ExistsByUsernameRequest.newBuilder().setUsername("u").build());
+    }
+}
@@ -0,0 +1,89 @@
+package com.arcana.cloud.service.client;
+
+import com.google.common.util.concurrent.SettableFuture;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("GrpcFutures")
+class GrpcFuturesTest {
+
+    @Test
+    @DisplayName("toCompletableFuture: completes with the call's response")
+    void toCompletableFuture_success() {
+        SettableFuture<String> call = SettableFuture.create();
+        CompletableFuture<String> future = GrpcFutures.toCompletableFuture(call);
+
+        assertFalse(future.isDone());
+        call.set("response");
+
+        assertEquals("response", future.join());
+    }
+
+    @Test
+    @DisplayName("await: rethrows the call's StatusRuntimeException unwrapped")
+    void await_rethrowsStatusException() {
+        SettableFuture<String> call = SettableFuture.create();
+        StatusRuntimeException failure = Status.UNAVAILABLE.asRuntimeException();
+        call.setException(failure);
+
+        StatusRuntimeException thrown = assertThrows(StatusRuntimeException.class,
+                () -> GrpcFutures.await(GrpcFutures.toCompletableFuture(call)));
+
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    @DisplayName("await: a checked failure stays wrapped")
+    void await_wrapsCheckedException() {
+        CompletableFuture<String> future = CompletableFuture.failedFuture(new IOException("boom"));
+
+        CompletionException thrown = assertThrows(CompletionException.class, () -> GrpcFutures.await(future));
+
+        assertInstanceOf(IOException.class, thrown.getCause());
+    }
+
+    @Test
+    @DisplayName("cancelling the future cancels the call")
+    void cancel_propagatesToCall() {
+        SettableFuture<String> call = SettableFuture.create();
+
+        GrpcFutures.toCompletableFuture(call).cancel(true);
+
+        assertTrue(call.isCancelled());
+    }
+
+    @Test
+    @DisplayName("unwrap: strips nested CompletionExceptions")
+    void unwrap_nested() {
+        IllegalStateException cause = new IllegalStateException("cause");
+
+        assertSame(cause, GrpcFutures.unwrap(new CompletionException(new CompletionException(cause))));
+        assertSame(cause, GrpcFutures.unwrap(cause));
+    }
+
+    @Test
+    @DisplayName("newVirtualThreadExecutor: tasks run on named virtual threads")
+    void virtualThreadExecutor() throws Exception {
+        try (ExecutorService executor = GrpcFutures.newVirtualThreadExecutor("grpc-test")) {
+            Future<Thread> thread = executor.submit(Thread::currentThread);
+
+            assertTrue(thread.get().isVirtual());
+            assertTrue(thread.get().getName().startsWith("grpc-test-"));
+        }
+    }
+}
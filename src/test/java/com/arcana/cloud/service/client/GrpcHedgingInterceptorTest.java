@@ -0,0 +1,176 @@
+package com.arcana.cloud.service.client;
+
+import com.arcana.cloud.grpc.ExistsByEmailRequest;
+import com.arcana.cloud.grpc.ExistsByUsernameRequest;
+import com.arcana.cloud.grpc.ExistsResponse;
+import com.arcana.cloud.grpc.UserServiceGrpc;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("GrpcHedgingInterceptor")
+class GrpcHedgingInterceptorTest {
+
+    private static final String EXISTS_BY_USERNAME = "arcana.cloud.UserService/ExistsByUsername";
+
+    private final AtomicInteger usernameCalls = new AtomicInteger();
+    private final AtomicInteger emailCalls = new AtomicInteger();
+    private final CountDownLatch stalledCancelled = new CountDownLatch(1);
+
+    private Server server;
+    private ManagedChannel channel;
+    private GrpcHedgingInterceptor hedging;
+    private UserServiceGrpc.UserServiceBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new UserServiceGrpc.UserServiceImplBase() {
+                    @Override
+                    public void existsByUsername(ExistsByUsernameRequest request,
+                                                 StreamObserver<ExistsResponse> responseObserver) {
+                        if (usernameCalls.incrementAndGet() == 1) {
+                            // The first replica stalls until the hedge wins and cancels it
+                            ((ServerCallStreamObserver<ExistsResponse>) responseObserver)
+                                    .setOnCancelHandler(stalledCancelled::countDown);
+                            return;
+                        }
+                        responseObserver.onNext(ExistsResponse.newBuilder().setExists(true).build());
+                        responseObserver.onCompleted();
+                    }
+
+                    @Override
+                    public void existsByEmail(ExistsByEmailRequest request,
+                                              StreamObserver<ExistsResponse> responseObserver) {
+                        emailCalls.incrementAndGet();
+                        responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                    }
+                })
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        hedging = new GrpcHedgingInterceptor(Set.of("ExistsByUsername"), 2, 0.95, 1, 50);
+        stub = UserServiceGrpc.newBlockingStub(ClientInterceptors.intercept(channel, hedging))
+                .withDeadlineAfter(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("a stalled call is answered by its hedge and then cancelled")
+    void stalledCall_hedgeWins() throws Exception {
+        ExistsResponse response = stub.existsByUsername(
+                ExistsByUsernameRequest.newBuilder().setUsername("u").build());
+
+        assertTrue(response.getExists());
+        assertEquals(2, usernameCalls.get());
+        assertTrue(stalledCancelled.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("methods that are not listed are sent once")
+    void unlistedMethod_notHedged() {
+        StatusRuntimeException thrown = assertThrows(StatusRuntimeException.class,
+                () -> stub.existsByEmail(ExistsByEmailRequest.newBuilder().setEmail("u@example.com").build()));
+
+        assertEquals(Status.Code.UNAVAILABLE, thrown.getStatus().getCode());
+        assertEquals(1, emailCalls.get());
+    }
+
+    @Test
+    @DisplayName("the default delay applies until a method has enough samples")
+    void delay_defaultUntilSampled() {
+        stub.existsByUsername(ExistsByUsernameRequest.newBuilder().setUsername("u").build());
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), hedging.delayNanos(EXISTS_BY_USERNAME));
+    }
+
+    @Test
+    @DisplayName("LatencyWindow: percentile over the recorded samples")
+    void latencyWindow_percentile() {
+        GrpcHedgingInterceptor.LatencyWindow window = new GrpcHedgingInterceptor.LatencyWindow();
+        for (int i = 1; i < GrpcHedgingInterceptor.MIN_SAMPLES; i++) {
+            window.add(i);
+        }
+        assertEquals(-1, window.percentile(0.95));
+
+        for (int i = GrpcHedgingInterceptor.MIN_SAMPLES; i <= 100; i++) {
+            window.add(i);
+        }
+        assertEquals(95, window.percentile(0.95));
+        assertEquals(100, window.percentile(1.0));
+    }
+
+    @Test
+    @DisplayName("LatencyWindow: older samples leave the percentile as new ones arrive")
+    void latencyWindow_slides() {
+        GrpcHedgingInterceptor.LatencyWindow window = new GrpcHedgingInterceptor.LatencyWindow();
+        for (int i = 0; i < 512; i++) {
+            window.add(1_000);
+        }
+        for (int i = 0; i < 512; i++) {
+            window.add(10);
+        }
+
+        assertEquals(10, window.percentile(1.0));
+    }
+
+    @Test
+    @DisplayName("HedgeBudget: hedges are limited to the ratio of calls once the burst is spent")
+    void hedgeBudget_limitsHedges() {
+        GrpcHedgingInterceptor.HedgeBudget budget = new GrpcHedgingInterceptor.HedgeBudget(0.1, 2);
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        int hedges = 0;
+        for (int call = 0; call < 100; call++) {
+            budget.deposit();
+            if (budget.tryWithdraw()) {
+                hedges++;
+            }
+        }
+        assertEquals(10, hedges);
+    }
+
+    @Test
+    @DisplayName("the losing attempt's latency is not recorded, the winner's counts from the call start")
+    void hedgedCall_recordsFromCallStart() {
+        GrpcHedgingInterceptor slowest = new GrpcHedgingInterceptor(Set.of("ExistsByUsername"), 2, 1.0, 1, 50);
+        UserServiceGrpc.UserServiceBlockingStub slowestStub =
+                UserServiceGrpc.newBlockingStub(ClientInterceptors.intercept(channel, slowest))
+                        .withDeadlineAfter(5, TimeUnit.SECONDS);
+        for (int i = 0; i < GrpcHedgingInterceptor.MIN_SAMPLES; i++) {
+            slowestStub.existsByUsername(ExistsByUsernameRequest.newBuilder().setUsername("u").build());
+        }
+
+        // The first call waited for the 50ms default delay before its hedge answered
+        long delay = slowest.delayNanos(EXISTS_BY_USERNAME);
+        assertTrue(delay >= TimeUnit.MILLISECONDS.toNanos(50), "the hedged call counts in full: " + delay);
+    }
+}
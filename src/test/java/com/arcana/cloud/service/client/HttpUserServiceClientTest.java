@@ -1,11 +1,15 @@
 package com.arcana.cloud.service.client;
 
+import com.arcana.cloud.controller.internal.InternalProtobufMessageConverter;
+import com.arcana.cloud.controller.internal.InternalUserController;
 import com.arcana.cloud.dto.response.ApiResponse;
 import com.arcana.cloud.dto.response.PagedResponse;
 import com.arcana.cloud.dto.response.UserResponse;
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
 import com.arcana.cloud.exception.ResourceNotFoundException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,9 +18,11 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.MockHttpOutputMessage;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 import java.util.Optional;
@@ -129,6 +135,37 @@ class HttpUserServiceClientTest {
             .isInstanceOf(IllegalStateException.class);
     }
 
+    @Test
+    void createUser_protobufErrorResponse_keepsMessage() throws Exception {
+        // What the service layer's converter writes for a rejected create
+        MockHttpOutputMessage error = new MockHttpOutputMessage();
+        new InternalProtobufMessageConverter(JsonMapper.builder().build()).write(ApiResponse.error("Username already exists"),
+            new ParameterizedTypeReference<ApiResponse<UserResponse>>() { }.getType(),
+            InternalProtobufMessageConverter.PROTOBUF, error);
+
+        MockWebServer serviceLayer = new MockWebServer();
+        serviceLayer.enqueue(new MockResponse()
+            .setResponseCode(400)
+            .setHeader("Content-Type", String.valueOf(error.getHeaders().getContentType()))
+            .setBody(error.getBodyAsString()));
+        serviceLayer.start();
+        try {
+            RestTemplate protobufRestTemplate = new RestTemplate();
+            protobufRestTemplate.getMessageConverters().addFirst(new InternalProtobufMessageConverter(JsonMapper.builder().build()));
+            ReflectionTestUtils.setField(client, "restTemplate", protobufRestTemplate);
+            ReflectionTestUtils.setField(client, "serviceUrl", serviceLayer.url("/").toString().replaceAll("/$", ""));
+
+            User newUser = User.builder().username("u").email("e@e.com").password("p").build();
+            assertThatThrownBy(() -> client.createUser(newUser))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Username already exists");
+            assertThat(serviceLayer.takeRequest().getHeader("Content-Type"))
+                .isEqualTo(InternalProtobufMessageConverter.PROTOBUF.toString());
+        } finally {
+            serviceLayer.shutdown();
+        }
+    }
+
     // ==================== getUserById ====================
 
     @Test
@@ -406,8 +443,7 @@ class HttpUserServiceClientTest {
 
     @Test
     void existsByUsername_exists_returnsTrue() {
-        HttpUserServiceClient.ExistsResponse existsResponse = new HttpUserServiceClient.ExistsResponse();
-        existsResponse.setExists(true);
+        InternalUserController.ExistsResponse existsResponse = new InternalUserController.ExistsResponse(true);
         ApiResponse<Object> apiResponse = ApiResponse.builder()
             .success(true)
             .data(existsResponse)
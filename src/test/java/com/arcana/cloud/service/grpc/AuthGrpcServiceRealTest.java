@@ -14,6 +14,7 @@ import com.arcana.cloud.grpc.RegisterRequest;
 import com.arcana.cloud.grpc.ValidateTokenRequest;
 import com.arcana.cloud.grpc.ValidateTokenResponse;
 import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.ParsedToken;
 import com.arcana.cloud.service.AuthService;
 import io.grpc.ManagedChannel;
 import io.grpc.Server;
@@ -29,6 +30,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -198,10 +200,8 @@ class AuthGrpcServiceRealTest {
     @Test
     @DisplayName("validateToken: valid token — all fields correctly serialized over wire")
     void validateToken_valid_realWire() {
-        when(tokenProvider.validateToken("valid_token")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("valid_token")).thenReturn(1L);
-        when(tokenProvider.getUsernameFromToken("valid_token")).thenReturn("testuser");
-        when(tokenProvider.getRoleFromToken("valid_token")).thenReturn("USER");
+        when(tokenProvider.parseToken("valid_token")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, "testuser", null, "USER", null, null, null)));
 
         ValidateTokenResponse resp = stub.validateToken(
                 ValidateTokenRequest.newBuilder().setToken("valid_token").build()
@@ -216,7 +216,7 @@ class AuthGrpcServiceRealTest {
     @Test
     @DisplayName("validateToken: invalid token → valid=false serialized over wire")
     void validateToken_invalid_realWire() {
-        when(tokenProvider.validateToken("bad_token")).thenReturn(false);
+        when(tokenProvider.parseToken("bad_token")).thenReturn(Optional.empty());
 
         ValidateTokenResponse resp = stub.validateToken(
                 ValidateTokenRequest.newBuilder().setToken("bad_token").build()
@@ -10,6 +10,7 @@ import com.arcana.cloud.grpc.LogoutResponse;
 import com.arcana.cloud.grpc.ValidateTokenRequest;
 import com.arcana.cloud.grpc.ValidateTokenResponse;
 import com.arcana.cloud.security.JwtTokenProvider;
+import com.arcana.cloud.security.ParsedToken;
 import com.arcana.cloud.service.AuthService;
 import io.grpc.stub.StreamObserver;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +21,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -271,10 +274,8 @@ class AuthGrpcServiceTest {
         @SuppressWarnings("unchecked")
         StreamObserver<ValidateTokenResponse> responseObserver = mock(StreamObserver.class);
 
-        when(tokenProvider.validateToken("valid_token")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("valid_token")).thenReturn(1L);
-        when(tokenProvider.getUsernameFromToken("valid_token")).thenReturn("testuser");
-        when(tokenProvider.getRoleFromToken("valid_token")).thenReturn("USER");
+        when(tokenProvider.parseToken("valid_token")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, "testuser", null, "USER", null, null, null)));
 
         authGrpcService.validateToken(request, responseObserver);
 
@@ -298,7 +299,7 @@ class AuthGrpcServiceTest {
         @SuppressWarnings("unchecked")
         StreamObserver<ValidateTokenResponse> responseObserver = mock(StreamObserver.class);
 
-        when(tokenProvider.validateToken("invalid_token")).thenReturn(false);
+        when(tokenProvider.parseToken("invalid_token")).thenReturn(Optional.empty());
 
         authGrpcService.validateToken(request, responseObserver);
 
@@ -318,7 +319,7 @@ class AuthGrpcServiceTest {
         @SuppressWarnings("unchecked")
         StreamObserver<ValidateTokenResponse> responseObserver = mock(StreamObserver.class);
 
-        when(tokenProvider.validateToken("error_token")).thenThrow(new RuntimeException("Parse error"));
+        when(tokenProvider.parseToken("error_token")).thenThrow(new RuntimeException("Parse error"));
 
         authGrpcService.validateToken(request, responseObserver);
 
@@ -337,10 +338,8 @@ class AuthGrpcServiceTest {
         @SuppressWarnings("unchecked")
         StreamObserver<ValidateTokenResponse> responseObserver = mock(StreamObserver.class);
 
-        when(tokenProvider.validateToken("valid_token")).thenReturn(true);
-        when(tokenProvider.getUserIdFromToken("valid_token")).thenReturn(1L);
-        when(tokenProvider.getUsernameFromToken("valid_token")).thenReturn(null);
-        when(tokenProvider.getRoleFromToken("valid_token")).thenReturn(null);
+        when(tokenProvider.parseToken("valid_token")).thenReturn(Optional.of(
+            new ParsedToken(null, 1L, null, null, null, null, null, null)));
 
         authGrpcService.validateToken(request, responseObserver);
 
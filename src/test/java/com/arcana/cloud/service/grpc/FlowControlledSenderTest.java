@@ -0,0 +1,83 @@
+package com.arcana.cloud.service.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FlowControlledSenderTest {
+
+    private ServerCallStreamObserver<String> observer;
+    private final AtomicBoolean ready = new AtomicBoolean();
+    private FlowControlledSender<String> sender;
+    private Runnable onReady;
+    private Runnable onCancel;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        observer = mock(ServerCallStreamObserver.class);
+        when(observer.isReady()).thenAnswer(invocation -> ready.get());
+        sender = new FlowControlledSender<>(observer);
+
+        ArgumentCaptor<Runnable> readyHandler = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Runnable> cancelHandler = ArgumentCaptor.forClass(Runnable.class);
+        verify(observer).setOnReadyHandler(readyHandler.capture());
+        verify(observer).setOnCancelHandler(cancelHandler.capture());
+        onReady = readyHandler.getValue();
+        onCancel = cancelHandler.getValue();
+    }
+
+    @Test
+    void testSend_WaitsUntilTheClientCanTakeMore() throws Exception {
+        CompletableFuture<Void> send = CompletableFuture.runAsync(() -> sender.accept("user"));
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        verify(observer, never()).onNext("user");
+        assertFalse(send.isDone());
+
+        ready.set(true);
+        onReady.run();
+
+        send.get(500, TimeUnit.MILLISECONDS);
+        verify(observer, timeout(500)).onNext("user");
+    }
+
+    @Test
+    void testSend_AfterCancelFails() {
+        onCancel.run();
+
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () -> sender.accept("user"));
+
+        assertEquals(Status.Code.CANCELLED, e.getStatus().getCode());
+        assertTrue(sender.isCancelled());
+        verify(observer, never()).onNext("user");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPlainObserver_SendsWithoutWaiting() {
+        StreamObserver<String> plain = mock(StreamObserver.class);
+
+        new FlowControlledSender<>(plain).accept("user");
+
+        verify(plain).onNext("user");
+    }
+}
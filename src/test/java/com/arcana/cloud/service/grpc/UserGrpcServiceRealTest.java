@@ -21,9 +21,13 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -217,6 +221,45 @@ class UserGrpcServiceRealTest {
         assertEquals(1, resp.getPageInfo().getTotalPages());
     }
 
+    // ─── streamUsers ───────────────────────────────────────────────────────────
+
+    @Test
+    @DisplayName("streamUsers: every user arrives in order under real flow control")
+    void streamUsers_flowControlled_realWire() throws Exception {
+        int total = 500;
+        when(userService.exportUsers(any())).thenAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(0);
+            for (long id = 1; id <= total; id++) {
+                action.accept(User.builder().id(id).username("user" + id).email("user" + id + "@example.com")
+                        .role(UserRole.USER).isActive(true).isVerified(false).build());
+            }
+            return (long) total;
+        });
+
+        // The server blocks while the client is not ready, so it needs its own threads here
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        String serverName = InProcessServerBuilder.generateName();
+        Server streamingServer = InProcessServerBuilder.forName(serverName)
+                .executor(executor)
+                .addService(new UserGrpcService(userService))
+                .build()
+                .start();
+        ManagedChannel streamingChannel = InProcessChannelBuilder.forName(serverName).build();
+        try {
+            Iterator<UserResponse> users = UserServiceGrpc.newBlockingStub(streamingChannel)
+                    .streamUsers(StreamUsersRequest.getDefaultInstance());
+            long expectedId = 1;
+            while (users.hasNext()) {
+                assertEquals(expectedId++, users.next().getId());
+            }
+            assertEquals(total + 1L, expectedId);
+        } finally {
+            streamingChannel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            streamingServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            executor.shutdownNow();
+        }
+    }
+
     // ─── existsByUsername / existsByEmail ──────────────────────────────────────
 
     @Test
@@ -2,7 +2,11 @@ package com.arcana.cloud.service.grpc;
 
 import com.arcana.cloud.entity.User;
 import com.arcana.cloud.entity.UserRole;
+import com.arcana.cloud.dto.response.CursorPage;
 import com.arcana.cloud.exception.ResourceNotFoundException;
+import com.arcana.cloud.exception.ValidationException;
+import com.arcana.cloud.grpc.BatchGetUsersRequest;
+import com.arcana.cloud.grpc.BatchGetUsersResponse;
 import com.arcana.cloud.grpc.CreateUserRequest;
 import com.arcana.cloud.grpc.DeleteUserRequest;
 import com.arcana.cloud.grpc.DeleteUserResponse;
@@ -14,9 +18,11 @@ import com.arcana.cloud.grpc.GetUserByUsernameRequest;
 import com.arcana.cloud.grpc.GetUserRequest;
 import com.arcana.cloud.grpc.ListUsersRequest;
 import com.arcana.cloud.grpc.ListUsersResponse;
+import com.arcana.cloud.grpc.StreamUsersRequest;
 import com.arcana.cloud.grpc.UpdateUserRequest;
 import com.arcana.cloud.grpc.UserResponse;
 import com.arcana.cloud.service.UserService;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,6 +38,7 @@ import org.springframework.data.domain.PageRequest;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -42,6 +49,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -345,6 +353,65 @@ class UserGrpcServiceTest {
         verify(responseObserver).onError(any());
     }
 
+    // ===== batchGetUsers =====
+
+    @Test
+    void testBatchGetUsers_Success() {
+        BatchGetUsersRequest request = BatchGetUsersRequest.newBuilder()
+            .addAllUserIds(List.of(1L, 2L))
+            .build();
+
+        @SuppressWarnings("unchecked")
+        StreamObserver<BatchGetUsersResponse> responseObserver = mock(StreamObserver.class);
+
+        when(userService.getUsersByIds(List.of(1L, 2L))).thenReturn(List.of(testUser));
+
+        userGrpcService.batchGetUsers(request, responseObserver);
+
+        ArgumentCaptor<BatchGetUsersResponse> captor = ArgumentCaptor.forClass(BatchGetUsersResponse.class);
+        verify(responseObserver).onNext(captor.capture());
+        verify(responseObserver).onCompleted();
+
+        assertEquals(1, captor.getValue().getUsersCount());
+        assertEquals(1L, captor.getValue().getUsers(0).getId());
+    }
+
+    @Test
+    void testBatchGetUsers_TooMany() {
+        BatchGetUsersRequest request = BatchGetUsersRequest.newBuilder().addUserIds(1L).build();
+
+        @SuppressWarnings("unchecked")
+        StreamObserver<BatchGetUsersResponse> responseObserver = mock(StreamObserver.class);
+
+        when(userService.getUsersByIds(any())).thenThrow(new ValidationException("too many"));
+
+        userGrpcService.batchGetUsers(request, responseObserver);
+
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        verify(responseObserver).onError(captor.capture());
+        assertEquals(Status.Code.INVALID_ARGUMENT, Status.fromThrowable(captor.getValue()).getCode());
+    }
+
+    // ===== streamUsers =====
+
+    @Test
+    void testStreamUsers_SendsEveryUserThenCompletes() {
+        @SuppressWarnings("unchecked")
+        StreamObserver<UserResponse> responseObserver = mock(StreamObserver.class);
+
+        when(userService.exportUsers(any())).thenAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(0);
+            action.accept(testUser);
+            action.accept(testUser);
+            return 2L;
+        });
+
+        userGrpcService.streamUsers(StreamUsersRequest.getDefaultInstance(), responseObserver);
+
+        verify(responseObserver, times(2)).onNext(any(UserResponse.class));
+        verify(responseObserver).onCompleted();
+    }
+
     // ===== listUsers =====
 
     @Test
@@ -394,6 +461,52 @@ class UserGrpcServiceTest {
         assertEquals(0, captor.getValue().getUsersCount());
     }
 
+    @Test
+    void testListUsers_AfterCursor() {
+        ListUsersRequest request = ListUsersRequest.newBuilder()
+            .setAfter("")
+            .setSize(10)
+            .build();
+
+        @SuppressWarnings("unchecked")
+        StreamObserver<ListUsersResponse> responseObserver = mock(StreamObserver.class);
+
+        when(userService.getUsersAfter("", 10, false)).thenReturn(CursorPage.<User>builder()
+            .content(List.of(testUser))
+            .size(10)
+            .nextCursor("next")
+            .build());
+
+        userGrpcService.listUsers(request, responseObserver);
+
+        ArgumentCaptor<ListUsersResponse> captor = ArgumentCaptor.forClass(ListUsersResponse.class);
+        verify(responseObserver).onNext(captor.capture());
+        verify(responseObserver).onCompleted();
+
+        assertEquals(1, captor.getValue().getUsersCount());
+        assertEquals("next", captor.getValue().getNextCursor());
+        assertFalse(captor.getValue().hasPageInfo());
+    }
+
+    @Test
+    void testListUsers_InvalidCursor() {
+        ListUsersRequest request = ListUsersRequest.newBuilder()
+            .setAfter("bogus")
+            .setSize(10)
+            .build();
+
+        @SuppressWarnings("unchecked")
+        StreamObserver<ListUsersResponse> responseObserver = mock(StreamObserver.class);
+
+        when(userService.getUsersAfter("bogus", 10, false)).thenThrow(new ValidationException("Invalid cursor"));
+
+        userGrpcService.listUsers(request, responseObserver);
+
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        verify(responseObserver).onError(captor.capture());
+        assertEquals(Status.Code.INVALID_ARGUMENT, Status.fromThrowable(captor.getValue()).getCode());
+    }
+
     @Test
     void testListUsers_Error() {
         ListUsersRequest request = ListUsersRequest.newBuilder()
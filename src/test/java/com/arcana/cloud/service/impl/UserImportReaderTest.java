@@ -0,0 +1,102 @@
+package com.arcana.cloud.service.impl;
+
+import com.arcana.cloud.dto.request.UserImportFormat;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserImportReaderTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Test
+    void testCsv_HeaderNamesAreNormalized() throws IOException {
+        List<UserImportReader.Row> rows = readAll(UserImportFormat.CSV,
+            "\uFEFFUsername,EMAIL,password,first_name\r\nalice,alice@example.com,secret123,Alice\r\n");
+
+        assertEquals(1, rows.size());
+        UserImportReader.Row row = rows.get(0);
+        assertEquals(2, row.line());
+        assertNull(row.error());
+        assertEquals("alice", row.get("username"));
+        assertEquals("alice@example.com", row.get("email"));
+        assertEquals("Alice", row.get("firstname"));
+    }
+
+    @Test
+    void testCsv_QuotedFieldsMayHoldCommasQuotesAndLineBreaks() throws IOException {
+        List<UserImportReader.Row> rows = readAll(UserImportFormat.CSV,
+            "username,lastName\n"
+                + "bob,\"Smith, \"\"Jr\"\"\"\n"
+                + "carol,\"two\nlines\"\n"
+                + "dave,Jones\n");
+
+        assertEquals(3, rows.size());
+        assertEquals("Smith, \"Jr\"", rows.get(0).get("lastname"));
+        assertEquals("two\nlines", rows.get(1).get("lastname"));
+        assertEquals(3, rows.get(1).line());
+        assertEquals(5, rows.get(2).line());
+    }
+
+    @Test
+    void testCsv_WrongColumnCountIsReportedAndSkipsBlankLines() throws IOException {
+        List<UserImportReader.Row> rows = readAll(UserImportFormat.CSV,
+            "username,email\n\nerin\nfrank,frank@example.com");
+
+        assertEquals(2, rows.size());
+        assertEquals(3, rows.get(0).line());
+        assertTrue(rows.get(0).error().contains("Expected 2 columns"));
+        assertEquals("frank@example.com", rows.get(1).get("email"));
+    }
+
+    @Test
+    void testNdjson_ObjectsPerLine() throws IOException {
+        List<UserImportReader.Row> rows = readAll(UserImportFormat.NDJSON,
+            "{\"username\":\"alice\",\"first_name\":\"Alice\",\"lastName\":null}\n"
+                + "\n"
+                + "{not json}\n"
+                + "[1,2]\n");
+
+        assertEquals(3, rows.size());
+        assertEquals("alice", rows.get(0).get("username"));
+        assertEquals("Alice", rows.get(0).get("firstname"));
+        assertNull(rows.get(0).get("lastname"));
+        assertEquals(3, rows.get(1).line());
+        assertEquals("Malformed JSON", rows.get(1).error());
+        assertEquals("Expected a JSON object", rows.get(2).error());
+    }
+
+    @Test
+    void testRowLongerThanMaximum_StopsReading() throws IOException {
+        UserImportReader csv = UserImportReader.open(UserImportFormat.CSV,
+            new StringReader("username,lastName\nbob,\"never closed\n" + "x".repeat(100)), jsonMapper, 64);
+        assertThrows(UserImportReader.RowTooLongException.class, csv::next);
+
+        UserImportReader ndjson = UserImportReader.open(UserImportFormat.NDJSON,
+            new StringReader("{\"username\":\"alice\"}\n{\"username\":\"" + "x".repeat(100) + "\"}\n"),
+            jsonMapper, 64);
+        assertEquals("alice", ndjson.next().get("username"));
+        UserImportReader.RowTooLongException tooLong =
+            assertThrows(UserImportReader.RowTooLongException.class, ndjson::next);
+        assertTrue(tooLong.getMessage().contains("line 2"));
+    }
+
+    private List<UserImportReader.Row> readAll(UserImportFormat format, String input) throws IOException {
+        UserImportReader reader = UserImportReader.open(format, new StringReader(input), jsonMapper, 65536);
+        List<UserImportReader.Row> rows = new ArrayList<>();
+        UserImportReader.Row row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
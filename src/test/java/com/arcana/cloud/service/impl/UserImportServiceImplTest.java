@@ -0,0 +1,217 @@
+package com.arcana.cloud.service.impl;
+
+import com.arcana.cloud.dto.request.UserImportFormat;
+import com.arcana.cloud.dto.response.UserImportJob;
+import com.arcana.cloud.entity.User;
+import com.arcana.cloud.entity.UserRole;
+import com.arcana.cloud.exception.TooManyRequestsException;
+import com.arcana.cloud.repository.UserRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UserImportServiceImplTest {
+
+    private static final String HEADER = "username,email,password,role\n";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private UserImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new UserImportServiceImpl(userRepository, passwordEncoder,
+            Validation.buildDefaultValidatorFactory().getValidator(), JsonMapper.builder().build());
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        ReflectionTestUtils.setField(importService, "hashParallelism", 2);
+        ReflectionTestUtils.setField(importService, "maxConcurrentJobs", 1);
+        importService.init();
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hashed:" + invocation.getArgument(0));
+        when(userRepository.findAllByUsernameOrEmail(anyCollection(), anyCollection())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImport_WritesInChunksWithHashedPasswords() throws Exception {
+        UserImportJob job = importAndWait(UserImportFormat.CSV, HEADER
+            + "alice,alice@example.com,password1,admin\n"
+            + "bob,bob@example.com,password2,\n"
+            + "carol,carol@example.com,password3,\n");
+
+        assertEquals(UserImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getProcessed());
+        assertEquals(3, job.getImported());
+        ArgumentCaptor<List<User>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, times(2)).insertAll(chunks.capture());
+        assertEquals(2, chunks.getAllValues().get(0).size());
+        assertEquals(1, chunks.getAllValues().get(1).size());
+        User alice = chunks.getAllValues().get(0).get(0);
+        assertEquals("hashed:password1", alice.getPassword());
+        assertEquals(UserRole.ADMIN, alice.getRole());
+        assertEquals(UserRole.USER, chunks.getAllValues().get(0).get(1).getRole());
+        verify(userRepository, times(2)).findAllByUsernameOrEmail(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void testImport_SkipsTakenAndRepeatedKeysAndReportsInvalidRows() throws Exception {
+        when(userRepository.findAllByUsernameOrEmail(anyCollection(), anyCollection())).thenReturn(List.of(
+            User.builder().username("Alice").email("someone@example.com").build()));
+
+        UserImportJob job = importAndWait(UserImportFormat.NDJSON,
+            "{\"username\":\"alice\",\"email\":\"alice@example.com\",\"password\":\"password1\"}\n"
+                + "{\"username\":\"bob\",\"email\":\"bob@example.com\",\"password\":\"password2\"}\n"
+                + "{\"username\":\"bobby\",\"email\":\"BOB@example.com\",\"password\":\"password3\"}\n"
+                + "{\"username\":\"x\",\"email\":\"not-an-email\",\"password\":\"password4\"}\n"
+                + "{\"username\":\"dave\",\"email\":\"dave@example.com\",\"password\":\"password5\",\"role\":\"root\"}\n");
+
+        assertEquals(UserImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(5, job.getProcessed());
+        assertEquals(1, job.getImported());
+        assertEquals(2, job.getSkipped());
+        assertEquals(2, job.getFailed());
+        List<UserImportJob.RowError> errors = job.getErrors();
+        assertTrue(errors.contains(new UserImportJob.RowError(1, "Username already exists")));
+        assertTrue(errors.contains(new UserImportJob.RowError(3, "Email already exists")));
+        assertTrue(errors.contains(new UserImportJob.RowError(5, "Unknown role: root")));
+        assertTrue(errors.stream().anyMatch(error -> error.line() == 4));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImport_ConstraintViolationRetriesRowByRow() throws Exception {
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            if (users.size() > 1 || users.get(0).getUsername().equals("bob")) {
+                throw new DuplicateKeyException("duplicate");
+            }
+            return null;
+        }).when(userRepository).insertAll(any(List.class));
+
+        UserImportJob job = importAndWait(UserImportFormat.CSV, HEADER
+            + "alice,alice@example.com,password1,\n"
+            + "bob,bob@example.com,password2,\n");
+
+        assertEquals(1, job.getImported());
+        assertEquals(1, job.getSkipped());
+        assertEquals(List.of(new UserImportJob.RowError(3, "Username or email already exists")), job.getErrors());
+        verify(userRepository, times(3)).insertAll(any(List.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStartImport_RefusedWhileAtCapacity() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(userRepository).insertAll(any(List.class));
+
+        UserImportJob running = importService.startImport(UserImportFormat.CSV,
+            upload(HEADER + "alice,alice@example.com,password1,\n"));
+        Path second = upload(HEADER + "bob,bob@example.com,password2,\n");
+        try {
+            assertThrows(TooManyRequestsException.class,
+                () -> importService.startImport(UserImportFormat.CSV, second));
+            assertFalse(Files.exists(second));
+        } finally {
+            release.countDown();
+        }
+        assertEquals(UserImportJob.Status.COMPLETED, await(running.getId()).getStatus());
+    }
+
+    @Test
+    void testImport_RowTooLongFailsJob() throws Exception {
+        ReflectionTestUtils.setField(importService, "maxRowLength", 64);
+
+        UserImportJob job = importAndWait(UserImportFormat.CSV, HEADER
+            + "alice,alice@example.com,\"password1\n" + "x".repeat(100));
+
+        assertEquals(UserImportJob.Status.FAILED, job.getStatus());
+        assertEquals("Row at line 2 is longer than 64 characters", job.getMessage());
+        verify(userRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void testInit_ClampsChunkSize() {
+        importService.shutdown();
+        ReflectionTestUtils.setField(importService, "chunkSize", 0);
+        importService.init();
+        assertEquals(1, ReflectionTestUtils.getField(importService, "chunkSize"));
+
+        importService.shutdown();
+        ReflectionTestUtils.setField(importService, "chunkSize", 100_000);
+        importService.init();
+        assertEquals(5000, ReflectionTestUtils.getField(importService, "chunkSize"));
+    }
+
+    @Test
+    void testGetImport_UnknownJob() {
+        assertTrue(importService.getImport("missing").isEmpty());
+    }
+
+    private UserImportJob importAndWait(UserImportFormat format, String content) throws Exception {
+        Path file = upload(content);
+        UserImportJob job = await(importService.startImport(format, file).getId());
+        assertFalse(Files.exists(file));
+        return job;
+    }
+
+    private UserImportJob await(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        UserImportJob job = importService.getImport(jobId).orElseThrow();
+        while (job.getStatus() == UserImportJob.Status.RUNNING && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+            job = importService.getImport(jobId).orElseThrow();
+        }
+        return job;
+    }
+
+    private static Path upload(String content) throws IOException {
+        Path file = Files.createTempFile("user-import-test-", ".tmp");
+        Files.writeString(file, content);
+        return file;
+    }
+}